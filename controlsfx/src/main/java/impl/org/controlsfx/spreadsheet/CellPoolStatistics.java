@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) 2018 ControlsFX
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of ControlsFX, any associated website, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL CONTROLSFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package impl.org.controlsfx.spreadsheet;
+
+/**
+ * Statistics about the pools of {@link CellView} kept by each
+ * {@link GridRowSkin} for the columns not displayed. They are shared by all
+ * the rows of a {@link GridViewSkin}.
+ *
+ * A low hit rate or a high number of created cells when scrolling
+ * horizontally means that the cells are created over and over, which is
+ * expensive since each one needs its skin and its CSS.
+ */
+public final class CellPoolStatistics {
+
+    private long hitCount;
+    private long createdCount;
+    private long evictedCount;
+    private int pooledCount;
+
+    CellPoolStatistics() {
+    }
+
+    /**
+     * Return the number of cells taken from a pool since the creation or the
+     * last {@link #resetCounts() }.
+     *
+     * @return the number of cells taken from a pool
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Return the number of cells created because no pool had one for the
+     * column, since the creation or the last {@link #resetCounts() }.
+     *
+     * @return the number of cells created
+     */
+    public long getCreatedCount() {
+        return createdCount;
+    }
+
+    /**
+     * Return the number of cells dropped from a pool because it was full,
+     * since the creation or the last {@link #resetCounts() }.
+     *
+     * @return the number of cells dropped
+     */
+    public long getEvictedCount() {
+        return evictedCount;
+    }
+
+    /**
+     * Return the proportion of the requested cells that were taken from a
+     * pool, between 0 and 1.
+     *
+     * @return the hit rate of the pools
+     */
+    public double getHitRate() {
+        long requests = hitCount + createdCount;
+        return requests == 0 ? 0 : hitCount / (double) requests;
+    }
+
+    /**
+     * Return the number of cells currently kept in all the pools.
+     *
+     * @return the number of cells currently pooled
+     */
+    public int getPooledCount() {
+        return pooledCount;
+    }
+
+    /**
+     * Reset the hit, created and evicted counters.
+     */
+    public void resetCounts() {
+        hitCount = 0;
+        createdCount = 0;
+        evictedCount = 0;
+    }
+
+    void hit() {
+        hitCount++;
+        pooledCount--;
+    }
+
+    void created() {
+        createdCount++;
+    }
+
+    void pooled() {
+        pooledCount++;
+    }
+
+    void evicted() {
+        evictedCount++;
+        pooledCount--;
+    }
+
+    void released(int count) {
+        pooledCount -= count;
+    }
+}
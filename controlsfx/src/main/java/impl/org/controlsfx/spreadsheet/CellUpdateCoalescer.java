@@ -0,0 +1,158 @@
+/**
+ * Copyright (c) 2018 ControlsFX
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of ControlsFX, any associated website, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL CONTROLSFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package impl.org.controlsfx.spreadsheet;
+
+import java.util.ArrayList;
+import java.util.List;
+import javafx.animation.AnimationTimer;
+
+/**
+ * Coalesces the text updates of the {@link CellView}s so that each cell is
+ * updated at most once per pulse, with the latest text of its
+ * {@link org.controlsfx.control.spreadsheet.SpreadsheetCell}, no matter how
+ * many times that text has changed in between.
+ *
+ * A cell is only marked dirty when its text changes, the dirty cells are kept
+ * in a plain list and they are all updated at the beginning of the next
+ * pulse, before the CSS and the layout. A cell showing another
+ * SpreadsheetCell before the pulse is no longer dirty, but stays in the list
+ * until the pulse. The list holds each cell only once, even if it becomes
+ * dirty again in the meantime.
+ *
+ * The counters can be used to know how many updates are received and how
+ * many of them are actually reaching the screen.
+ */
+public final class CellUpdateCoalescer {
+
+    private final List<CellView> dirtyCells = new ArrayList<>();
+    private long receivedCount;
+    private long appliedCount;
+    private boolean scheduled;
+
+    private final AnimationTimer pulse = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            stop();
+            scheduled = false;
+            flush();
+        }
+    };
+
+    CellUpdateCoalescer() {
+    }
+
+    /**
+     * Return the number of text updates received since the creation or the
+     * last {@link #resetCounts() }.
+     *
+     * @return the number of text updates received
+     */
+    public long getReceivedCount() {
+        return receivedCount;
+    }
+
+    /**
+     * Return the number of text updates actually applied on the cells since
+     * the creation or the last {@link #resetCounts() }.
+     *
+     * @return the number of text updates applied
+     */
+    public long getAppliedCount() {
+        return appliedCount;
+    }
+
+    /**
+     * Return the number of text updates that have been dropped, either
+     * because a newer one came before the pulse, or because the cell was
+     * showing another SpreadsheetCell by then.
+     *
+     * @return the number of text updates dropped
+     */
+    public long getDroppedCount() {
+        return receivedCount - appliedCount - getPendingCount();
+    }
+
+    /**
+     * Return the number of cells waiting for the next pulse.
+     *
+     * @return the number of cells waiting for the next pulse
+     */
+    public int getPendingCount() {
+        int count = 0;
+        for (CellView cell : dirtyCells) {
+            if (cell.textDirty) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Reset the received and applied counters.
+     */
+    public void resetCounts() {
+        receivedCount = getPendingCount();
+        appliedCount = 0;
+    }
+
+    /**
+     * Called when the text of the SpreadsheetCell shown by the given cell has
+     * changed.
+     *
+     * @param cell
+     */
+    void textChanged(CellView cell) {
+        receivedCount++;
+        cell.textDirty = true;
+        if (cell.inUpdateQueue) {
+            return;
+        }
+        cell.inUpdateQueue = true;
+        dirtyCells.add(cell);
+        if (!scheduled) {
+            scheduled = true;
+            pulse.start();
+        }
+    }
+
+    /**
+     * Apply right away the latest text of every dirty cell.
+     */
+    void flush() {
+        if (dirtyCells.isEmpty()) {
+            return;
+        }
+        List<CellView> cells = new ArrayList<>(dirtyCells);
+        dirtyCells.clear();
+        for (CellView cell : cells) {
+            cell.inUpdateQueue = false;
+            if (cell.applyPendingText()) {
+                appliedCount++;
+            }
+        }
+    }
+}
@@ -26,12 +26,11 @@
  */
 package impl.org.controlsfx.spreadsheet;
 
-import java.util.Objects;
 import java.util.Optional;
 import java.util.logging.Logger;
 import javafx.animation.FadeTransition;
 import javafx.application.Platform;
-import javafx.beans.binding.When;
+import javafx.beans.binding.Bindings;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
 import javafx.beans.value.WeakChangeListener;
@@ -53,6 +52,7 @@ import javafx.scene.control.TableView;
 import javafx.scene.control.TableView.TableViewFocusModel;
 import javafx.scene.control.TableView.TableViewSelectionModel;
 import javafx.scene.control.Tooltip;
+import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.input.DragEvent;
 import javafx.scene.input.Dragboard;
@@ -75,20 +75,28 @@ import org.controlsfx.control.spreadsheet.SpreadsheetView;
 public class CellView extends TableCell<ObservableList<SpreadsheetCell>, SpreadsheetCell> {
     final SpreadsheetHandle handle;
     /**
-     * Because we don't want to recreate Tooltip each time the TableCell is
-     * re-used. We save it properly here so we avoid recreating it each time
-     * since it's really time-consuming.
+     * The ImageView displaying the image of the SpreadsheetCell graphic, and
+     * the ImageView of the SpreadsheetCell it is currently bound to, see
+     * {@link #getImageView(ImageView) }.
      */
-    private Tooltip tooltip;
+    private ImageView imageView;
+    private ImageView imageModel;
     //Handler for drag n drop in lazy instantiation.
     private EventHandler<DragEvent> dragOverHandler;
     private EventHandler<DragEvent> dragDropHandler;
+    /**
+     * The SpreadsheetCell whose text is shown, whether that text has changed
+     * since, and whether this cell is waiting in the queue of the
+     * {@link CellUpdateCoalescer}.
+     */
+    private SpreadsheetCell textCell;
+    boolean textDirty;
+    boolean inUpdateQueue;
 
     /***************************************************************************
      * * Static Fields * *
      **************************************************************************/
     private static final String ANCHOR_PROPERTY_KEY = "table.anchor"; //$NON-NLS-1$
-    private static final int TOOLTIP_MAX_WIDTH = 400;
     private static final Duration FADE_DURATION = Duration.millis(200);
 
     static TablePositionBase<?> getAnchor(Control table, TablePositionBase<?> focusedCell) {
@@ -119,6 +127,7 @@ public class CellView extends TableCell<ObservableList<SpreadsheetCell>, Spreads
         // will be fired
         this.addEventHandler(MouseEvent.DRAG_DETECTED, new WeakEventHandler<>(startFullDragEventHandler));
         setOnMouseDragEntered(new WeakEventHandler<>(dragMouseEventHandler));
+        addEventHandler(MouseEvent.MOUSE_ENTERED, new WeakEventHandler<>(tooltipEventHandler));
 
         itemProperty().addListener(itemChangeListener);
     }
@@ -130,7 +139,7 @@ public class CellView extends TableCell<ObservableList<SpreadsheetCell>, Spreads
     public void startEdit() {
         /**
          * If this CellView has no parent, this means that it was stacked into
-         * the cellsMap of the GridRowSkin, but the weakRef was dropped. So this
+         * the cellsPool of the GridRowSkin, but was then evicted. So this
          * CellView is still reacting to events, but it's not part of the
          * sceneGraph! So we must deactivate this cell and let the real Cell in
          * the sceneGraph take the edition.
@@ -262,8 +271,7 @@ public class CellView extends TableCell<ObservableList<SpreadsheetCell>, Spreads
             updateSelected(false);
         }
         if (empty && emptyRow) {
-            textProperty().unbind();
-            setText(null);
+            showText(null);
         } else if (!isEditing() && item != null) {
             show(item);
             if (item.getGraphic() == null) {
@@ -279,7 +287,7 @@ public class CellView extends TableCell<ObservableList<SpreadsheetCell>, Spreads
      */
     public void show(final SpreadsheetCell cell) {
         // We reset the settings
-        textProperty().bind(cell.textProperty());
+        showText(cell);
         setCellGraphic(cell);
 
         Optional<String> tooltipText = cell.getTooltip();
@@ -287,33 +295,27 @@ public class CellView extends TableCell<ObservableList<SpreadsheetCell>, Spreads
         
         if (trimTooltip != null && !trimTooltip.isEmpty()) {
             /**
-             * Here we check if the Tooltip has not been created in order NOT TO
-             * re-create it for nothing as it is a really time-consuming
-             * operation.
+             * Creating a Tooltip is a really time-consuming operation. So all
+             * the cells are sharing the one of the SpreadsheetView, and its
+             * text is set when the mouse enters a cell.
              */
-            Tooltip localTooltip = getAvailableTooltip();
-            if (localTooltip != null) {
-                if (!Objects.equals(localTooltip.getText(), trimTooltip)) {
-                    getTooltip().setText(trimTooltip);
+            GridViewSkin skin = handle.getCellsViewSkin();
+            if (skin != null) {
+                Tooltip sharedTooltip = skin.getSharedTooltip();
+                if (getTooltip() != sharedTooltip) {
+                    setTooltip(sharedTooltip);
+                }
+                if (isHover()) {
+                    sharedTooltip.setText(trimTooltip);
                 }
             } else {
-                /**
-                 * Ensure that modification of ToolTip are set on the JFX thread
-                 * because an exception can be thrown otherwise.
-                 */
-                getValue(() -> {
-                    Tooltip newTooltip = new Tooltip(tooltipText.get());
-                    newTooltip.setWrapText(true);
-                    newTooltip.setMaxWidth(TOOLTIP_MAX_WIDTH);
-                    setTooltip(newTooltip);
+                //Without a skin yet, the cell uses a Tooltip of its own.
+                if (getTooltip() == null) {
+                    setTooltip(GridViewSkin.createTooltip());
                 }
-                );
-            }
-        } else {
-            //We save that tooltip
-            if(getTooltip() != null){
-                tooltip = getTooltip();
+                getTooltip().setText(trimTooltip);
             }
+        } else if (getTooltip() != null) {
             setTooltip(null);
         }
         
@@ -342,23 +344,6 @@ public class CellView extends TableCell<ObservableList<SpreadsheetCell>, Spreads
      * * Private Methods * *
      **************************************************************************/
 
-    /**
-     * See if a tootlip is available (either on the TableCell already, or in the
-     * Stack). And then set it to the TableCell.
-     *
-     * @return
-     */
-    private Tooltip getAvailableTooltip(){
-        if(getTooltip() != null){
-            return getTooltip();
-        }
-        if(tooltip != null){
-            setTooltip(tooltip);
-            return tooltip;
-        }
-        return null;
-    }
-    
     /**
      * Return true if this cell is the original cell (including filters) even
      * when scrolling.
@@ -384,20 +369,12 @@ public class CellView extends TableCell<ObservableList<SpreadsheetCell>, Spreads
             return;
         }
         Node graphic = item.getGraphic();
+        if (!(graphic instanceof ImageView)) {
+            releaseImageView();
+        }
         if (graphic != null) {
             if (graphic instanceof ImageView) {
-                ImageView image = (ImageView) graphic;
-                image.setCache(true);
-                image.setPreserveRatio(true);
-                image.setSmooth(true);
-                if(image.getImage() != null){
-                        image.fitHeightProperty().bind(
-                                new When(heightProperty().greaterThan(image.getImage().getHeight())).then(
-                                        image.getImage().getHeight()).otherwise(heightProperty()));
-                        image.fitWidthProperty().bind(
-                                new When(widthProperty().greaterThan(image.getImage().getWidth())).then(
-                                        image.getImage().getWidth()).otherwise(widthProperty()));
-                }
+                graphic = getImageView((ImageView) graphic);
                 /**
                  * If we have a Region and no text, we force it to take full
                  * space. But we want to impact the minSize in order to let the
@@ -423,6 +400,57 @@ public class CellView extends TableCell<ObservableList<SpreadsheetCell>, Spreads
         }
     }
 
+    /**
+     * The ImageView of a SpreadsheetCell is treated as an immutable
+     * description of the image to show, which is displayed with the ImageView
+     * of this cell. Thus the same ImageView can be shared by any number of
+     * SpreadsheetCell (like a flyweight), and the ImageView of this cell is
+     * only configured once.
+     *
+     * @param model the ImageView of the SpreadsheetCell
+     * @return the ImageView of this cell displaying the image of the model
+     */
+    private ImageView getImageView(ImageView model) {
+        if (imageView == null) {
+            imageView = new ImageView();
+            imageView.setCache(true);
+            imageView.setPreserveRatio(true);
+            imageView.setSmooth(true);
+            //The image takes its full size (never more) within the cell.
+            imageView.fitHeightProperty().bind(Bindings.createDoubleBinding(() -> {
+                Image image = imageView.getImage();
+                return image == null ? 0 : Math.min(image.getHeight(), getHeight());
+            }, imageView.imageProperty(), heightProperty()));
+            imageView.fitWidthProperty().bind(Bindings.createDoubleBinding(() -> {
+                Image image = imageView.getImage();
+                return image == null ? 0 : Math.min(image.getWidth(), getWidth());
+            }, imageView.imageProperty(), widthProperty()));
+        }
+        if (imageModel != model) {
+            imageModel = model;
+            imageView.imageProperty().bind(model.imageProperty());
+            imageView.viewportProperty().bind(model.viewportProperty());
+            imageView.effectProperty().bind(model.effectProperty());
+            imageView.opacityProperty().bind(model.opacityProperty());
+        }
+        return imageView;
+    }
+
+    /**
+     * Unbind the ImageView of this cell so that it does not retain the
+     * ImageView of a SpreadsheetCell no longer shown.
+     */
+    private void releaseImageView() {
+        if (imageModel != null) {
+            imageModel = null;
+            imageView.imageProperty().unbind();
+            imageView.viewportProperty().unbind();
+            imageView.effectProperty().unbind();
+            imageView.opacityProperty().unbind();
+            imageView.setImage(null);
+        }
+    }
+
     /**
      * Return an instance of Editor specific to the Cell type We are not using
      * the build-in editor-Cell because we cannot know in advance which editor
@@ -519,6 +547,20 @@ public class CellView extends TableCell<ObservableList<SpreadsheetCell>, Spreads
     };
 
     private final WeakChangeListener<Node> weakGraphicListener = new WeakChangeListener<>(graphicListener);
+
+    /**
+     * The Tooltip is shared by all the cells, so we give it the text of the
+     * cell the mouse is entering.
+     */
+    private final EventHandler<MouseEvent> tooltipEventHandler = new EventHandler<MouseEvent>() {
+        @Override
+        public void handle(MouseEvent event) {
+            if (getTooltip() != null && getItem() != null) {
+                Optional<String> tooltipText = getItem().getTooltip();
+                getTooltip().setText(tooltipText.isPresent() ? tooltipText.get().trim() : null);
+            }
+        }
+    };
     
     private final SetChangeListener<String> styleClassListener = new SetChangeListener<String>() {
         @Override
@@ -625,6 +667,54 @@ public class CellView extends TableCell<ObservableList<SpreadsheetCell>, Spreads
         }
     }
 
+    /**
+     * Called by the {@link CellUpdateCoalescer} once per pulse when the text
+     * of the SpreadsheetCell has changed.
+     *
+     * @return whether the text has been updated
+     */
+    boolean applyPendingText() {
+        if (!textDirty) {
+            return false;
+        }
+        textDirty = false;
+        setText(textCell == null ? null : textCell.getText());
+        return true;
+    }
+
+    /**
+     * Called when this cell is dropped from the pool of its row. It shows
+     * nothing anymore, stops following its SpreadsheetCell and leaves its
+     * row, column and TableView so that nothing keeps it alive.
+     */
+    void release() {
+        updateIndex(-1);
+        showText(null);
+        updateTableRow(null);
+        updateTableColumn(null);
+        updateTableView(null);
+    }
+
+    /**
+     * Show the text of the given SpreadsheetCell and follow its changes
+     * through the {@link CellUpdateCoalescer}.
+     *
+     * @param cell
+     */
+    private void showText(SpreadsheetCell cell) {
+        if (textCell != cell) {
+            if (textCell != null) {
+                textCell.textProperty().removeListener(weakTextListener);
+            }
+            textCell = cell;
+            if (cell != null) {
+                cell.textProperty().addListener(weakTextListener);
+            }
+        }
+        textDirty = false;
+        setText(cell == null ? null : cell.getText());
+    }
+
     @Override
     protected javafx.scene.control.Skin<?> createDefaultSkin() {
         return new CellViewSkin(this);
@@ -703,6 +793,21 @@ public class CellView extends TableCell<ObservableList<SpreadsheetCell>, Spreads
         }
     };
     private final WeakEventHandler weakActionhandler = new WeakEventHandler(actionEventHandler);
+
+    /**
+     * The text is not bound to the SpreadsheetCell text anymore, the changes
+     * are coalesced so that a cell changing many times between two pulses is
+     * only updated once.
+     */
+    private final ChangeListener<String> textListener = (ObservableValue<? extends String> observable, String oldValue, String newValue) -> {
+        GridViewSkin skin = handle.getCellsViewSkin();
+        if (skin != null) {
+            skin.getUpdateCoalescer().textChanged(this);
+        } else {
+            setText(newValue);
+        }
+    };
+    private final WeakChangeListener<String> weakTextListener = new WeakChangeListener<>(textListener);
     
     private void initStyleListener(){
         if(styleListener == null){
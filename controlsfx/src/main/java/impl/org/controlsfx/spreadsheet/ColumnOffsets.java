@@ -0,0 +1,198 @@
+/**
+ * Copyright (c) 2018 ControlsFX
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of ControlsFX, any associated website, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL CONTROLSFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package impl.org.controlsfx.spreadsheet;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.DoubleUnaryOperator;
+import javafx.beans.InvalidationListener;
+import javafx.beans.WeakInvalidationListener;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.collections.WeakListChangeListener;
+import javafx.scene.control.TableColumn;
+import org.controlsfx.control.spreadsheet.SpreadsheetCell;
+import org.controlsfx.control.spreadsheet.SpreadsheetColumn;
+import org.controlsfx.control.spreadsheet.SpreadsheetView;
+
+/**
+ * The horizontal offsets of the columns, shared by all the rows so that each
+ * row can find its first and last visible column with a binary search instead
+ * of testing every column on each layout.
+ *
+ * The offsets are the prefix sums of the snapped width of the visible columns.
+ * Since each row is removing its own horizontal padding from the width of the
+ * cells, the number of visible columns before each column is also kept. The
+ * whole index is lazily rebuilt when a column is added, removed, resized,
+ * hidden, shown, fixed or unfixed.
+ */
+final class ColumnOffsets {
+
+    private final SpreadsheetView spreadsheetView;
+    private final ObservableList<TableColumn<ObservableList<SpreadsheetCell>, ?>> columns;
+
+    /**
+     * offsets[i] is the sum of the snapped width of the visible columns
+     * before the column i, offsets has one more element than the columns.
+     */
+    private double[] offsets = new double[1];
+    /**
+     * visibleBefore[i] is the number of visible columns before the column i.
+     */
+    private int[] visibleBefore = new int[1];
+    private final BitSet fixedColumns = new BitSet();
+    private boolean valid;
+
+    private final InvalidationListener invalidationListener = (observable) -> {
+        valid = false;
+    };
+    private final WeakInvalidationListener weakInvalidationListener = new WeakInvalidationListener(invalidationListener);
+
+    private final ListChangeListener<TableColumn<ObservableList<SpreadsheetCell>, ?>> columnsListener = (change) -> {
+        while (change.next()) {
+            for (TableColumn<ObservableList<SpreadsheetCell>, ?> column : change.getRemoved()) {
+                column.widthProperty().removeListener(weakInvalidationListener);
+                column.visibleProperty().removeListener(weakInvalidationListener);
+            }
+            for (TableColumn<ObservableList<SpreadsheetCell>, ?> column : change.getAddedSubList()) {
+                column.widthProperty().addListener(weakInvalidationListener);
+                column.visibleProperty().addListener(weakInvalidationListener);
+            }
+        }
+        valid = false;
+    };
+
+    ColumnOffsets(SpreadsheetView spreadsheetView, SpreadsheetGridView gridView) {
+        this.spreadsheetView = spreadsheetView;
+        this.columns = gridView.getColumns();
+        for (TableColumn<ObservableList<SpreadsheetCell>, ?> column : columns) {
+            column.widthProperty().addListener(weakInvalidationListener);
+            column.visibleProperty().addListener(weakInvalidationListener);
+        }
+        columns.addListener(new WeakListChangeListener<>(columnsListener));
+        spreadsheetView.getFixedColumns().addListener(weakInvalidationListener);
+    }
+
+    /**
+     * Rebuild the offsets if needed.
+     *
+     * @param snap the snapping applied by the rows on the width of a column
+     */
+    void validate(DoubleUnaryOperator snap) {
+        if (valid) {
+            return;
+        }
+        final int columnCount = columns.size();
+        if (offsets.length != columnCount + 1) {
+            offsets = new double[columnCount + 1];
+            visibleBefore = new int[columnCount + 1];
+        }
+        for (int i = 0; i < columnCount; ++i) {
+            TableColumn<?, ?> column = columns.get(i);
+            if (column.isVisible()) {
+                offsets[i + 1] = offsets[i] + snap.applyAsDouble(column.getWidth());
+                visibleBefore[i + 1] = visibleBefore[i] + 1;
+            } else {
+                offsets[i + 1] = offsets[i];
+                visibleBefore[i + 1] = visibleBefore[i];
+            }
+        }
+        fixedColumns.clear();
+        List<SpreadsheetColumn> spreadsheetColumns = spreadsheetView.getColumns();
+        for (SpreadsheetColumn column : spreadsheetView.getFixedColumns()) {
+            int index = spreadsheetColumns.indexOf(column);
+            if (index >= 0) {
+                fixedColumns.set(index);
+            }
+        }
+        valid = true;
+    }
+
+    /**
+     * Return the x of the given column in a row starting at zero.
+     *
+     * @param column
+     * @param padding the snapped horizontal padding of the row, removed from
+     * the width of each cell
+     * @return the x of the given column
+     */
+    double getX(int column, double padding) {
+        return offsets[column] - visibleBefore[column] * padding;
+    }
+
+    /**
+     * Return the first column ending after the given x, or the column count
+     * if none.
+     *
+     * @param x
+     * @param padding the snapped horizontal padding of the row
+     * @return the first column ending after the given x
+     */
+    int getFirstColumn(double x, double padding) {
+        int low = 0;
+        int high = offsets.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (getX(middle + 1, padding) < x) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Return the last column starting before the given x, or -1 if none.
+     *
+     * @param x
+     * @param padding the snapped horizontal padding of the row
+     * @return the last column starting before the given x
+     */
+    int getLastColumn(double x, double padding) {
+        int low = -1;
+        int high = offsets.length - 2;
+        while (low < high) {
+            int middle = (low + high + 1) >> 1;
+            if (getX(middle, padding) <= x) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Return the fixed columns, by index.
+     *
+     * @return the fixed columns
+     */
+    BitSet getFixedColumns() {
+        return fixedColumns;
+    }
+}
@@ -29,11 +29,11 @@ package impl.org.controlsfx.spreadsheet;
 import com.sun.javafx.scene.control.behavior.CellBehaviorBase;
 import com.sun.javafx.scene.control.behavior.TableRowBehavior;
 import com.sun.javafx.scene.control.skin.CellSkinBase;
-import java.lang.ref.Reference;
-import java.lang.ref.WeakReference;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.BitSet;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -52,7 +52,18 @@ public class GridRowSkin extends CellSkinBase<TableRow<ObservableList<Spreadshee
     private final SpreadsheetHandle handle;
     private final SpreadsheetView spreadsheetView;
 
-    private Reference<HashMap<TableColumnBase, CellView>> cellsMap;
+    /**
+     * The minimum number of cells kept in {@link #cellsPool}.
+     */
+    private static final int MIN_POOL_CAPACITY = 32;
+
+    /**
+     * The cells not displayed, by column, in least recently used order. The
+     * pool is bounded by {@link #poolCapacity} so it does not need to rely on
+     * the GC to be trimmed.
+     */
+    private final LinkedHashMap<TableColumnBase, CellView> cellsPool = new LinkedHashMap<>(MIN_POOL_CAPACITY, 0.75f, true);
+    private int poolCapacity = MIN_POOL_CAPACITY;
 
     private final List<CellView> cells = new ArrayList<>();
 
@@ -175,39 +186,44 @@ public class GridRowSkin extends CellSkinBase<TableRow<ObservableList<Spreadshee
         double fixedColumnWidth = 0;
         List<CellView> fixedCells = new ArrayList();
 
+        /**
+         * We only lay out the columns inside the viewport, found with a binary
+         * search in the offsets shared by all the rows, and the fixed columns
+         * before them. A cell spanning several columns is laid out from its
+         * first column, even if that one is before the viewport.
+         */
+        final ColumnOffsets columnOffsets = skin.columnOffsets;
+        columnOffsets.validate(this::snapSize);
+        final double rowX = x;
+        final double padding = snapSize(horizontalPadding);
+        int firstColumn = columnOffsets.getFirstColumn(hbarValue - rowX, padding);
+        final int lastColumn = Math.min(columnOffsets.getLastColumn(hbarValue + headerWidth - rowX, padding),
+                Math.min(columns.size(), row.size()) - 1);
+        if (firstColumn <= lastColumn) {
+            firstColumn = Math.min(firstColumn, row.get(firstColumn).getColumn());
+        }
+        final BitSet fixedColumns = columnOffsets.getFixedColumns();
+
         //We compute the cells here
+        updatePoolCapacity(Math.max(0, lastColumn - firstColumn + 1) + fixedColumns.cardinality());
         putCellsInCache();
 
-        boolean firstVisibleCell = false;
         CellView lastCell = null;
         boolean needToBeShifted;
         boolean rowHeightChange = false;
         boolean isFixed;
-        for (int indexColumn = 0; indexColumn < columns.size(); indexColumn++) {
+        for (int indexColumn = nextColumnToLayout(-1, firstColumn, lastColumn, fixedColumns); indexColumn >= 0;
+                indexColumn = nextColumnToLayout(indexColumn, firstColumn, lastColumn, fixedColumns)) {
             //FIXME Problem qwith column span
             if(!skin.getSkinnable().getColumns().get(indexColumn).isVisible()){
                 continue;
             }
-            width = snapSize(columns.get(indexColumn).getWidth()) - snapSize(horizontalPadding);
-            //When setting a new grid with less columns, we may have this situation.
-            if (row.size() <= indexColumn) {
-                break;
-           }
+            x = rowX + columnOffsets.getX(indexColumn, padding);
+            width = snapSize(columns.get(indexColumn).getWidth()) - padding;
             final SpreadsheetCell spreadsheetCell = row.get(indexColumn);
             final int columnSpan = spreadsheetView.getColumnSpan(spreadsheetCell);
-            boolean isVisible = !isInvisible(x, width, hbarValue, headerWidth, columnSpan);
             isFixed = columns.get(indexColumn).isFixed();
-            if (isFixed) {
-                isVisible = true;
-            }
 
-            if (!isVisible) {
-                if (firstVisibleCell) {
-                    break;
-                }
-                x += width;
-                continue;
-            }
             final CellView tableCell = getCell(gridView.getColumns().get(indexColumn));
 
             cells.add(0, tableCell);
@@ -245,155 +261,150 @@ public class GridRowSkin extends CellSkinBase<TableRow<ObservableList<Spreadshee
                     tableCellX = Math.abs(hbarValue - x + fixedColumnWidth);
 //                	 tableCell.toFront();
                     fixedColumnWidth += width;
-//                    isVisible = true; // If in fixedColumn, it's obviously visible
                     fixedCells.add(tableCell);
                 }
             }
 
-            if (isVisible) {
-                final SpreadsheetView.SpanType spanType = spreadsheetView.getSpanType(index, indexColumn);
+            final SpreadsheetView.SpanType spanType = spreadsheetView.getSpanType(index, indexColumn);
 
-                switch (spanType) {
-                    case ROW_SPAN_INVISIBLE:
-                    case BOTH_INVISIBLE:
-                        fixedCells.remove(tableCell);
-                        getChildren().remove(tableCell);
+            switch (spanType) {
+                case ROW_SPAN_INVISIBLE:
+                case BOTH_INVISIBLE:
+                    fixedCells.remove(tableCell);
+                    getChildren().remove(tableCell);
 //                        cells.remove(tableCell);
-                        x += width;
-                        continue; // we don't want to fall through
-                    case COLUMN_SPAN_INVISIBLE:
-                        fixedCells.remove(tableCell);
-                        getChildren().remove(tableCell);
+                    x += width;
+                    continue; // we don't want to fall through
+                case COLUMN_SPAN_INVISIBLE:
+                    fixedCells.remove(tableCell);
+                    getChildren().remove(tableCell);
 //                        cells.remove(tableCell);
-                        continue; // we don't want to fall through
-                    case ROW_VISIBLE:
-                    case NORMAL_CELL: // fall through and carry on
-                        if (tableCell.getIndex() != index) {
-                            tableCell.updateIndex(index);
-                        } else {
-                            tableCell.updateItem(spreadsheetCell, false);
-                        }
-                        /**
-                         * Here we need to add the cells on the first position
-                         * because this row may contain some deported cells from
-                         * other rows in order to be on top in term of z-order.
-                         * So the cell we're currently adding must not recover
-                         * them. We must check that the parent is indeed the
-                         * getSkinnable because of the deportedCells.
-                         */
-                        if (!tableCell.isEditing() && tableCell.getParent() != getSkinnable()) {
-                            getChildren().add(0, tableCell);
-                        }
-                }
-
-                if (columnSpan > 1) {
+                    continue; // we don't want to fall through
+                case ROW_VISIBLE:
+                case NORMAL_CELL: // fall through and carry on
+                    if (tableCell.getIndex() != index) {
+                        tableCell.updateIndex(index);
+                    } else {
+                        tableCell.updateItem(spreadsheetCell, false);
+                    }
                     /**
-                     * we need to span multiple columns, so we sum up the width
-                     * of the additional columns, adding it to the width
-                     * variable
+                     * Here we need to add the cells on the first position
+                     * because this row may contain some deported cells from
+                     * other rows in order to be on top in term of z-order.
+                     * So the cell we're currently adding must not recover
+                     * them. We must check that the parent is indeed the
+                     * getSkinnable because of the deportedCells.
                      */
-                    final int max = skin.getSkinnable().getVisibleLeafColumns().size() - viewColumn;
-                    for (int i = 1, colSpan = columnSpan; i < colSpan && i < max; i++) {
-                        double tempWidth = snapSize(skin.getSkinnable().getVisibleLeafColumn(viewColumn + i).getWidth());
-                        width += tempWidth;
-                        if (increaseFixedWidth) {
-                            fixedColumnWidth += tempWidth;
-                        }
+                    if (!tableCell.isEditing() && tableCell.getParent() != getSkinnable()) {
+                        getChildren().add(0, tableCell);
                     }
-                }
+            }
 
+            if (columnSpan > 1) {
                 /**
-                 * If we are in autofit and the prefHeight of this cell is
-                 * superior to the default cell height. Then we will use this
-                 * new height for row's height.
-                 *
-                 * We then need to apply the value to previous cell, and also
-                 * layout the children because since we are layouting upward,
-                 * next rows needs to know that this row is bigger than usual.
+                 * we need to span multiple columns, so we sum up the width
+                 * of the additional columns, adding it to the width
+                 * variable
                  */
-                if (controlHeight == Grid.AUTOFIT && !tableCell.isEditing()) {
-                    //We have the problem when we are just one pixel short in height..
-                    double tempHeight = tableCell.prefHeight(width) + tableCell.snappedTopInset() + tableCell.snappedBottomInset();
-                    if (tempHeight > customHeight) {
-                        rowHeightChange = true;
-                        skin.rowHeightMap.put(spreadsheetCell.getRow(), tempHeight);
-                        for (CellView cell : cells) {
-                            /**
-                             * We need to add the difference between the
-                             * previous height and the new height. If we were
-                             * just setting the new height, the row spanning
-                             * cell would be shorter. That's why we need to use
-                             * the cell height.
-                             */
-                            cell.resize(cell.getWidth(), cell.getHeight() + (tempHeight - customHeight));
-                        }
-                        customHeight = tempHeight;
-                        skin.getFlow().layoutChildren();
+                final int max = skin.getSkinnable().getVisibleLeafColumns().size() - viewColumn;
+                for (int i = 1, colSpan = columnSpan; i < colSpan && i < max; i++) {
+                    double tempWidth = snapSize(skin.getSkinnable().getVisibleLeafColumn(viewColumn + i).getWidth());
+                    width += tempWidth;
+                    if (increaseFixedWidth) {
+                        fixedColumnWidth += tempWidth;
                     }
                 }
+            }
 
-                height = customHeight;
-                height = snapSize(height) - snapSize(verticalPadding);
-                /**
-                 * We need to span multiple rows, so we sum up the height of all
-                 * the rows. The height of the current row is ignored and the
-                 * whole value is computed.
-                 */
-                if (spreadsheetCell.getRowSpan() > 1) {
-                    int rowSpan = spreadsheetView.getRowSpan(spreadsheetCell, index);
-                    height = 0;
-                    /**
-                     * If the cell is displaying an Image with Span, we must
-                     * compute the total height possible otherwise the image
-                     * will be shrinking when scrolling down.
-                     */
-                    int reverseRowSpan = spreadsheetView.getReverseRowSpan(spreadsheetCell, index);
-                    int newIndex = index - reverseRowSpan;
-                    final int maxRow = newIndex + reverseRowSpan + rowSpan;
-                    for (int i = newIndex + 1; i < maxRow; ++i) {
-                        height += snapSize(skin.getRowHeight(i));
+            /**
+             * If we are in autofit and the prefHeight of this cell is
+             * superior to the default cell height. Then we will use this
+             * new height for row's height.
+             *
+             * We then need to apply the value to previous cell, and also
+             * layout the children because since we are layouting upward,
+             * next rows needs to know that this row is bigger than usual.
+             */
+            if (controlHeight == Grid.AUTOFIT && !tableCell.isEditing()) {
+                //We have the problem when we are just one pixel short in height..
+                double tempHeight = tableCell.prefHeight(width) + tableCell.snappedTopInset() + tableCell.snappedBottomInset();
+                if (tempHeight > customHeight) {
+                    rowHeightChange = true;
+                    skin.rowHeightMap.put(spreadsheetCell.getRow(), tempHeight);
+                    for (CellView cell : cells) {
+                        /**
+                         * We need to add the difference between the
+                         * previous height and the new height. If we were
+                         * just setting the new height, the row spanning
+                         * cell would be shorter. That's why we need to use
+                         * the cell height.
+                         */
+                        cell.resize(cell.getWidth(), cell.getHeight() + (tempHeight - customHeight));
                     }
+                    customHeight = tempHeight;
+                    skin.getFlow().layoutChildren();
                 }
+            }
 
-                //Fix for JDK-8146406
-                needToBeShifted = false;
-                /**
-                 * If the current cell has no left border, and the previous cell
-                 * had no right border. We may have the problem where there is a
-                 * tiny gap between the cells when scrolling horizontally. Thus
-                 * we must enlarge this cell a bit, and shift it a bit in order
-                 * to mask that gap. If the cell has a border defined, the
-                 * problem seems not to happen. If the cell is not added to its
-                 * parent, it has no border by default so we must not check it.
-                 */
-                if (lastCell != null
-                        && !hasRightBorder(lastCell)
-                        && !hasLeftBorder(tableCell)) {
-                    tableCell.resize(width + 1, height);
-                    needToBeShifted = true;
-                } else {
-                    tableCell.resize(width, height);
-                }
-                lastCell = tableCell;
-                // We want to place the layout always at the starting cell.
-                double spaceBetweenTopAndMe = 0;
+            height = customHeight;
+            height = snapSize(height) - snapSize(verticalPadding);
+            /**
+             * We need to span multiple rows, so we sum up the height of all
+             * the rows. The height of the current row is ignored and the
+             * whole value is computed.
+             */
+            if (spreadsheetCell.getRowSpan() > 1) {
+                int rowSpan = spreadsheetView.getRowSpan(spreadsheetCell, index);
+                height = 0;
                 /**
-                 * In case we have a rowSpan and an image, we will shift the
-                 * cell up so that it will always be displayed in full height.
+                 * If the cell is displaying an Image with Span, we must
+                 * compute the total height possible otherwise the image
+                 * will be shrinking when scrolling down.
                  */
-                if (spreadsheetCell.getRowSpan() > 1) {
-                    int reverseRowSpan = spreadsheetView.getReverseRowSpan(spreadsheetCell, index);
-                    int newIndex = index - reverseRowSpan;
-                    for (int p = newIndex + 1; p < index; ++p) {
-                        spaceBetweenTopAndMe += skin.getRowHeight(p);
-                    }
+                int reverseRowSpan = spreadsheetView.getReverseRowSpan(spreadsheetCell, index);
+                int newIndex = index - reverseRowSpan;
+                final int maxRow = newIndex + reverseRowSpan + rowSpan;
+                for (int i = newIndex + 1; i < maxRow; ++i) {
+                    height += snapSize(skin.getRowHeight(i));
                 }
+            }
 
-                tableCell.relocate(x + tableCellX + (needToBeShifted ? -1 : 0), snappedTopInset()
-                        - spaceBetweenTopAndMe + ((GridRow) getSkinnable()).verticalShift.get());
+            //Fix for JDK-8146406
+            needToBeShifted = false;
+            /**
+             * If the current cell has no left border, and the previous cell
+             * had no right border. We may have the problem where there is a
+             * tiny gap between the cells when scrolling horizontally. Thus
+             * we must enlarge this cell a bit, and shift it a bit in order
+             * to mask that gap. If the cell has a border defined, the
+             * problem seems not to happen. If the cell is not added to its
+             * parent, it has no border by default so we must not check it.
+             */
+            if (lastCell != null
+                    && !hasRightBorder(lastCell)
+                    && !hasLeftBorder(tableCell)) {
+                tableCell.resize(width + 1, height);
+                needToBeShifted = true;
             } else {
-                getChildren().remove(tableCell);
+                tableCell.resize(width, height);
             }
+            lastCell = tableCell;
+            // We want to place the layout always at the starting cell.
+            double spaceBetweenTopAndMe = 0;
+            /**
+             * In case we have a rowSpan and an image, we will shift the
+             * cell up so that it will always be displayed in full height.
+             */
+            if (spreadsheetCell.getRowSpan() > 1) {
+                int reverseRowSpan = spreadsheetView.getReverseRowSpan(spreadsheetCell, index);
+                int newIndex = index - reverseRowSpan;
+                for (int p = newIndex + 1; p < index; ++p) {
+                    spaceBetweenTopAndMe += skin.getRowHeight(p);
+                }
+            }
+
+            tableCell.relocate(x + tableCellX + (needToBeShifted ? -1 : 0), snappedTopInset()
+                    - spaceBetweenTopAndMe + ((GridRow) getSkinnable()).verticalShift.get());
             x += width;
         }
         skin.fixedColumnWidth = fixedColumnWidth;
@@ -514,33 +525,60 @@ public class GridRowSkin extends CellSkinBase<TableRow<ObservableList<Spreadshee
         }
     }
 
+    @Override
+    public void dispose() {
+        if (handle.getCellsViewSkin() != null) {
+            getPoolStatistics().released(cellsPool.size());
+        }
+        for (CellView cell : cellsPool.values()) {
+            cell.release();
+        }
+        cellsPool.clear();
+        super.dispose();
+    }
+
     /**
-     * Return the Cache. Here we use a WeakReference because the WeakHashMap is
-     * not working. TableCell added to it are not removed if the GC wants them.
-     * So we put the whole cache in WeakReference. In normal condition, the
-     * cache is not trashed that much and is efficient. In the case where the
-     * user scroll horizontally a lot, that cache can then be trashed in order
-     * to avoid OutOfMemoryError.
+     * The pool must be able to hold the cells filling the viewport width, and
+     * as many again so that scrolling horizontally back and forth is reusing
+     * cells instead of creating new ones.
      *
-     * @return
+     * @param viewportColumns the number of columns in the viewport, including
+     * the fixed ones
      */
-    private HashMap<TableColumnBase, CellView> getCellsMap() {
-        if (cellsMap == null || cellsMap.get() == null) {
-            HashMap<TableColumnBase, CellView> map = new HashMap<>();
-            cellsMap = new WeakReference<>(map);
-            return map;
-        }
-        return cellsMap.get();
+    private void updatePoolCapacity(int viewportColumns) {
+        poolCapacity = Math.max(MIN_POOL_CAPACITY, 2 * viewportColumns);
+    }
+
+    private CellPoolStatistics getPoolStatistics() {
+        return handle.getCellsViewSkin().getCellPoolStatistics();
     }
 
     /**
-     * This will put all current displayed cell into the cache.
+     * This will put all current displayed cell into the pool, and drop the
+     * least recently used ones if the pool is full. The dropped cells are
+     * released so that they stop following their SpreadsheetCell.
      */
     private void putCellsInCache() {
+        CellPoolStatistics statistics = getPoolStatistics();
         for (CellView cell : cells) {
-            getCellsMap().put(cell.getTableColumn(), cell);
+            if (cellsPool.put(cell.getTableColumn(), cell) == null) {
+                statistics.pooled();
+            }
         }
         cells.clear();
+        Iterator<CellView> iterator = cellsPool.values().iterator();
+        while (cellsPool.size() > poolCapacity && iterator.hasNext()) {
+            CellView cell = iterator.next();
+            if (cell.isEditing()) {
+                continue;
+            }
+            iterator.remove();
+            if (cell.getParent() == getSkinnable()) {
+                getChildren().remove(cell);
+            }
+            cell.release();
+            statistics.evicted();
+        }
     }
 
     /**
@@ -552,10 +590,11 @@ public class GridRowSkin extends CellSkinBase<TableRow<ObservableList<Spreadshee
      */
     private CellView getCell(TableColumnBase tcb) {
         TableColumn tableColumn = (TableColumn<CellView, ?>) tcb;
-        CellView cell;
-        if (getCellsMap().containsKey(tableColumn)) {
-            return getCellsMap().remove(tableColumn);
+        CellView cell = cellsPool.remove(tableColumn);
+        if (cell != null) {
+            getPoolStatistics().hit();
         } else {
+            getPoolStatistics().created();
             cell = (CellView) tableColumn.getCellFactory().call(tableColumn);
             cell.updateTableColumn(tableColumn);
             cell.updateTableView(tableColumn.getTableView());
@@ -573,25 +612,21 @@ public class GridRowSkin extends CellSkinBase<TableRow<ObservableList<Spreadshee
      */
     private double getFixedRowShift(int index) {
         double tableCellY = 0;
-        int positionY = spreadsheetView.getFixedRows().indexOf(spreadsheetView.getFilteredSourceIndex(index));
+        final GridViewSkin skin = handle.getCellsViewSkin();
+        int positionY = skin.getFixedRowPosition(spreadsheetView.getFilteredSourceIndex(index));
 
         //FIXME Integrate if fixedCellSize is enabled
         //Computing how much space we need to translate
-        //because each row has different space.
-        double space = 0;
-        for (int o = 0; o < positionY; ++o) {
-            if (!spreadsheetView.isRowHidden(o)) {
-                space += handle.getCellsViewSkin().getRowHeight(spreadsheetView.getFixedRows().get(o));
-            }
-        }
+        //because each row has different space. This is cached by the skin.
+        double space = positionY == -1 ? 0 : skin.getFixedRowSpace(positionY);
 
         //If true, this row is fixed
         if (positionY != -1 && getSkinnable().getLocalToParentTransform().getTy() <= space) {
             //This row is a bit hidden on top so we translate then for it to be fully visible
             tableCellY = space - getSkinnable().getLocalToParentTransform().getTy();
-            handle.getCellsViewSkin().getCurrentlyFixedRow().add(index);
+            skin.getCurrentlyFixedRow().add(index);
         } else {
-            handle.getCellsViewSkin().getCurrentlyFixedRow().remove(index);
+            skin.getCurrentlyFixedRow().remove(index);
         }
         return tableCellY;
     }
@@ -603,23 +638,29 @@ public class GridRowSkin extends CellSkinBase<TableRow<ObservableList<Spreadshee
      * @return
      */
     private double getTableRowHeight(int row) {
-        Double rowHeightCache = handle.getCellsViewSkin().rowHeightMap.get(spreadsheetView.getModelRow(row));
-        return rowHeightCache == null ? handle.getView().getGrid().getRowHeight(spreadsheetView.getModelRow(row)) : rowHeightCache;
+        return handle.getCellsViewSkin().rowHeights.getRawHeight(spreadsheetView.getModelRow(row));
     }
 
     /**
-     * Return true if the current cell is part of the sceneGraph.
+     * Return the next column to lay out after the given one: first the fixed
+     * columns before the viewport, then every column of the viewport.
      *
-     * @param x beginning of the cell
-     * @param width total width of the cell
-     * @param hbarValue
-     * @param headerWidth width of the visible portion of the tableView
-     * @param columnSpan
-     * @return
+     * @param previous the previous column laid out, or -1
+     * @param firstColumn the first column of the viewport
+     * @param lastColumn the last column of the viewport
+     * @param fixedColumns
+     * @return the next column to lay out, or -1 if none
      */
-    private boolean isInvisible(double x, double width, double hbarValue,
-            double headerWidth, int columnSpan) {
-        return (x + width < hbarValue && columnSpan == 1) || (x > hbarValue + headerWidth);
+    static int nextColumnToLayout(int previous, int firstColumn, int lastColumn, BitSet fixedColumns) {
+        int next = previous + 1;
+        if (next < firstColumn) {
+            int fixed = fixedColumns.nextSetBit(next);
+            if (fixed >= 0 && fixed < firstColumn) {
+                return fixed;
+            }
+            next = firstColumn;
+        }
+        return next <= lastColumn ? next : -1;
     }
 
     @Override
@@ -28,26 +28,34 @@ package impl.org.controlsfx.spreadsheet;
 
 import java.lang.reflect.Field;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 import javafx.beans.InvalidationListener;
 import javafx.beans.Observable;
+import javafx.beans.WeakInvalidationListener;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
 import javafx.collections.FXCollections;
 import javafx.collections.ListChangeListener;
+import javafx.collections.MapChangeListener;
 import javafx.collections.ObservableList;
 import javafx.collections.ObservableMap;
 import javafx.collections.ObservableSet;
 import javafx.collections.SetChangeListener;
 import javafx.event.EventHandler;
+import javafx.event.WeakEventHandler;
 import javafx.geometry.HPos;
+import javafx.geometry.Insets;
 import javafx.geometry.VPos;
 import javafx.scene.Node;
 import javafx.scene.control.IndexedCell;
@@ -60,13 +68,18 @@ import javafx.scene.control.TablePositionBase;
 import javafx.scene.control.TableRow;
 import javafx.scene.control.TableSelectionModel;
 import javafx.scene.control.TableView;
+import javafx.scene.control.Tooltip;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.Region;
+import javafx.scene.text.Font;
 import javafx.stage.Screen;
 import javafx.util.Callback;
 
 import org.controlsfx.control.spreadsheet.Grid;
+import org.controlsfx.control.spreadsheet.GridBase;
+import org.controlsfx.control.spreadsheet.GridChangeBatch;
 import org.controlsfx.control.spreadsheet.SpreadsheetCell;
+import org.controlsfx.control.spreadsheet.SpreadsheetCellBase;
 import org.controlsfx.control.spreadsheet.SpreadsheetColumn;
 import org.controlsfx.control.spreadsheet.SpreadsheetView;
 
@@ -100,6 +113,9 @@ public class GridViewSkin extends TableViewSkinBase<ObservableList<SpreadsheetCe
     // FIXME This should seriously be investigated ..
     private static final double DATE_CELL_MIN_WIDTH = 200 - Screen.getPrimary().getDpi();
 
+    /** Maximum width of the Tooltip shared by the cells. */
+    private static final int TOOLTIP_MAX_WIDTH = 400;
+
     static {
         double cell_size = 24.0;
         try {
@@ -143,9 +159,33 @@ public class GridViewSkin extends TableViewSkinBase<ObservableList<SpreadsheetCe
      */
     ObservableMap<Integer, Double> rowHeightMap = FXCollections.observableHashMap();
 
+    /**
+     * The height of each row, read from the Grid and the rowHeightMap, along
+     * with the vertical position of the rows.
+     */
+    final RowHeights rowHeights;
+
     /** The editor. */
     private GridCellEditor gridCellEditor;
 
+    /** Used to measure the text of the cells when fitting rows and columns. */
+    private final TextMeasurer textMeasurer = new TextMeasurer();
+
+    /** The style classes added to the cell measuring the text of the cells. */
+    private final Set<String> fitStyleClasses = new HashSet<>();
+
+    /** Used to update the text of the cells at most once per pulse. */
+    private final CellUpdateCoalescer updateCoalescer = new CellUpdateCoalescer();
+
+    /** The offsets of the columns, shared by all the rows. */
+    final ColumnOffsets columnOffsets;
+
+    /** The Tooltip shared by all the cells, lazily created. */
+    private Tooltip sharedTooltip;
+
+    /** Statistics of the cells pooled by the rows. */
+    private final CellPoolStatistics cellPoolStatistics = new CellPoolStatistics();
+
     protected final SpreadsheetHandle handle;
     protected SpreadsheetView spreadsheetView;
     protected VerticalHeader verticalHeader;
@@ -158,23 +198,35 @@ public class GridViewSkin extends TableViewSkinBase<ObservableList<SpreadsheetCe
     private ObservableSet<Integer> currentlyFixedRow = FXCollections.observableSet(new HashSet<Integer>());
 
     /**
-     * A list of Integer with the current selected Rows. This is useful for
-     * HorizontalHeader and VerticalHeader because they need to highlight when a
-     * selection is made.
+     * The current selected Rows. This is useful for HorizontalHeader and
+     * VerticalHeader because they need to highlight when a selection is made.
      */
-    private final ObservableList<Integer> selectedRows = FXCollections.observableArrayList();
+    private final SelectedIndexes selectedRows = new SelectedIndexes();
 
     /**
-     * A list of Integer with the current selected Columns. This is useful for
-     * HorizontalHeader and VerticalHeader because they need to highlight when a
-     * selection is made.
+     * The current selected Columns. This is useful for HorizontalHeader and
+     * VerticalHeader because they need to highlight when a selection is made.
      */
-    private final ObservableList<Integer> selectedColumns = FXCollections.observableArrayList();
+    private final SelectedIndexes selectedColumns = new SelectedIndexes();
 
     /**
      * The total height of the currently fixedRows.
      */
     private double fixedRowHeight = 0;
+    /**
+     * The height of each row in currentlyFixedRow, so that fixedRowHeight is
+     * only updated with the row added or removed.
+     */
+    private final Map<Integer, Double> fixedRowHeights = new HashMap<>();
+
+    /**
+     * The position of each fixed row in {@link SpreadsheetView#getFixedRows()},
+     * and the vertical space taken by the fixed rows before each position.
+     * They are computed lazily and dropped when the fixed rows, the hidden
+     * rows or the row heights are changing, not when scrolling.
+     */
+    private Map<Integer, Integer> fixedRowPositions;
+    private double[] fixedRowSpaces;
 
     /**
      * These variable try to optimize the layout of the rows in order not to layout
@@ -218,6 +270,7 @@ public class GridViewSkin extends TableViewSkinBase<ObservableList<SpreadsheetCe
         
         this.handle = handle;
         this.spreadsheetView = handle.getView();
+        rowHeights = new RowHeights(spreadsheetView, rowHeightMap, this::getItemCount);
         gridCellEditor = new GridCellEditor(handle);
         TableView<ObservableList<SpreadsheetCell>> tableView = handle.getGridView();
 
@@ -233,7 +286,13 @@ public class GridViewSkin extends TableViewSkinBase<ObservableList<SpreadsheetCe
 
         getCurrentlyFixedRow().addListener(currentlyFixedRowListener);
         spreadsheetView.getFixedRows().addListener(fixedRowsListener);
+        rowHeightMap.addListener((MapChangeListener.Change<? extends Integer, ? extends Double> change) -> {
+            rowHeights.rowHeightChanged(change);
+            invalidateFixedRows();
+            computeFixedRowHeight();
+        });
         spreadsheetView.getFixedColumns().addListener(fixedColumnsListener);
+        columnOffsets = new ColumnOffsets(spreadsheetView, handle.getGridView());
 
         init();
         /**
@@ -241,8 +300,17 @@ public class GridViewSkin extends TableViewSkinBase<ObservableList<SpreadsheetCe
          * spans and fixedRow may have changed.
          */
         handle.getView().gridProperty().addListener(rowToLayoutListener);
+        handle.getView().gridProperty().addListener(gridListener);
+        if (spreadsheetView.getGrid() != null) {
+            spreadsheetView.getGrid().addEventHandler(GridChangeBatch.GRID_CHANGE_BATCH_EVENT, weakGridChangeBatchHandler);
+            addGridHeightsListener(spreadsheetView.getGrid());
+        }
         handle.getView().hiddenRowsProperty().addListener(rowToLayoutListener);
         handle.getView().hiddenColumnsProperty().addListener(rowToLayoutListener);
+        tableView.itemsProperty().addListener(itemsListener);
+        if (tableView.getItems() != null) {
+            tableView.getItems().addListener(viewRowsListener);
+        }
         
         hBarValue = new BitSet(getItemCount());
         rowToLayout = initRowToLayoutBitSet();
@@ -309,8 +377,74 @@ public class GridViewSkin extends TableViewSkinBase<ObservableList<SpreadsheetCe
         @Override
         public void invalidated(Observable observable) {
             rowToLayout = initRowToLayoutBitSet();
+            rowHeights.invalidateViewRows();
+            invalidateFixedRows();
+        }
+    };
+
+    /**
+     * When the rows are sorted, added or removed, their vertical positions are
+     * changing.
+     */
+    private final InvalidationListener viewRowsListener = (Observable observable) -> {
+        rowHeights.invalidateViewRows();
+    };
+
+    private final ChangeListener<ObservableList<ObservableList<SpreadsheetCell>>> itemsListener = (ObservableValue<? extends ObservableList<ObservableList<SpreadsheetCell>>> observable,
+            ObservableList<ObservableList<SpreadsheetCell>> oldItems, ObservableList<ObservableList<SpreadsheetCell>> newItems) -> {
+        if (oldItems != null) {
+            oldItems.removeListener(viewRowsListener);
+        }
+        if (newItems != null) {
+            newItems.addListener(viewRowsListener);
+        }
+        rowHeights.invalidateViewRows();
+    };
+
+    /**
+     * When a batch of modifications is done on the Grid, the cells have
+     * already updated their text through the CellUpdateCoalescer. Only the
+     * selection rectangle is updated, once, if a visible row has been modified.
+     */
+    private final EventHandler<GridChangeBatch> gridChangeBatchHandler = (GridChangeBatch batch) -> {
+        refreshChangedRows(batch);
+    };
+    private final WeakEventHandler<GridChangeBatch> weakGridChangeBatchHandler = new WeakEventHandler<>(gridChangeBatchHandler);
+
+    /**
+     * The heights given by the Grid are read again when its rows or its height
+     * callback are changed.
+     */
+    private final InvalidationListener gridHeightsListener = (Observable observable) -> {
+        rowHeights.invalidateGridHeights();
+        invalidateFixedRows();
+        computeFixedRowHeight();
+        getFlow().requestLayout();
+    };
+    private final WeakInvalidationListener weakGridHeightsListener = new WeakInvalidationListener(gridHeightsListener);
+
+    private final ChangeListener<Grid> gridListener = (ObservableValue<? extends Grid> observable, Grid oldGrid, Grid newGrid) -> {
+        rowHeights.reset();
+        if (oldGrid != null) {
+            oldGrid.removeEventHandler(GridChangeBatch.GRID_CHANGE_BATCH_EVENT, weakGridChangeBatchHandler);
+            oldGrid.getRows().removeListener(weakGridHeightsListener);
+            if (oldGrid instanceof GridBase) {
+                ((GridBase) oldGrid).rowHeightCallbackProperty().removeListener(weakGridHeightsListener);
+            }
+        }
+        if (newGrid != null) {
+            newGrid.addEventHandler(GridChangeBatch.GRID_CHANGE_BATCH_EVENT, weakGridChangeBatchHandler);
+            addGridHeightsListener(newGrid);
         }
     };
+
+    private void addGridHeightsListener(Grid grid) {
+        grid.getRows().addListener(weakGridHeightsListener);
+        if (grid instanceof GridBase) {
+            ((GridBase) grid).rowHeightCallbackProperty().addListener(weakGridHeightsListener);
+        }
+    }
+
     /**
      * Compute the height of a particular row. If the row is in
      * {@link Grid#AUTOFIT}, {@link #DEFAULT_CELL_HEIGHT} is returned.
@@ -322,28 +456,76 @@ public class GridViewSkin extends TableViewSkinBase<ObservableList<SpreadsheetCe
         if (row == -1) {
             return DEFAULT_CELL_HEIGHT;
         }
-        Double rowHeightCache = rowHeightMap.get(spreadsheetView.getModelRow(row));
-        if (rowHeightCache == null) {
-            double rowHeight = handle.getView().getGrid().getRowHeight(spreadsheetView.getModelRow(row));
-            return rowHeight == Grid.AUTOFIT ? DEFAULT_CELL_HEIGHT : rowHeight;
-        } else {
-            return rowHeightCache;
-        }
+        return rowHeights.getHeight(spreadsheetView.getModelRow(row));
     }
 
     public double getFixedRowHeight() {
         return fixedRowHeight;
     }
 
+    /**
+     * Return the position of the given model row in
+     * {@link SpreadsheetView#getFixedRows()}, or -1 if it is not fixed.
+     *
+     * @param modelRow
+     * @return
+     */
+    int getFixedRowPosition(int modelRow) {
+        computeFixedRowSpaces();
+        Integer position = fixedRowPositions.get(modelRow);
+        return position == null ? -1 : position;
+    }
+
+    /**
+     * Return the vertical space taken by the fixed rows placed before the
+     * given position in {@link SpreadsheetView#getFixedRows()}.
+     *
+     * @param position
+     * @return
+     */
+    double getFixedRowSpace(int position) {
+        computeFixedRowSpaces();
+        return fixedRowSpaces[position];
+    }
+
+    private void computeFixedRowSpaces() {
+        final List<Integer> fixedRows = spreadsheetView.getFixedRows();
+        if (fixedRowSpaces == null || fixedRowSpaces.length != fixedRows.size() + 1) {
+            fixedRowPositions = new HashMap<>();
+            fixedRowSpaces = new double[fixedRows.size() + 1];
+            for (int o = 0; o < fixedRows.size(); ++o) {
+                //We keep the first position, like indexOf would.
+                fixedRowPositions.putIfAbsent(fixedRows.get(o), o);
+                fixedRowSpaces[o + 1] = fixedRowSpaces[o];
+                //The fixed rows are model rows.
+                if (!spreadsheetView.isRowHidden(fixedRows.get(o))) {
+                    fixedRowSpaces[o + 1] += rowHeights.getHeight(fixedRows.get(o));
+                }
+            }
+        }
+    }
+
+    /**
+     * Drop what has been computed for the fixed rows, because the fixed rows,
+     * the hidden rows or the row heights have changed.
+     */
+    void invalidateFixedRows() {
+        fixedRowPositions = null;
+        fixedRowSpaces = null;
+        if (getFlow() != null) {
+            getFlow().invalidateFixedRows();
+        }
+    }
+
     /**
      * Contains the index of the sortedList.
      * @return 
      */
-    public ObservableList<Integer> getSelectedRows() {
+    public SelectedIndexes getSelectedRows() {
         return selectedRows;
     }
 
-    public ObservableList<Integer> getSelectedColumns() {
+    public SelectedIndexes getSelectedColumns() {
         return selectedColumns;
     }
 
@@ -385,12 +567,10 @@ public class GridViewSkin extends TableViewSkinBase<ObservableList<SpreadsheetCe
      * @return
      */
     public int getFirstRow(SpreadsheetCell cell, int index) {
-        do {
-            --index;
-        } while (index >= 0
-                && spreadsheetView.getItems().get(index).get(cell.getColumn()) == cell);
-
-        return index + 1;
+        if (index < 0 || index >= spreadsheetView.getItems().size()) {
+            return index;
+        }
+        return index - spreadsheetView.getReverseRowSpan(cell, index) + 1;
     }
     
     /**
@@ -430,6 +610,51 @@ public class GridViewSkin extends TableViewSkinBase<ObservableList<SpreadsheetCe
         return false;
     }
 
+    /**
+     * Return the {@link CellUpdateCoalescer} updating the text of the cells,
+     * which gives access to the number of updates received and applied.
+     *
+     * @return the CellUpdateCoalescer of this skin
+     */
+    public CellUpdateCoalescer getUpdateCoalescer() {
+        return updateCoalescer;
+    }
+
+    /**
+     * Return the statistics of the {@link CellView} pools kept by the rows for
+     * the columns not displayed.
+     *
+     * @return the CellPoolStatistics of this skin
+     */
+    public CellPoolStatistics getCellPoolStatistics() {
+        return cellPoolStatistics;
+    }
+
+    /**
+     * Return the Tooltip shared by all the cells. Its text is set by each cell
+     * when the mouse enters it.
+     *
+     * @return the Tooltip shared by all the cells
+     */
+    Tooltip getSharedTooltip() {
+        if (sharedTooltip == null) {
+            sharedTooltip = createTooltip();
+        }
+        return sharedTooltip;
+    }
+
+    /**
+     * Create a Tooltip configured for the cells.
+     *
+     * @return a new Tooltip
+     */
+    static Tooltip createTooltip() {
+        Tooltip tooltip = new Tooltip();
+        tooltip.setWrapText(true);
+        tooltip.setMaxWidth(TOOLTIP_MAX_WIDTH);
+        return tooltip;
+    }
+
     public int getCellsSize() {
         return getFlow().getCells().size();
     }
@@ -452,12 +677,46 @@ public class GridViewSkin extends TableViewSkinBase<ObservableList<SpreadsheetCe
      */
     public void resizeRowsToFitContent() {
         Grid grid = spreadsheetView.getGrid();
-        int maxRows = handle.getView().getGrid().getRowCount();
+        int maxRows = grid.getRowCount();
+        BitSet rows = new BitSet(maxRows);
         for (int row = 0; row < maxRows; row++) {
             if (grid.isRowResizable(row)) {
-                resizeRowToFitContent(row);
+                rows.set(row);
             }
         }
+        resizeRowsToFitContent(rows);
+    }
+
+    /**
+     * Will compute the necessary height and fit the line only for the rows
+     * currently displayed (including the fixed rows). This is much cheaper
+     * than {@link #resizeRowsToFitContent() } on great grid.
+     */
+    public void resizeVisibleRowsToFitContent() {
+        Grid grid = spreadsheetView.getGrid();
+        BitSet rows = getDisplayedRows();
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            if (row >= grid.getRowCount() || !grid.isRowResizable(row)) {
+                rows.clear(row);
+            }
+        }
+        resizeRowsToFitContent(rows);
+    }
+
+    /**
+     * Return the model rows currently displayed, including the fixed rows.
+     *
+     * @return a new BitSet of the displayed model rows
+     */
+    public BitSet getDisplayedRows() {
+        BitSet rows = new BitSet(spreadsheetView.getGrid().getRowCount());
+        for (IndexedCell cell : getFlow().getCells()) {
+            addDisplayedRow(rows, cell);
+        }
+        for (IndexedCell cell : getFlow().getFixedCells()) {
+            addDisplayedRow(rows, cell);
+        }
+        return rows;
     }
     
     /**
@@ -467,31 +726,39 @@ public class GridViewSkin extends TableViewSkinBase<ObservableList<SpreadsheetCe
      * @param modelRow
      */
     public void resizeRowToFitContent(int modelRow) {
-        if(getSkinnable().getColumns().isEmpty()){
-            return;
-        }
-        final TableColumn<ObservableList<SpreadsheetCell>, ?> col = getSkinnable().getColumns().get(0);
-        List<?> items = itemsProperty().get();
-        if (items == null || items.isEmpty()) {
+        if (modelRow < 0 || modelRow >= spreadsheetView.getGrid().getRowCount()
+                || !spreadsheetView.getGrid().isRowResizable(modelRow)) {
             return;
         }
-        
-        if (!spreadsheetView.getGrid().isRowResizable(modelRow)) {
+        BitSet rows = new BitSet();
+        rows.set(modelRow);
+        resizeRowsToFitContent(rows);
+    }
+
+    /**
+     * Compute the necessary height of the given model rows and fit them.
+     *
+     * The cells displaying only some text are measured with the
+     * {@link TextMeasurer} so we don't need to lay out a cell for each of
+     * them. The CSS is only applied once per distinct style, and the same
+     * text with the same style is only measured once. The measure stays on
+     * the JavaFX thread since the text layout is not thread-safe. Cells with
+     * a graphic are still measured with a real cell.
+     *
+     * @param modelRows
+     */
+    private void resizeRowsToFitContent(BitSet modelRows) {
+        if (modelRows.isEmpty() || getSkinnable().getColumns().isEmpty()) {
             return;
         }
-        Callback/* <TableColumn<T, ?>, TableCell<T,?>> */ cellFactory = col.getCellFactory();
-        if (cellFactory == null) {
+        List<?> items = itemsProperty().get();
+        if (items == null || items.isEmpty()) {
             return;
         }
-
-        CellView cell = (CellView) cellFactory.call(col);
+        CellView cell = createFitCell(getSkinnable().getColumns().get(0));
         if (cell == null) {
             return;
         }
-
-        // set this property to tell the TableCell we want to know its actual
-        // preferred width, not the width of the associated TableColumnBase
-        cell.getProperties().put("deferToParentPrefWidth", Boolean.TRUE); //$NON-NLS-1$
         
         // determine cell padding
         double padding = 5;
@@ -502,42 +769,151 @@ public class GridViewSkin extends TableViewSkinBase<ObservableList<SpreadsheetCe
             padding = r.snappedTopInset() + r.snappedBottomInset();
         }
 
-        double maxHeight;
-        maxHeight = 0;
         getChildren().add(cell);
+        final Map<FitStyleKey, FitStyle> styles = new HashMap<>();
+        final List<FitRequest> requests = new ArrayList<>();
+        for (int modelRow = modelRows.nextSetBit(0); modelRow >= 0; modelRow = modelRows.nextSetBit(modelRow + 1)) {
+            requests.clear();
+            double height = collectRowFitRequests(cell, modelRow, items, styles, requests);
+            for (FitRequest request : requests) {
+                height = Math.max(height, request.getHeight(textMeasurer));
+            }
+            rowHeightMap.put(modelRow, height + padding);
+            Event.fireEvent(spreadsheetView, new SpreadsheetView.RowHeightEvent(modelRow, height + padding));
+        }
+        fitStyleClasses.clear();
+        getChildren().remove(cell);
+        // dispose of the cell to prevent it retaining listeners (see RT-31015)
+        cell.updateIndex(-1);
+
+        rectangleSelection.updateRectangle();
+    }
+
+    /**
+     * Go through the cells of the given model row. The text cells are added to
+     * the requests list in order to be measured later. The other cells are
+     * measured right away with the given cell.
+     *
+     * @return the maximum height of the cells measured right away.
+     */
+    private double collectRowFitRequests(CellView cell, int modelRow, List<?> items,
+            Map<FitStyleKey, FitStyle> styles, List<FitRequest> requests) {
+        final List<SpreadsheetCell> gridRow = spreadsheetView.getGrid().getRows().get(modelRow);
+        double maxHeight = 0;
         int columnSize = getSkinnable().getColumns().size();
-        for (int viewColumn = 0; viewColumn < columnSize; ++viewColumn) {
-            TableColumn column = getSkinnable().getColumns().get(viewColumn);
-            cell.updateTableColumn(column);
-            cell.updateTableView(handle.getGridView());
-            cell.updateIndex(modelRow);
-            SpreadsheetCell spc = cell.getItem();
+        for (int columnIndex = 0; columnIndex < columnSize && columnIndex < gridRow.size(); ++columnIndex) {
+            TableColumn column = getSkinnable().getColumns().get(columnIndex);
+            SpreadsheetCell spc = gridRow.get(columnIndex);
+            if (spc == null || spc.getColumn() != columnIndex) {
+                continue;
+            }
             double width = column.getWidth();
-            if (spc != null && spc.getColumn() == viewColumn && spc.getColumnSpan() > 1) {
+            if (spc.getColumnSpan() > 1) {
                 /**
                  * we need to span multiple columns, so we sum up the width of
                  * the additional columns, adding it to the width variable
                  */
-                final int max = getSkinnable().getVisibleLeafColumns().size() - viewColumn;
+                final int max = getSkinnable().getVisibleLeafColumns().size() - columnIndex;
                 for (int i = 1, colSpan = spc.getColumnSpan(); i < colSpan && i < max; i++) {
-                    double tempWidth = snapSize(getSkinnable().getVisibleLeafColumn(viewColumn + i).getWidth());
+                    double tempWidth = snapSize(getSkinnable().getVisibleLeafColumn(columnIndex + i).getWidth());
                     width += tempWidth;
                 }
             }
 
-            if (spc != null && spc.getColumn() == viewColumn && 
-                    ((cell.getText() != null && !cell.getText().isEmpty()) || cell.getGraphic() != null)) {
-                cell.setWrapText(true);
+            if (spc.getGraphic() == null) {
+                String text = spc.getText();
+                if (text != null && !text.isEmpty()) {
+                    requests.add(new FitRequest(getFitStyle(cell, spc, styles), text, width));
+                }
+            } else if (!spreadsheetView.getHiddenRows().get(modelRow)) {
+                /**
+                 * A graphic cannot be measured without a real cell, so we
+                 * display the cell in its view row in order to measure it.
+                 */
+                int viewRow = spreadsheetView.getViewRow(modelRow);
+                if (viewRow < 0 || viewRow >= items.size()) {
+                    continue;
+                }
+                cell.updateTableColumn(column);
+                cell.updateTableView(handle.getGridView());
+                cell.updateIndex(viewRow);
+                if (cell.getItem() == spc) {
+                    cell.setWrapText(true);
+                    cell.impl_processCSS(false);
+                    maxHeight = Math.max(maxHeight, cell.prefHeight(width));
+                }
+            }
+        }
+        return maxHeight;
+    }
 
-                cell.impl_processCSS(false);
-                maxHeight = Math.max(maxHeight, cell.prefHeight(width));
+    /**
+     * Create a cell that will be used to measure the content of the grid.
+     *
+     * @param col
+     * @return a cell, or null if the column cannot create one.
+     */
+    private CellView createFitCell(TableColumn<ObservableList<SpreadsheetCell>, ?> col) {
+        Callback/* <TableColumn<T, ?>, TableCell<T,?>> */ cellFactory = col.getCellFactory();
+        if (cellFactory == null) {
+            return null;
+        }
+
+        CellView cell = (CellView) cellFactory.call(col);
+        if (cell == null) {
+            return null;
+        }
+
+        // set this property to tell the TableCell we want to know its actual
+        // preferred width, not the width of the associated TableColumnBase
+        cell.getProperties().put("deferToParentPrefWidth", Boolean.TRUE); //$NON-NLS-1$
+        return cell;
+    }
+
+    /**
+     * Return the style that would be applied to a cell displaying the given
+     * {@link SpreadsheetCell}. The CSS is only processed the first time a
+     * combination of style classes and style is met.
+     */
+    private FitStyle getFitStyle(CellView cell, SpreadsheetCell spc, Map<FitStyleKey, FitStyle> styles) {
+        final Set<String> styleClass = spc instanceof SpreadsheetCellBase
+                ? ((SpreadsheetCellBase) spc).getStyleClassUnmodifiable() : spc.getStyleClass();
+        FitStyleKey key = new FitStyleKey(styleClass, spc.getStyle());
+        FitStyle style = styles.get(key);
+        if (style == null) {
+            /**
+             * Only the classes coming from the SpreadsheetCell are switched,
+             * the cell keeps its own style classes.
+             */
+            cell.getStyleClass().removeAll(fitStyleClasses);
+            fitStyleClasses.clear();
+            for (String name : styleClass) {
+                if (!cell.getStyleClass().contains(name)) {
+                    cell.getStyleClass().add(name);
+                    fitStyleClasses.add(name);
+                }
             }
+            cell.setStyle(spc.getStyle());
+            cell.setWrapText(true);
+            cell.impl_processCSS(false);
+            Insets insets = cell.getInsets();
+            Insets labelPadding = cell.getLabelPadding();
+            style = new FitStyle(cell.getFont(), cell.getLineSpacing(),
+                    insets.getLeft() + insets.getRight() + labelPadding.getLeft() + labelPadding.getRight(),
+                    insets.getTop() + insets.getBottom() + labelPadding.getTop() + labelPadding.getBottom());
+            styles.put(new FitStyleKey(new HashSet<>(styleClass), spc.getStyle()), style);
         }
-        getChildren().remove(cell);
-        rowHeightMap.put(modelRow, maxHeight + padding);
-        Event.fireEvent(spreadsheetView, new SpreadsheetView.RowHeightEvent(modelRow, maxHeight + padding));
+        return style;
+    }
 
-        rectangleSelection.updateRectangle();
+    private void addDisplayedRow(BitSet rows, IndexedCell cell) {
+        final int index = cell.getIndex();
+        if (index >= 0 && index < getItemCount()) {
+            int modelRow = spreadsheetView.getModelRow(index);
+            if (modelRow >= 0) {
+                rows.set(modelRow);
+            }
+        }
     }
     
     public void resizeRowsToMaximum() {
@@ -565,6 +941,8 @@ public class GridViewSkin extends TableViewSkinBase<ObservableList<SpreadsheetCe
     
     public void resizeRowsToDefault() {
         rowHeightMap.clear();
+        //The Grid may give other heights now.
+        rowHeights.reset();
         Grid grid = spreadsheetView.getGrid();
         /**
          * When resizing to default, we need to go through the visible rows in
@@ -601,6 +979,18 @@ public class GridViewSkin extends TableViewSkinBase<ObservableList<SpreadsheetCe
      */
     @Override
     public void resizeColumnToFitContent(TableColumn<ObservableList<SpreadsheetCell>, ?> tc, int maxRows) {
+        resizeColumnToFitContent(tc, maxRows, false);
+    }
+
+    /**
+     * Compute the best width for the given column.
+     *
+     * @param tc
+     * @param maxRows the number of rows to consider, -1 for all rows.
+     * @param sampled if true, the rows considered are spread evenly over the
+     * whole grid instead of being the first ones.
+     */
+    private void resizeColumnToFitContent(TableColumn<ObservableList<SpreadsheetCell>, ?> tc, int maxRows, boolean sampled) {
         
         final TableColumn<ObservableList<SpreadsheetCell>, ?> col = tc;
         List<?> items = itemsProperty().get();
@@ -608,13 +998,7 @@ public class GridViewSkin extends TableViewSkinBase<ObservableList<SpreadsheetCe
             return;
         }
 
-        Callback/* <TableColumn<T, ?>, TableCell<T,?>> */ cellFactory = col.getCellFactory();
-        if (cellFactory == null) {
-            return;
-        }
-
-        TableCell<ObservableList<SpreadsheetCell>, ?> cell = (TableCell<ObservableList<SpreadsheetCell>, ?>) cellFactory
-                .call(col);
+        CellView cell = createFitCell(col);
         if (cell == null) {
             return;
         }
@@ -638,20 +1022,14 @@ public class GridViewSkin extends TableViewSkinBase<ObservableList<SpreadsheetCe
          * But when we have a filter, an extra space will be already added so no
          * need to force this padding.
          */
-        double padding = spreadsheetView.getColumns().get(indexColumn).getFilter() != null ? 0 : 10;
+        final boolean hasFilter = spreadsheetView.getColumns().get(indexColumn).getFilter() != null;
+        double padding = hasFilter ? 0 : 10;
         Node n = cell.getSkin() == null ? null : cell.getSkin().getNode();
         if (n instanceof Region) {
             Region r = (Region) n;
             padding = r.snappedLeftInset() + r.snappedRightInset();
         }
 
-        
-        // set this property to tell the TableCell we want to know its actual
-        // preferred width, not the width of the associated TableColumnBase
-        cell.getProperties().put("deferToParentPrefWidth", Boolean.TRUE); //$NON-NLS-1$
-        
-        ObservableList<ObservableList<SpreadsheetCell>> gridRows = spreadsheetView.getGrid().getRows();//.get(row)
-        
         /**
          * If maxRows is -1, we take all rows. If it's 30, it means it's coming
          * from TableColumnHeader during initialization, so we push it to 100.
@@ -666,47 +1044,65 @@ public class GridViewSkin extends TableViewSkinBase<ObservableList<SpreadsheetCe
          * destroy the grid... So in that case, we manually set the skin...
          */
         if (cell.getSkin() == null) {
-            cell.setSkin(new CellViewSkin((CellView) cell));
+            cell.setSkin(new CellViewSkin(cell));
         }
 
-        for (int row = 0; row < rows; row++) {
-            cell.updateIndex(row);
-            
-            if ((cell.getText() != null && !cell.getText().isEmpty()) || cell.getGraphic() != null) {
-                getChildren().add(cell);
-
-                if (((SpreadsheetCell) cell.getItem()).getItem() instanceof LocalDate) {
-                    datePresent = true;
+        getChildren().add(cell);
+        final Map<FitStyleKey, FitStyle> styles = new HashMap<>();
+        for (int i = 0; i < rows; i++) {
+            int row = getFitRow(i, rows, items.size(), sampled);
+            SpreadsheetCell spc = ((List<SpreadsheetCell>) items.get(row)).get(indexColumn);
+            String text = spc.getText();
+            double width;
+            /**
+             * The cells displaying only some text are directly measured. The
+             * cell displaying the filter will automatically add the filter
+             * width so it must be measured with the real cell.
+             */
+            if (spc.getGraphic() == null
+                    && !(hasFilter && spreadsheetView.getModelRow(row) == spreadsheetView.getFilteredRow())) {
+                if (text == null || text.isEmpty()) {
+                    continue;
+                }
+                width = getFitStyle(cell, spc, styles).getWidth(textMeasurer, text);
+            } else {
+                cell.updateIndex(row);
+                if ((cell.getText() == null || cell.getText().isEmpty()) && cell.getGraphic() == null) {
+                    continue;
                 }
                 cell.impl_processCSS(false);
                 /**
                  * The cell will automatically add the filter width if
                  * necessary. The padding is also directly computed.
                  */
-                double width = cell.prefWidth(-1);
+                width = cell.prefWidth(-1);
+            }
+
+            if (spc.getItem() instanceof LocalDate) {
+                datePresent = true;
+            }
                
-                /**
-                 * If the cell is spanning in column, we need to take the other
-                 * columns into account in the calculation of the width. So we
-                 * compute the width needed by the cell and we substract the
-                 * other columns width.
-                 *
-                 * Also if the cell considered is not in the column, we still
-                 * have to compute because a previous column may have based its
-                 * calculation on the current width which will be modified.
-                 */
-                SpreadsheetCell spc = gridRows.get(row).get(indexColumn);
-                if (spreadsheetView.getColumnSpan(spc) > 1) {
-                    for (int i = spreadsheetView.getViewColumn(spc.getColumn()); i < spreadsheetView.getViewColumn(spc.getColumn()) + spreadsheetView.getColumnSpan(spc); ++i) {
-                        if(i != indexColumn){
-                            width -= spreadsheetView.getColumns().get(i).getWidth();
-                        }
+            /**
+             * If the cell is spanning in column, we need to take the other
+             * columns into account in the calculation of the width. So we
+             * compute the width needed by the cell and we substract the
+             * other columns width.
+             *
+             * Also if the cell considered is not in the column, we still
+             * have to compute because a previous column may have based its
+             * calculation on the current width which will be modified.
+             */
+            if (spreadsheetView.getColumnSpan(spc) > 1) {
+                for (int j = spreadsheetView.getViewColumn(spc.getColumn()); j < spreadsheetView.getViewColumn(spc.getColumn()) + spreadsheetView.getColumnSpan(spc); ++j) {
+                    if(j != indexColumn){
+                        width -= spreadsheetView.getColumns().get(j).getWidth();
                     }
                 }
-                maxWidth = Math.max(maxWidth, width);
-                getChildren().remove(cell);
             }
+            maxWidth = Math.max(maxWidth, width);
         }
+        fitStyleClasses.clear();
+        getChildren().remove(cell);
 
         // dispose of the cell to prevent it retaining listeners (see RT-31015)
         cell.updateIndex(-1);
@@ -762,10 +1158,50 @@ public class GridViewSkin extends TableViewSkinBase<ObservableList<SpreadsheetCe
         ((GridViewBehavior)getBehavior()).setGridViewSkin(this);
     }
 
+    /**
+     * Updates the selection rectangle if one of the displayed rows has been
+     * modified by the given batch. The rows are not laid out again here, each
+     * modified cell has already been refreshed on its own.
+     *
+     * @param batch
+     */
+    private void refreshChangedRows(GridChangeBatch batch) {
+        if (isRowChanged(getFlow().getCells(), batch) || isRowChanged(getFlow().getFixedCells(), batch)) {
+            rectangleSelection.updateRectangle();
+        }
+    }
+
+    private boolean isRowChanged(List<? extends IndexedCell> cells, GridChangeBatch batch) {
+        for (IndexedCell cell : cells) {
+            final int index = cell.getIndex();
+            if (index >= 0 && index < getItemCount() && batch.isRowChanged(spreadsheetView.getModelRow(index))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     protected final ObservableSet<Integer> getCurrentlyFixedRow() {
         return currentlyFixedRow;
     }
 
+    /**
+     * Return the row considered at the given step when fitting a column.
+     *
+     * @param i the step, between 0 and {@code rows}
+     * @param rows the number of rows considered
+     * @param itemCount the number of rows of the grid
+     * @param sampled if true, the rows are spread evenly over the whole grid,
+     * otherwise they are the first ones
+     * @return the row to measure
+     */
+    static int getFitRow(int i, int rows, int itemCount, boolean sampled) {
+        if (!sampled || rows <= 0 || rows >= itemCount) {
+            return i;
+        }
+        return (int) ((long) i * itemCount / rows);
+    }
+
     /**
      * Used in the HorizontalColumnHeader when we need to resize in double
      * click.
@@ -774,10 +1210,24 @@ public class GridViewSkin extends TableViewSkinBase<ObservableList<SpreadsheetCe
      * @param maxRows
      */
     public void resize(TableColumnBase<?, ?> tc, int maxRows) {
+        resize(tc, maxRows, false);
+    }
+
+    /**
+     * Resize the column to fit its content. This is used by
+     * {@link SpreadsheetColumn#fitColumn(int) } in order to fit a column of a
+     * great grid on a sample of its rows rather than on the first ones only.
+     *
+     * @param tc
+     * @param maxRows the number of rows to consider, -1 for all rows.
+     * @param sampled if true, the rows considered are spread evenly over the
+     * whole grid instead of being the first ones.
+     */
+    public void resize(TableColumnBase<?, ?> tc, int maxRows, boolean sampled) {
         if(tc.isResizable()){
             int columnIndex = getColumns().indexOf(tc);
             TableColumn tableColumn = getColumns().get(columnIndex);
-            resizeColumnToFitContent(tableColumn, maxRows);
+            resizeColumnToFitContent(tableColumn, maxRows, sampled);
             Event.fireEvent(spreadsheetView, new SpreadsheetView.ColumnWidthEvent(columnIndex, tableColumn.getWidth()));
         }
     }
@@ -1029,6 +1479,7 @@ public class GridViewSkin extends TableViewSkinBase<ObservableList<SpreadsheetCe
         @Override
         public void onChanged(Change<? extends Integer> c) {
             hBarValue.clear();
+            invalidateFixedRows();
             while (c.next()) {
                 if (c.wasPermutated()) {
                     for (Integer fixedRow : c.getList()) {
@@ -1067,8 +1518,21 @@ public class GridViewSkin extends TableViewSkinBase<ObservableList<SpreadsheetCe
      */
     private final SetChangeListener<? super Integer> currentlyFixedRowListener = new SetChangeListener<Integer>() {
         @Override
-        public void onChanged(javafx.collections.SetChangeListener.Change<? extends Integer> arg0) {
-            computeFixedRowHeight();
+        public void onChanged(javafx.collections.SetChangeListener.Change<? extends Integer> change) {
+            if (change.wasRemoved()) {
+                Double height = fixedRowHeights.remove(change.getElementRemoved());
+                if (height != null) {
+                    fixedRowHeight -= height;
+                }
+            }
+            if (change.wasAdded()) {
+                double height = getRowHeight(change.getElementAdded());
+                Double previousHeight = fixedRowHeights.put(change.getElementAdded(), height);
+                fixedRowHeight += previousHeight == null ? height : height - previousHeight;
+            }
+            if (fixedRowHeights.isEmpty()) {
+                fixedRowHeight = 0;
+            }
         }
     };
 
@@ -1078,8 +1542,11 @@ public class GridViewSkin extends TableViewSkinBase<ObservableList<SpreadsheetCe
      */
     public void computeFixedRowHeight() {
         fixedRowHeight = 0;
+        fixedRowHeights.clear();
         for (int i : getCurrentlyFixedRow()) {
-            fixedRowHeight += getRowHeight(i);
+            double height = getRowHeight(i);
+            fixedRowHeights.put(i, height);
+            fixedRowHeight += height;
         }
     }
 
@@ -1219,4 +1686,74 @@ public class GridViewSkin extends TableViewSkinBase<ObservableList<SpreadsheetCe
         }
         getHBar().setValue(value);
     }
+
+    /**
+     * The font and paddings of a cell, used to compute its best size from its
+     * text.
+     */
+    private static final class FitStyle {
+        private final Font font;
+        private final double lineSpacing;
+        private final double horizontalPadding;
+        private final double verticalPadding;
+
+        FitStyle(Font font, double lineSpacing, double horizontalPadding, double verticalPadding) {
+            this.font = font;
+            this.lineSpacing = lineSpacing;
+            this.horizontalPadding = horizontalPadding;
+            this.verticalPadding = verticalPadding;
+        }
+
+        double getHeight(TextMeasurer measurer, String text, double width) {
+            double wrappingWidth = Math.max(1, width - horizontalPadding);
+            return measurer.measure(text, font, wrappingWidth, lineSpacing)[1] + verticalPadding;
+        }
+
+        double getWidth(TextMeasurer measurer, String text) {
+            return measurer.measure(text, font, 0, lineSpacing)[0] + horizontalPadding;
+        }
+    }
+
+    private static final class FitStyleKey {
+        private final Set<String> styleClass;
+        private final String style;
+
+        FitStyleKey(Set<String> styleClass, String style) {
+            this.styleClass = styleClass;
+            this.style = style;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * styleClass.hashCode() + Objects.hashCode(style);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof FitStyleKey)) {
+                return false;
+            }
+            FitStyleKey other = (FitStyleKey) obj;
+            return styleClass.equals(other.styleClass) && Objects.equals(style, other.style);
+        }
+    }
+
+    /**
+     * A text that needs to be measured in a given width.
+     */
+    private static final class FitRequest {
+        private final FitStyle style;
+        private final String text;
+        private final double width;
+
+        FitRequest(FitStyle style, String text, double width) {
+            this.style = style;
+            this.text = text;
+            this.width = width;
+        }
+
+        double getHeight(TextMeasurer measurer) {
+            return style.getHeight(measurer, text, width);
+        }
+    }
 }
@@ -86,6 +86,25 @@ final class GridVirtualFlow<T extends IndexedCell<?>> extends VirtualFlow<T> {
      * That is to say, when the VirtualFlow has not already placed one.
      */
     private final ArrayList<T> myFixedCells = new ArrayList<>();
+    /**
+     * The rows, and their index, as they were when they were last sorted. As
+     * long as the VirtualFlow keeps the same rows at the same indexes, they
+     * are still in the right order and we don't need to push them to front
+     * again.
+     */
+    private final List<T> sortedRows = new ArrayList<>();
+    private int[] sortedIndexes = new int[0];
+    private int sortedChildrenCount = -1;
+    /**
+     * The state used by the last complete {@link #layoutFixedRows() }: the
+     * visible indexes in the viewport and the view index of each fixed row.
+     * When it has not changed, the fixed rows are already at the right place
+     * and a plain vertical scroll does not need to touch them.
+     */
+    private boolean fixedRowsDirty = true;
+    private int fixedRowsFirstIndex = -1;
+    private int fixedRowsLastIndex = -1;
+    private int[] fixedViewRows = new int[0];
     public final List<Node> sheetChildren;
     private StackPane corner;
     private Scale scale;
@@ -146,6 +165,7 @@ final class GridVirtualFlow<T extends IndexedCell<?>> extends VirtualFlow<T> {
         spreadSheetView.zoomFactorProperty().addListener((ObservableValue<? extends Number> observable, Number oldValue, Number newValue) -> {
             scale.setX(1 / newValue.doubleValue());
             scale.setY(1 / newValue.doubleValue());
+            invalidateFixedRows();
         });
 
        
@@ -167,6 +187,7 @@ final class GridVirtualFlow<T extends IndexedCell<?>> extends VirtualFlow<T> {
                 }
             }
             myFixedCells.removeAll(toRemove);
+            invalidateFixedRows();
         });
     }
 
@@ -181,12 +202,10 @@ final class GridVirtualFlow<T extends IndexedCell<?>> extends VirtualFlow<T> {
     public void scrollTo(int index) {
         //If we have some fixedRows, we check if the selected row is not below them
         if (!getCells().isEmpty() && !VerticalHeader.isFixedRowEmpty(spreadSheetView)) {
-            double offset = gridViewSkin.getFixedRowHeight();
-
-            while (offset >= 0 && index > 0) {
-                index--;
-                offset -= gridViewSkin.getRowHeight(index);
-            }
+            //We go up until the space taken by the fixed rows is passed.
+            final RowHeights rowHeights = gridViewSkin.rowHeights;
+            double y = rowHeights.getRowY(index) - gridViewSkin.getFixedRowHeight();
+            index = Math.min(index, rowHeights.getViewRow(y));
         }
         super.scrollTo(index);
 
@@ -207,6 +226,14 @@ final class GridVirtualFlow<T extends IndexedCell<?>> extends VirtualFlow<T> {
     List<T> getFixedCells(){
         return myFixedCells;
     }
+
+    /**
+     * Force the next layout to reconsider the fixed rows, because they have
+     * changed or their height has changed.
+     */
+    void invalidateFixedRows() {
+        fixedRowsDirty = true;
+    }
     /***************************************************************************
      * * Protected Methods * *
      **************************************************************************/
@@ -253,6 +280,7 @@ final class GridVirtualFlow<T extends IndexedCell<?>> extends VirtualFlow<T> {
             super.layoutChildren();
             layoutTotal();
             layoutFixedRows();
+            gridViewSkin.handle.publishStagedItems();
             
             /**
              * Sometimes, the visible amount is not computed when we have few
@@ -263,7 +291,9 @@ final class GridVirtualFlow<T extends IndexedCell<?>> extends VirtualFlow<T> {
                     && getVbar().isVisible()
                     && getCells().size() != getCellCount()) {
                 getVbar().setMax(1);
-                getVbar().setVisibleAmount(getCells().size() / (float) getCellCount());
+                double totalHeight = gridViewSkin.rowHeights.getTotalHeight();
+                getVbar().setVisibleAmount(totalHeight > 0 ? Math.min(1, getHeight() / totalHeight)
+                        : getCells().size() / (float) getCellCount());
             }
         }
         /**
@@ -421,8 +451,23 @@ final class GridVirtualFlow<T extends IndexedCell<?>> extends VirtualFlow<T> {
 
 		//We must have a cell in ViewPort because otherwise
         //we short-circuit the VirtualFlow.
-        if (!VerticalHeader.isFixedRowEmpty(spreadSheetView) && getFirstVisibleCellWithinViewPort() != null) {
+        final T firstCell = getFirstVisibleCellWithinViewPort();
+        if (!VerticalHeader.isFixedRowEmpty(spreadSheetView) && firstCell != null) {
             sortRows();
+            if (!isFixedRowsLayoutNeeded(firstCell)) {
+                /**
+                 * Nothing has moved regarding the fixed rows, we only need to
+                 * lay out again our rows that have not seen the horizontal
+                 * scrolling, like layoutTotal() does for the others.
+                 */
+                for (T row : myFixedCells) {
+                    int index = row.getIndex();
+                    if (row.isVisible() && index >= 0 && !gridViewSkin.hBarValue.get(index)) {
+                        row.requestLayout();
+                    }
+                }
+                return;
+            }
             /**
              * What I do is just going after the VirtualFlow in order to ADD
              * (not replace like before) new rows at the top.
@@ -506,9 +551,44 @@ final class GridVirtualFlow<T extends IndexedCell<?>> extends VirtualFlow<T> {
                 row.setVisible(true);
                 row.toFront();
                 row.requestLayout();
-                    }
-                }
-                }
+            }
+            //Our modifications of the children must not trigger a new sort.
+            sortedChildrenCount = sheetChildren.size();
+        }
+    }
+
+    /**
+     * Return true if the fixed rows must be entirely laid out, that is to say
+     * if they have been invalidated or if the visible indexes or the view
+     * index of a fixed row have changed since the last time. The state is
+     * then saved for the next call.
+     *
+     * @param firstCell
+     * @return
+     */
+    private boolean isFixedRowsLayoutNeeded(T firstCell) {
+        final List<Integer> fixedRows = spreadSheetView.getFixedRows();
+        final T lastCell = getLastVisibleCellWithinViewPort();
+        final int firstIndex = firstCell.getIndex();
+        final int lastIndex = lastCell == null ? -1 : lastCell.getIndex();
+
+        boolean needed = fixedRowsDirty || firstIndex != fixedRowsFirstIndex
+                || lastIndex != fixedRowsLastIndex || fixedRows.size() != fixedViewRows.length;
+        if (needed && fixedRows.size() != fixedViewRows.length) {
+            fixedViewRows = new int[fixedRows.size()];
+        }
+        for (int i = 0; i < fixedRows.size(); ++i) {
+            int viewRow = spreadSheetView.getFilteredRow(fixedRows.get(i));
+            if (fixedViewRows[i] != viewRow) {
+                fixedViewRows[i] = viewRow;
+                needed = true;
+            }
+        }
+        fixedRowsDirty = false;
+        fixedRowsFirstIndex = firstIndex;
+        fixedRowsLastIndex = lastIndex;
+        return needed;
+    }
 
     /**
      * Verify if the row has been added to myFixedCell
@@ -525,15 +605,44 @@ final class GridVirtualFlow<T extends IndexedCell<?>> extends VirtualFlow<T> {
         return null;
     }
     /**
-     * Sort the rows so that they stay in order for layout
+     * Sort the rows so that they stay in order for layout. This is only done
+     * if the rows have changed since the last sort, otherwise they are
+     * already in order.
      */
     private void sortRows() {
-        final List<GridRow> temp = (List<GridRow>) getCells();
-        final List<GridRow> tset = new ArrayList<>(temp);
+        final List<T> cells = getCells();
+        if (!isSortNeeded(cells)) {
+            return;
+        }
+        final List<GridRow> tset = new ArrayList<>((List<GridRow>) cells);
         Collections.sort(tset, ROWCMP);
         for (final TableRow<ObservableList<SpreadsheetCell>> r : tset) {
             r.toFront();
         }
+        sortedRows.clear();
+        sortedRows.addAll(cells);
+        if (sortedIndexes.length != cells.size()) {
+            sortedIndexes = new int[cells.size()];
+        }
+        for (int i = 0; i < cells.size(); ++i) {
+            sortedIndexes[i] = cells.get(i).getIndex();
+        }
+        sortedChildrenCount = sheetChildren.size();
+        //The fixed rows must be pushed to front again.
+        fixedRowsDirty = true;
+    }
+
+    private boolean isSortNeeded(List<T> cells) {
+        if (cells.size() != sortedRows.size() || sheetChildren.size() != sortedChildrenCount) {
+            return true;
+        }
+        for (int i = 0; i < cells.size(); ++i) {
+            T cell = cells.get(i);
+            if (cell != sortedRows.get(i) || cell.getIndex() != sortedIndexes[i]) {
+                return true;
+            }
+        }
+        return false;
     }
     
     private final ChangeListener<Number> hBarValueChangeListener = new ChangeListener<Number>() {
@@ -32,7 +32,6 @@ import com.sun.javafx.scene.control.skin.TableHeaderRow;
 import static impl.org.controlsfx.spreadsheet.GridViewSkin.DEFAULT_CELL_HEIGHT;
 import java.util.BitSet;
 import java.util.ConcurrentModificationException;
-import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javafx.application.Platform;
@@ -333,12 +332,11 @@ public class HorizontalHeader extends TableHeaderRow {
             i.getStyleClass().removeAll("selected"); //$NON-NLS-1$
 
         }
-        final List<Integer> selectedColumns = gridViewSkin.getSelectedColumns();
-        for (final Integer i : selectedColumns) {
-            if (getRootHeader().getColumnHeaders().size() > i) {
-                getRootHeader().getColumnHeaders().get(i).getStyleClass()
-                        .addAll("selected"); //$NON-NLS-1$
-            }
+        final SelectedIndexes selectedColumns = gridViewSkin.getSelectedColumns();
+        final int size = getRootHeader().getColumnHeaders().size();
+        for (int i = selectedColumns.nextSelected(0); i >= 0 && i < size; i = selectedColumns.nextSelected(i + 1)) {
+            getRootHeader().getColumnHeaders().get(i).getStyleClass()
+                    .addAll("selected"); //$NON-NLS-1$
         }
 
     }
@@ -27,10 +27,13 @@
 package impl.org.controlsfx.spreadsheet;
 
 import com.sun.javafx.scene.control.skin.TableColumnHeader;
-import java.util.Stack;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import javafx.beans.InvalidationListener;
 import javafx.beans.Observable;
 import javafx.event.EventHandler;
+import javafx.scene.Node;
 import javafx.scene.control.Label;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.Region;
@@ -45,16 +48,21 @@ import org.controlsfx.control.spreadsheet.SpreadsheetView;
  * which contain a inner Region that display the picker. In that way, we don't
  * need to re-layout every time but just "slide" the inner Region inside this
  * class so that the pickers are sliding along with the TableColumnHeaders.
+ *
+ * Only the pickers of the columns in the viewport have a Label. The Labels
+ * are recycled by position just like the VirtualFlow is doing with the rows,
+ * and a Label is only updated when it is given another picker or column.
  */
 public class HorizontalPicker extends StackPane {
 
     private static final String PICKER_INDEX = "PickerIndex"; //$NON-NLS-1$
+    private static final String COLUMN_HEADER_KEY = "ColumnHeader"; //$NON-NLS-1$
 
     private final HorizontalHeader horizontalHeader;
 
     private final SpreadsheetView spv;
-    private final Stack<Label> pickerPile;
-    private final Stack<Label> pickerUsed;
+    private final List<Label> pickerList = new ArrayList<>();
+    private int pickerCount = 0;
 
     private final InnerHorizontalPicker innerPicker = new InnerHorizontalPicker();
 
@@ -62,9 +70,6 @@ public class HorizontalPicker extends StackPane {
         this.horizontalHeader = horizontalHeader;
         this.spv = spv;
 
-        pickerPile = new Stack<>();
-        pickerUsed = new Stack<>();
-
         //Clip this StackPane just like the TableHeaderRow.
         Rectangle clip = new Rectangle();
         clip.setSmooth(true);
@@ -83,7 +88,8 @@ public class HorizontalPicker extends StackPane {
         //Just relocate the inner for sliding.
         innerPicker.relocate(horizontalHeader.getRootHeader().getLayoutX(), snappedTopInset());
         //We must turn off pickers that are behind fixed columns
-        for (Label label : pickerUsed) {
+        for (int i = 0; i < pickerCount; ++i) {
+            Label label = pickerList.get(i);
             label.setVisible(label.getLayoutX() + innerPicker.getLayoutX() + label.getWidth() > horizontalHeader.gridViewSkin.fixedColumnWidth);
         }
     }
@@ -93,19 +99,26 @@ public class HorizontalPicker extends StackPane {
      */
     public void updateScrollX() {
         requestLayout();
+        //Other pickers may come into the viewport.
+        if (!spv.getColumnPickers().isEmpty()) {
+            innerPicker.requestLayout();
+        }
     }
 
     private Label getPicker(Picker picker) {
         Label pickerLabel;
-        if (pickerPile.isEmpty()) {
+        if (pickerList.size() <= pickerCount) {
             pickerLabel = new Label();
             pickerLabel.getStyleClass().addListener(layoutListener);
             pickerLabel.setOnMouseClicked(pickerMouseEvent);
+            pickerList.add(pickerLabel);
         } else {
-            pickerLabel = pickerPile.pop();
+            pickerLabel = pickerList.get(pickerCount);
+        }
+        ++pickerCount;
+        if (!pickerLabel.getStyleClass().equals(picker.getStyleClass())) {
+            pickerLabel.getStyleClass().setAll(picker.getStyleClass());
         }
-        pickerUsed.push(pickerLabel);
-        pickerLabel.getStyleClass().setAll(picker.getStyleClass());
         pickerLabel.getProperties().put(PICKER_INDEX, picker);
         return pickerLabel;
     }
@@ -121,29 +134,43 @@ public class HorizontalPicker extends StackPane {
      */
     private class InnerHorizontalPicker extends Region {
 
+        private final List<Node> layoutNodes = new ArrayList<>();
+
         @Override
         protected void layoutChildren() {
-            pickerPile.addAll(pickerUsed.subList(0, pickerUsed.size()));
-            //Unbind every picker used before setting new ones.
-            for (Label label : pickerUsed) {
-                label.layoutXProperty().unbind();
+            pickerCount = 0;
+            layoutNodes.clear();
+
+            List<TableColumnHeader> columnHeaders = horizontalHeader.getRootHeader().getColumnHeaders();
+            //The viewport, in our coordinates.
+            double start = -getLayoutX();
+            double end = start + horizontalHeader.getWidth();
+            for (Map.Entry<Integer, Picker> entry : spv.getColumnPickers().entrySet()) {
+                int index = spv.getViewColumn(entry.getKey());
+                if (index < 0 || index >= columnHeaders.size()) {
+                    continue;
+                }
+                TableColumnHeader column = columnHeaders.get(index);
+                if (column.getLayoutX() + column.getWidth() < start || column.getLayoutX() > end) {
+                    continue;
+                }
+                Label label = getPicker(entry.getValue());
                 label.setVisible(true);
-            }
-            pickerUsed.clear();
-
-            getChildren().clear();
-            int index = 0;
-            int modelColumn;
-            for (TableColumnHeader column : horizontalHeader.getRootHeader().getColumnHeaders()) {
-                modelColumn = spv.getModelColumn(index);
-                if (spv.getColumnPickers().containsKey(modelColumn)) {
-                    Label label = getPicker(spv.getColumnPickers().get(modelColumn));
-                    label.resize(column.getWidth(), VerticalHeader.PICKER_SIZE);
+                label.resize(column.getWidth(), VerticalHeader.PICKER_SIZE);
+                if (label.getProperties().put(COLUMN_HEADER_KEY, column) != column) {
                     label.layoutXProperty().bind(column.layoutXProperty());
-
-                    getChildren().add(0, label);
                 }
-                index++;
+                layoutNodes.add(label);
+            }
+            for (int i = pickerCount; i < pickerList.size(); ++i) {
+                Label label = pickerList.get(i);
+                if (label.getProperties().remove(COLUMN_HEADER_KEY) != null) {
+                    label.layoutXProperty().unbind();
+                }
+            }
+
+            if (!getChildren().equals(layoutNodes)) {
+                getChildren().setAll(layoutNodes);
             }
         }
     }
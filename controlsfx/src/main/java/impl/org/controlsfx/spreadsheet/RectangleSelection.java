@@ -38,6 +38,7 @@ import javafx.scene.control.TablePosition;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.shape.Rectangle;
 import org.controlsfx.control.spreadsheet.ClipboardCell;
+import org.controlsfx.control.spreadsheet.GridBase;
 import org.controlsfx.control.spreadsheet.SpreadsheetCell;
 import org.controlsfx.control.spreadsheet.SpreadsheetColumn;
 import org.controlsfx.control.spreadsheet.SpreadsheetView;
@@ -63,7 +64,7 @@ public class RectangleSelection extends Rectangle {
         this.selectedCellListener = (Observable observable) -> {
             skin.getHorizontalHeader().clearSelectedColumns();
             skin.verticalHeader.clearSelectedRows();
-            selectionRange.fill(sm.getSelectedCells(), skin.spreadsheetView);
+            selectionRange.fill(sm, skin.spreadsheetView);
             updateRectangle();
         };
         skin.getVBar().valueProperty().addListener(layoutListener);
@@ -359,6 +360,70 @@ public class RectangleSelection extends Rectangle {
             computeRange();
         }
 
+        /**
+         * Construct a SelectionRange with the selection of the given
+         * selection model. If the selection is made of one range, it is used
+         * directly instead of going through every selected cell.
+         *
+         * @param sm
+         * @param spv
+         */
+        public void fill(TableViewSpanSelectionModel sm, SpreadsheetView spv) {
+            final List<GridRange> ranges = sm.getSelectedRanges();
+            if (ranges.size() != 1) {
+                fill(sm.getSelectedCells(), spv);
+                return;
+            }
+            set.clear();
+            range = null;
+            final GridRange selectedRange = ranges.get(0);
+            if (spv.getGrid() instanceof GridBase) {
+                if (isDisplaySelection((GridBase) spv.getGrid(), selectedRange, spv)) {
+                    range = selectedRange;
+                }
+                return;
+            }
+            for (int row = selectedRange.getTop(); row <= selectedRange.getBottom(); ++row) {
+                final int modelRow = spv.getModelRow(row);
+                for (int column = selectedRange.getLeft(); column <= selectedRange.getRight(); ++column) {
+                    //I just check that a selected cell is not against it.
+                    if (!spv.getGrid().isCellDisplaySelection(modelRow, spv.getModelColumn(column))) {
+                        return;
+                    }
+                }
+            }
+            range = selectedRange;
+        }
+
+        /**
+         * Return whether every cell of the range displays the selection. Only
+         * the cells overriding the display selection of the grid are checked,
+         * not every cell of the range.
+         */
+        private boolean isDisplaySelection(GridBase grid, GridRange selectedRange, SpreadsheetView spv) {
+            final boolean display = grid.isDisplaySelection();
+            long overridden = 0;
+            for (Long key : grid.getCellDisplaySelections(!display)) {
+                final int modelRow = getRow(key);
+                final int modelColumn = getColumn(key);
+                if (modelRow >= grid.getRowCount() || modelColumn >= grid.getColumnCount()
+                        || spv.isRowHidden(modelRow) || spv.isColumnHidden(modelColumn)) {
+                    continue;
+                }
+                final int row = spv.getViewRow(modelRow);
+                final int column = spv.getViewColumn(modelColumn);
+                if (row >= selectedRange.getTop() && row <= selectedRange.getBottom()
+                        && column >= selectedRange.getLeft() && column <= selectedRange.getRight()) {
+                    if (display) {
+                        return false;
+                    }
+                    ++overridden;
+                }
+            }
+            return display || overridden == (long) (selectedRange.getBottom() - selectedRange.getTop() + 1)
+                    * (selectedRange.getRight() - selectedRange.getLeft() + 1);
+        }
+
         /**
          * Fills this ClipBoardRange with a list a {@code ClipboardCell}. The
          * result can be accessed with the {@link #getRange() } method.
@@ -0,0 +1,278 @@
+/**
+ * Copyright (c) 2018 ControlsFX
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of ControlsFX, any associated website, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL CONTROLSFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package impl.org.controlsfx.spreadsheet;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.IntSupplier;
+import javafx.collections.MapChangeListener;
+import org.controlsfx.control.spreadsheet.Grid;
+import org.controlsfx.control.spreadsheet.SpreadsheetView;
+
+/**
+ * This class keeps the height of the rows of a {@link SpreadsheetView} in
+ * primitive arrays, so that neither the row index nor the height are boxed
+ * each time the height of a row is asked during a layout.
+ *
+ * The height given by the {@link Grid} is read only once for each model row,
+ * and the heights modified in the view (resizing, fitting to the content) are
+ * tracked from the rowHeightMap of the {@link GridViewSkin}.
+ *
+ * The heights of the view rows are also kept in a Fenwick tree, so that the
+ * vertical position of a row, or the row found at a vertical position, are
+ * computed in O(log n) instead of adding all the heights above.
+ */
+final class RowHeights {
+
+    private final SpreadsheetView spreadsheetView;
+    private final Map<Integer, Double> rowHeightMap;
+    private final IntSupplier viewRowCountSupplier;
+    /**
+     * The height given by the Grid for each model row, NaN if it has not been
+     * read yet.
+     */
+    private double[] gridHeights = new double[0];
+    /**
+     * The height set in the view for each model row, NaN if there is none.
+     */
+    private double[] viewHeights = new double[0];
+    /**
+     * Fenwick tree of the heights of the view rows (index 1 is the first
+     * row), null when it must be built again.
+     */
+    private double[] tree;
+    private int viewRowCount;
+
+    /**
+     * @param spreadsheetView
+     * @param rowHeightMap the heights set in the view for the model rows
+     * @param viewRowCountSupplier gives the number of view rows
+     */
+    RowHeights(SpreadsheetView spreadsheetView, Map<Integer, Double> rowHeightMap, IntSupplier viewRowCountSupplier) {
+        this.spreadsheetView = spreadsheetView;
+        this.rowHeightMap = rowHeightMap;
+        this.viewRowCountSupplier = viewRowCountSupplier;
+        reset();
+    }
+
+    /**
+     * Forget all the heights read from the Grid, for example because a new
+     * Grid has been set, and read again the heights set in the view.
+     */
+    void reset() {
+        Grid grid = spreadsheetView.getGrid();
+        int rowCount = grid == null ? 0 : grid.getRowCount();
+        gridHeights = new double[rowCount];
+        viewHeights = new double[rowCount];
+        Arrays.fill(gridHeights, Double.NaN);
+        Arrays.fill(viewHeights, Double.NaN);
+        for (Entry<Integer, Double> entry : rowHeightMap.entrySet()) {
+            int modelRow = entry.getKey();
+            if (ensureCapacity(modelRow) && entry.getValue() != null) {
+                viewHeights[modelRow] = entry.getValue();
+            }
+        }
+        tree = null;
+    }
+
+    /**
+     * Forget the heights read from the Grid, because its rows or the
+     * {@link org.controlsfx.control.spreadsheet.GridBase#setRowHeightCallback(javafx.util.Callback)
+     * height callback} have changed. The heights set in the view are kept.
+     */
+    void invalidateGridHeights() {
+        Grid grid = spreadsheetView.getGrid();
+        int rowCount = grid == null ? 0 : grid.getRowCount();
+        gridHeights = new double[rowCount];
+        Arrays.fill(gridHeights, Double.NaN);
+        int oldLength = viewHeights.length;
+        viewHeights = Arrays.copyOf(viewHeights, rowCount);
+        if (rowCount > oldLength) {
+            Arrays.fill(viewHeights, oldLength, rowCount, Double.NaN);
+        }
+        tree = null;
+    }
+
+    /**
+     * The view rows have changed (sorting, hiding, new rows), their positions
+     * must be computed again.
+     */
+    void invalidateViewRows() {
+        tree = null;
+    }
+
+    /**
+     * Update the height of a model row modified in the rowHeightMap.
+     *
+     * @param change
+     */
+    void rowHeightChanged(MapChangeListener.Change<? extends Integer, ? extends Double> change) {
+        int modelRow = change.getKey();
+        if (!ensureCapacity(modelRow)) {
+            return;
+        }
+        double oldHeight = getHeight(modelRow);
+        Double newHeight = change.wasAdded() ? change.getValueAdded() : null;
+        viewHeights[modelRow] = newHeight == null ? Double.NaN : newHeight;
+
+        if (tree != null) {
+            //We only update the tree if the row is really displayed there.
+            int viewRow = spreadsheetView.getViewRow(modelRow);
+            if (viewRow >= 0 && viewRow < viewRowCount && spreadsheetView.getModelRow(viewRow) == modelRow) {
+                double delta = getHeight(modelRow) - oldHeight;
+                for (int i = viewRow + 1; i <= viewRowCount; i += i & -i) {
+                    tree[i] += delta;
+                }
+            } else {
+                tree = null;
+            }
+        }
+    }
+
+    /**
+     * Return the height of the model row as given by the view or the
+     * {@link Grid}, which can be {@link Grid#AUTOFIT}.
+     *
+     * @param modelRow
+     * @return
+     */
+    double getRawHeight(int modelRow) {
+        if (!ensureCapacity(modelRow)) {
+            return modelRow < 0 || rowHeightMap.get(modelRow) == null
+                    ? spreadsheetView.getGrid().getRowHeight(modelRow) : rowHeightMap.get(modelRow);
+        }
+        double height = viewHeights[modelRow];
+        if (Double.isNaN(height)) {
+            height = gridHeights[modelRow];
+            if (Double.isNaN(height)) {
+                height = spreadsheetView.getGrid().getRowHeight(modelRow);
+                gridHeights[modelRow] = height;
+            }
+        }
+        return height;
+    }
+
+    /**
+     * Return the height of the model row, {@link Grid#AUTOFIT} being replaced
+     * by {@link GridViewSkin#DEFAULT_CELL_HEIGHT}.
+     *
+     * @param modelRow
+     * @return
+     */
+    double getHeight(int modelRow) {
+        double height = getRawHeight(modelRow);
+        return height == Grid.AUTOFIT ? GridViewSkin.DEFAULT_CELL_HEIGHT : height;
+    }
+
+    /**
+     * Return the vertical position of the given view row, that is to say the
+     * sum of the heights of all the view rows before it.
+     *
+     * @param viewRow
+     * @return
+     */
+    double getRowY(int viewRow) {
+        buildTree();
+        double y = 0;
+        for (int i = Math.max(0, Math.min(viewRow, viewRowCount)); i > 0; i -= i & -i) {
+            y += tree[i];
+        }
+        return y;
+    }
+
+    /**
+     * Return the total height of the view rows.
+     *
+     * @return
+     */
+    double getTotalHeight() {
+        return getRowY(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Return the last view row starting strictly before the given vertical
+     * position, or 0 if there is none.
+     *
+     * @param y
+     * @return
+     */
+    int getViewRow(double y) {
+        buildTree();
+        int position = 0;
+        double remaining = y;
+        for (int step = Integer.highestOneBit(Math.max(1, viewRowCount)); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next <= viewRowCount && tree[next] < remaining) {
+                position = next;
+                remaining -= tree[next];
+            }
+        }
+        //position is the last row whose sum of the previous heights is below y.
+        return Math.max(0, Math.min(position, viewRowCount - 1));
+    }
+
+    private void buildTree() {
+        if (tree == null) {
+            viewRowCount = viewRowCountSupplier.getAsInt();
+            tree = new double[viewRowCount + 1];
+            for (int i = 1; i <= viewRowCount; ++i) {
+                tree[i] += getHeight(spreadsheetView.getModelRow(i - 1));
+                int parent = i + (i & -i);
+                if (parent <= viewRowCount) {
+                    tree[parent] += tree[i];
+                }
+            }
+        }
+    }
+
+    /**
+     * Make sure the arrays can hold the given model row if it belongs to the
+     * Grid.
+     *
+     * @param modelRow
+     * @return false if the model row is not in the Grid
+     */
+    private boolean ensureCapacity(int modelRow) {
+        if (modelRow < 0) {
+            return false;
+        }
+        if (modelRow >= gridHeights.length) {
+            Grid grid = spreadsheetView.getGrid();
+            int rowCount = grid == null ? 0 : grid.getRowCount();
+            if (modelRow >= rowCount) {
+                return false;
+            }
+            int oldLength = gridHeights.length;
+            gridHeights = Arrays.copyOf(gridHeights, rowCount);
+            viewHeights = Arrays.copyOf(viewHeights, rowCount);
+            Arrays.fill(gridHeights, oldLength, rowCount, Double.NaN);
+            Arrays.fill(viewHeights, oldLength, rowCount, Double.NaN);
+        }
+        return true;
+    }
+}
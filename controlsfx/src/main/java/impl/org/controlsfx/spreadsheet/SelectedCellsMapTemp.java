@@ -26,180 +26,735 @@
  */
 package impl.org.controlsfx.spreadsheet;
 
-import java.util.BitSet;
+import com.sun.javafx.collections.NonIterableChange;
+import com.sun.javafx.scene.control.ReadOnlyUnbackedObservableList;
+import impl.org.controlsfx.spreadsheet.RectangleSelection.GridRange;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
-import javafx.collections.FXCollections;
+import java.util.function.BiFunction;
 import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
-import javafx.collections.transformation.SortedList;
 import javafx.scene.control.TablePositionBase;
 
 /**
- * This class is copied from com.sun.javafx.scene.control.SelectedCellsMap
- * temporary in 8u20 to resolve https://javafx-jira.kenai.com/browse/RT-38306
- * 
- * Will be removed in 8u40
+ * This class was first copied from com.sun.javafx.scene.control.SelectedCellsMap
+ * in order to resolve https://javafx-jira.kenai.com/browse/RT-38306.
+ *
+ * The selection is stored as a list of disjoint {@link GridRange}, so
+ * selecting a whole grid only costs one range. The positions are only created
+ * when they are requested, sorted by row and then by column.
  *
  * @param <T>
  */
 public class SelectedCellsMapTemp<T extends TablePositionBase> {
-    private final ObservableList<T> selectedCells;
-    private final ObservableList<T> sortedSelectedCells;
-
-    private final Map<Integer, BitSet> selectedCellBitSetMap;
 
-    public SelectedCellsMapTemp(final ListChangeListener<T> listener) {
-        selectedCells = FXCollections.<T>observableArrayList();
-        sortedSelectedCells = new SortedList<>(selectedCells, (T o1, T o2) -> {
-            int result =  o1.getRow() - o2.getRow();
-           return result == 0 ? (o1.getColumn() - o2.getColumn())  : result;
-        });
-        sortedSelectedCells.addListener(listener);
+    private static final Comparator<GridRange> RANGE_COMPARATOR = (GridRange o1, GridRange o2) -> {
+        int result = Integer.compare(o1.getTop(), o2.getTop());
+        return result == 0 ? Integer.compare(o1.getLeft(), o2.getLeft()) : result;
+    };
+
+    private final BiFunction<Integer, Integer, T> positionFactory;
+    private final ReadOnlyUnbackedObservableList<T> selectedCells;
+    private RangeIndex index = RangeIndex.of(Collections.<GridRange>emptyList());
+
+    /**
+     * Constructor.
+     *
+     * @param listener notified of each modification of the selection
+     * @param positionFactory create the position for a row and a column
+     */
+    public SelectedCellsMapTemp(final ListChangeListener<T> listener, BiFunction<Integer, Integer, T> positionFactory) {
+        this.positionFactory = positionFactory;
+        selectedCells = new ReadOnlyUnbackedObservableList<T>() {
+            @Override
+            public T get(int i) {
+                return SelectedCellsMapTemp.this.get(i);
+            }
 
-        selectedCellBitSetMap = new TreeMap<>((o1, o2) -> o1.compareTo(o2));
+            @Override
+            public int size() {
+                return SelectedCellsMapTemp.this.size();
+            }
+        };
+        selectedCells.addListener(listener);
     }
 
     public int size() {
-        return selectedCells.size();
+        return index.size;
     }
 
     public T get(int i) {
-        if (i < 0) {
+        if (i < 0 || i >= index.size) {
             return null;
         }
-        return sortedSelectedCells.get(i);
+        return index.get(i, positionFactory);
     }
 
     public void add(T tp) {
-        final int row = tp.getRow();
-        final int columnIndex = tp.getColumn();
-
-        // update the bitset map
-        BitSet bitset;
-        if (! selectedCellBitSetMap.containsKey(row)) {
-            bitset = new BitSet();
-            selectedCellBitSetMap.put(row, bitset);
-        } else {
-            bitset = selectedCellBitSetMap.get(row);
+        // Only cells can be selected, not whole rows.
+        if (tp.getRow() < 0 || tp.getColumn() < 0 || isSelected(tp.getRow(), tp.getColumn())) {
+            return;
         }
+        addRange(tp.getRow(), tp.getRow(), tp.getColumn(), tp.getColumn());
+    }
 
-        if (columnIndex >= 0) {
-            boolean isAlreadySet = bitset.get(columnIndex);
-            bitset.set(columnIndex);
+    /**
+     * Select all the cells of the given range.
+     *
+     * @param top
+     * @param bottom
+     * @param left
+     * @param right
+     */
+    public void addRange(int top, int bottom, int left, int right) {
+        if (top < 0 || left < 0 || bottom < top || right < left) {
+            return;
+        }
+        List<GridRange> ranges = new ArrayList<>(index.ranges);
+        addRange(ranges, new GridRange(top, bottom, left, right));
+        commit(ranges, top, bottom);
+    }
 
-            if (! isAlreadySet) {
-                // add into the list
-                selectedCells.add(tp);
+    public void addAll(Collection<T> cells) {
+        // The positions already selected are skipped so that the new ranges
+        // do not overlap the current ones.
+        List<GridRange> added = coalesce(cells, true);
+        if (!added.isEmpty()) {
+            int firstRow = Integer.MAX_VALUE;
+            int lastRow = -1;
+            for (GridRange range : added) {
+                firstRow = Math.min(firstRow, range.getTop());
+                lastRow = Math.max(lastRow, range.getBottom());
             }
+            List<GridRange> ranges = new ArrayList<>(index.ranges);
+            ranges.addAll(added);
+            commit(ranges, firstRow, lastRow);
+        }
+    }
+
+    public void setAll(Collection<T> cells) {
+        replace(coalesce(cells, false));
+    }
+
+    public void remove(T tp) {
+        if (tp.getRow() < 0 || tp.getColumn() < 0 || !isSelected(tp.getRow(), tp.getColumn())) {
+            return;
+        }
+        commit(subtract(index.ranges, new GridRange(tp.getRow(), tp.getRow(), tp.getColumn(), tp.getColumn())),
+                tp.getRow(), tp.getRow());
+    }
+
+    public void clear() {
+        replace(Collections.<GridRange>emptyList());
+    }
+
+    public boolean isSelected(int row, int columnIndex) {
+        return index.rangeAt(row, columnIndex) != null;
+    }
+
+    public int indexOf(T tp) {
+        return index.indexOf(tp.getRow(), tp.getColumn());
+    }
+
+    public boolean isEmpty() {
+        return index.size == 0;
+    }
+
+    public ObservableList<T> getSelectedCells() {
+        return selectedCells;
+    }
+
+    /**
+     * Return the selected ranges. They do not overlap and are sorted by their
+     * top row.
+     *
+     * @return the selected ranges.
+     */
+    public List<GridRange> getSelectedRanges() {
+        return index.ranges;
+    }
+
+    /**
+     * Return a list of the positions currently selected, that will not change
+     * when the selection is modified.
+     *
+     * @return the positions currently selected.
+     */
+    public List<T> snapshot() {
+        return new PositionList<>(index, positionFactory);
+    }
+
+    /**
+     * Replace the selected ranges, which only differ from the current ones in
+     * the rows from firstRow to lastRow, and notify the listener.
+     *
+     * @param ranges
+     * @param firstRow
+     * @param lastRow
+     */
+    private void commit(List<GridRange> ranges, int firstRow, int lastRow) {
+        final RangeIndex oldIndex = index;
+        index = oldIndex.update(sort(ranges), firstRow, lastRow);
+        fireChange(oldIndex, firstRow, lastRow);
+    }
+
+    /**
+     * Replace all the selected ranges and notify the listener.
+     *
+     * @param ranges
+     */
+    private void replace(List<GridRange> ranges) {
+        final RangeIndex oldIndex = index;
+        index = RangeIndex.of(sort(ranges));
+        fireChange(oldIndex, Math.min(oldIndex.getFirstRow(), index.getFirstRow()),
+                Math.max(oldIndex.getLastRow(), index.getLastRow()));
+    }
+
+    private static List<GridRange> sort(List<GridRange> ranges) {
+        final List<GridRange> sortedRanges = new ArrayList<>(ranges);
+        sortedRanges.sort(RANGE_COMPARATOR);
+        return Collections.unmodifiableList(sortedRanges);
+    }
+
+    /**
+     * Notify the listener that the positions of the rows from firstRow to
+     * lastRow have been replaced. The positions of the rows above are the
+     * same, and the ones of the rows below are only shifted.
+     */
+    private void fireChange(RangeIndex oldIndex, int firstRow, int lastRow) {
+        if (firstRow > lastRow) {
+            return;
+        }
+        final int from = toIndex(oldIndex.countBefore(firstRow));
+        final int removedTo = toIndex(oldIndex.countBefore(lastRow + 1));
+        final int addedTo = toIndex(index.countBefore(lastRow + 1));
+        if (from == removedTo && from == addedTo) {
+            return;
+        }
+
+        ListChangeListener.Change<T> change;
+        if (from == removedTo) {
+            change = new NonIterableChange.SimpleAddChange<>(from, addedTo, selectedCells);
         } else {
-            // FIXME slow path (for now)
-            if (! selectedCells.contains(tp)) {
-                selectedCells.add(tp);
-            }
+            change = new NonIterableChange.GenericAddRemoveChange<>(from, addedTo,
+                    new PositionList<>(oldIndex, positionFactory).subList(from, removedTo), selectedCells);
         }
+        selectedCells.callObservers(change);
     }
 
-    public void addAll(Collection<T> cells) {
-        // update bitset
-        for (T tp : cells) {
-            final int row = tp.getRow();
-            final int columnIndex = tp.getColumn();
+    private static int toIndex(long count) {
+        return (int) Math.min(Integer.MAX_VALUE, count);
+    }
 
-            // update the bitset map
-            BitSet bitset;
-            if (! selectedCellBitSetMap.containsKey(row)) {
-                bitset = new BitSet();
-                selectedCellBitSetMap.put(row, bitset);
-            } else {
-                bitset = selectedCellBitSetMap.get(row);
+    /**
+     * Return disjoint ranges covering the given positions. The consecutive
+     * columns of each row are gathered, and then merged with the same columns
+     * of the row above, so that a rectangle of positions gives one range.
+     *
+     * @param cells
+     * @param skipSelected whether the positions already selected are skipped
+     */
+    private List<GridRange> coalesce(Collection<T> cells, boolean skipSelected) {
+        long[] keys = new long[cells.size()];
+        int count = 0;
+        for (T tp : cells) {
+            int row = tp.getRow();
+            int column = tp.getColumn();
+            if (row >= 0 && column >= 0 && !(skipSelected && isSelected(row, column))) {
+                keys[count++] = ((long) row << 32) | column;
+            }
+        }
+        Arrays.sort(keys, 0, count);
+
+        List<GridRange> result = new ArrayList<>();
+        // The top row of the ranges still open, by their left and right columns.
+        Map<Long, Integer> open = new HashMap<>();
+        Map<Long, Integer> next = new HashMap<>();
+        int i = 0;
+        int previousRow = -1;
+        while (i < count) {
+            int row = (int) (keys[i] >>> 32);
+            if (row != previousRow + 1) {
+                close(open, previousRow, result);
             }
+            // The runs of consecutive columns of this row.
+            while (i < count && (int) (keys[i] >>> 32) == row) {
+                int left = (int) keys[i];
+                int right = left;
+                ++i;
+                // The keys are sorted, so the same or the next column follows.
+                while (i < count && keys[i] - keys[i - 1] <= 1 && (int) (keys[i] >>> 32) == row) {
+                    right = (int) keys[i];
+                    ++i;
+                }
+                Long columns = ((long) left << 32) | right;
+                Integer top = open.remove(columns);
+                next.put(columns, top == null ? row : top);
+            }
+            close(open, row - 1, result);
+            Map<Long, Integer> swap = open;
+            open = next;
+            next = swap;
+            previousRow = row;
+        }
+        close(open, previousRow, result);
+        return result;
+    }
 
-            if (columnIndex < 0) {
-                continue;
+    /**
+     * Add the ranges still open, ending at the given row, to the result.
+     */
+    private static void close(Map<Long, Integer> open, int bottom, List<GridRange> result) {
+        for (Map.Entry<Long, Integer> entry : open.entrySet()) {
+            long columns = entry.getKey();
+            result.add(new GridRange(entry.getValue(), bottom, (int) (columns >>> 32), (int) columns));
+        }
+        open.clear();
+    }
+
+    /**
+     * Add the range to the given ranges, removing the part of the other ranges
+     * it overlaps and merging it with its neighbours when possible.
+     */
+    private static void addRange(List<GridRange> ranges, GridRange range) {
+        List<GridRange> result = subtract(ranges, range);
+        ranges.clear();
+        ranges.addAll(result);
+
+        GridRange merged = range;
+        boolean found = true;
+        while (found) {
+            found = false;
+            for (int i = 0; i < ranges.size(); ++i) {
+                GridRange union = union(merged, ranges.get(i));
+                if (union != null) {
+                    ranges.remove(i);
+                    merged = union;
+                    found = true;
+                    break;
+                }
             }
+        }
+        ranges.add(merged);
+    }
 
-            bitset.set(columnIndex);
+    /**
+     * Return the union of the two ranges if it is a range, null otherwise.
+     */
+    private static GridRange union(GridRange a, GridRange b) {
+        if (a.getTop() == b.getTop() && a.getBottom() == b.getBottom()
+                && (a.getRight() + 1 == b.getLeft() || b.getRight() + 1 == a.getLeft())) {
+            return new GridRange(a.getTop(), a.getBottom(), Math.min(a.getLeft(), b.getLeft()), Math.max(a.getRight(), b.getRight()));
+        }
+        if (a.getLeft() == b.getLeft() && a.getRight() == b.getRight()
+                && (a.getBottom() + 1 == b.getTop() || b.getBottom() + 1 == a.getTop())) {
+            return new GridRange(Math.min(a.getTop(), b.getTop()), Math.max(a.getBottom(), b.getBottom()), a.getLeft(), a.getRight());
         }
+        return null;
+    }
 
-        // add into the list
-        selectedCells.addAll(cells);
+    /**
+     * Return the given ranges without the cells contained in the removed
+     * range.
+     */
+    private static List<GridRange> subtract(List<GridRange> ranges, GridRange removed) {
+        List<GridRange> result = new ArrayList<>(ranges.size() + 4);
+        for (GridRange range : ranges) {
+            if (range.getBottom() < removed.getTop() || range.getTop() > removed.getBottom()
+                    || range.getRight() < removed.getLeft() || range.getLeft() > removed.getRight()) {
+                result.add(range);
+                continue;
+            }
+            if (range.getTop() < removed.getTop()) {
+                result.add(new GridRange(range.getTop(), removed.getTop() - 1, range.getLeft(), range.getRight()));
+            }
+            if (range.getBottom() > removed.getBottom()) {
+                result.add(new GridRange(removed.getBottom() + 1, range.getBottom(), range.getLeft(), range.getRight()));
+            }
+            final int top = Math.max(range.getTop(), removed.getTop());
+            final int bottom = Math.min(range.getBottom(), removed.getBottom());
+            if (range.getLeft() < removed.getLeft()) {
+                result.add(new GridRange(top, bottom, range.getLeft(), removed.getLeft() - 1));
+            }
+            if (range.getRight() > removed.getRight()) {
+                result.add(new GridRange(top, bottom, removed.getRight() + 1, range.getRight()));
+            }
+        }
+        return result;
     }
 
-    public void setAll(Collection<T> cells) {
-        // update bitset
-        selectedCellBitSetMap.clear();
-        for (T tp : cells) {
-            final int row = tp.getRow();
-            final int columnIndex = tp.getColumn();
+    /**
+     * The selected ranges, sorted by top row, with what is needed to find the
+     * position at a given index and the index of a given position.
+     * <br>
+     * The rows are cut into strips at the top and below the bottom of each
+     * range, so that the same ranges cross every row of a strip. Each strip
+     * keeps these ranges sorted by column, which makes every lookup a binary
+     * search on the strips and then on the ranges of one strip.
+     * <br>
+     * When the ranges are only modified in some rows, the strips of the other
+     * rows are kept and only the strips of these rows are computed again.
+     */
+    private static final class RangeIndex {
+        private final List<GridRange> ranges;
+        /**
+         * The first row of each strip, followed by the row after the last
+         * strip.
+         */
+        private final int[] stripTops;
+        /**
+         * The ranges crossing each strip, sorted by their left column.
+         */
+        private final GridRange[][] stripRanges;
+        /**
+         * The number of positions selected, in a row of each strip, before
+         * each of its ranges. The last one is the width of the strip.
+         */
+        private final int[][] stripOffsets;
+        /**
+         * The number of positions selected before each strip.
+         */
+        private final long[] stripStarts;
+        private final int size;
+
+        private RangeIndex(List<GridRange> ranges, StripBuilder builder) {
+            this.ranges = ranges;
+            builder.finish();
+            final int strips = builder.count;
+            stripTops = strips == 0 ? new int[0] : Arrays.copyOf(builder.tops, strips + 1);
+            if (strips > 0) {
+                stripTops[strips] = builder.end;
+            }
+            stripRanges = Arrays.copyOf(builder.ranges, strips);
+            stripOffsets = Arrays.copyOf(builder.offsets, strips);
+            stripStarts = new long[strips + 1];
+            for (int strip = 0; strip < strips; ++strip) {
+                int[] offsets = stripOffsets[strip];
+                stripStarts[strip + 1] = stripStarts[strip]
+                        + (long) offsets[offsets.length - 1] * (stripTops[strip + 1] - stripTops[strip]);
+            }
+            size = (int) Math.min(Integer.MAX_VALUE, stripStarts[strips]);
+        }
 
-            // update the bitset map
-            BitSet bitset;
-            if (! selectedCellBitSetMap.containsKey(row)) {
-                bitset = new BitSet();
-                selectedCellBitSetMap.put(row, bitset);
-            } else {
-                bitset = selectedCellBitSetMap.get(row);
+        /**
+         * Create the index of the given ranges.
+         */
+        static RangeIndex of(List<GridRange> ranges) {
+            final StripBuilder builder = new StripBuilder(ranges.size() * 2);
+            if (!ranges.isEmpty()) {
+                int top = Integer.MAX_VALUE;
+                int end = 0;
+                for (GridRange range : ranges) {
+                    top = Math.min(top, range.getTop());
+                    end = Math.max(end, range.getBottom() + 1);
+                }
+                builder.addStrips(ranges, top, end);
             }
+            return new RangeIndex(ranges, builder);
+        }
 
-            if (columnIndex < 0) {
-                continue;
+        /**
+         * Create the index of the given ranges, which only differ from the
+         * ranges of this index in the rows from firstRow to lastRow.
+         */
+        RangeIndex update(List<GridRange> newRanges, int firstRow, int lastRow) {
+            final int end = lastRow + 1;
+            final int strips = stripRanges.length;
+            final StripBuilder builder = new StripBuilder(strips + 4);
+            // The strips above the modified rows.
+            int strip = 0;
+            for (; strip < strips && stripTops[strip] < firstRow; ++strip) {
+                builder.add(stripTops[strip], Math.min(stripTops[strip + 1], firstRow),
+                        stripRanges[strip], stripOffsets[strip]);
             }
 
-            bitset.set(columnIndex);
+            final List<GridRange> crossing = new ArrayList<>();
+            for (GridRange range : newRanges) {
+                if (range.getTop() <= lastRow && range.getBottom() >= firstRow) {
+                    crossing.add(range);
+                }
+            }
+            builder.addStrips(crossing, firstRow, end);
+
+            // The strips below the modified rows, the last strip above may
+            // also go past them.
+            for (strip = Math.max(0, strip - 1); strip < strips; ++strip) {
+                if (stripTops[strip + 1] > end) {
+                    builder.add(Math.max(stripTops[strip], end), stripTops[strip + 1],
+                            stripRanges[strip], stripOffsets[strip]);
+                }
+            }
+            return new RangeIndex(newRanges, builder);
         }
 
-        // add into the list
-        selectedCells.setAll(cells);
-    }
+        /**
+         * Return the first row holding a selected position, or
+         * Integer.MAX_VALUE if nothing is selected.
+         */
+        int getFirstRow() {
+            return stripTops.length == 0 ? Integer.MAX_VALUE : stripTops[0];
+        }
 
-    public void remove(T tp) {
-        final int row = tp.getRow();
-        final int columnIndex = tp.getColumn();
+        /**
+         * Return the last row holding a selected position, or -1 if nothing
+         * is selected.
+         */
+        int getLastRow() {
+            return stripTops.length == 0 ? -1 : stripTops[stripTops.length - 1] - 1;
+        }
 
-        // update the bitset map
-        if (selectedCellBitSetMap.containsKey(row)) {
-            BitSet bitset = selectedCellBitSetMap.get(row);
+        /**
+         * Return the strip containing the given row, or -1.
+         */
+        private int stripOf(int row) {
+            if (stripRanges.length == 0 || row < stripTops[0] || row >= stripTops[stripTops.length - 1]) {
+                return -1;
+            }
+            int strip = Arrays.binarySearch(stripTops, row);
+            return strip >= 0 ? strip : -strip - 2;
+        }
 
-            if (columnIndex >= 0) {
-                bitset.clear(columnIndex);
+        /**
+         * Return the index, in the ranges of the strip, of the last range
+         * starting at or before the given column, or -1.
+         */
+        private int rangeBefore(int strip, int column) {
+            GridRange[] crossing = stripRanges[strip];
+            int low = 0;
+            int high = crossing.length - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (crossing[middle].getLeft() <= column) {
+                    low = middle + 1;
+                } else {
+                    high = middle - 1;
+                }
             }
+            return high;
+        }
 
-            if (bitset.isEmpty()) {
-                selectedCellBitSetMap.remove(row);
+        /**
+         * Return the range containing the given position, or null.
+         */
+        GridRange rangeAt(int row, int column) {
+            int strip = stripOf(row);
+            if (strip < 0) {
+                return null;
             }
+            int i = rangeBefore(strip, column);
+            return i >= 0 && stripRanges[strip][i].getRight() >= column ? stripRanges[strip][i] : null;
         }
 
-        // update list
-        selectedCells.remove(tp);
-    }
+        /**
+         * Return the number of selected positions in the rows before the
+         * given row.
+         */
+        long countBefore(int row) {
+            if (stripRanges.length == 0 || row < stripTops[0]) {
+                return 0;
+            }
+            int strip = stripOf(row);
+            if (strip < 0) {
+                return stripStarts[stripRanges.length];
+            }
+            int[] offsets = stripOffsets[strip];
+            return stripStarts[strip] + (long) (row - stripTops[strip]) * offsets[offsets.length - 1];
+        }
 
-    public void clear() {
-        // update bitset
-        selectedCellBitSetMap.clear();
+        <T> T get(int i, BiFunction<Integer, Integer, T> positionFactory) {
+            // First strip ending after the position.
+            int low = 0;
+            int high = stripRanges.length - 1;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (stripStarts[middle + 1] > i) {
+                    high = middle;
+                } else {
+                    low = middle + 1;
+                }
+            }
+            int[] offsets = stripOffsets[low];
+            int width = offsets[offsets.length - 1];
+            long inStrip = i - stripStarts[low];
+            int row = stripTops[low] + (int) (inStrip / width);
+            int offset = (int) (inStrip % width);
+            // Last range starting at or before the offset.
+            int range = Arrays.binarySearch(offsets, 0, offsets.length - 1, offset);
+            if (range < 0) {
+                range = -range - 2;
+            }
+            return positionFactory.apply(row, stripRanges[low][range].getLeft() + offset - offsets[range]);
+        }
 
-        // update list
-        selectedCells.clear();
+        int indexOf(int row, int column) {
+            if (row < 0 || column < 0) {
+                return -1;
+            }
+            int strip = stripOf(row);
+            if (strip < 0) {
+                return -1;
+            }
+            int i = rangeBefore(strip, column);
+            if (i < 0 || stripRanges[strip][i].getRight() < column) {
+                return -1;
+            }
+            long result = countBefore(row) + stripOffsets[strip][i] + column - stripRanges[strip][i].getLeft();
+            return (int) Math.min(Integer.MAX_VALUE, result);
+        }
     }
 
-    public boolean isSelected(int row, int columnIndex) {
-        if (columnIndex < 0) {
-            return selectedCellBitSetMap.containsKey(row);
-        } else {
-            return selectedCellBitSetMap.containsKey(row) ? selectedCellBitSetMap.get(row).get(columnIndex) : false;
+    /**
+     * The strips of a {@link RangeIndex}, added from the top row to the bottom
+     * one. The adjacent strips crossed by the same columns are merged, and the
+     * empty strips at both ends are dropped.
+     */
+    private static final class StripBuilder {
+        private static final GridRange[] NO_RANGES = new GridRange[0];
+        private static final int[] NO_OFFSETS = new int[1];
+
+        private int[] tops;
+        private GridRange[][] ranges;
+        private int[][] offsets;
+        private int count;
+        /**
+         * The row after the last strip.
+         */
+        private int end;
+
+        StripBuilder(int capacity) {
+            tops = new int[Math.max(4, capacity)];
+            ranges = new GridRange[tops.length][];
+            offsets = new int[tops.length][];
         }
-    }
 
-    public int indexOf(T tp) {
-        return sortedSelectedCells.indexOf(tp);
-    }
+        /**
+         * Add the strips crossed by the given ranges in the rows from top
+         * (included) to end (excluded).
+         */
+        void addStrips(List<GridRange> crossing, int top, int end) {
+            int[] bounds = new int[crossing.size() * 2 + 2];
+            int count = 0;
+            bounds[count++] = top;
+            bounds[count++] = end;
+            for (GridRange range : crossing) {
+                bounds[count++] = Math.max(range.getTop(), top);
+                bounds[count++] = Math.min(range.getBottom() + 1, end);
+            }
+            Arrays.sort(bounds, 0, count);
+            int distinct = 0;
+            for (int i = 0; i < count; ++i) {
+                if (distinct == 0 || bounds[distinct - 1] != bounds[i]) {
+                    bounds[distinct++] = bounds[i];
+                }
+            }
 
-    public boolean isEmpty() {
-        return selectedCells.isEmpty();
+            final int strips = distinct - 1;
+            List<List<GridRange>> stripCrossing = new ArrayList<>(strips);
+            for (int strip = 0; strip < strips; ++strip) {
+                stripCrossing.add(new ArrayList<>());
+            }
+            for (GridRange range : crossing) {
+                final int bottom = Math.min(range.getBottom() + 1, end);
+                for (int strip = Arrays.binarySearch(bounds, 0, distinct, Math.max(range.getTop(), top)); bounds[strip] < bottom; ++strip) {
+                    stripCrossing.get(strip).add(range);
+                }
+            }
+
+            for (int strip = 0; strip < strips; ++strip) {
+                GridRange[] sorted = stripCrossing.get(strip).toArray(new GridRange[0]);
+                Arrays.sort(sorted, Comparator.comparingInt(GridRange::getLeft));
+                int[] stripOffsets = new int[sorted.length + 1];
+                for (int i = 0; i < sorted.length; ++i) {
+                    stripOffsets[i + 1] = stripOffsets[i] + sorted[i].getRight() - sorted[i].getLeft() + 1;
+                }
+                add(bounds[strip], bounds[strip + 1], sorted, stripOffsets);
+            }
+        }
+
+        /**
+         * Add the strip of the rows from top (included) to stripEnd
+         * (excluded), crossed by the given ranges sorted by column.
+         */
+        void add(int top, int stripEnd, GridRange[] stripRanges, int[] stripOffsets) {
+            if (top >= stripEnd) {
+                return;
+            }
+            if (count > 0 && end < top) {
+                add(end, top, NO_RANGES, NO_OFFSETS);
+            }
+            if (count == 0 ? stripRanges.length == 0 : sameColumns(ranges[count - 1], stripRanges)) {
+                if (count > 0) {
+                    end = stripEnd;
+                }
+                return;
+            }
+            if (count == tops.length) {
+                tops = Arrays.copyOf(tops, count * 2);
+                ranges = Arrays.copyOf(ranges, count * 2);
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            tops[count] = top;
+            ranges[count] = stripRanges;
+            offsets[count] = stripOffsets;
+            ++count;
+            end = stripEnd;
+        }
+
+        /**
+         * Drop the empty strips at the bottom.
+         */
+        void finish() {
+            while (count > 0 && ranges[count - 1].length == 0) {
+                end = tops[--count];
+            }
+        }
+
+        private static boolean sameColumns(GridRange[] first, GridRange[] second) {
+            if (first == second) {
+                return true;
+            }
+            if (first.length != second.length) {
+                return false;
+            }
+            for (int i = 0; i < first.length; ++i) {
+                if (first[i].getLeft() != second[i].getLeft() || first[i].getRight() != second[i].getRight()) {
+                    return false;
+                }
+            }
+            return true;
+        }
     }
 
-    public ObservableList<T> getSelectedCells() {
-        return selectedCells;
+    /**
+     * A read-only list of the positions of a {@link RangeIndex}.
+     */
+    private static final class PositionList<T> extends AbstractList<T> {
+        private final RangeIndex index;
+        private final BiFunction<Integer, Integer, T> positionFactory;
+
+        PositionList(RangeIndex index, BiFunction<Integer, Integer, T> positionFactory) {
+            this.index = index;
+            this.positionFactory = positionFactory;
+        }
+
+        @Override
+        public T get(int i) {
+            if (i < 0 || i >= index.size) {
+                throw new IndexOutOfBoundsException();
+            }
+            return index.get(i, positionFactory);
+        }
+
+        @Override
+        public int size() {
+            return index.size;
+        }
     }
 }
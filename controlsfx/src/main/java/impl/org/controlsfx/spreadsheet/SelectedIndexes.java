@@ -0,0 +1,187 @@
+/**
+ * Copyright (c) 2018 ControlsFX
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of ControlsFX, any associated website, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL CONTROLSFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package impl.org.controlsfx.spreadsheet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
+
+/**
+ * The rows or the columns holding a selected cell, used by the headers in
+ * order to highlight them.
+ *
+ * Each index counts how many times it has been added, so that it stays
+ * selected until it has been removed as many times. The counts are kept in an
+ * int array and the selected indexes in a {@link BitSet}, so selecting a whole
+ * grid does not box any index. The listeners are invalidated after each
+ * modification.
+ */
+public final class SelectedIndexes implements Observable {
+
+    private final List<InvalidationListener> listeners = new ArrayList<>(2);
+    private final BitSet indexes = new BitSet();
+    private int[] counts = new int[0];
+
+    /**
+     * Add one index.
+     *
+     * @param index
+     */
+    public void add(int index) {
+        addRange(index, index + 1);
+    }
+
+    /**
+     * Add the indexes from the given index (included) to the given index
+     * (excluded).
+     *
+     * @param from
+     * @param to
+     */
+    public void addRange(int from, int to) {
+        if (from < 0 || to <= from) {
+            return;
+        }
+        ensureCapacity(to);
+        for (int i = from; i < to; ++i) {
+            increment(i);
+        }
+        fireInvalidation();
+    }
+
+    /**
+     * Add the indexes set in the given BitSet.
+     *
+     * @param added
+     */
+    public void addAll(BitSet added) {
+        if (added.isEmpty()) {
+            return;
+        }
+        ensureCapacity(added.length());
+        for (int i = added.nextSetBit(0); i >= 0; i = added.nextSetBit(i + 1)) {
+            increment(i);
+        }
+        fireInvalidation();
+    }
+
+    /**
+     * Remove one index once.
+     *
+     * @param index
+     */
+    public void remove(int index) {
+        if (index < 0 || index >= counts.length || counts[index] == 0) {
+            return;
+        }
+        if (--counts[index] == 0) {
+            indexes.clear(index);
+        }
+        fireInvalidation();
+    }
+
+    /**
+     * Remove all the indexes.
+     */
+    public void clear() {
+        if (indexes.isEmpty()) {
+            return;
+        }
+        Arrays.fill(counts, 0, indexes.length(), 0);
+        indexes.clear();
+        fireInvalidation();
+    }
+
+    /**
+     * @param index
+     * @return true if the index is selected.
+     */
+    public boolean contains(int index) {
+        return index >= 0 && indexes.get(index);
+    }
+
+    /**
+     * @return true if no index is selected.
+     */
+    public boolean isEmpty() {
+        return indexes.isEmpty();
+    }
+
+    /**
+     * Return the first selected index starting from the given one, or -1 if
+     * there is none.
+     *
+     * @param index
+     * @return the first selected index starting from the given one
+     */
+    public int nextSelected(int index) {
+        return indexes.nextSetBit(index);
+    }
+
+    /**
+     * Replace the content of the given BitSet with the selected indexes.
+     *
+     * @param bitSet
+     */
+    public void copyTo(BitSet bitSet) {
+        bitSet.clear();
+        bitSet.or(indexes);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void addListener(InvalidationListener listener) {
+        listeners.add(listener);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void removeListener(InvalidationListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void increment(int index) {
+        if (counts[index]++ == 0) {
+            indexes.set(index);
+        }
+    }
+
+    private void ensureCapacity(int size) {
+        if (size > counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(size, counts.length * 2));
+        }
+    }
+
+    private void fireInvalidation() {
+        for (InvalidationListener listener : listeners.toArray(new InvalidationListener[listeners.size()])) {
+            listener.invalidated(this);
+        }
+    }
+}
@@ -41,4 +41,6 @@ public abstract class SpreadsheetHandle {
 	protected abstract GridViewSkin getCellsViewSkin();
         /** Whether that column width has been set by the user. */
         protected abstract boolean isColumnWidthSet(int indexColumn);
+        /** Publishes the staged items of the rows that have just been laid out. */
+        protected abstract void publishStagedItems();
 }
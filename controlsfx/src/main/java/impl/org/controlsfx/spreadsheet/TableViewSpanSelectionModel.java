@@ -29,8 +29,12 @@ package impl.org.controlsfx.spreadsheet;
 import com.sun.javafx.collections.MappingChange;
 import com.sun.javafx.collections.NonIterableChange;
 import com.sun.javafx.scene.control.ReadOnlyUnbackedObservableList;
+import impl.org.controlsfx.spreadsheet.RectangleSelection.GridRange;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Set;
 import javafx.animation.KeyFrame;
@@ -193,7 +197,8 @@ public class TableViewSpanSelectionModel extends
 
         cellsView.setOnMouseDragged(new WeakEventHandler<>(onMouseDragEventHandler));
 
-        selectedCellsMap = new SelectedCellsMapTemp<>(new WeakListChangeListener<>(listChangeListener));
+        selectedCellsMap = new SelectedCellsMapTemp<>(new WeakListChangeListener<>(listChangeListener),
+                (Integer row, Integer column) -> new TablePosition<>(cellsView, row, cellsView.getVisibleLeafColumn(column)));
 
         selectedCellsSeq = new ReadOnlyUnbackedObservableList<TablePosition<ObservableList<SpreadsheetCell>, ?>>() {
             @Override
@@ -330,12 +335,8 @@ public class TableViewSpanSelectionModel extends
         SpreadsheetCell cell = (SpreadsheetCell) old.getTableColumn().getCellData(old.getRow());
         oldRowSpan = spreadsheetView.getRowSpan(cell, old.getRow());
         oldColSpan = spreadsheetView.getColumnSpan(cell);
-        for (int i = old.getRow(); i < oldRowSpan + old.getRow(); ++i) {
-            for (int j = spreadsheetView.getViewColumn(cell.getColumn()); j < oldColSpan + spreadsheetView.getViewColumn(cell.getColumn()); ++j) {
-                posFinal = new TablePosition<>(getTableView(), i, getTableView().getVisibleLeafColumn(j));
-                selectedCellsMap.add(posFinal);
-            }
-        }
+        final int viewColumn = spreadsheetView.getViewColumn(cell.getColumn());
+        selectedCellsMap.addRange(old.getRow(), old.getRow() + oldRowSpan - 1, viewColumn, viewColumn + oldColSpan - 1);
 
         updateScroll(old);
         addSelectedRowsAndColumns(old);
@@ -363,10 +364,8 @@ public class TableViewSpanSelectionModel extends
         if (!drag && key && getCellsViewSkin().getCellsSize() != 0 && !VerticalHeader.isFixedRowEmpty(spreadsheetView)) {
 
             int start = getCellsViewSkin().getRow(0).getIndex();
-            double posFinalOffset = 0;
-            for (int j = start; j < posFinal.getRow(); ++j) {
-                posFinalOffset += getSpreadsheetViewSkin().getRowHeight(j);
-            }
+            final RowHeights rowHeights = getCellsViewSkin().rowHeights;
+            double posFinalOffset = Math.max(0, rowHeights.getRowY(posFinal.getRow()) - rowHeights.getRowY(start));
 
             if (getCellsViewSkin().getFixedRowHeight() > posFinalOffset) {
                 cellsView.scrollTo(posFinal.getRow());
@@ -390,16 +389,11 @@ public class TableViewSpanSelectionModel extends
                 removeSelectedRowsAndColumns(cell);
                 focus(cell.getRow());
             }
-        } else {
-            for (TablePosition<ObservableList<SpreadsheetCell>, ?> pos : getSelectedCells()) {
-                if (pos.equals(tp)) {
-                    selectedCellsMap.remove(pos);
-                    removeSelectedRowsAndColumns(pos);
-                    // give focus to this cell index
-                    focus(row);
-                    return;
-                }
-            }
+        } else if (selectedCellsMap.isSelected(tp.getRow(), tp.getColumn())) {
+            selectedCellsMap.remove(tp);
+            removeSelectedRowsAndColumns(tp);
+            // give focus to this cell index
+            focus(row);
         }
     }
 
@@ -417,8 +411,8 @@ public class TableViewSpanSelectionModel extends
 
         final int itemCount = getItemCount();
         final int columnSize = getTableView().getVisibleLeafColumns().size();
-        final HashSet<Integer> selectedRows = new HashSet<>();
-        final HashSet<Integer> selectedColumns = new HashSet<>();
+        final BitSet selectedRows = new BitSet();
+        final BitSet selectedColumns = new BitSet();
         TablePosition<ObservableList<SpreadsheetCell>, ?> pos = null;
         for (Pair<Integer, Integer> position : selectedCells) {
             if (position.getKey() < 0
@@ -438,9 +432,9 @@ public class TableViewSpanSelectionModel extends
                 final int rowSpan = spreadsheetView.getRowSpan(cell, pos.getRow());
                 final int currentRow = pos.getRow();
                 for (int i = pos.getRow(); i < rowSpan + currentRow; ++i) {
-                    selectedColumns.add(i);
+                    selectedRows.set(i);
                     for (int j = spreadsheetView.getViewColumn(cell.getColumn()); j < spreadsheetView.getColumnSpan(cell) + spreadsheetView.getViewColumn(cell.getColumn()); ++j) {
-                        selectedRows.add(j);
+                        selectedColumns.set(j);
                         pos = new TablePosition<>(getTableView(), i, getTableView().getVisibleLeafColumn(j));
                         newList.add(pos);
                     }
@@ -479,10 +473,10 @@ public class TableViewSpanSelectionModel extends
      * @param selectedRows
      * @param selectedColumns
      */
-    private void updateSelectedVisuals(GridViewSkin skin, TablePosition pos, HashSet<Integer> selectedRows, HashSet<Integer> selectedColumns) {
+    private void updateSelectedVisuals(GridViewSkin skin, TablePosition pos, BitSet selectedRows, BitSet selectedColumns) {
         if (skin != null) {
-            skin.getSelectedRows().addAll(selectedColumns);
-            skin.getSelectedColumns().addAll(selectedRows);
+            skin.getSelectedRows().addAll(selectedRows);
+            skin.getSelectedColumns().addAll(selectedColumns);
         }
 
         /**
@@ -513,7 +507,6 @@ public class TableViewSpanSelectionModel extends
             select(maxRow, maxColumn);
             return;
         }
-        SpreadsheetCell cell;
 
         makeAtomic = true;
 
@@ -523,51 +516,32 @@ public class TableViewSpanSelectionModel extends
                 (TableColumn<ObservableList<SpreadsheetCell>, ?>) minColumn);
         final int maxColumnIndex = getTableView().getVisibleLeafIndex(
                 (TableColumn<ObservableList<SpreadsheetCell>, ?>) maxColumn);
-        final int _minColumnIndex = Math.min(minColumnIndex, maxColumnIndex);
-        final int _maxColumnIndex = Math.max(minColumnIndex, maxColumnIndex);
-
-        final int _minRow = Math.min(minRow, maxRow);
-        final int _maxRow = Math.max(minRow, maxRow);
-
-        HashSet<Integer> selectedRows = new HashSet<>();
-        HashSet<Integer> selectedColumns = new HashSet<>();
-
-        for (int _row = _minRow; _row <= _maxRow; _row++) {
-            for (int _col = _minColumnIndex; _col <= _maxColumnIndex; _col++) {
-                // begin copy/paste of select(int, column) method (with some
-                // slight modifications)
-                if (_row < 0 || _row >= itemCount) {
-                    continue;
-                }
-
-                final TableColumn<ObservableList<SpreadsheetCell>, ?> column = getTableView().getVisibleLeafColumn(
-                        _col);
-
-                // if I'm in cell selection mode but the column is null, I
-                // don't want
-                // to select the whole row instead...
-                if (column == null) {
-                    continue;
-                }
-
-                TablePosition<ObservableList<SpreadsheetCell>, ?> pos = getVisibleCell(_row, column);
-
+        final int _minColumnIndex = Math.max(0, Math.min(minColumnIndex, maxColumnIndex));
+        final int _maxColumnIndex = Math.min(getTableView().getVisibleLeafColumns().size() - 1,
+                Math.max(minColumnIndex, maxColumnIndex));
+
+        final int _minRow = Math.max(0, Math.min(minRow, maxRow));
+        final int _maxRow = Math.min(itemCount - 1, Math.max(minRow, maxRow));
+
+        final BitSet selectedRows = new BitSet();
+        final BitSet selectedColumns = new BitSet();
+
+        if (_minRow <= _maxRow && _minColumnIndex <= _maxColumnIndex) {
+            /**
+             * The range is selected as a whole, we only need to add the
+             * spanning cells that are crossing its borders.
+             */
+            final GridRange range = new GridRange(_minRow, _maxRow, _minColumnIndex, _maxColumnIndex);
+            final List<GridRange> ranges = new ArrayList<>();
+            ranges.add(range);
+            addCrossingSpans(range, ranges);
+            for (GridRange selectedRange : ranges) {
+                selectedCellsMap.addRange(selectedRange.getTop(), selectedRange.getBottom(),
+                        selectedRange.getLeft(), selectedRange.getRight());
                 // We store all the selectedColumn and Rows, we will update
                 // just once at the end
-                cell = (SpreadsheetCell) column.getCellData(pos.getRow());
-                final int rowSpan = spreadsheetView.getRowSpan(cell, pos.getRow());
-                final int currentRow = pos.getRow();
-                for (int i = currentRow; i < rowSpan + currentRow; ++i) {
-                    selectedRows.add(i);
-                    for (int j = spreadsheetView.getViewColumn(cell.getColumn()); j < spreadsheetView.getColumnSpan(cell) + spreadsheetView.getViewColumn(cell.getColumn()); ++j) {
-                        selectedColumns.add(j);
-                        pos = new TablePosition<>(getTableView(), i, getTableView().getVisibleLeafColumn(j));
-                        selectedCellsMap.add(pos);
-                    }
-                }
-
-//                makeAtomic = true;
-                // end copy/paste
+                selectedRows.set(selectedRange.getTop(), selectedRange.getBottom() + 1);
+                selectedColumns.set(selectedRange.getLeft(), selectedRange.getRight() + 1);
             }
         }
         makeAtomic = false;
@@ -594,7 +568,7 @@ public class TableViewSpanSelectionModel extends
          */
         final int startChangeIndex = selectedCellsMap.indexOf(new TablePosition<>(getTableView(), minRow,
                 (TableColumn<ObservableList<SpreadsheetCell>, ?>) minColumn));
-        final int endChangeIndex = selectedCellsMap.getSelectedCells().size() - 1;//indexOf(new TablePosition<>(getTableView(), maxRow,
+        final int endChangeIndex = selectedCellsMap.size() - 1;//indexOf(new TablePosition<>(getTableView(), maxRow,
 //                (TableColumn<ObservableList<SpreadsheetCell>, ?>) maxColumn));
 
         if (startChangeIndex > -1 && endChangeIndex > -1) {
@@ -613,31 +587,17 @@ public class TableViewSpanSelectionModel extends
 
         quietClearSelection();
 
-        List<TablePosition<ObservableList<SpreadsheetCell>, ?>> indices = new ArrayList<>();
-        TableColumn<ObservableList<SpreadsheetCell>, ?> column;
+        final int columnCount = getTableView().getVisibleLeafColumns().size();
         TablePosition<ObservableList<SpreadsheetCell>, ?> tp = null;
-
-        for (int col = 0; col < getTableView().getVisibleLeafColumns().size(); col++) {
-            column = getTableView().getVisibleLeafColumns().get(col);
-            for (int row = 0; row < getItemCount(); row++) {
-                tp = new TablePosition<>(getTableView(), row, column);
-                indices.add(tp);
-            }
+        if (columnCount > 0 && getItemCount() > 0) {
+            // The whole grid is one range.
+            selectedCellsMap.addRange(0, getItemCount() - 1, 0, columnCount - 1);
+            tp = new TablePosition<>(getTableView(), getItemCount() - 1, getTableView().getVisibleLeafColumn(columnCount - 1));
         }
-        selectedCellsMap.setAll(indices);
 
-        // Then we update visuals just once
-        ArrayList<Integer> selectedColumns = new ArrayList<>();
-        for (int col = 0; col < spreadsheetView.getGrid().getColumnCount(); col++) {
-            selectedColumns.add(col);
-        }
-
-        ArrayList<Integer> selectedRows = new ArrayList<>();
-        for (int row = 0; row < getItemCount(); row++) {
-            selectedRows.add(row);
-        }
-        getSpreadsheetViewSkin().getSelectedRows().addAll(selectedRows);
-        getSpreadsheetViewSkin().getSelectedColumns().addAll(selectedColumns);
+        // Then we update visuals just once, the whole grid being selected.
+        getSpreadsheetViewSkin().getSelectedRows().addRange(0, getItemCount());
+        getSpreadsheetViewSkin().getSelectedColumns().addRange(0, spreadsheetView.getGrid().getColumnCount());
 
         if (tp != null) {
             select(tp.getRow(), tp.getTableColumn());
@@ -690,20 +650,64 @@ public class TableViewSpanSelectionModel extends
         final int infCol = spreadsheetView.getViewColumn(cell.getColumn());
         final int supCol = infCol + spreadsheetView.getColumnSpan(cell);
         List<TablePosition<ObservableList<SpreadsheetCell>, ?>> selectedCells = new ArrayList<>();
-        for (final TablePosition<ObservableList<SpreadsheetCell>, ?> tp : getSelectedCells()) {
-            if (tp.getRow() >= infRow && tp.getRow() < supRow && tp.getColumn() >= infCol
-                    && tp.getColumn() < supCol) {
-                selectedCells.add(tp);
+        for (int i = infRow; i < supRow; ++i) {
+            for (int j = infCol; j < supCol; ++j) {
+                if (selectedCellsMap.isSelected(i, j)) {
+                    selectedCells.add(new TablePosition<>(getTableView(), i, getTableView().getVisibleLeafColumn(j)));
+                }
             }
         }
         return selectedCells.isEmpty() ? null : selectedCells;
     }
 
+    /**
+     * Return the selected ranges. They do not overlap and are sorted by their
+     * top row.
+     *
+     * @return the selected ranges.
+     */
+    public List<GridRange> getSelectedRanges() {
+        return selectedCellsMap.getSelectedRanges();
+    }
+
     /**
      * *********************************************************************
      * * Support code * *
      * ********************************************************************
      */
+    /**
+     * Add to the given list the whole extent of the spanning cells which are
+     * crossing the borders of the given range.
+     *
+     * @param range
+     * @param ranges
+     */
+    private void addCrossingSpans(GridRange range, List<GridRange> ranges) {
+        final Set<SpreadsheetCell> treatedCells = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int row = range.getTop(); row <= range.getBottom(); ++row) {
+            addCrossingSpan(row, range.getLeft(), range, ranges, treatedCells);
+            addCrossingSpan(row, range.getRight(), range, ranges, treatedCells);
+        }
+        for (int column = range.getLeft(); column <= range.getRight(); ++column) {
+            addCrossingSpan(range.getTop(), column, range, ranges, treatedCells);
+            addCrossingSpan(range.getBottom(), column, range, ranges, treatedCells);
+        }
+    }
+
+    private void addCrossingSpan(int row, int column, GridRange range, List<GridRange> ranges, Set<SpreadsheetCell> treatedCells) {
+        final SpreadsheetCell cell = cellsView.getItems().get(row).get(spreadsheetView.getModelColumn(column));
+        if ((cell.getRowSpan() == 1 && cell.getColumnSpan() == 1) || !treatedCells.add(cell)) {
+            return;
+        }
+        final int top = row - spreadsheetView.getReverseRowSpan(cell, row) + 1;
+        final int bottom = top + spreadsheetView.getRowSpan(cell, top) - 1;
+        final int left = spreadsheetView.getViewColumn(cell.getColumn());
+        final int right = left + spreadsheetView.getColumnSpan(cell) - 1;
+        if (top < range.getTop() || bottom > range.getBottom() || left < range.getLeft() || right > range.getRight()) {
+            ranges.add(new GridRange(top, bottom, left, right));
+        }
+    }
+
     private void addSelectedRowsAndColumns(TablePosition<?, ?> pos) {
         GridViewSkin skin = getSpreadsheetViewSkin();
         if (skin == null) {
@@ -725,9 +729,9 @@ public class TableViewSpanSelectionModel extends
         final int rowSpan = spreadsheetView.getRowSpan(cell, pos.getRow());
 //        final int filteredRow = spreadsheetView.getFilteredRow(cell.getRow());
         for (int i = pos.getRow(); i < rowSpan + pos.getRow(); ++i) {
-            getSpreadsheetViewSkin().getSelectedRows().remove(Integer.valueOf(i));
+            getSpreadsheetViewSkin().getSelectedRows().remove(i);
             for (int j = spreadsheetView.getViewColumn(cell.getColumn()); j < spreadsheetView.getColumnSpan(cell) + spreadsheetView.getViewColumn(cell.getColumn()); ++j) {
-                getSpreadsheetViewSkin().getSelectedColumns().remove(Integer.valueOf(j));
+                getSpreadsheetViewSkin().getSelectedColumns().remove(j);
             }
         }
     }
@@ -747,8 +751,7 @@ public class TableViewSpanSelectionModel extends
         makeAtomic = true;
         // firstly we make a copy of the selection, so that we can send out
         // the correct details in the selection change event
-        List<TablePosition<ObservableList<SpreadsheetCell>, ?>> previousSelection = new ArrayList<>(
-                selectedCellsMap.getSelectedCells());
+        List<TablePosition<ObservableList<SpreadsheetCell>, ?>> previousSelection = selectedCellsMap.snapshot();
 
         // then clear the current selection
         clearSelection();
@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2018 ControlsFX
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of ControlsFX, any associated website, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL CONTROLSFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package impl.org.controlsfx.spreadsheet;
+
+import java.util.HashMap;
+import java.util.Objects;
+import javafx.geometry.Bounds;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+/**
+ * Measures text without needing a Node attached to the scene. This is used
+ * when computing the best height of the rows and the best width of the
+ * columns.
+ *
+ * Each measurement is cached by font, wrapping width, line spacing and text
+ * since the same values are usually repeated a lot in a grid. Measurement is
+ * done on a {@link Text} that is never attached to a scene. Just like any
+ * node, it must only be used on the JavaFX thread.
+ */
+final class TextMeasurer {
+
+    /**
+     * When the cache is bigger than this, it is cleared.
+     */
+    private static final int MAX_CACHE_SIZE = 20_000;
+
+    private final HashMap<Key, double[]> cache = new HashMap<>();
+    private final Text helper = new Text();
+
+    /**
+     * Return the width and the height needed to display the given text.
+     *
+     * @param text
+     * @param font
+     * @param wrappingWidth the width to wrap the text into, or 0 for no
+     * wrapping
+     * @param lineSpacing
+     * @return an array containing the width and the height of the text.
+     */
+    double[] measure(String text, Font font, double wrappingWidth, double lineSpacing) {
+        final Key key = new Key(text, font, wrappingWidth, lineSpacing);
+        double[] size = cache.get(key);
+        if (size == null) {
+            helper.setFont(font);
+            helper.setWrappingWidth(wrappingWidth);
+            helper.setLineSpacing(lineSpacing);
+            helper.setText(text);
+            final Bounds bounds = helper.getLayoutBounds();
+            size = new double[]{Math.ceil(bounds.getWidth()), Math.ceil(bounds.getHeight())};
+            if (cache.size() >= MAX_CACHE_SIZE) {
+                cache.clear();
+            }
+            cache.put(key, size);
+        }
+        return size;
+    }
+
+    /**
+     * Clear all the cached measurements.
+     */
+    void clear() {
+        cache.clear();
+    }
+
+    private static final class Key {
+        private final String text;
+        private final Font font;
+        private final double wrappingWidth;
+        private final double lineSpacing;
+        private final int hash;
+
+        Key(String text, Font font, double wrappingWidth, double lineSpacing) {
+            this.text = text;
+            this.font = font;
+            this.wrappingWidth = wrappingWidth;
+            this.lineSpacing = lineSpacing;
+            this.hash = Objects.hash(text, font, wrappingWidth, lineSpacing);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return wrappingWidth == other.wrappingWidth
+                    && lineSpacing == other.lineSpacing
+                    && Objects.equals(text, other.text)
+                    && Objects.equals(font, other.font);
+        }
+    }
+}
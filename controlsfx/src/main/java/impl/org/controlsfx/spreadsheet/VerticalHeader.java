@@ -32,8 +32,8 @@ import static impl.org.controlsfx.i18n.Localization.localize;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.Stack;
 import javafx.beans.InvalidationListener;
 import javafx.beans.Observable;
 import javafx.beans.property.DoubleProperty;
@@ -47,6 +47,7 @@ import javafx.event.Event;
 import javafx.event.EventHandler;
 import javafx.geometry.NodeOrientation;
 import javafx.scene.Cursor;
+import javafx.scene.Node;
 import javafx.scene.control.ContextMenu;
 import javafx.scene.control.Label;
 import javafx.scene.control.MenuItem;
@@ -75,6 +76,9 @@ public class VerticalHeader extends StackPane {
     private static final String TABLE_ROW_KEY = "TableRow"; //$NON-NLS-1$
     private static final String PICKER_INDEX = "PickerIndex"; //$NON-NLS-1$
     private static final String TABLE_LABEL_KEY = "Label"; //$NON-NLS-1$
+    private static final String ROW_INDEX_KEY = "RowIndex"; //$NON-NLS-1$
+    private static final String BOUND_ROW_KEY = "BoundRow"; //$NON-NLS-1$
+    private static final String SHIFTED_KEY = "Shifted"; //$NON-NLS-1$
     private static final Image pinImage = new Image(SpreadsheetView.class.getResource("pinSpreadsheetView.png").toExternalForm()); //$NON-NLS-1$
 
     /**
@@ -95,6 +99,11 @@ public class VerticalHeader extends StackPane {
     private final DoubleProperty innerVerticalHeaderWidth = new SimpleDoubleProperty();
     private Rectangle clip; // Ensure that children do not go out of bounds
     private ContextMenu blankContextMenu;
+    private ContextMenu rowContextMenu;
+    /**
+     * The model row of the header on which the row ContextMenu has been shown.
+     */
+    private Integer contextMenuModelRow;
 
     // used for column resizing
     private double lastY = 0.0F;
@@ -108,8 +117,31 @@ public class VerticalHeader extends StackPane {
     private GridViewSkin skin;
     private boolean resizing = false;
 
-    private final Stack<Label> pickerPile;
-    private final Stack<Label> pickerUsed;
+    private final List<Label> pickerList = new ArrayList<>();
+    private int pickerCount = 0;
+    /**
+     * The two blank labels (top-left corner and bottom one above the
+     * horizontal scrollBar) are never used for a row.
+     */
+    private Label cornerLabel;
+    private Label bottomLabel;
+
+    /**
+     * The children computed during the current layout. They are only pushed
+     * into the scene graph if they differ from the actual children.
+     */
+    private final List<Node> layoutNodes = new ArrayList<>();
+    /**
+     * The fixed (model) rows and the selected (view) rows, gathered once per
+     * layout instead of looking into the lists for every row.
+     */
+    private final BitSet fixedRows = new BitSet();
+    private final BitSet highlightedRows = new BitSet();
+    /**
+     * The horizontalHeaderHeight used in the current layoutY bindings.
+     */
+    private double boundHeaderHeight = -1;
+    private boolean rebindLayoutY = true;
 
     /**
      * This BitSet keeps track of the selected rows (when clicked on their
@@ -127,8 +159,6 @@ public class VerticalHeader extends StackPane {
     public VerticalHeader(final SpreadsheetHandle handle) {
         this.handle = handle;
         this.spreadsheetView = handle.getView();
-        pickerPile = new Stack<>();
-        pickerUsed = new Stack<>();
     }
 
     /**
@@ -220,14 +250,11 @@ public class VerticalHeader extends StackPane {
         if ((spreadsheetView.isShowRowHeader() || !spreadsheetView.getRowPickers().isEmpty()) && skin.getCellsSize() > 0) {
 
             double x = snappedLeftInset();
-            /**
-             * Pickers
-             */
-            pickerPile.addAll(pickerUsed.subList(0, pickerUsed.size()));
-            pickerUsed.clear();
-            //We reset our counter for Label and dragRects.
+            //We reset our counter for Label, pickers and dragRects.
             labelCount = 0;
+            pickerCount = 0;
             dragRectCount = 0;
+            layoutNodes.clear();
             if (!spreadsheetView.getRowPickers().isEmpty()) {
                 innerVerticalHeaderWidth.setValue(PICKER_SIZE);
                 x += PICKER_SIZE;
@@ -237,8 +264,11 @@ public class VerticalHeader extends StackPane {
             if (spreadsheetView.isShowRowHeader()) {
                 innerVerticalHeaderWidth.setValue(getVerticalHeaderWidth() + spreadsheetView.getRowHeaderWidth());
             }
-
-            getChildren().clear();
+            //The bindings of the layoutY must be re-created if the header height has changed.
+            rebindLayoutY = boundHeaderHeight != horizontalHeaderHeight;
+            boundHeaderHeight = horizontalHeaderHeight;
+            fillRows(fixedRows, spreadsheetView.getFixedRows());
+            skin.getSelectedRows().copyTo(highlightedRows);
 
             final int cellSize = skin.getCellsSize();
 
@@ -251,33 +281,30 @@ public class VerticalHeader extends StackPane {
 //            }
             // First one blank and on top (z-order) of the others
             if (spreadsheetView.showColumnHeaderProperty().get()) {
-                label = getLabel(null);
-                label.setOnMousePressed((MouseEvent event) -> {
-                    spreadsheetView.getSelectionModel().selectAll();
-                });
-                label.setText(""); //$NON-NLS-1$
+                label = getBlankLabel(true);
                 label.resize(spreadsheetView.getRowHeaderWidth(), horizontalHeaderHeight);
-                label.layoutYProperty().unbind();
                 label.setLayoutY(0);
                 label.setLayoutX(x);
-                label.getStyleClass().clear();
-                label.setContextMenu(blankContextMenu);
-                getChildren().add(label);
+                layoutNodes.add(label);
             }
 
             ScrollBar hbar = handle.getCellsViewSkin().getHBar();
             //FIXME handle height.
             if (hbar.isVisible()) {
                 // Last one blank and on top (z-order) of the others
-                label = getLabel(null);
-                label.getProperties().put(TABLE_ROW_KEY, null);
-                label.setText(""); //$NON-NLS-1$
+                label = getBlankLabel(false);
                 label.resize(getVerticalHeaderWidth(), hbar.getHeight());
-                label.layoutYProperty().unbind();
                 label.relocate(snappedLeftInset(), getHeight() - hbar.getHeight());
-                label.getStyleClass().clear();
-                label.setContextMenu(blankContextMenu);
-                getChildren().add(label);
+                layoutNodes.add(label);
+            }
+            releaseUnusedNodes();
+            /**
+             * The nodes are recycled in the same order from one layout to
+             * another, so most of the time (when scrolling for example) the
+             * children are the same and we don't touch the scene graph.
+             */
+            if (!getChildren().equals(layoutNodes)) {
+                getChildren().setAll(layoutNodes);
             }
         } else {
             getChildren().clear();
@@ -327,9 +354,8 @@ public class VerticalHeader extends StackPane {
                 if (spreadsheetView.getRowPickers().containsKey(modelRow)) {
                     Label picker = getPicker(spreadsheetView.getRowPickers().get(modelRow));
                     picker.resize(PICKER_SIZE, rowHeight);
-                    picker.layoutYProperty().unbind();
-                    picker.setLayoutY(y);
-                    getChildren().add(picker);
+                    unbindLayoutY(picker, y);
+                    layoutNodes.add(picker);
                 }
                 if (spreadsheetView.isShowRowHeader()) {
                     label = getLabel(viewRow);
@@ -339,17 +365,13 @@ public class VerticalHeader extends StackPane {
                     label.resize(spreadsheetView.getRowHeaderWidth(), rowHeight);
                     label.setContextMenu(getRowContextMenu(viewRow));
                     if (row != null) {
-                        label.layoutYProperty().bind(row.layoutYProperty().add(horizontalHeaderHeight).add(row.verticalShift));
+                        bindLayoutY(label, row, true);
                     }
                     label.setLayoutX(x);
                     final ObservableList<String> css = label.getStyleClass();
-                    if (skin.getSelectedRows().contains(viewRow)) {
-                        css.addAll("selected"); //$NON-NLS-1$
-                    } else {
-                        css.removeAll("selected"); //$NON-NLS-1$
-                    }
-                    css.addAll("fixed"); //$NON-NLS-1$
-                    getChildren().add(label);
+                    setStyleClass(css, "selected", highlightedRows.get(viewRow)); //$NON-NLS-1$
+                    setStyleClass(css, "fixed", true); //$NON-NLS-1$
+                    layoutNodes.add(label);
                     // position drag overlay to intercept row resize requests if authorized by the grid.
                     if (spreadsheetView.getGrid().isRowResizable(viewRow)) {
                         Rectangle dragRect = getDragRect();
@@ -357,7 +379,7 @@ public class VerticalHeader extends StackPane {
                         dragRect.getProperties().put(TABLE_LABEL_KEY, label);
                         dragRect.setWidth(label.getWidth());
                         dragRect.relocate(snappedLeftInset() + x, y + rowHeight - DRAG_RECT_HEIGHT);
-                        getChildren().add(dragRect);
+                        layoutNodes.add(dragRect);
                     }
                 }
                 spaceUsedByFixedRows += skin.getRowHeight(viewRow);
@@ -403,8 +425,8 @@ public class VerticalHeader extends StackPane {
             if (row.getLayoutY() >= fixedRowHeight && spreadsheetView.getRowPickers().containsKey(modelRow)) {
                 Label picker = getPicker(spreadsheetView.getRowPickers().get(modelRow));
                 picker.resize(PICKER_SIZE, height);
-                picker.layoutYProperty().bind(row.layoutYProperty().add(horizontalHeaderHeight));
-                getChildren().add(picker);
+                bindLayoutY(picker, row, false);
+                layoutNodes.add(picker);
             }
 
             if (spreadsheetView.isShowRowHeader()) {
@@ -413,22 +435,14 @@ public class VerticalHeader extends StackPane {
                 label.setText(getRowHeader(rowIndex));
                 label.resize(rowHeaderWidth, height);
                 label.setLayoutX(x);
-                label.layoutYProperty().bind(row.layoutYProperty().add(horizontalHeaderHeight));
+                bindLayoutY(label, row, false);
                 label.setContextMenu(getRowContextMenu(rowIndex));
 
-                getChildren().add(label);
+                layoutNodes.add(label);
                 // We want to highlight selected rows
                 final ObservableList<String> css = label.getStyleClass();
-                if (skin.getSelectedRows().contains(rowIndex)) {
-                    css.addAll("selected"); //$NON-NLS-1$
-                } else {
-                    css.removeAll("selected"); //$NON-NLS-1$
-                }
-                if (spreadsheetView.getFixedRows().contains(modelRow)) {
-                    css.addAll("fixed"); //$NON-NLS-1$
-                } else {
-                    css.removeAll("fixed"); //$NON-NLS-1$
-                }
+                setStyleClass(css, "selected", highlightedRows.get(rowIndex)); //$NON-NLS-1$
+                setStyleClass(css, "fixed", modelRow >= 0 && fixedRows.get(modelRow)); //$NON-NLS-1$
 
                 y += height;
 
@@ -439,13 +453,75 @@ public class VerticalHeader extends StackPane {
                     dragRect.getProperties().put(TABLE_LABEL_KEY, label);
                     dragRect.setWidth(label.getWidth());
                     dragRect.relocate(snappedLeftInset() + x, y - DRAG_RECT_HEIGHT);
-                    getChildren().add(dragRect);
+                    layoutNodes.add(dragRect);
                 }
             }
             row = skin.getRow(++i);
         }
     }
 
+    /**
+     * Bind the layoutY of the given node to the given row. Creating a binding
+     * is not free, so this is only done if the node is not already bound the
+     * same way.
+     *
+     * @param node
+     * @param row
+     * @param shifted whether the vertical shift of the fixed rows must be
+     * taken into account
+     */
+    private void bindLayoutY(Node node, GridRow row, boolean shifted) {
+        final Map<Object, Object> properties = node.getProperties();
+        if (rebindLayoutY || properties.get(BOUND_ROW_KEY) != row || !Boolean.valueOf(shifted).equals(properties.get(SHIFTED_KEY))) {
+            properties.put(BOUND_ROW_KEY, row);
+            properties.put(SHIFTED_KEY, shifted);
+            if (shifted) {
+                node.layoutYProperty().bind(row.layoutYProperty().add(horizontalHeaderHeight).add(row.verticalShift));
+            } else {
+                node.layoutYProperty().bind(row.layoutYProperty().add(horizontalHeaderHeight));
+            }
+        }
+    }
+
+    private void unbindLayoutY(Node node, double y) {
+        if (node.getProperties().remove(BOUND_ROW_KEY) != null) {
+            node.layoutYProperty().unbind();
+        }
+        node.setLayoutY(y);
+    }
+
+    /**
+     * The labels and pickers not used in this layout must not keep their
+     * bindings to the rows.
+     */
+    private void releaseUnusedNodes() {
+        for (int i = labelCount; i < labelList.size(); ++i) {
+            unbindLayoutY(labelList.get(i), 0);
+        }
+        for (int i = pickerCount; i < pickerList.size(); ++i) {
+            unbindLayoutY(pickerList.get(i), 0);
+        }
+    }
+
+    private static void setStyleClass(ObservableList<String> css, String styleClass, boolean present) {
+        if (present) {
+            if (!css.contains(styleClass)) {
+                css.add(styleClass);
+            }
+        } else {
+            css.remove(styleClass);
+        }
+    }
+
+    private static void fillRows(BitSet rows, List<Integer> indexes) {
+        rows.clear();
+        for (Integer index : indexes) {
+            if (index != null && index >= 0) {
+                rows.set(index);
+            }
+        }
+    }
+
     private final EventHandler<MouseEvent> rectMousePressed = new EventHandler<MouseEvent>() {
         @Override
         public void handle(MouseEvent me) {
@@ -524,18 +600,52 @@ public class VerticalHeader extends StackPane {
      *
      * @return
      */
-    private Label getLabel(Integer row) {
+    private Label getLabel(int row) {
         Label label;
         if (labelList.isEmpty() || labelList.size() <= labelCount) {
             label = new Label();
+            // We want to select the whole row when clicking on a header.
+            label.setOnMousePressed(labelMousePressed);
             labelList.add(label);
         } else {
             label = labelList.get(labelCount);
         }
         ++labelCount;
-        // We want to select the whole row when clicking on a header.
-        label.setOnMousePressed(row == null ? null : (MouseEvent event) -> {
+        label.getProperties().put(ROW_INDEX_KEY, row);
+        return label;
+    }
+
+    /**
+     * Return the blank label used either in the top-left corner or at the
+     * bottom above the horizontal ScrollBar.
+     *
+     * @param corner
+     * @return
+     */
+    private Label getBlankLabel(boolean corner) {
+        Label label = corner ? cornerLabel : bottomLabel;
+        if (label == null) {
+            label = new Label();
+            label.getStyleClass().clear();
+            label.setContextMenu(blankContextMenu);
+            if (corner) {
+                label.setOnMousePressed((MouseEvent event) -> {
+                    spreadsheetView.getSelectionModel().selectAll();
+                });
+                cornerLabel = label;
+            } else {
+                bottomLabel = label;
+            }
+        }
+        return label;
+    }
+
+    private final EventHandler<MouseEvent> labelMousePressed = new EventHandler<MouseEvent>() {
+        @Override
+        public void handle(MouseEvent event) {
             if (event.isPrimaryButtonDown()) {
+                Label label = (Label) event.getSource();
+                int row = (Integer) label.getProperties().get(ROW_INDEX_KEY);
                 if (event.getClickCount() == 2) {
                     skin.resizeRowToFitContent(spreadsheetView.getModelRow(row));
                     requestLayout();
@@ -543,9 +653,8 @@ public class VerticalHeader extends StackPane {
                     headerClicked(row, event);
                 }
             }
-        });
-        return label;
-    }
+        }
+    };
 
     /**
      * If a header is clicked, we must select the whole row. If Control key of
@@ -587,17 +696,25 @@ public class VerticalHeader extends StackPane {
 
     private Label getPicker(Picker picker) {
         Label pickerLabel;
-        if (pickerPile.isEmpty()) {
+        if (pickerList.size() <= pickerCount) {
             pickerLabel = new Label();
-            picker.getStyleClass().addListener(layout);
             pickerLabel.setOnMouseClicked(pickerMouseEvent);
+            pickerList.add(pickerLabel);
         } else {
-            pickerLabel = pickerPile.pop();
+            pickerLabel = pickerList.get(pickerCount);
         }
-        pickerUsed.push(pickerLabel);
+        ++pickerCount;
 
-        pickerLabel.getStyleClass().setAll(picker.getStyleClass());
-        pickerLabel.getProperties().put(PICKER_INDEX, picker);
+        Picker previousPicker = (Picker) pickerLabel.getProperties().put(PICKER_INDEX, picker);
+        if (previousPicker != picker) {
+            if (previousPicker != null) {
+                previousPicker.getStyleClass().removeListener(layout);
+            }
+            picker.getStyleClass().addListener(layout);
+        }
+        if (!pickerLabel.getStyleClass().equals(picker.getStyleClass())) {
+            pickerLabel.getStyleClass().setAll(picker.getStyleClass());
+        }
         return pickerLabel;
     }
 
@@ -637,48 +754,70 @@ public class VerticalHeader extends StackPane {
     }
 
     /**
-     * Return a contextMenu for fixing a row if possible.
+     * Return a contextMenu for fixing a row if possible. The same ContextMenu
+     * is shared by all the row headers, the row is retrieved from the header
+     * owning the menu when it is shown. It is kept until the action because
+     * the header can be recycled for another row in the meantime.
      *
      * @param row
      * @return
      */
     private ContextMenu getRowContextMenu(final Integer row) {
         if (spreadsheetView.isRowFixable(row)) {
-            final ContextMenu contextMenu = new ContextMenu();
-
-            MenuItem fixItem = new MenuItem(localize(asKey("spreadsheet.verticalheader.menu.fix"))); //$NON-NLS-1$
-            contextMenu.setOnShowing(new EventHandler<WindowEvent>() {
-
-                @Override
-                public void handle(WindowEvent event) {
-                    if (spreadsheetView.getFixedRows().contains(spreadsheetView.getFilteredSourceIndex(row))) {
-                        fixItem.setText(localize(asKey("spreadsheet.verticalheader.menu.unfix"))); //$NON-NLS-1$
-                    } else {
-                        fixItem.setText(localize(asKey("spreadsheet.verticalheader.menu.fix"))); //$NON-NLS-1$
+            if (rowContextMenu == null) {
+                final ContextMenu contextMenu = new ContextMenu();
+
+                MenuItem fixItem = new MenuItem(localize(asKey("spreadsheet.verticalheader.menu.fix"))); //$NON-NLS-1$
+                contextMenu.setOnShowing(new EventHandler<WindowEvent>() {
+
+                    @Override
+                    public void handle(WindowEvent event) {
+                        contextMenuModelRow = getContextMenuModelRow(contextMenu);
+                        if (spreadsheetView.getFixedRows().contains(contextMenuModelRow)) {
+                            fixItem.setText(localize(asKey("spreadsheet.verticalheader.menu.unfix"))); //$NON-NLS-1$
+                        } else {
+                            fixItem.setText(localize(asKey("spreadsheet.verticalheader.menu.fix"))); //$NON-NLS-1$
+                        }
                     }
-                }
-            });
-            fixItem.setGraphic(new ImageView(pinImage));
-
-            fixItem.setOnAction(new EventHandler<ActionEvent>() {
-                @Override
-                public void handle(ActionEvent arg0) {
-                    Integer modelRow = spreadsheetView.getFilteredSourceIndex(row);
-                    if (spreadsheetView.getFixedRows().contains(modelRow)) {
-                        spreadsheetView.getFixedRows().remove(modelRow);
-                    } else {
-                        spreadsheetView.getFixedRows().add(modelRow);
+                });
+                fixItem.setGraphic(new ImageView(pinImage));
+
+                fixItem.setOnAction(new EventHandler<ActionEvent>() {
+                    @Override
+                    public void handle(ActionEvent arg0) {
+                        Integer modelRow = contextMenuModelRow;
+                        if (modelRow == null) {
+                            return;
+                        }
+                        if (spreadsheetView.getFixedRows().contains(modelRow)) {
+                            spreadsheetView.getFixedRows().remove(modelRow);
+                        } else {
+                            spreadsheetView.getFixedRows().add(modelRow);
+                        }
                     }
-                }
-            });
-            contextMenu.getItems().add(fixItem);
-
-            return contextMenu;
+                });
+                contextMenu.getItems().add(fixItem);
+                rowContextMenu = contextMenu;
+            }
+            return rowContextMenu;
         } else {
             return blankContextMenu;
         }
     }
 
+    /**
+     * Return the model row of the header on which the given ContextMenu has
+     * been shown.
+     *
+     * @param contextMenu
+     * @return
+     */
+    private Integer getContextMenuModelRow(ContextMenu contextMenu) {
+        Node owner = contextMenu.getOwnerNode();
+        Integer row = owner == null ? null : (Integer) owner.getProperties().get(ROW_INDEX_KEY);
+        return row == null ? null : spreadsheetView.getFilteredSourceIndex(row);
+    }
+
     /**
      * Return the String header associated with this row index.
      *
@@ -0,0 +1,208 @@
+/**
+ * Copyright (c) 2018 ControlsFX
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of ControlsFX, any associated website, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL CONTROLSFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package impl.org.controlsfx.spreadsheet;
+
+import java.util.BitSet;
+
+/**
+ * This class translates indexes between a list and the same list where some
+ * elements are hidden. It is used by the SpreadsheetView for the hidden rows
+ * and columns.
+ *
+ * The hidden elements are counted in a Fenwick tree so that both translations
+ * are done in O(log n) without any boxing. When a new BitSet of hidden
+ * elements is given, only the bits that have flipped are applied, so hiding or
+ * showing one row does not rebuild anything.
+ */
+public final class VisibleIndexMap {
+
+    /**
+     * When more elements than this ratio (of the size) are flipped, it is
+     * cheaper to rebuild the tree.
+     */
+    private static final int REBUILD_RATIO = 32;
+
+    private int size;
+    /**
+     * Fenwick tree (1-based) where each element is 1 if hidden.
+     */
+    private int[] tree = new int[1];
+    private BitSet hidden = new BitSet();
+
+    /**
+     * Update this map with the given hidden elements.
+     *
+     * @param newHidden the BitSet where the bits set to true are the hidden
+     * elements
+     * @param newSize the number of elements
+     */
+    public void update(BitSet newHidden, int newSize) {
+        if (newSize != size) {
+            rebuild(newHidden, newSize);
+            return;
+        }
+        BitSet flipped = (BitSet) hidden.clone();
+        flipped.xor(newHidden);
+        flipped.clear(size, Math.max(size, flipped.length()));
+        if (flipped.cardinality() > size / REBUILD_RATIO) {
+            rebuild(newHidden, newSize);
+            return;
+        }
+        for (int i = flipped.nextSetBit(0); i >= 0; i = flipped.nextSetBit(i + 1)) {
+            add(i, newHidden.get(i) ? 1 : -1);
+        }
+        hidden = (BitSet) newHidden.clone();
+    }
+
+    /**
+     * Hide or show one element.
+     *
+     * @param index
+     * @param value true to hide the element
+     * @return true if the element state has changed
+     */
+    public boolean setHidden(int index, boolean value) {
+        if (index < 0 || index >= size || hidden.get(index) == value) {
+            return false;
+        }
+        hidden.set(index, value);
+        add(index, value ? 1 : -1);
+        return true;
+    }
+
+    /**
+     * @return a copy of the hidden elements.
+     */
+    public BitSet getHidden() {
+        return (BitSet) hidden.clone();
+    }
+
+    /**
+     * @param index
+     * @return true if the element is hidden.
+     */
+    public boolean isHidden(int index) {
+        return hidden.get(index);
+    }
+
+    /**
+     * Return the first hidden index starting from the given one, or -1 if
+     * there is none. The hidden indexes beyond the size are also considered.
+     *
+     * @param index
+     * @return the first hidden index starting from the given one
+     */
+    public int nextHidden(int index) {
+        return hidden.nextSetBit(index);
+    }
+
+    /**
+     * @return the number of elements, hidden or not.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Return the index of the given element among the visible ones. If the
+     * element is hidden, the index of the next visible one is returned.
+     *
+     * @param modelIndex
+     * @return the index of the given element among the visible ones.
+     */
+    public int getViewIndex(int modelIndex) {
+        return modelIndex - getHiddenCount(modelIndex);
+    }
+
+    /**
+     * Return the index of the element which is visible at the given index, or
+     * -1 if there is none.
+     *
+     * @param viewIndex
+     * @return the index of the element which is visible at the given index.
+     */
+    public int getModelIndex(int viewIndex) {
+        if (viewIndex < 0 || viewIndex >= getVisibleCount()) {
+            return -1;
+        }
+        int position = 0;
+        int remaining = viewIndex + 1;
+        for (int step = Integer.highestOneBit(size); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next <= size) {
+                int visible = step - tree[next];
+                if (visible < remaining) {
+                    position = next;
+                    remaining -= visible;
+                }
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Return the number of hidden elements before the given index.
+     *
+     * @param index
+     * @return the number of hidden elements before the given index.
+     */
+    public int getHiddenCount(int index) {
+        int count = 0;
+        for (int i = Math.min(index, size); i > 0; i -= i & -i) {
+            count += tree[i];
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of visible elements.
+     */
+    public int getVisibleCount() {
+        return size - getHiddenCount(size);
+    }
+
+    private void rebuild(BitSet newHidden, int newSize) {
+        size = newSize;
+        tree = new int[size + 1];
+        for (int i = newHidden.nextSetBit(0); i >= 0 && i < size; i = newHidden.nextSetBit(i + 1)) {
+            tree[i + 1] = 1;
+        }
+        for (int i = 1; i <= size; ++i) {
+            int parent = i + (i & -i);
+            if (parent <= size) {
+                tree[parent] += tree[i];
+            }
+        }
+        hidden = (BitSet) newHidden.clone();
+    }
+
+    private void add(int index, int delta) {
+        for (int i = index + 1; i <= size; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+}
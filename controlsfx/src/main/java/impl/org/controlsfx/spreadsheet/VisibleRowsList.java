@@ -0,0 +1,287 @@
+/**
+ * Copyright (c) 2018 ControlsFX
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of ControlsFX, any associated website, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL CONTROLSFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package impl.org.controlsfx.spreadsheet;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.TransformationList;
+
+/**
+ * A list showing only the elements of its source that are not hidden. It
+ * replaces a {@link javafx.collections.transformation.FilteredList} for the
+ * hidden rows of the SpreadsheetView.
+ *
+ * When a new set of hidden elements is given, a FilteredList must test every
+ * element again and emits a change covering the whole list. Here only the
+ * elements whose state has flipped are added or removed, so hiding a group of
+ * rows only costs the size of that group.
+ *
+ * The hidden state is attached to the index in the source, just like the
+ * BitSet of hidden rows in the SpreadsheetView.
+ *
+ * @param <E>
+ */
+public final class VisibleRowsList<E> extends TransformationList<E, E> {
+
+    private final VisibleIndexMap indexMap = new VisibleIndexMap();
+
+    public VisibleRowsList(ObservableList<? extends E> source) {
+        super(source);
+        indexMap.update(new BitSet(), source.size());
+    }
+
+    /**
+     * Sets the hidden elements of this list. Only the elements whose state has
+     * changed since the last call are removed from or added to this list.
+     *
+     * @param hidden the BitSet where the bits set to true are the hidden
+     * elements
+     */
+    public void setHidden(BitSet hidden) {
+        final BitSet flipped = indexMap.getHidden();
+        flipped.xor(hidden);
+        flipped.clear(indexMap.size(), Math.max(indexMap.size(), flipped.length()));
+        if (flipped.isEmpty()) {
+            return;
+        }
+        beginChange();
+        for (int i = flipped.nextSetBit(0); i >= 0; i = flipped.nextSetBit(i + 1)) {
+            final int viewIndex = indexMap.getViewIndex(i);
+            if (hidden.get(i)) {
+                indexMap.setHidden(i, true);
+                nextRemove(viewIndex, getSource().get(i));
+            } else {
+                indexMap.setHidden(i, false);
+                nextAdd(viewIndex, viewIndex + 1);
+            }
+        }
+        endChange();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getSourceIndex(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException();
+        }
+        return indexMap.getModelIndex(index);
+    }
+
+    /**
+     * Returns the index in this list of the given source index, or -1 if the
+     * element is hidden.
+     *
+     * @param sourceIndex
+     * @return the index in this list of the given source index
+     */
+    public int getViewIndex(int sourceIndex) {
+        if (sourceIndex < 0 || sourceIndex >= indexMap.size() || indexMap.isHidden(sourceIndex)) {
+            return -1;
+        }
+        return indexMap.getViewIndex(sourceIndex);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public E get(int index) {
+        return getSource().get(getSourceIndex(index));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int size() {
+        return indexMap.getVisibleCount();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected void sourceChanged(ListChangeListener.Change<? extends E> c) {
+        final List<SubChange<E>> subChanges = new ArrayList<>();
+        /**
+         * The hidden state stays attached to the indexes. As long as no hidden
+         * index follows a change shifting the elements, the visible elements
+         * are shifted the same way and the change is translated as is. After
+         * the first change moving elements over a hidden index, the visibility
+         * of every following element may change, so that part is removed and
+         * added again.
+         */
+        int tail = -1;
+        while (c.next()) {
+            final SubChange<E> subChange = new SubChange<>(c);
+            if (tail < 0 && subChange.isShifting(indexMap)) {
+                tail = subChanges.size();
+            }
+            subChanges.add(subChange);
+        }
+        beginChange();
+        final int end = tail < 0 ? subChanges.size() : tail;
+        for (int i = 0; i < end; ++i) {
+            subChanges.get(i).translate(this);
+        }
+        if (tail < 0) {
+            indexMap.update(indexMap.getHidden(), getSource().size());
+        } else {
+            final int tailStart = subChanges.get(tail).from;
+            final List<E> oldTail = new ArrayList<>(getSource().subList(tailStart, getSource().size()));
+            for (int i = subChanges.size() - 1; i >= tail; --i) {
+                subChanges.get(i).undo(oldTail, tailStart);
+            }
+            final List<E> removed = new ArrayList<>();
+            for (int i = 0; i < oldTail.size(); ++i) {
+                if (!indexMap.isHidden(tailStart + i)) {
+                    removed.add(oldTail.get(i));
+                }
+            }
+            final int viewIndex = indexMap.getViewIndex(tailStart);
+            indexMap.update(indexMap.getHidden(), getSource().size());
+            if (!removed.isEmpty()) {
+                nextRemove(viewIndex, removed);
+            }
+            if (viewIndex < size()) {
+                nextAdd(viewIndex, size());
+            }
+        }
+        endChange();
+    }
+
+    /**
+     * A copy of one step of a ListChangeListener.Change, able to translate
+     * itself to this list or to undo itself.
+     */
+    private static class SubChange<E> {
+        private final int from;
+        private final int to;
+        private final boolean updated;
+        private final int[] permutation;
+        private final List<? extends E> removed;
+        private final int addedSize;
+
+        SubChange(ListChangeListener.Change<? extends E> c) {
+            from = c.getFrom();
+            to = c.getTo();
+            updated = c.wasUpdated();
+            if (c.wasPermutated()) {
+                permutation = new int[to - from];
+                for (int i = from; i < to; ++i) {
+                    permutation[i - from] = c.getPermutation(i);
+                }
+            } else {
+                permutation = null;
+            }
+            removed = c.wasRemoved() ? new ArrayList<>(c.getRemoved()) : null;
+            addedSize = c.wasAdded() ? c.getAddedSize() : 0;
+        }
+
+        private int getRemovedSize() {
+            return removed == null ? 0 : removed.size();
+        }
+
+        /**
+         * Returns whether this change moves some elements over a hidden
+         * index, so that their visibility changes.
+         */
+        boolean isShifting(VisibleIndexMap indexMap) {
+            if (updated) {
+                return false;
+            }
+            final int hidden = indexMap.nextHidden(from);
+            if (permutation != null) {
+                return hidden >= 0 && hidden < to;
+            }
+            return hidden >= 0 && addedSize != getRemovedSize();
+        }
+
+        /**
+         * Fires the equivalent of this change in the given list. The indexes
+         * after this change must not be shifted over a hidden index.
+         */
+        void translate(VisibleRowsList<E> list) {
+            final VisibleIndexMap indexMap = list.indexMap;
+            final int viewFrom = indexMap.getViewIndex(from);
+            if (updated) {
+                for (int i = from; i < to; ++i) {
+                    if (!indexMap.isHidden(i)) {
+                        list.nextUpdate(indexMap.getViewIndex(i));
+                    }
+                }
+            } else if (permutation != null) {
+                // no element is hidden in the permutated range
+                final int[] viewPermutation = new int[to - from];
+                for (int i = 0; i < viewPermutation.length; ++i) {
+                    viewPermutation[i] = permutation[i] - from + viewFrom;
+                }
+                list.nextPermutation(viewFrom, viewFrom + viewPermutation.length, viewPermutation);
+            } else {
+                if (removed != null) {
+                    final List<E> removedVisible = new ArrayList<>(removed.size());
+                    for (int i = 0; i < removed.size(); ++i) {
+                        if (!indexMap.isHidden(from + i)) {
+                            removedVisible.add(removed.get(i));
+                        }
+                    }
+                    if (!removedVisible.isEmpty()) {
+                        list.nextRemove(viewFrom, removedVisible);
+                    }
+                }
+                int addedVisible = 0;
+                for (int i = from; i < from + addedSize; ++i) {
+                    if (!indexMap.isHidden(i)) {
+                        ++addedVisible;
+                    }
+                }
+                if (addedVisible > 0) {
+                    list.nextAdd(viewFrom, viewFrom + addedVisible);
+                }
+            }
+        }
+
+        /**
+         * Undoes this change on the given part of the list, starting at the
+         * given index of the source.
+         */
+        void undo(List<E> list, int offset) {
+            if (updated) {
+                return;
+            }
+            final int start = from - offset;
+            if (permutation != null) {
+                List<E> permuted = new ArrayList<>(list.subList(start, to - offset));
+                for (int i = from; i < to; ++i) {
+                    list.set(i - offset, permuted.get(permutation[i - from] - from));
+                }
+            } else {
+                list.subList(start, start + addedSize).clear();
+                if (removed != null) {
+                    list.addAll(start, removed);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,442 @@
+/**
+ * Copyright (c) 2018 ControlsFX
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of ControlsFX, any associated website, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL CONTROLSFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.controlsfx.control.spreadsheet;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import impl.org.controlsfx.spreadsheet.GridViewSkin;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+
+/**
+ * Converts the items staged with {@link SpreadsheetView#stageItem(SpreadsheetCell, Object) }
+ * into their text off the JavaFX thread, and publishes them to the grid once
+ * per pulse.
+ * <br>
+ * Items can be staged from any thread. Only the latest staged item of a cell
+ * is kept. The text conversion is done by a shared pool of daemon threads.
+ * The results are set on the JavaFX thread with
+ * {@link Grid#setCellValue(int, int, Object) }, in one {@link GridBase#batch(Runnable) }
+ * per pulse, but only for the cells whose rows are displayed. The other
+ * results are kept until their rows are laid out, or until {@link #flush() }
+ * is called.
+ * <br>
+ * The workers never read the properties of the cells. The type and the
+ * format used for a cell are the ones recorded on the JavaFX thread the last
+ * time one of its items has been set, and the text is only used if they are
+ * still the same. Only the cells returning {@code true} from
+ * {@link SpreadsheetCellBase#isBackgroundTextSupported() } are converted in
+ * the background, the other ones simply receive their item on the JavaFX
+ * thread.
+ */
+final class CellTextRenderer {
+
+    /**
+     * Used in the concurrent maps in place of a {@code null} item.
+     */
+    private static final Object NULL_ITEM = new Object();
+
+    /**
+     * The maximum number of items converted by a worker before it hands over
+     * to another task, so that a continuous feed never holds a worker.
+     */
+    private static final int RENDER_CHUNK = 1024;
+
+    private final SpreadsheetView spreadsheetView;
+    private final Map<SpreadsheetCell, Staged> staged = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Rendered> rendered = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean renderScheduled = new AtomicBoolean();
+    private final AtomicBoolean publishScheduled = new AtomicBoolean();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger rendering = new AtomicInteger();
+
+    /**
+     * The type and format of the cells, by position, as recorded on the
+     * JavaFX thread the last time an item has been set. This is what the
+     * workers are using instead of reading the cells.
+     */
+    private final Map<Long, TextFormat> textFormats = new ConcurrentHashMap<>();
+
+    /**
+     * The rendered results waiting for their row to be displayed, by model
+     * row. Only accessed on the JavaFX thread.
+     */
+    private final Map<Integer, Map<SpreadsheetCell, Rendered>> ready = new HashMap<>();
+    /**
+     * The rendered results of the spanning cells, which are published as soon
+     * as possible since they can be displayed from another row than their own.
+     */
+    private final Map<SpreadsheetCell, Rendered> readySpans = new HashMap<>();
+    /**
+     * The sequence of the last item applied to each cell, so that a result
+     * rendered late by a worker never overrides a newer one. It is cleared as
+     * soon as no rendering is in progress.
+     */
+    private final Map<SpreadsheetCell, Long> appliedSequences = new HashMap<>();
+
+    private final AnimationTimer pulse = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            stop();
+            publishScheduled.set(false);
+            //The items no worker has accepted are converted here.
+            if (!renderScheduled.get() && !staged.isEmpty()) {
+                drainStaged();
+            }
+            collectRendered();
+            publishDisplayed();
+            releaseAppliedSequences();
+        }
+    };
+
+    CellTextRenderer(SpreadsheetView spreadsheetView) {
+        this.spreadsheetView = spreadsheetView;
+    }
+
+    /**
+     * Stages the item of the given cell. This can be called from any thread.
+     *
+     * @param cell
+     * @param item
+     */
+    void stage(SpreadsheetCell cell, Object item) {
+        Objects.requireNonNull(cell);
+        staged.put(cell, new Staged(item == null ? NULL_ITEM : item, sequence.incrementAndGet()));
+        scheduleRender();
+    }
+
+    /**
+     * Applies every staged item right away, displayed or not. This must be
+     * called on the JavaFX thread. It never waits for the workers: the items
+     * they are still converting are older than the ones applied here, so
+     * their results are discarded when they come back.
+     */
+    void flush() {
+        flush(spreadsheetView.getGrid());
+    }
+
+    /**
+     * Applies every staged item to the previous grid, and forgets the formats
+     * recorded for it. This must be called on the JavaFX thread when the
+     * {@link Grid} of the SpreadsheetView is replaced.
+     *
+     * @param previousGrid the grid the items were staged for, may be null
+     */
+    void gridChanged(Grid previousGrid) {
+        if (previousGrid != null) {
+            flush(previousGrid);
+        }
+        textFormats.clear();
+    }
+
+    /**
+     * Applies the rendered items of the rows currently displayed. This is
+     * called on each pulse where some items have been rendered, and each time
+     * the rows are laid out so that the rows scrolled into view are up to
+     * date.
+     */
+    void publishDisplayed() {
+        Grid grid = spreadsheetView.getGrid();
+        List<Rendered> results = new ArrayList<>(readySpans.values());
+        readySpans.clear();
+        GridViewSkin skin = spreadsheetView.getCellsViewSkin();
+        if (!ready.isEmpty() && skin != null) {
+            BitSet rows = skin.getDisplayedRows();
+            for (int row = rows.nextSetBit(0); row >= 0 && !ready.isEmpty(); row = rows.nextSetBit(row + 1)) {
+                Map<SpreadsheetCell, Rendered> cells = ready.remove(row);
+                if (cells != null) {
+                    results.addAll(cells.values());
+                }
+            }
+        }
+        if (!results.isEmpty() && grid != null) {
+            apply(grid, results);
+        }
+    }
+
+    private void flush(Grid grid) {
+        drainStaged();
+        collectRendered();
+        List<Rendered> results = new ArrayList<>(readySpans.values());
+        readySpans.clear();
+        for (Map<SpreadsheetCell, Rendered> row : ready.values()) {
+            results.addAll(row.values());
+        }
+        ready.clear();
+        if (grid != null) {
+            apply(grid, results);
+        }
+        releaseAppliedSequences();
+    }
+
+    /**
+     * Converts every staged item on the current thread.
+     */
+    private void drainStaged() {
+        for (Iterator<Map.Entry<SpreadsheetCell, Staged>> it = staged.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<SpreadsheetCell, Staged> entry = it.next();
+            if (staged.remove(entry.getKey(), entry.getValue())) {
+                rendered.add(render(entry.getKey(), entry.getValue()));
+            }
+        }
+    }
+
+    private void scheduleRender() {
+        if (renderScheduled.compareAndSet(false, true)) {
+            try {
+                Workers.EXECUTOR.execute(this::render);
+            } catch (RejectedExecutionException ex) {
+                //Every worker is busy, the next pulse will convert the items.
+                renderScheduled.set(false);
+                schedulePublish();
+            }
+        }
+    }
+
+    private void schedulePublish() {
+        if (publishScheduled.compareAndSet(false, true)) {
+            Platform.runLater(pulse::start);
+        }
+    }
+
+    /**
+     * Converts a chunk of the staged items into their text. This runs on the
+     * workers.
+     */
+    private void render() {
+        renderScheduled.set(false);
+        int count = 0;
+        rendering.incrementAndGet();
+        try {
+            for (Iterator<Map.Entry<SpreadsheetCell, Staged>> it = staged.entrySet().iterator();
+                    it.hasNext() && count < RENDER_CHUNK;) {
+                Map.Entry<SpreadsheetCell, Staged> entry = it.next();
+                if (staged.remove(entry.getKey(), entry.getValue())) {
+                    rendered.add(render(entry.getKey(), entry.getValue()));
+                    ++count;
+                }
+            }
+        } finally {
+            rendering.decrementAndGet();
+        }
+        if (count > 0) {
+            schedulePublish();
+        }
+        if (!staged.isEmpty()) {
+            scheduleRender();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Rendered render(SpreadsheetCell cell, Staged value) {
+        Object item = value.item == NULL_ITEM ? null : value.item;
+        TextFormat textFormat = cell instanceof SpreadsheetCellBase
+                ? textFormats.get(key(cell.getRow(), cell.getColumn())) : null;
+        if (textFormat == null) {
+            return new Rendered(cell, item, null, null, value.sequence);
+        }
+        String text;
+        try {
+            if (item == null) {
+                text = ""; //$NON-NLS-1$
+            } else if (!("").equals(textFormat.format)) { //$NON-NLS-1$
+                text = textFormat.type.toString(item, textFormat.format);
+            } else {
+                text = textFormat.type.toString(item);
+            }
+        } catch (RuntimeException ex) {
+            //The conversion will be done again on the JavaFX thread.
+            text = null;
+        }
+        return new Rendered(cell, item, textFormat, text, value.sequence);
+    }
+
+    /**
+     * Moves the rendered results into the ready maps, keeping only the latest
+     * one of each cell.
+     */
+    private void collectRendered() {
+        Rendered result;
+        while ((result = rendered.poll()) != null) {
+            Map<SpreadsheetCell, Rendered> cells;
+            if (result.cell.getRowSpan() > 1) {
+                cells = readySpans;
+            } else {
+                cells = ready.get(result.cell.getRow());
+                if (cells == null) {
+                    cells = new HashMap<>();
+                    ready.put(result.cell.getRow(), cells);
+                }
+            }
+            Rendered previous = cells.get(result.cell);
+            if (previous == null || previous.sequence < result.sequence) {
+                cells.put(result.cell, result);
+            }
+        }
+    }
+
+    /**
+     * Sets the rendered items through the grid, so that they are converted,
+     * ignored by the cells that are not editable and notified with a
+     * {@link GridChange} like any other modification.
+     *
+     * @param grid
+     * @param results
+     */
+    private void apply(Grid grid, Collection<Rendered> results) {
+        if (grid instanceof GridBase) {
+            ((GridBase) grid).batch(() -> applyAll(grid, results));
+        } else {
+            applyAll(grid, results);
+        }
+    }
+
+    private void applyAll(Grid grid, Collection<Rendered> results) {
+        for (Rendered result : results) {
+            Long applied = appliedSequences.get(result.cell);
+            if (applied != null && applied > result.sequence) {
+                continue;
+            }
+            appliedSequences.put(result.cell, result.sequence);
+
+            int row = result.cell.getRow();
+            int column = result.cell.getColumn();
+            if (row >= grid.getRowCount() || column >= grid.getColumnCount()) {
+                continue;
+            }
+            SpreadsheetCell target = grid.getRows().get(row).get(column);
+            SpreadsheetCellBase base = null;
+            if (target instanceof SpreadsheetCellBase && target.getRow() == row && target.getColumn() == column) {
+                base = (SpreadsheetCellBase) target;
+                if (result.text != null && result.textFormat.matches(base)) {
+                    base.setRenderedText(result.item, result.text);
+                }
+            }
+            try {
+                grid.setCellValue(row, column, result.item);
+            } finally {
+                if (base != null) {
+                    base.setRenderedText(null, null);
+                    if (base.isBackgroundTextSupported()) {
+                        textFormats.put(key(row, column), new TextFormat(base.getCellType(), base.getFormat()));
+                    }
+                }
+            }
+        }
+    }
+
+    private void releaseAppliedSequences() {
+        if (rendering.get() == 0 && rendered.isEmpty()) {
+            appliedSequences.clear();
+        }
+    }
+
+    private static Long key(int row, int column) {
+        return ((long) row << 32) | column;
+    }
+
+    private static final class Staged {
+
+        private final Object item;
+        private final long sequence;
+
+        private Staged(Object item, long sequence) {
+            this.item = item;
+            this.sequence = sequence;
+        }
+    }
+
+    private static final class TextFormat {
+
+        private final SpreadsheetCellType type;
+        private final String format;
+
+        private TextFormat(SpreadsheetCellType type, String format) {
+            this.type = type;
+            this.format = format;
+        }
+
+        private boolean matches(SpreadsheetCellBase cell) {
+            return cell.getCellType() == type && Objects.equals(cell.getFormat(), format)
+                    && cell.isBackgroundTextSupported();
+        }
+    }
+
+    private static final class Rendered {
+
+        private final SpreadsheetCell cell;
+        private final Object item;
+        private final TextFormat textFormat;
+        private final String text;
+        private final long sequence;
+
+        private Rendered(SpreadsheetCell cell, Object item, TextFormat textFormat, String text, long sequence) {
+            this.cell = cell;
+            this.item = item;
+            this.textFormat = textFormat;
+            this.text = text;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * The pool converting the items, shared by all the SpreadsheetViews. Its
+     * threads are daemons and stop when idle, and its queue is bounded: since
+     * each renderer has at most one task waiting, a full queue only means the
+     * items are converted on the JavaFX thread instead.
+     */
+    private static final class Workers {
+
+        private static final AtomicInteger COUNT = new AtomicInteger();
+        private static final int SIZE = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(SIZE, SIZE,
+                30, TimeUnit.SECONDS, new ArrayBlockingQueue<>(64), (Runnable runnable) -> {
+                    Thread thread = new Thread(runnable, "SpreadsheetView text renderer " + COUNT.incrementAndGet()); //$NON-NLS-1$
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        static {
+            EXECUTOR.allowCoreThreadTimeOut(true);
+        }
+    }
+}
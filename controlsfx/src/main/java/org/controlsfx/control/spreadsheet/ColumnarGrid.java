@@ -0,0 +1,760 @@
+/**
+ * Copyright (c) 2018 ControlsFX
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of ControlsFX, any associated website, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL CONTROLSFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.controlsfx.control.spreadsheet;
+
+import static impl.org.controlsfx.spreadsheet.RectangleSelection.SelectionRange.key;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import javafx.beans.property.StringProperty;
+import javafx.collections.ObservableList;
+import javafx.collections.ObservableListBase;
+
+/**
+ * A {@link Grid} implementation storing its values column by column inside
+ * primitive arrays instead of keeping one {@link SpreadsheetCell} per position.
+ *
+ * <h3>Storage</h3>
+ * Each column is given a {@link SpreadsheetCellType} at construction and its
+ * values are kept in a typed array:
+ * <ul>
+ * <li>{@link SpreadsheetCellType.DoubleType} values in a {@code double[]},</li>
+ * <li>{@link SpreadsheetCellType.IntegerType} values in an {@code int[]},</li>
+ * <li>{@link SpreadsheetCellType.DateType} values in a {@code long[]} of epoch
+ * days,</li>
+ * <li>{@link SpreadsheetCellType.StringType} and
+ * {@link SpreadsheetCellType.ListType} values are dictionary-encoded in an
+ * {@code int[]},</li>
+ * <li>any other type falls back to an {@code Object[]}.</li>
+ * </ul>
+ * Spans, styles and formats are rare, so they are kept in sparse tables keyed
+ * by position.
+ *
+ * <h3>Cells</h3>
+ * The {@link SpreadsheetCell} instances returned by {@link #getRows()} are only
+ * views over the stored values. They are created when a row is first
+ * requested (usually because the {@link SpreadsheetView} is showing it) and
+ * are kept for the last {@link #getRowCacheSize()} rows used. Rows leaving
+ * that cache are kept as long as something (a visible cell for example) still
+ * references them, so the same instances are reused when scrolling back.
+ * <br>
+ * Because the cells can be recreated at any time, the item, the format and
+ * the style modified directly on a {@link SpreadsheetCell} are written back
+ * into the columns, so they are found again by the next cell created for that
+ * position. Modifying them through the grid with
+ * {@link #setCellValue(int, int, Object)},
+ * {@link #setCellFormat(int, int, String)} and
+ * {@link #setCellStyle(int, int, String)} is still preferred, since only
+ * {@link #setCellValue(int, int, Object)} fires a {@link GridChange}. The spans
+ * must be modified with {@link #spanRow(int, int, int)} and
+ * {@link #spanColumn(int, int, int)}.
+ *
+ * <pre>
+ * List&lt;SpreadsheetCellType&lt;?&gt;&gt; types = Arrays.asList(SpreadsheetCellType.STRING, SpreadsheetCellType.DOUBLE);
+ * ColumnarGrid grid = new ColumnarGrid(500_000, types);
+ * for (int row = 0; row &lt; grid.getRowCount(); ++row) {
+ *     grid.setCellValue(row, 0, "Row " + row);
+ *     grid.setCellValue(row, 1, Math.random());
+ * }
+ * SpreadsheetView spv = new SpreadsheetView(grid);
+ * </pre>
+ *
+ * The rows list is fixed: {@link #setRows(java.util.Collection)} is not
+ * supported.
+ *
+ * @see GridBase
+ */
+public class ColumnarGrid extends GridBase {
+
+    /***************************************************************************
+     *
+     * Static Fields
+     *
+     **************************************************************************/
+
+    /**
+     * The default number of rows whose cells are strongly kept.
+     */
+    public static final int DEFAULT_ROW_CACHE_SIZE = 256;
+
+    /***************************************************************************
+     *
+     * Private Fields
+     *
+     **************************************************************************/
+
+    private final SpreadsheetCellType<?>[] cellTypes;
+    private final ColumnStore[] columns;
+    private final ObservableList<ObservableList<SpreadsheetCell>> rows;
+    private final ColumnarRow[] rowViews;
+
+    /**
+     * For each spanning cell (key is its position), the row span and column
+     * span.
+     */
+    private final Map<Long, int[]> spans = new HashMap<>();
+    /**
+     * For each position covered by a span, the position of the spanning cell.
+     */
+    private final Map<Long, Long> spanOrigins = new HashMap<>();
+    /**
+     * The unique instance shared by all positions of a span.
+     */
+    private final Map<Long, SpreadsheetCell> spanCells = new HashMap<>();
+    private final Map<Long, String> formats = new HashMap<>();
+    private final Map<Long, String> styles = new HashMap<>();
+
+    private int rowCacheSize = DEFAULT_ROW_CACHE_SIZE;
+    private final LinkedHashMap<Integer, SpreadsheetCell[]> cachedRows = new LinkedHashMap<Integer, SpreadsheetCell[]>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, SpreadsheetCell[]> eldest) {
+            if (size() > rowCacheSize) {
+                releasedRows.put(eldest.getKey(), new RowReference(eldest.getKey(), eldest.getValue(), queue));
+                return true;
+            }
+            return false;
+        }
+    };
+    private final Map<Integer, RowReference> releasedRows = new HashMap<>();
+    private final ReferenceQueue<SpreadsheetCell[]> queue = new ReferenceQueue<>();
+
+    /***************************************************************************
+     *
+     * Constructor
+     *
+     **************************************************************************/
+
+    /**
+     * Creates a {@code ColumnarGrid} with a fixed number of rows and one
+     * column per given {@link SpreadsheetCellType}. All values are initially
+     * {@code null}.
+     *
+     * @param rowCount the number of rows
+     * @param columnTypes the type of each column
+     */
+    public ColumnarGrid(int rowCount, List<SpreadsheetCellType<?>> columnTypes) {
+        super(rowCount, columnTypes.size());
+        cellTypes = columnTypes.toArray(new SpreadsheetCellType<?>[columnTypes.size()]);
+        columns = new ColumnStore[cellTypes.length];
+        for (int column = 0; column < cellTypes.length; ++column) {
+            columns[column] = createStore(cellTypes[column], rowCount);
+        }
+        rowViews = new ColumnarRow[rowCount];
+        rows = new ColumnarRows();
+    }
+
+    /***************************************************************************
+     *
+     * Public Methods
+     *
+     **************************************************************************/
+
+    /** {@inheritDoc} */
+    @Override
+    public ObservableList<ObservableList<SpreadsheetCell>> getRows() {
+        return rows;
+    }
+
+    /**
+     * This method is not supported because the rows are views over the
+     * column storage.
+     *
+     * @param rows
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void setRows(Collection<ObservableList<SpreadsheetCell>> rows) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Returns the {@link SpreadsheetCellType} of the given column.
+     *
+     * @param column the column index
+     * @return the {@link SpreadsheetCellType} of the given column
+     */
+    public SpreadsheetCellType<?> getColumnType(int column) {
+        return cellTypes[column];
+    }
+
+    /**
+     * Returns the value stored at the given position without creating any
+     * {@link SpreadsheetCell}.
+     *
+     * @param modelRow the row index
+     * @param column the column index
+     * @return the value stored at the given position
+     */
+    public Object getCellValue(int modelRow, int column) {
+        final Long origin = spanOrigins.get(key(modelRow, column));
+        if (origin != null) {
+            return columns[getColumn(origin)].get(getRow(origin));
+        }
+        return columns[column].get(modelRow);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setCellValue(int modelRow, int column, Object value) {
+        if (modelRow < getRowCount() && column < getColumnCount() && !isLocked()) {
+            final Long origin = spanOrigins.get(key(modelRow, column));
+            if (origin != null) {
+                modelRow = getRow(origin);
+                column = getColumn(origin);
+            }
+            final SpreadsheetCell cell = peekCell(modelRow, column);
+            if (cell != null && !cell.isEditable()) {
+                return;
+            }
+            final ColumnStore store = columns[column];
+            final Object previousItem = store.get(modelRow);
+            final Object convertedValue = cellTypes[column].convertValue(value);
+            store.set(modelRow, convertedValue);
+            if (cell != null) {
+                cell.setItem(convertedValue);
+            }
+            if (!Objects.equals(previousItem, convertedValue)) {
+                fireGridChange(modelRow, column, previousItem, convertedValue);
+            }
+        }
+    }
+
+    /**
+     * Sets the format of the cell at the given position.
+     *
+     * @param modelRow the row index
+     * @param column the column index
+     * @param format the format, {@code null} or empty to remove it
+     * @see SpreadsheetCell#setFormat(String)
+     */
+    public void setCellFormat(int modelRow, int column, String format) {
+        setSideValue(formats, modelRow, column, format);
+        final SpreadsheetCell cell = peekCell(modelRow, column);
+        if (cell != null) {
+            cell.setFormat(format == null ? "" : format); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Returns the format of the cell at the given position.
+     *
+     * @param modelRow the row index
+     * @param column the column index
+     * @return the format of the cell at the given position, or an empty
+     * String
+     */
+    public String getCellFormat(int modelRow, int column) {
+        final String format = formats.get(key(modelRow, column));
+        return format == null ? "" : format; //$NON-NLS-1$
+    }
+
+    /**
+     * Sets the style of the cell at the given position.
+     *
+     * @param modelRow the row index
+     * @param column the column index
+     * @param style the style, {@code null} to remove it
+     * @see SpreadsheetCell#setStyle(String)
+     */
+    public void setCellStyle(int modelRow, int column, String style) {
+        setSideValue(styles, modelRow, column, style);
+        final SpreadsheetCell cell = peekCell(modelRow, column);
+        if (cell != null) {
+            cell.setStyle(style);
+        }
+    }
+
+    /**
+     * Returns the style of the cell at the given position.
+     *
+     * @param modelRow the row index
+     * @param column the column index
+     * @return the style of the cell at the given position, or {@code null}
+     */
+    public String getCellStyle(int modelRow, int column) {
+        return styles.get(key(modelRow, column));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void spanRow(int count, int rowIndex, int colIndex) {
+        if (count <= 0 || count > getRowCount() || rowIndex >= getRowCount() || colIndex >= getColumnCount()) {
+            return;
+        }
+        final int[] span = spans.get(key(rowIndex, colIndex));
+        setSpan(rowIndex, colIndex, count, span == null ? 1 : span[1]);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void spanColumn(int count, int rowIndex, int colIndex) {
+        if (count <= 0 || count > getColumnCount() || rowIndex >= getRowCount() || colIndex >= getColumnCount()) {
+            return;
+        }
+        final int[] span = spans.get(key(rowIndex, colIndex));
+        setSpan(rowIndex, colIndex, span == null ? 1 : span[0], count);
+    }
+
+    /**
+     * Returns the number of rows whose {@link SpreadsheetCell} are strongly
+     * kept by this grid.
+     *
+     * @return the number of rows whose cells are strongly kept
+     */
+    public int getRowCacheSize() {
+        return rowCacheSize;
+    }
+
+    /**
+     * Sets the number of rows whose {@link SpreadsheetCell} are strongly kept
+     * by this grid. It should be at least the number of rows visible at once
+     * in the {@link SpreadsheetView}.
+     *
+     * @param rowCacheSize the number of rows whose cells are strongly kept
+     */
+    public void setRowCacheSize(int rowCacheSize) {
+        this.rowCacheSize = Math.max(1, rowCacheSize);
+    }
+
+    /***************************************************************************
+     *
+     * Private implementation
+     *
+     **************************************************************************/
+
+    private static int getRow(Long key) {
+        return (int) (key >> 32);
+    }
+
+    private static int getColumn(Long key) {
+        return (int) (key & 0xFFFFFFFFL);
+    }
+
+    private static void setSideValue(Map<Long, String> map, int row, int column, String value) {
+        if (value == null || value.isEmpty()) {
+            map.remove(key(row, column));
+        } else {
+            map.put(key(row, column), value);
+        }
+    }
+
+    /**
+     * Returns the SpreadsheetCell at the given position, creating it if
+     * necessary.
+     */
+    private SpreadsheetCell getCell(int row, int column) {
+        final Long origin = spanOrigins.get(key(row, column));
+        if (origin != null) {
+            SpreadsheetCell cell = spanCells.get(origin);
+            if (cell == null) {
+                cell = createCell(getRow(origin), getColumn(origin));
+                spanCells.put(origin, cell);
+            }
+            return cell;
+        }
+        SpreadsheetCell[] cells = getCachedRow(row);
+        if (cells == null) {
+            cells = new SpreadsheetCell[getColumnCount()];
+            cachedRows.put(row, cells);
+        }
+        if (cells[column] == null) {
+            cells[column] = createCell(row, column);
+        }
+        return cells[column];
+    }
+
+    /**
+     * Returns the SpreadsheetCell at the given position only if it has already
+     * been created.
+     */
+    private SpreadsheetCell peekCell(int row, int column) {
+        final Long origin = spanOrigins.get(key(row, column));
+        if (origin != null) {
+            return spanCells.get(origin);
+        }
+        final SpreadsheetCell[] cells = getCachedRow(row);
+        return cells == null ? null : cells[column];
+    }
+
+    private SpreadsheetCell[] getCachedRow(int row) {
+        SpreadsheetCell[] cells = cachedRows.get(row);
+        if (cells == null) {
+            expungeReleasedRows();
+            final RowReference reference = releasedRows.remove(row);
+            if (reference != null) {
+                cells = reference.get();
+                if (cells != null) {
+                    cachedRows.put(row, cells);
+                }
+            }
+        }
+        return cells;
+    }
+
+    private void expungeReleasedRows() {
+        RowReference reference;
+        while ((reference = (RowReference) queue.poll()) != null) {
+            if (releasedRows.get(reference.row) == reference) {
+                releasedRows.remove(reference.row);
+            }
+        }
+    }
+
+    private SpreadsheetCell createCell(int row, int column) {
+        final Long position = key(row, column);
+        final int[] span = spans.get(position);
+        final ColumnarCell cell = new ColumnarCell(row, column,
+                span == null ? 1 : span[0], span == null ? 1 : span[1]);
+        cell.setItem(columns[column].get(row));
+        final String format = formats.get(position);
+        if (format != null) {
+            cell.setFormat(format);
+        }
+        final String style = styles.get(position);
+        if (style != null) {
+            cell.setStyle(style);
+        }
+        cell.initialized = true;
+        return cell;
+    }
+
+    /**
+     * Writes the item and the format of the given cell into the columns, if
+     * they have been modified on the cell itself.
+     */
+    private void writeBack(SpreadsheetCell cell) {
+        final int row = cell.getRow();
+        final int column = cell.getColumn();
+        if (row < 0 || row >= getRowCount() || column < 0 || column >= getColumnCount()) {
+            return;
+        }
+        final ColumnStore store = columns[column];
+        final Object item = cell.getItem();
+        if (!Objects.equals(store.get(row), item)) {
+            store.set(row, cellTypes[column].convertValue(item));
+        }
+        setSideValue(formats, row, column, cell.getFormat());
+    }
+
+    private void setSpan(int row, int column, int rowSpan, int columnSpan) {
+        final Long origin = key(row, column);
+        final SpreadsheetCell cell = getCell(row, column);
+
+        final int[] previousSpan = spans.remove(origin);
+        if (previousSpan != null) {
+            for (int r = row; r < row + previousSpan[0] && r < getRowCount(); ++r) {
+                for (int c = column; c < column + previousSpan[1] && c < getColumnCount(); ++c) {
+                    spanOrigins.remove(key(r, c));
+                }
+            }
+        }
+        spanCells.remove(origin);
+
+        cell.setRowSpan(rowSpan);
+        cell.setColumnSpan(columnSpan);
+        if (rowSpan > 1 || columnSpan > 1) {
+            spans.put(origin, new int[]{rowSpan, columnSpan});
+            spanCells.put(origin, cell);
+            for (int r = row; r < row + rowSpan && r < getRowCount(); ++r) {
+                for (int c = column; c < column + columnSpan && c < getColumnCount(); ++c) {
+                    spanOrigins.put(key(r, c), origin);
+                }
+            }
+        } else {
+            SpreadsheetCell[] cells = getCachedRow(row);
+            if (cells != null) {
+                cells[column] = cell;
+            }
+        }
+    }
+
+    private static ColumnStore createStore(SpreadsheetCellType<?> type, int rowCount) {
+        if (type instanceof SpreadsheetCellType.DoubleType) {
+            return new DoubleStore(rowCount);
+        } else if (type instanceof SpreadsheetCellType.IntegerType) {
+            return new IntegerStore(rowCount);
+        } else if (type instanceof SpreadsheetCellType.DateType) {
+            return new DateStore(rowCount);
+        } else if (type instanceof SpreadsheetCellType.StringType
+                || type instanceof SpreadsheetCellType.ListType) {
+            return new DictionaryStore(rowCount);
+        }
+        return new ObjectStore(rowCount);
+    }
+
+    /**
+     * The list of rows given to the SpreadsheetView. Row views are created
+     * once and kept so that their identity stays stable.
+     */
+    private class ColumnarRows extends ObservableListBase<ObservableList<SpreadsheetCell>> {
+
+        @Override
+        public ObservableList<SpreadsheetCell> get(int index) {
+            ColumnarRow row = rowViews[index];
+            if (row == null) {
+                row = new ColumnarRow(index);
+                rowViews[index] = row;
+            }
+            return row;
+        }
+
+        @Override
+        public int size() {
+            return rowViews.length;
+        }
+    }
+
+    /**
+     * A row only holding its index, the cells are retrieved from the grid.
+     */
+    private class ColumnarRow extends ObservableListBase<SpreadsheetCell> {
+        private final int row;
+
+        ColumnarRow(int row) {
+            this.row = row;
+        }
+
+        @Override
+        public SpreadsheetCell get(int index) {
+            if (index < 0 || index >= getColumnCount()) {
+                throw new IndexOutOfBoundsException();
+            }
+            return getCell(row, index);
+        }
+
+        @Override
+        public int size() {
+            return getColumnCount();
+        }
+    }
+
+    /**
+     * A cell writing back into the columns the modifications done directly on
+     * it. The item and the format are both followed through
+     * {@link #updateText()}, so no property is created for them.
+     */
+    private class ColumnarCell extends SpreadsheetCellBase {
+        /**
+         * False while the cell is filled with the stored values, which must
+         * not be written back.
+         */
+        private boolean initialized;
+        private boolean styleFollowed;
+
+        ColumnarCell(int row, int column, int rowSpan, int columnSpan) {
+            super(row, column, rowSpan, columnSpan, cellTypes[column]);
+        }
+
+        @Override
+        protected void updateText() {
+            super.updateText();
+            if (initialized) {
+                writeBack(this);
+            }
+        }
+
+        /**
+         * The text is still computed by {@link SpreadsheetCellBase#updateText()}.
+         */
+        @Override
+        protected boolean isBackgroundTextSupported() {
+            return true;
+        }
+
+        @Override
+        public void setStyle(String style) {
+            super.setStyle(style);
+            setSideValue(styles, getRow(), getColumn(), style);
+        }
+
+        @Override
+        public StringProperty styleProperty() {
+            final StringProperty style = super.styleProperty();
+            if (!styleFollowed) {
+                styleFollowed = true;
+                style.addListener((observable, oldStyle, newStyle) -> setSideValue(styles, getRow(), getColumn(), newStyle));
+            }
+            return style;
+        }
+    }
+
+    private static class RowReference extends WeakReference<SpreadsheetCell[]> {
+        private final int row;
+
+        RowReference(int row, SpreadsheetCell[] cells, ReferenceQueue<SpreadsheetCell[]> queue) {
+            super(cells, queue);
+            this.row = row;
+        }
+    }
+
+    /**
+     * The storage of one column.
+     */
+    private static abstract class ColumnStore {
+
+        abstract Object get(int row);
+
+        abstract void set(int row, Object value);
+    }
+
+    private static class DoubleStore extends ColumnStore {
+        private final double[] values;
+        private final BitSet present;
+
+        DoubleStore(int rowCount) {
+            values = new double[rowCount];
+            present = new BitSet(rowCount);
+        }
+
+        @Override
+        Object get(int row) {
+            return present.get(row) ? values[row] : null;
+        }
+
+        @Override
+        void set(int row, Object value) {
+            if (value == null) {
+                present.clear(row);
+            } else {
+                values[row] = ((Number) value).doubleValue();
+                present.set(row);
+            }
+        }
+    }
+
+    private static class IntegerStore extends ColumnStore {
+        private final int[] values;
+        private final BitSet present;
+
+        IntegerStore(int rowCount) {
+            values = new int[rowCount];
+            present = new BitSet(rowCount);
+        }
+
+        @Override
+        Object get(int row) {
+            return present.get(row) ? values[row] : null;
+        }
+
+        @Override
+        void set(int row, Object value) {
+            if (value == null) {
+                present.clear(row);
+            } else {
+                values[row] = ((Number) value).intValue();
+                present.set(row);
+            }
+        }
+    }
+
+    private static class DateStore extends ColumnStore {
+        private final long[] values;
+        private final BitSet present;
+
+        DateStore(int rowCount) {
+            values = new long[rowCount];
+            present = new BitSet(rowCount);
+        }
+
+        @Override
+        Object get(int row) {
+            return present.get(row) ? LocalDate.ofEpochDay(values[row]) : null;
+        }
+
+        @Override
+        void set(int row, Object value) {
+            if (value == null) {
+                present.clear(row);
+            } else {
+                values[row] = ((LocalDate) value).toEpochDay();
+                present.set(row);
+            }
+        }
+    }
+
+    /**
+     * Each distinct String is stored once, the rows only hold its code. The
+     * code 0 stands for {@code null}.
+     */
+    private static class DictionaryStore extends ColumnStore {
+        private final int[] codes;
+        private final List<String> dictionary = new ArrayList<>(Arrays.asList((String) null));
+        private final Map<String, Integer> codeMap = new HashMap<>();
+
+        DictionaryStore(int rowCount) {
+            codes = new int[rowCount];
+        }
+
+        @Override
+        Object get(int row) {
+            return dictionary.get(codes[row]);
+        }
+
+        @Override
+        void set(int row, Object value) {
+            if (value == null) {
+                codes[row] = 0;
+                return;
+            }
+            final String string = value.toString();
+            Integer code = codeMap.get(string);
+            if (code == null) {
+                code = dictionary.size();
+                dictionary.add(string);
+                codeMap.put(string, code);
+            }
+            codes[row] = code;
+        }
+    }
+
+    private static class ObjectStore extends ColumnStore {
+        private final Object[] values;
+
+        ObjectStore(int rowCount) {
+            values = new Object[rowCount];
+        }
+
+        @Override
+        Object get(int row) {
+            return values[row];
+        }
+
+        @Override
+        void set(int row, Object value) {
+            values[row] = value;
+        }
+    }
+}
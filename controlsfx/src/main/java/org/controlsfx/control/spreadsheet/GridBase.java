@@ -31,10 +31,14 @@ import static impl.org.controlsfx.spreadsheet.RectangleSelection.SelectionRange.
 import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeSet;
 import javafx.beans.Observable;
 import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.beans.property.SimpleBooleanProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -146,6 +150,28 @@ import javafx.util.Callback;
  * 
  * </pre>
  *
+ * <h3>Batch modifications</h3>
+ * When a lot of values are modified at once (a paste or a refresh of a whole
+ * area), firing one {@link GridChange} per cell is costly. Those modifications
+ * can be wrapped into {@link #batch(Runnable)} (or between
+ * {@link #beginUpdate()} and {@link #endUpdate()}). A single
+ * {@link GridChangeBatch} is then fired at the end with all the modified
+ * cells:
+ *
+ * <pre>
+ * grid.batch(() -&gt; {
+ *     for (int row = 0; row &lt; grid.getRowCount(); ++row) {
+ *         grid.setCellValue(row, 0, prices[row]);
+ *     }
+ * });
+ * </pre>
+ *
+ * By default, each {@link GridChange} of the batch is still fired when it
+ * happens, so the listeners of {@link GridChange#GRID_CHANGE_EVENT} keep
+ * seeing every change. When none of them needs the single changes, calling
+ * {@link #setBatchEventOnly(boolean)} saves the cost of one event per
+ * modified cell: only the {@link GridChangeBatch} is fired.
+ *
  * <h3>Display selection</h3>
  *
  * By default, the SpreadsheetView will display a black rectangle around your
@@ -178,7 +204,7 @@ public class GridBase implements Grid, EventTarget {
 
     private int rowCount;
     private int columnCount;
-    private Callback<Integer, Double> rowHeightFactory;
+    private final ReadOnlyObjectWrapper<Callback<Integer, Double>> rowHeightFactory = new ReadOnlyObjectWrapper<>();
     private final BooleanProperty locked;
     private final EventHandlerManager eventHandlerManager = new EventHandlerManager(this);
     private final ObservableList<String> rowsHeader;
@@ -187,6 +213,9 @@ public class GridBase implements Grid, EventTarget {
     private final TreeSet<Long> displaySelectionCells = new TreeSet<>();
     private final TreeSet<Long> noDisplaySelectionCells = new TreeSet<>();
     private final BooleanProperty displaySelection = new SimpleBooleanProperty(true);
+    private boolean batchEventOnly = false;
+    private int updateLevel = 0;
+    private GridChangeBatch.Changes pendingChanges;
 
     /***************************************************************************
      * 
@@ -206,7 +235,7 @@ public class GridBase implements Grid, EventTarget {
         rowsHeader = FXCollections.observableArrayList();
         columnsHeader = FXCollections.observableArrayList();
         locked = new SimpleBooleanProperty(false);
-        rowHeightFactory = new MapBasedRowHeightFactory(new HashMap<>());
+        rowHeightFactory.set(new MapBasedRowHeightFactory(new HashMap<>()));
         rows = FXCollections.observableArrayList();
         rows.addListener((Observable observable) -> {
             setRowCount(rows.size());
@@ -236,12 +265,96 @@ public class GridBase implements Grid, EventTarget {
             Object convertedValue = cell.getCellType().convertValue(value);
             cell.setItem(convertedValue);
             if (!java.util.Objects.equals(previousItem, cell.getItem())) {
-                GridChange cellChange = new GridChange(cell.getRow(), cell.getColumn(), previousItem, convertedValue);
-                Event.fireEvent(this, cellChange);
+                fireGridChange(cell.getRow(), cell.getColumn(), previousItem, convertedValue);
+            }
+        }
+    }
+
+    /**
+     * Starts a batch of modifications. Until the matching call to
+     * {@link #endUpdate()}, the cells modified by
+     * {@link #setCellValue(int, int, Object)} are collected. Calls can be
+     * nested, only the outermost {@link #endUpdate()} will fire the
+     * {@link GridChangeBatch}.
+     */
+    public void beginUpdate() {
+        if (updateLevel++ == 0) {
+            pendingChanges = new GridChangeBatch.Changes();
+        }
+    }
+
+    /**
+     * Ends a batch of modifications started with {@link #beginUpdate()}. If
+     * it is the outermost one and some values have changed, a
+     * {@link GridChangeBatch} is fired.
+     *
+     * @throws IllegalStateException if no batch has been started
+     */
+    public void endUpdate() {
+        if (updateLevel == 0) {
+            throw new IllegalStateException("endUpdate called without a matching beginUpdate"); //$NON-NLS-1$
+        }
+        if (--updateLevel == 0) {
+            final GridChangeBatch.Changes changes = pendingChanges;
+            pendingChanges = null;
+            if (!changes.isEmpty()) {
+                Event.fireEvent(this, new GridChangeBatch(changes));
             }
         }
     }
 
+    /**
+     * Runs the given {@code Runnable} between {@link #beginUpdate()} and
+     * {@link #endUpdate()}. All the modifications done inside will be notified
+     * with one {@link GridChangeBatch}.
+     *
+     * @param runnable the modifications to run
+     */
+    public void batch(Runnable runnable) {
+        beginUpdate();
+        try {
+            runnable.run();
+        } finally {
+            endUpdate();
+        }
+    }
+
+    /**
+     * Sets whether the modifications done during a batch are only notified
+     * by the {@link GridChangeBatch}. This is {@code false} by default: each
+     * {@link GridChange} is fired as usual, and the {@link GridChangeBatch}
+     * comes in addition at the end of the batch. When set to {@code true}, a
+     * batch modifying many cells costs a single event, but the listeners of
+     * {@link GridChange#GRID_CHANGE_EVENT} do not see its modifications.
+     *
+     * @param batchEventOnly {@code true} to only fire the
+     * {@link GridChangeBatch} for a batch
+     */
+    public void setBatchEventOnly(boolean batchEventOnly) {
+        this.batchEventOnly = batchEventOnly;
+    }
+
+    /**
+     * Returns whether the modifications done during a batch are only notified
+     * by the {@link GridChangeBatch}.
+     *
+     * @return {@code true} if only the {@link GridChangeBatch} is fired for a
+     * batch
+     * @see #setBatchEventOnly(boolean)
+     */
+    public boolean isBatchEventOnly() {
+        return batchEventOnly;
+    }
+
+    /**
+     * Returns whether a batch of modifications is currently running.
+     *
+     * @return {@code true} if a batch of modifications is currently running
+     */
+    public boolean isUpdating() {
+        return updateLevel > 0;
+    }
+
     /** {@inheritDoc} */
     @Override
     public int getRowCount() {
@@ -257,17 +370,33 @@ public class GridBase implements Grid, EventTarget {
     /** {@inheritDoc} */
     @Override
     public double getRowHeight(int row) {
-        return rowHeightFactory.call((Integer) row);
+        return rowHeightFactory.get().call((Integer) row);
     }
 
     /**
      * Sets a new {@link Callback} for this grid in order to specify height of
      * each row.
+     * <br>
+     * The {@link SpreadsheetView} asks the height of each row only once, and
+     * asks it again when a new {@code Callback} is set, when the rows of the
+     * grid are changed, or when
+     * {@link SpreadsheetView#resizeRowsToDefault() } is called.
      * 
      * @param rowHeight the {@code Callback} to use for rown height computation
      */
     public void setRowHeightCallback(Callback<Integer, Double> rowHeight) {
-        this.rowHeightFactory = rowHeight;
+        this.rowHeightFactory.set(rowHeight);
+    }
+
+    /**
+     * Returns the property holding the {@link Callback} giving the height of
+     * each row, see {@link #setRowHeightCallback(javafx.util.Callback) }.
+     *
+     * @return the property holding the {@code Callback} giving the height of
+     * each row
+     */
+    public ReadOnlyObjectProperty<Callback<Integer, Double>> rowHeightCallbackProperty() {
+        return rowHeightFactory.getReadOnlyProperty();
     }
 
     /** {@inheritDoc} */
@@ -413,6 +542,9 @@ public class GridBase implements Grid, EventTarget {
     /** {@inheritDoc} */
     @Override
     public boolean isCellDisplaySelection(int row, int column) {
+        if (displaySelectionCells.isEmpty() && noDisplaySelectionCells.isEmpty()) {
+            return isDisplaySelection();
+        }
         Long key = key(row, column);
         if (displaySelectionCells.contains(key)) {
             return true;
@@ -421,6 +553,19 @@ public class GridBase implements Grid, EventTarget {
         }
         return isDisplaySelection();
     }
+
+    /**
+     * Returns the cells whose display selection has been set to the given
+     * value with {@link #setCellDisplaySelection(int, int, boolean) }. Each
+     * cell is a key holding its row in the upper 32 bits and its column in
+     * the lower 32 bits.
+     *
+     * @param displaySelection the value set on the cells
+     * @return an unmodifiable set of the keys of the cells
+     */
+    public Set<Long> getCellDisplaySelections(boolean displaySelection) {
+        return Collections.unmodifiableSet(displaySelection ? displaySelectionCells : noDisplaySelectionCells);
+    }
     
     /** {@inheritDoc} */
     @Override
@@ -446,6 +591,26 @@ public class GridBase implements Grid, EventTarget {
      * 
      **************************************************************************/
 
+    /**
+     * Fires the {@link GridChange} of the given cell, unless a batch is
+     * running and only its {@link GridChangeBatch} must be fired. The cell is
+     * collected for the {@link GridChangeBatch} if a batch is running.
+     *
+     * @param modelRow
+     * @param column
+     * @param oldValue
+     * @param newValue
+     */
+    void fireGridChange(int modelRow, int column, Object oldValue, Object newValue) {
+        if (pendingChanges != null) {
+            pendingChanges.add(modelRow, column);
+            if (batchEventOnly) {
+                return;
+            }
+        }
+        Event.fireEvent(this, new GridChange(modelRow, column, oldValue, newValue));
+    }
+
     /**
      * Set a new rowCount for the grid.
      * 
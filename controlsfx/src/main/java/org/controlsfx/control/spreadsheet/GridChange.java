@@ -62,7 +62,21 @@ public class GridChange extends Event implements Serializable {
      * @param newValue the current value for this change
      */
     public GridChange(int modelRow, int column, Object oldValue, Object newValue) {
-        super(GRID_CHANGE_EVENT);
+        this(GRID_CHANGE_EVENT, modelRow, column, oldValue, newValue);
+    }
+
+    /**
+     * Constructor used by the subclasses in order to specify their own
+     * {@link EventType}.
+     *
+     * @param eventType the type of this change
+     * @param modelRow the row index for this change
+     * @param column the column index for this change
+     * @param oldValue the previous value for this change
+     * @param newValue the current value for this change
+     */
+    protected GridChange(EventType<? extends GridChange> eventType, int modelRow, int column, Object oldValue, Object newValue) {
+        super(eventType);
         this.modelRow = modelRow;
         this.column = column;
         this.oldValue = oldValue;
@@ -0,0 +1,176 @@
+/**
+ * Copyright (c) 2018 ControlsFX
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of ControlsFX, any associated website, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL CONTROLSFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.controlsfx.control.spreadsheet;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import javafx.event.Event;
+import javafx.event.EventType;
+
+/**
+ * This class represents all the changes that happened in a {@link GridBase}
+ * during a batch, see {@link GridBase#batch(Runnable)}.
+ * <br>
+ * It is fired once at the end of the batch, no matter how many cells have
+ * been modified. It does not hold the values, only which cells have been
+ * modified: the modified rows are available with {@link #getChangedRows()}
+ * and the modified columns of each row with {@link #getChangedColumns(int)}.
+ * <br>
+ * Since this event does not concern one cell in particular,
+ * {@link #getRow()} and {@link #getColumn()} are returning -1, and
+ * {@link #getOldValue()} and {@link #getNewValue()} are returning
+ * {@code null}.
+ *
+ * <pre>
+ * grid.addEventHandler(GridChangeBatch.GRID_CHANGE_BATCH_EVENT, (GridChangeBatch batch) -&gt; {
+ *     BitSet rows = batch.getChangedRows();
+ *     for (int row = rows.nextSetBit(0); row &gt;= 0; row = rows.nextSetBit(row + 1)) {
+ *         refreshTotal(row);
+ *     }
+ * });
+ * </pre>
+ *
+ * @see GridBase
+ * @see GridChange
+ */
+public class GridChangeBatch extends GridChange {
+
+    /**
+     * This is the event used by {@link GridChangeBatch}.
+     */
+    public static final EventType<GridChangeBatch> GRID_CHANGE_BATCH_EVENT
+            = new EventType<>(Event.ANY, "GridChangeBatch" + UUID.randomUUID().toString()); //$NON-NLS-1$
+
+    private static final long serialVersionUID = -3184624106327154791L;
+    private static final BitSet NO_COLUMN = new BitSet(0);
+    private final BitSet changedRows;
+    private final Map<Integer, BitSet> changedColumns;
+    private final int changedCellCount;
+
+    /**
+     * Constructor of a GridChangeBatch, with the cells collected by the given
+     * {@link Changes}.
+     *
+     * @param changes the cells modified during the batch
+     */
+    GridChangeBatch(Changes changes) {
+        super(GRID_CHANGE_BATCH_EVENT, -1, -1, null, null);
+        changedRows = changes.rows;
+        changedColumns = changes.columns;
+        changedCellCount = changes.cellCount;
+    }
+
+    /***************************************************************************
+     * 
+     * Public Methods
+     * 
+     **************************************************************************/
+
+    /**
+     * Returns a {@code BitSet} where the bits set to {@code true} are the
+     * modified rows.
+     *
+     * @return the modified rows
+     */
+    public BitSet getChangedRows() {
+        return (BitSet) changedRows.clone();
+    }
+
+    /**
+     * Returns whether a cell has been modified in the given row.
+     *
+     * @param modelRow the row index
+     * @return {@code true} if a cell has been modified in the given row
+     */
+    public boolean isRowChanged(int modelRow) {
+        return changedRows.get(modelRow);
+    }
+
+    /**
+     * Returns a {@code BitSet} where the bits set to {@code true} are the
+     * modified columns of the given row.
+     *
+     * @param modelRow the row index
+     * @return the modified columns of the given row
+     */
+    public BitSet getChangedColumns(int modelRow) {
+        final BitSet columns = changedColumns.get(modelRow);
+        return (BitSet) (columns == null ? NO_COLUMN : columns).clone();
+    }
+
+    /**
+     * Returns whether the given cell has been modified.
+     *
+     * @param modelRow the row index
+     * @param column the column index
+     * @return {@code true} if the given cell has been modified
+     */
+    public boolean isCellChanged(int modelRow, int column) {
+        final BitSet columns = changedColumns.get(modelRow);
+        return columns != null && columns.get(column);
+    }
+
+    /**
+     * Returns the number of distinct cells modified during the batch.
+     *
+     * @return the number of distinct cells modified
+     */
+    public int getChangedCellCount() {
+        return changedCellCount;
+    }
+
+    /**
+     * Collects the cells modified during a batch, a bitmap of the modified
+     * columns for each modified row.
+     */
+    static final class Changes {
+        private final BitSet rows = new BitSet();
+        private final Map<Integer, BitSet> columns = new HashMap<>();
+        private int cellCount;
+        // the columns of the last modified row, which is often modified again
+        private int lastRow = -1;
+        private BitSet lastColumns;
+
+        void add(int modelRow, int column) {
+            if (modelRow != lastRow) {
+                lastRow = modelRow;
+                lastColumns = columns.computeIfAbsent(modelRow, row -> new BitSet());
+                rows.set(modelRow);
+            }
+            if (!lastColumns.get(column)) {
+                lastColumns.set(column);
+                ++cellCount;
+            }
+        }
+
+        boolean isEmpty() {
+            return cellCount == 0;
+        }
+    }
+}
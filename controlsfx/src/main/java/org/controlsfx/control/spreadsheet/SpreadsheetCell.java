@@ -367,6 +367,10 @@ public interface SpreadsheetCell  {
     /**
      * Sets a graphic for this cell. It is displayed aside with the text if any
      * is specified. Otherwise it's fully displayed in the cell.
+     * <br>
+     * An {@link javafx.scene.image.ImageView} is not added to the scene graph.
+     * Its image, viewport, effect and opacity are displayed by the cell
+     * instead, so the same ImageView can be given to many cells.
      *
      * @param graphic a graphic to display for this cell
      */
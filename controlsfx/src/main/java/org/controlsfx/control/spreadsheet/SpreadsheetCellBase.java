@@ -32,13 +32,13 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
-import javafx.beans.value.ChangeListener;
-import javafx.beans.value.ObservableValue;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableSet;
 import javafx.event.Event;
@@ -220,15 +220,34 @@ public class SpreadsheetCellBase implements SpreadsheetCell, EventTarget{
     private static final int EDITABLE_BIT_POSITION = 4;
     private static final int WRAP_BIT_POSITION = 5;
     private static final int POPUP_BIT_POSITION = 6;
+    private static final String DEFAULT_STYLE_CLASS = "spreadsheet-cell"; //$NON-NLS-1$
+    private static final Set<String> DEFAULT_STYLE_CLASSES = Collections.singleton(DEFAULT_STYLE_CLASS);
     private final SpreadsheetCellType type;
     private final int row;
     private final int column;
     private int rowSpan;
     private int columnSpan;
-    private final StringProperty format;
-    private final StringProperty text;
-    private final StringProperty styleProperty;
-    private final ObjectProperty<Node> graphic;
+    /**
+     * The properties below are only created when they are requested (in order
+     * to be listened or bound). Until then, their value is kept in the plain
+     * field next to them so that a cell only holding a value stays small.
+     */
+    private StringProperty format;
+    private String formatValue = ""; //$NON-NLS-1$
+    private ReadOnlyStringWrapper text;
+    private String textValue = ""; //$NON-NLS-1$
+    /**
+     * The text already computed by the {@link CellTextRenderer} for the item
+     * about to be set, if any.
+     */
+    private Object renderedItem;
+    private String renderedText;
+    private StringProperty styleProperty;
+    private String styleValue;
+    private ObjectProperty<Node> graphic;
+    private Node graphicValue;
+    private ObjectProperty<Object> item;
+    private Object itemValue;
     private String tooltip;
     /**
      * This variable handles all boolean values of this SpreadsheetCell inside
@@ -236,7 +255,11 @@ public class SpreadsheetCellBase implements SpreadsheetCell, EventTarget{
      * can reduce memory usage to the bare minimum.
      */
     private int propertyContainer = 0;
-    private final EventHandlerManager eventHandlerManager = new EventHandlerManager(this);
+    /**
+     * Created with the first handler registered. No event is fired before
+     * since nobody could receive it.
+     */
+    private EventHandlerManager eventHandlerManager;
 
     private ObservableSet<String> styleClass;
     private List<MenuItem> actionsList;
@@ -275,19 +298,8 @@ public class SpreadsheetCellBase implements SpreadsheetCell, EventTarget{
         this.rowSpan = rowSpan;
         this.columnSpan = columnSpan;
         this.type = type;
-        text = new SimpleStringProperty(""); //$NON-NLS-1$
-        format = new SimpleStringProperty(""); //$NON-NLS-1$
-        graphic = new SimpleObjectProperty<>();
-        format.addListener(new ChangeListener<String>() {
-            @Override
-            public void changed(ObservableValue<? extends String> arg0, String arg1, String arg2) {
-                updateText();
-            }
-        });
         //Editable is true at the initialisation
         setEditable(true);
-        getStyleClass().add("spreadsheet-cell"); //$NON-NLS-1$
-        styleProperty = new SimpleStringProperty();
     }
 
    /***************************************************************************
@@ -302,30 +314,67 @@ public class SpreadsheetCellBase implements SpreadsheetCell, EventTarget{
         return type.match(value, getOptionsForEditor());
     }
 
-    // --- item
-    private final ObjectProperty<Object> item = new SimpleObjectProperty<Object>(this, "item") { //$NON-NLS-1$
-        @Override
-        protected void invalidated() {
-            updateText();
-        }
-    };
-
    /** {@inheritDoc} */
     @Override
     public final void setItem(Object value) {
-        if (isEditable())
-            item.set(value);
+        if (isEditable()) {
+            if (item != null) {
+                item.set(value);
+            } else if (itemValue != value) {
+                itemValue = value;
+                updateText();
+            }
+        }
+    }
+
+    /**
+     * Gives the text computed off the JavaFX thread by the
+     * {@link CellTextRenderer} for the item about to be set. It is only used
+     * if that exact item is then set, with the current format.
+     *
+     * @param value the item whose text has been computed, or null to forget it
+     * @param newText the text of the item with the current format
+     */
+    final void setRenderedText(Object value, String newText) {
+        renderedItem = value;
+        renderedText = newText;
+    }
+
+    /**
+     * Returns whether the text of the items staged for this cell with
+     * {@link SpreadsheetView#stageItem(SpreadsheetCell, Object) } can be
+     * computed off the JavaFX thread from the item, the format and the type
+     * of the cell only, just like the default {@link #updateText() } does.
+     * <br>
+     * It returns {@code true} for {@code SpreadsheetCellBase} itself.
+     * Subclasses have to opt in by overriding it, and must not if they
+     * override {@link #updateText() }.
+     *
+     * @return whether the text of the staged items can be computed off the
+     * JavaFX thread
+     */
+    protected boolean isBackgroundTextSupported() {
+        return getClass() == SpreadsheetCellBase.class;
     }
 
     /** {@inheritDoc} */
     @Override
     public final Object getItem() {
-        return item.get();
+        return item == null ? itemValue : item.get();
     }
 
     /** {@inheritDoc} */
     @Override
     public final ObjectProperty<Object> itemProperty() {
+        if (item == null) {
+            item = new SimpleObjectProperty<Object>(this, "item", itemValue) { //$NON-NLS-1$
+                @Override
+                protected void invalidated() {
+                    updateText();
+                }
+            };
+            itemValue = null;
+        }
         return item;
     }
 
@@ -339,7 +388,7 @@ public class SpreadsheetCellBase implements SpreadsheetCell, EventTarget{
     @Override
     public final void setEditable(boolean editable) {
         if(setMask(editable, EDITABLE_BIT_POSITION)){
-            Event.fireEvent(this, new Event(EDITABLE_EVENT_TYPE));
+            fireEvent(EDITABLE_EVENT_TYPE);
         }
     }
     
@@ -353,7 +402,7 @@ public class SpreadsheetCellBase implements SpreadsheetCell, EventTarget{
     @Override
     public void setWrapText(boolean wrapText) {
         if (setMask(wrapText, WRAP_BIT_POSITION)) {
-            Event.fireEvent(this, new Event(WRAP_EVENT_TYPE));
+            fireEvent(WRAP_EVENT_TYPE);
         }
     }
     
@@ -374,7 +423,7 @@ public class SpreadsheetCellBase implements SpreadsheetCell, EventTarget{
     public void setHasPopup(boolean value){
         setMask(value, POPUP_BIT_POSITION);
         //We want to refresh the cell.
-        Event.fireEvent(this, new Event(CORNER_EVENT_TYPE));
+        fireEvent(CORNER_EVENT_TYPE);
     }
     
     /** {@inheritDoc} */
@@ -389,32 +438,49 @@ public class SpreadsheetCellBase implements SpreadsheetCell, EventTarget{
    /** {@inheritDoc} */
     @Override
     public final StringProperty formatProperty() {
+        if (format == null) {
+            format = new SimpleStringProperty(this, "format", formatValue) { //$NON-NLS-1$
+                @Override
+                protected void invalidated() {
+                    updateText();
+                }
+            };
+            formatValue = null;
+        }
         return format;
     }
 
     /** {@inheritDoc} */
     @Override
     public final String getFormat() {
-        return format.get();
+        return format == null ? formatValue : format.get();
     }
 
     /** {@inheritDoc} */
     @Override
     public final void setFormat(String format) {
-        formatProperty().set(format);
+        if (this.format != null) {
+            this.format.set(format);
+        } else {
+            formatValue = format;
+        }
         updateText();
     }
 
     /** {@inheritDoc} */
     @Override
     public final ReadOnlyStringProperty textProperty() {
-        return text;
+        if (text == null) {
+            text = new ReadOnlyStringWrapper(this, "text", textValue); //$NON-NLS-1$
+            textValue = null;
+        }
+        return text.getReadOnlyProperty();
     }
 
     /** {@inheritDoc} */
     @Override
     public final String getText() {
-        return text.get();
+        return text == null ? textValue : text.get();
     }
 
    /** {@inheritDoc} */
@@ -463,45 +529,73 @@ public class SpreadsheetCellBase implements SpreadsheetCell, EventTarget{
     @Override
     public final ObservableSet<String> getStyleClass() {
         if (styleClass == null) {
-            styleClass = FXCollections.observableSet();
+            styleClass = FXCollections.observableSet(DEFAULT_STYLE_CLASS);
         }
         return styleClass;
     }
+
+    /**
+     * Returns the style classes of this cell as an unmodifiable Set. Contrary
+     * to {@link #getStyleClass()}, the ObservableSet is not created when only
+     * the default style class is used, so this should be preferred when the
+     * style classes are only read.
+     *
+     * @return an unmodifiable Set of the style classes of this cell.
+     */
+    public final Set<String> getStyleClassUnmodifiable() {
+        return styleClass == null ? DEFAULT_STYLE_CLASSES : Collections.unmodifiableSet(styleClass);
+    }
     
     /** {@inheritDoc} */
     @Override
     public void setStyle(String style){
-        styleProperty.set(style);
+        if (styleProperty != null) {
+            styleProperty.set(style);
+        } else {
+            styleValue = style;
+        }
     }
     
     /** {@inheritDoc} */
     @Override
     public String getStyle(){
-        return styleProperty.get();
+        return styleProperty == null ? styleValue : styleProperty.get();
     }
     
     /** {@inheritDoc} */
     @Override
     public StringProperty styleProperty(){
+        if (styleProperty == null) {
+            styleProperty = new SimpleStringProperty(this, "style", styleValue); //$NON-NLS-1$
+            styleValue = null;
+        }
         return styleProperty;
     }
 
     /** {@inheritDoc} */
     @Override
     public ObjectProperty<Node> graphicProperty() {
+        if (graphic == null) {
+            graphic = new SimpleObjectProperty<>(this, "graphic", graphicValue); //$NON-NLS-1$
+            graphicValue = null;
+        }
         return graphic;
     }
 
     /** {@inheritDoc} */
     @Override
     public void setGraphic(Node graphic) {
-        this.graphic.set(graphic);
+        if (this.graphic != null) {
+            this.graphic.set(graphic);
+        } else {
+            graphicValue = graphic;
+        }
     }
 
     /** {@inheritDoc} */
     @Override
     public Node getGraphic() {
-        return graphic.get();
+        return graphic == null ? graphicValue : graphic.get();
     }
 
     /** {@inheritDoc} */
@@ -522,7 +616,7 @@ public class SpreadsheetCellBase implements SpreadsheetCell, EventTarget{
     @Override
     public void activateCorner(CornerPosition position) {
         if(setMask(true, getCornerBitNumber(position))){
-            Event.fireEvent(this, new Event(CORNER_EVENT_TYPE));
+            fireEvent(CORNER_EVENT_TYPE);
         }
     }
     
@@ -530,7 +624,7 @@ public class SpreadsheetCellBase implements SpreadsheetCell, EventTarget{
     @Override
     public void deactivateCorner(CornerPosition position) {
         if(setMask(false, getCornerBitNumber(position))){
-             Event.fireEvent(this, new Event(CORNER_EVENT_TYPE));
+             fireEvent(CORNER_EVENT_TYPE);
         }
     }
 
@@ -543,7 +637,7 @@ public class SpreadsheetCellBase implements SpreadsheetCell, EventTarget{
     /** {@inheritDoc} */
     @Override
     public EventDispatchChain buildEventDispatchChain(EventDispatchChain tail) {
-        return tail.append(eventHandlerManager);
+        return eventHandlerManager == null ? tail : tail.append(eventHandlerManager);
     }
     
     /***************************************************************************
@@ -571,7 +665,8 @@ public class SpreadsheetCellBase implements SpreadsheetCell, EventTarget{
                 && Objects.equals(otherCell.getText(), getText())
                 && rowSpan == otherCell.getRowSpan()
                 && columnSpan == otherCell.getColumnSpan()
-                && Objects.equals(getStyleClass(), otherCell.getStyleClass());
+                && Objects.equals(getStyleClassOrDefault(), otherCell instanceof SpreadsheetCellBase
+                        ? ((SpreadsheetCellBase) otherCell).getStyleClassOrDefault() : otherCell.getStyleClass());
     }
 
     /** {@inheritDoc} */
@@ -584,7 +679,7 @@ public class SpreadsheetCellBase implements SpreadsheetCell, EventTarget{
         result = prime * result + rowSpan;
         result = prime * result + columnSpan;
         result = prime * result + Objects.hashCode(getText());
-        result = prime * result + Objects.hashCode(getStyleClass());
+        result = prime * result + Objects.hashCode(getStyleClassOrDefault());
         return result;
     }
     
@@ -599,6 +694,9 @@ public class SpreadsheetCellBase implements SpreadsheetCell, EventTarget{
      */
     @Override
     public void addEventHandler(EventType<Event> eventType, EventHandler<Event> eventHandler) {
+         if (eventHandlerManager == null) {
+             eventHandlerManager = new EventHandlerManager(this);
+         }
          eventHandlerManager.addEventHandler(eventType, eventHandler);
     }
 
@@ -614,7 +712,9 @@ public class SpreadsheetCellBase implements SpreadsheetCell, EventTarget{
      */
     @Override
     public void removeEventHandler(EventType<Event> eventType, EventHandler<Event> eventHandler) {
-         eventHandlerManager.removeEventHandler(eventType, eventHandler);
+         if (eventHandlerManager != null) {
+             eventHandlerManager.removeEventHandler(eventType, eventHandler);
+         }
     }
     
     /***************************************************************************
@@ -633,15 +733,41 @@ public class SpreadsheetCellBase implements SpreadsheetCell, EventTarget{
      */
     @SuppressWarnings("unchecked")
     protected void updateText() {
-        if(getItem() == null){
-            text.setValue(""); //$NON-NLS-1$
+        final String newText;
+        if (renderedText != null && renderedItem == getItem()) {
+            newText = renderedText;
+        } else if(getItem() == null){
+            newText = ""; //$NON-NLS-1$
         }else if (!("").equals(getFormat())) { //$NON-NLS-1$
-            text.setValue(type.toString(getItem(), getFormat()));
+            newText = type.toString(getItem(), getFormat());
+        } else {
+            newText = type.toString(getItem());
+        }
+        if (text != null) {
+            text.setValue(newText);
         } else {
-            text.setValue(type.toString(getItem()));
+            textValue = newText;
+        }
+    }
+
+    /**
+     * Fires an event of the given type to this cell handlers, if any.
+     * @param eventType 
+     */
+    private void fireEvent(EventType<Event> eventType) {
+        if (eventHandlerManager != null) {
+            Event.fireEvent(this, new Event(eventType));
         }
     }
 
+    /**
+     * @return the style classes of this cell without creating the
+     * ObservableSet when only the default style class is used.
+     */
+    private Set<String> getStyleClassOrDefault() {
+        return styleClass == null ? DEFAULT_STYLE_CLASSES : styleClass;
+    }
+
     /**
      * Return the Bit position for each corner.
      * @param position
@@ -26,9 +26,7 @@
  */
 package org.controlsfx.control.spreadsheet;
 
-import java.text.DecimalFormat;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.Collections;
 import java.util.List;
 
@@ -469,7 +467,7 @@ public abstract class SpreadsheetCellType<T> {
                         if (item == null || Double.isNaN(item)) {
                             return ""; //$NON-NLS-1$
                         } else {
-                            return new DecimalFormat(format).format(item);
+                            return getDecimalFormat(format).format(item);
                         }
                     } catch (Exception ex) {
                         return myConverter.toString(item);
@@ -786,7 +784,7 @@ public abstract class SpreadsheetCellType<T> {
                     if (("").equals(format) && item != null) { //$NON-NLS-1$
                         return item.toString();
                     } else if (item != null) {
-                        return item.format(DateTimeFormatter.ofPattern(format));
+                        return item.format(getDateTimeFormatter(format));
                     } else {
                         return ""; //$NON-NLS-1$
                     }
@@ -317,6 +317,20 @@ public final class SpreadsheetColumn {
         }
     }
 
+    /**
+     * If the column is resizable, it will compute the optimum width by
+     * considering only {@code sampleSize} rows spread evenly over the whole
+     * grid. This gives a better result than {@link #fitColumn() } on great
+     * grid without going through all the rows.
+     *
+     * @param sampleSize the number of rows to consider, -1 for all rows.
+     */
+    public void fitColumn(int sampleSize) {
+        if (column.isResizable() && spreadsheetView.getCellsViewSkin() != null) {
+            spreadsheetView.getCellsViewSkin().resize(column, sampleSize, true);
+        }
+    }
+
     /**
      * Indicate whether this column can be frozen or not. Call that method before
      * calling {@link #setFixed(boolean)} or adding an item to
@@ -37,13 +37,20 @@ import impl.org.controlsfx.spreadsheet.RectangleSelection.SelectionRange;
 import impl.org.controlsfx.spreadsheet.SpreadsheetGridView;
 import impl.org.controlsfx.spreadsheet.SpreadsheetHandle;
 import impl.org.controlsfx.spreadsheet.TableViewSpanSelectionModel;
+import impl.org.controlsfx.spreadsheet.VisibleIndexMap;
+import impl.org.controlsfx.spreadsheet.VisibleRowsList;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
+import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.List;
@@ -53,7 +60,6 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.FutureTask;
-import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javafx.application.Platform;
@@ -75,7 +81,6 @@ import javafx.collections.FXCollections;
 import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import javafx.collections.ObservableMap;
-import javafx.collections.transformation.FilteredList;
 import javafx.collections.transformation.SortedList;
 import javafx.event.ActionEvent;
 import javafx.event.Event;
@@ -390,6 +395,7 @@ public class SpreadsheetView extends Control{
     private ObservableList<SpreadsheetColumn> columns = FXCollections.observableArrayList();
     private Map<SpreadsheetCellType<?>, SpreadsheetCellEditor> editors = new IdentityHashMap<>();
     private final SpreadsheetViewSelectionModel selectionModel;
+    private final CellTextRenderer textRenderer = new CellTextRenderer(this);
     // KeyCombination used for zooming.
     private final KeyCombination zoomOutChar = new KeyCharacterCombination("-", KeyCombination.SHORTCUT_DOWN);
     private final KeyCombination zoomOutKeypad = new KeyCodeCombination(KeyCode.SUBTRACT, KeyCombination.SHORTCUT_DOWN);
@@ -412,14 +418,17 @@ public class SpreadsheetView extends Control{
     private static final double STEP_ZOOM = 0.10;
     //The visible rows.
     private final ObjectProperty<BitSet> hiddenRowsProperty = new SimpleObjectProperty<>();
-    //Used to get a row index directly from the ObservableList in filteredList.
-    private IdentityHashMap<ObservableList<SpreadsheetCell>, Integer> identityMap;
     private final ObjectProperty<BitSet> hiddenColumnsProperty = new SimpleObjectProperty<>();
-    private HashMap<Integer, Integer> rowMap;
-    private HashMap<Integer, Integer> columnMap = new HashMap<>();
+    private final VisibleIndexMap rowMap = new VisibleIndexMap();
+    private final VisibleIndexMap columnMap = new VisibleIndexMap();
     private Integer filteredRow;
-    private FilteredList<ObservableList<SpreadsheetCell>> filteredList;
+    private VisibleRowsList<ObservableList<SpreadsheetCell>> filteredList;
     private SortedList<ObservableList<SpreadsheetCell>> sortedList;
+    /**
+     * The inverse permutation of the sortedList: the view index of each
+     * source index. Null when it needs to be rebuilt.
+     */
+    private int[] sortedViewIndexes;
 
     /**
      * Since the default with applied to TableColumn is 80. If a user sets a
@@ -452,6 +461,11 @@ public class SpreadsheetView extends Control{
         protected boolean isColumnWidthSet(int indexColumn) {
             return columnWidthSet.get(indexColumn);
         }
+
+        @Override
+        protected void publishStagedItems() {
+            textRenderer.publishDisplayed();
+        }
     };
 
     /**
@@ -772,51 +786,30 @@ public class SpreadsheetView extends Control{
     }
 
     private void computeRowMap() {
-        if (getHiddenRows().isEmpty()) {
-            filteredList.setPredicate(null);
-        } else {
-            filteredList.setPredicate(new Predicate<ObservableList<SpreadsheetCell>>() {
-                @Override
-                public boolean test(ObservableList<SpreadsheetCell> t) {
-                    int index = identityMap.get(t);
-                    return !getHiddenRows().get(index) || index == getFilteredRow();
-                }
-            });
-        }
-        final int rowCount = getGrid().getRowCount();
-        rowMap = new HashMap<>(rowCount);
-        int visibleRow = 0;
-        for (int i = 0; i < rowCount; ++i) {
-            if (!getHiddenRows().get(i)) {
-                rowMap.put(i, visibleRow++);
-            } else {
-                rowMap.put(i, visibleRow);
-            }
+        /**
+         * Only the rows whose state has changed are added or removed from the
+         * list. The row showing the filters is always visible.
+         */
+        BitSet hiddenRows = getHiddenRows();
+        if (getFilteredRow() != -1 && hiddenRows.get(getFilteredRow())) {
+            hiddenRows = (BitSet) hiddenRows.clone();
+            hiddenRows.clear(getFilteredRow());
         }
+        filteredList.setHidden(hiddenRows);
+        rowMap.update(getHiddenRows(), getGrid().getRowCount());
     }
 
     private void computeColumnMap() {
         int columnCount = getGrid().getColumnCount();
-        columnMap = new HashMap<>(columnCount);
+        columnMap.update(getHiddenColumns(), columnCount);
 
         //Toggling visibility can cause NotOnFxThread Exception.
         CellView.getValue(() -> {
             //Column count can have changed..
             final int columnSize = getColumns().size();
-            int totalColumn = getGrid().getColumnCount();
-            int visibleColumn = 0;
+            int totalColumn = Math.min(getGrid().getColumnCount(), columnSize);
             for (int i = 0; i < totalColumn; ++i) {
-                if (!getHiddenColumns().get(i)) {
-                    if (i < columnSize) {
-                        getColumns().get(i).column.setVisible(true);
-                    }
-                    columnMap.put(i, visibleColumn++);
-                } else {
-                    if (i < columnSize) {
-                        getColumns().get(i).column.setVisible(false);
-                    }
-                    columnMap.put(i, visibleColumn);
-                }
+                getColumns().get(i).column.setVisible(!getHiddenColumns().get(i));
             }
         });
     }
@@ -861,11 +854,10 @@ public class SpreadsheetView extends Control{
      * @return the index used in the SpreadsheetView.
      */
     public int getFilteredRow(int modelRow) {
-        try {
-            return rowMap.get(modelRow);
-        } catch (NullPointerException ex) {
+        if (modelRow < 0 || modelRow >= rowMap.size()) {
             return modelRow;
         }
+        return rowMap.getViewIndex(modelRow);
     }
 
     /**
@@ -876,11 +868,10 @@ public class SpreadsheetView extends Control{
      * @return an index based on the visible columns in the SpreadsheetView.
      */
     public int getViewColumn(int modelColumn) {
-        try {
-            return columnMap.get(modelColumn);
-        } catch (NullPointerException ex) {
+        if (modelColumn < 0 || modelColumn >= columnMap.size()) {
             return modelColumn;
         }
+        return columnMap.getViewIndex(modelColumn);
     }
 
     /**
@@ -902,8 +893,8 @@ public class SpreadsheetView extends Control{
 
     /**
      * Given the row of a {@code SpreadsheetCell}, returns the actual row as displayed
-     * in the {@code SpreadsheetView}. Beware as it can be a time-consuming operation.
-     * Also, calling this method on a row that it hidden will return incoherent
+     * in the {@code SpreadsheetView}.
+     * Beware, calling this method on a row that it hidden will return incoherent
      * information.
      *
      * @param modelRow the row retrieved in {@link SpreadsheetCell#getRow() }
@@ -920,14 +911,18 @@ public class SpreadsheetView extends Control{
     }
 
     private int getViewIndex(int sourceIndex) {
-        //FIXME Will be improved in JDK9 with https://bugs.openjdk.java.net/browse/JDK-8139848
-        int max = sortedList.size();
-        for (int i = 0; i < max; i++) {
-            if (sortedList.getSourceIndex(i) == sourceIndex) {
-                return i;
+        if (sourceIndex < 0 || sourceIndex >= sortedList.size()) {
+            return -1;
+        }
+        //SortedList cannot give the view index of a source index (JDK-8139848).
+        if (sortedViewIndexes == null) {
+            final int[] viewIndexes = new int[sortedList.size()];
+            for (int i = 0; i < viewIndexes.length; i++) {
+                viewIndexes[sortedList.getSourceIndex(i)] = i;
             }
+            sortedViewIndexes = viewIndexes;
         }
-        return -1;
+        return sortedViewIndexes[sourceIndex];
     }
     
     /**
@@ -987,6 +982,15 @@ public class SpreadsheetView extends Control{
          * We return here the exact rowSpan of the considered index. So if a
          * cell span on 4 but we give the second index, the rowspan will be 2.
          */
+        if (cell.getRowSpan() > 1) {
+            final int first = getFirstViewRow(cell);
+            if (first != -1) {
+                final int last = getLastViewRow(cell, first);
+                if (index >= first && index <= last) {
+                    return last - index + 1;
+                }
+            }
+        }
         int rowSpan = 0;
         do {
             ++rowSpan;
@@ -1011,6 +1015,12 @@ public class SpreadsheetView extends Control{
          * We return here the exact rowSpan of the considered index. So if a
          * cell span on 4 but we give the second index, the rowspan will be 2.
          */
+        if (cell.getRowSpan() > 1) {
+            final int first = getFirstViewRow(cell);
+            if (first != -1 && index >= first && index <= getLastViewRow(cell, first)) {
+                return index - first + 1;
+            }
+        }
         int rowSpan = 0;
         do {
             ++rowSpan;
@@ -1028,13 +1038,90 @@ public class SpreadsheetView extends Control{
      */
     public int getRowSpanFilter(SpreadsheetCell cell) {
         int rowSpan = cell.getRowSpan();
+        final int end = cell.getRow() + rowSpan;
+        //The hidden rows are counted by the rowMap.
+        if (cell.getRow() >= 0 && end <= rowMap.size()) {
+            return rowSpan - (rowMap.getHiddenCount(end) - rowMap.getHiddenCount(cell.getRow()));
+        }
         //First remove the filtered
-        for (int i = cell.getRow(); i < cell.getRow() + cell.getRowSpan(); ++i) {
+        for (int i = cell.getRow(); i < end; ++i) {
             rowSpan -= getHiddenRows().get(i) ? 1 : 0;
         }
         return rowSpan;
     }
 
+    /**
+     * Return the first row where the given spanning cell is displayed. It is
+     * directly computed from the hidden rows and, if the grid is sorted, from
+     * the view indexes of the rows of the cell.
+     *
+     * @param cell
+     * @return the first row where the cell is displayed, or -1 if it cannot
+     * be computed that way, for example because the sort has split the rows
+     * of the cell.
+     */
+    private int getFirstViewRow(SpreadsheetCell cell) {
+        final int column = cell.getColumn();
+        if (column < 0 || column >= getGrid().getColumnCount()) {
+            return -1;
+        }
+        final int first = getComparator() == null ? getFilteredRow(cell.getRow()) : getFirstSortedViewRow(cell);
+        /**
+         * We make sure the cell is really displayed there, otherwise the span
+         * is not laid out as expected and the rows must be walked.
+         */
+        if (first < 0 || first >= sortedList.size() || sortedList.get(first).get(column) != cell
+                || (first > 0 && sortedList.get(first - 1).get(column) == cell)) {
+            return -1;
+        }
+        return first;
+    }
+
+    /**
+     * Return the first row where the given spanning cell is displayed in a
+     * sorted grid, if all its visible rows are displayed next to each other.
+     *
+     * @param cell
+     * @return the first row where the cell is displayed, or -1 if its rows
+     * are not displayed next to each other.
+     */
+    private int getFirstSortedViewRow(SpreadsheetCell cell) {
+        final int end = Math.min(cell.getRow() + cell.getRowSpan(), rowMap.size());
+        int min = Integer.MAX_VALUE;
+        int max = -1;
+        int count = 0;
+        for (int row = Math.max(0, cell.getRow()); row < end; ++row) {
+            if (!rowMap.isHidden(row)) {
+                final int viewRow = getViewIndex(rowMap.getViewIndex(row));
+                if (viewRow < 0) {
+                    return -1;
+                }
+                min = Math.min(min, viewRow);
+                max = Math.max(max, viewRow);
+                ++count;
+            }
+        }
+        return count > 0 && max - min + 1 == count ? min : -1;
+    }
+
+    /**
+     * Return the last row where the given spanning cell is displayed, or -1
+     * if it cannot be computed from the hidden rows.
+     *
+     * @param cell
+     * @param first the row returned by {@link #getFirstViewRow(SpreadsheetCell)}
+     * @return the last row where the cell is displayed.
+     */
+    private int getLastViewRow(SpreadsheetCell cell, int first) {
+        final int column = cell.getColumn();
+        final int last = first + getRowSpanFilter(cell) - 1;
+        if (last < first || last >= sortedList.size() || sortedList.get(last).get(column) != cell
+                || (last + 1 < sortedList.size() && sortedList.get(last + 1).get(column) == cell)) {
+            return -1;
+        }
+        return last;
+    }
+
     /**
      * Return the current list of rows set in the SpreadsheetView as they appear
      * on the screen.
@@ -1053,7 +1140,12 @@ public class SpreadsheetView extends Control{
      */
     public int getColumnSpan(SpreadsheetCell cell) {
         int colSpan = cell.getColumnSpan();
-        for (int i = cell.getColumn(); i < cell.getColumn() + cell.getColumnSpan(); ++i) {
+        final int end = cell.getColumn() + colSpan;
+        //The hidden columns are counted by the columnMap.
+        if (cell.getColumn() >= 0 && end <= columnMap.size()) {
+            return colSpan - (columnMap.getHiddenCount(end) - columnMap.getHiddenCount(cell.getColumn()));
+        }
+        for (int i = cell.getColumn(); i < end; ++i) {
             colSpan -= getHiddenColumns().get(i) ? 1 : 0;
         }
         return colSpan;
@@ -1170,8 +1262,12 @@ public class SpreadsheetView extends Control{
         }
         // Reactivate that after
 //        verifyGrid(grid);
-        filteredList = new FilteredList<>(grid.getRows());
+        final Grid previousGrid = getGrid();
+        filteredList = new VisibleRowsList<>(grid.getRows());
         sortedList = new SortedList<>(filteredList);
+        sortedViewIndexes = null;
+        //Registered first so that the other listeners get up to date indexes.
+        sortedList.addListener(sortedListListener);
         gridProperty.set(grid);
         setHiddenRows(new BitSet(filteredList.getSource().size()));
         setHiddenColumns(new BitSet(grid.getColumnCount()));
@@ -1257,6 +1353,8 @@ public class SpreadsheetView extends Control{
          * columns.
          */
         Runnable runnable = () -> {
+            //The items staged for the previous cells are applied right away.
+            textRenderer.gridChanged(previousGrid);
             if (cellsView.getColumns().size() > grid.getColumnCount()) {
                 cellsView.getColumns().remove(grid.getColumnCount(), cellsView.getColumns().size());
             } else if (cellsView.getColumns().size() < grid.getColumnCount()) {
@@ -1284,6 +1382,58 @@ public class SpreadsheetView extends Control{
         }
     }
 
+    /**
+     * Stage a new item for the given cell. Contrary to
+     * {@link SpreadsheetCell#setItem(Object) }, this method can be called from
+     * any thread, which is useful when the items are coming from a feed.
+     * <br>
+     * Only the latest item staged for a cell is kept. Its text is computed on
+     * a background thread, and the item is then set on the JavaFX thread, once
+     * per pulse, but only if the cell is in a row currently displayed. The
+     * items of the other cells are set when their rows are displayed, so
+     * {@link #flushStagedItems() } must be called before reading the items of
+     * the whole {@link Grid}, for example before sorting or copying them.
+     * <br>
+     * A staged item is set with {@link Grid#setCellValue(int, int, Object) }
+     * at the position of the cell, so it is converted to the type of the
+     * cell and ignored if the cell is not editable. With a {@link GridBase},
+     * the items set during a pulse are wrapped in one
+     * {@link GridBase#batch(Runnable) }: a {@link GridChange} is fired for each
+     * of them, unless {@link GridBase#setBatchEventOnly(boolean) } is set, and
+     * a {@link GridChangeBatch} for the whole pulse.
+     * <br>
+     * The item is rejected if the {@link GridBase} is locked when it is
+     * staged, see {@link GridBase#setLocked(java.lang.Boolean) }. If the grid
+     * is locked after that, before the item is set, the item is dropped like
+     * any other modification of a locked grid.
+     * <br>
+     * The text is only computed in the background for the cells returning
+     * {@code true} from {@link SpreadsheetCellBase#isBackgroundTextSupported() },
+     * once one of their items has been set on the JavaFX thread.
+     *
+     * @param cell the cell to update
+     * @param item the new item of the cell
+     * @return {@code false} if the item has been rejected because the grid is
+     * locked
+     */
+    public final boolean stageItem(SpreadsheetCell cell, Object item) {
+        final Grid grid = getGrid();
+        if (grid instanceof GridBase && ((GridBase) grid).isLocked()) {
+            return false;
+        }
+        textRenderer.stage(cell, item);
+        return true;
+    }
+
+    /**
+     * Set right away all the items staged with
+     * {@link #stageItem(SpreadsheetCell, Object) }, whether their cells are
+     * displayed or not. This must be called on the JavaFX thread.
+     */
+    public final void flushStagedItems() {
+        textRenderer.flush();
+    }
+
     /**
      * Return a {@link TablePosition} of cell being currently edited.
      * 
@@ -1662,6 +1812,19 @@ public class SpreadsheetView extends Control{
             getCellsViewSkin().resizeRowsToFitContent();
         }
     }
+
+    /**
+     * This method will compute the best height only for the rows currently
+     * displayed. That is to say a height where each content of each visible
+     * cell could be fully visible.\n
+     * This is much cheaper than {@link #resizeRowsToFitContent() } on great
+     * grid.
+     */
+    public void resizeVisibleRowsToFitContent() {
+        if (getCellsViewSkin() != null) {
+            getCellsViewSkin().resizeVisibleRowsToFitContent();
+        }
+    }
     
     /**
      * This method will first apply {@link #resizeRowsToFitContent() } and then
@@ -1887,66 +2050,219 @@ public class SpreadsheetView extends Control{
     /**
      * Put the current selection into the ClipBoard. This can be overridden by
      * developers for custom behavior.
+     *
+     * The selection is also put as tab-separated text so that it can be
+     * pasted into other applications.
      */
     public void copyClipboard() {
         checkFormat();
 
+        final List<GridRange> ranges = ((TableViewSpanSelectionModel) cellsView.getSelectionModel()).getSelectedRanges();
         final ArrayList<ClipboardCell> list = new ArrayList<>();
-        final ObservableList<TablePosition> posList = getSelectionModel().getSelectedCells();
-
-        Set<SpreadsheetCell> treatedCells = new HashSet<>();
-        for (final TablePosition<?, ?> p : posList) {
-            SpreadsheetCell cell = getGrid().getRows().get(getModelRow(p.getRow())).get(getModelColumn(p.getColumn()));
-            if (!treatedCells.contains(cell)) {
-                treatedCells.add(cell);
-
-                /**
-                 * We need to add every cell contained in a span otherwise the
-                 * rectangles computed when pasting will be wrong.
-                 */
-                for (int row = 0; row < getRowSpan(cell, p.getRow()); ++row) {
-                    for (int col = 0; col < getColumnSpan(cell); ++col) {
-                        try {
-                            new ObjectOutputStream(new ByteArrayOutputStream()).writeObject(cell.getItem());
-                            list.add(new ClipboardCell(p.getRow() + row, p.getColumn() + col, cell.getItem() == null ? null : cell.getItem()));
-                        } catch (IOException exception) {
-                            list.add(new ClipboardCell(p.getRow() + row, p.getColumn() + col, cell.getItem() == null ? null : cell.getItem().toString()));
+        final StringBuilder text = new StringBuilder();
+        /**
+         * The values that may not be serializable. They are all written at
+         * once, and only checked one by one if that fails.
+         */
+        final List<Object> uncheckedValues = new ArrayList<>();
+        if (!ranges.isEmpty()) {
+            int minColumn = Integer.MAX_VALUE;
+            for (GridRange range : ranges) {
+                minColumn = Math.min(minColumn, range.getLeft());
+            }
+            /**
+             * The ranges are sorted by their top row, so we go down the rows
+             * with the ranges crossing the current row sorted by column. The
+             * positions are met by row and then by column, which is the order
+             * of the tab-separated text.
+             */
+            final List<GridRange> crossing = new ArrayList<>();
+            /**
+             * Only the spanning cells can be met several times, so we only
+             * need to track them, by identity since the equality of cells is
+             * costly.
+             */
+            final Set<SpreadsheetCell> treatedCells = Collections.newSetFromMap(new IdentityHashMap<>());
+            int next = 0;
+            int row = ranges.get(0).getTop();
+            int textRow = row;
+            int textColumn = minColumn;
+            while (next < ranges.size() || !crossing.isEmpty()) {
+                if (crossing.isEmpty()) {
+                    row = Math.max(row, ranges.get(next).getTop());
+                }
+                for (; next < ranges.size() && ranges.get(next).getTop() <= row; ++next) {
+                    final GridRange range = ranges.get(next);
+                    int index = 0;
+                    while (index < crossing.size() && crossing.get(index).getLeft() < range.getLeft()) {
+                        ++index;
+                    }
+                    crossing.add(index, range);
+                }
+
+                final List<SpreadsheetCell> gridRow = getGrid().getRows().get(getModelRow(row));
+                for (GridRange range : crossing) {
+                    for (int column = range.getLeft(); column <= range.getRight(); ++column) {
+                        final SpreadsheetCell cell = gridRow.get(getModelColumn(column));
+                        for (; textRow < row; ++textRow) {
+                            text.append('\n');
+                            textColumn = minColumn;
+                        }
+                        for (; textColumn < column; ++textColumn) {
+                            text.append('\t');
+                        }
+                        final int rowSpan = getRowSpan(cell, row);
+                        final int columnSpan = getColumnSpan(cell);
+                        if ((rowSpan > 1 || columnSpan > 1) && !treatedCells.add(cell)) {
+                            continue;
+                        }
+                        appendTabSeparatedValue(text, cell.getText());
+
+                        Object value = cell.getItem();
+                        if (value != null && !(value instanceof Serializable)) {
+                            value = value.toString();
+                        } else if (value != null && !isSerializableClass(value)) {
+                            uncheckedValues.add(value);
+                        }
+                        /**
+                         * We need to add every cell contained in a span
+                         * otherwise the rectangles computed when pasting will
+                         * be wrong.
+                         */
+                        for (int spanRow = 0; spanRow < rowSpan; ++spanRow) {
+                            for (int spanColumn = 0; spanColumn < columnSpan; ++spanColumn) {
+                                list.add(new ClipboardCell(row + spanRow, column + spanColumn, value));
+                            }
                         }
                     }
                 }
+
+                ++row;
+                for (int index = crossing.size() - 1; index >= 0; --index) {
+                    if (crossing.get(index).getBottom() < row) {
+                        crossing.remove(index);
+                    }
+                }
             }
         }
+        if (!uncheckedValues.isEmpty() && !isSerializable(uncheckedValues)) {
+            replaceNotSerializableValues(list);
+        }
+
         final ClipboardContent content = new ClipboardContent();
         content.put(fmt, list);
+        content.putString(text.toString());
         Clipboard.getSystemClipboard().setContent(content);
     }
 
+    /**
+     * The final classes of the values used by the default cell types. Their
+     * instances are always serializable, whatever their content.
+     */
+    private static final Set<Class<?>> SERIALIZABLE_VALUE_CLASSES = new HashSet<>(Arrays.asList(
+            String.class, Double.class, Integer.class, Long.class, Float.class, Short.class,
+            Byte.class, Boolean.class, Character.class, LocalDate.class, LocalTime.class,
+            LocalDateTime.class));
+
+    /**
+     * Whether the given serializable value is an instance of a known immutable
+     * class or an enum. Whether an instance of another class can be serialized
+     * may depend on its content, a collection holding a non-serializable
+     * element for example.
+     */
+    private static boolean isSerializableClass(Object value) {
+        return value instanceof Enum || SERIALIZABLE_VALUE_CLASSES.contains(value.getClass());
+    }
+
+    private static boolean isSerializable(Object value) {
+        try (ObjectOutputStream stream = new ObjectOutputStream(new ByteArrayOutputStream())) {
+            stream.writeObject(value);
+            return true;
+        } catch (IOException exception) {
+            return false;
+        }
+    }
+
+    /**
+     * Replace the values of the given cells that cannot be serialized by their
+     * String representation. The cells of a span are following each other and
+     * share the same value, so the last value checked is remembered.
+     *
+     * @param list
+     */
+    private static void replaceNotSerializableValues(List<ClipboardCell> list) {
+        Object lastValue = null;
+        Object lastReplacement = null;
+        for (int i = 0; i < list.size(); ++i) {
+            final ClipboardCell cell = list.get(i);
+            final Object value = cell.getValue();
+            if (value == null || isSerializableClass(value)) {
+                continue;
+            }
+            if (value != lastValue) {
+                lastValue = value;
+                lastReplacement = isSerializable(value) ? value : value.toString();
+            }
+            if (lastReplacement != value) {
+                list.set(i, new ClipboardCell(cell.getRow(), cell.getColumn(), lastReplacement));
+            }
+        }
+    }
+
+    /**
+     * Append the text, quoted if it contains a tab, a line break or a quote.
+     */
+    private static void appendTabSeparatedValue(StringBuilder builder, String text) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        if (text.indexOf('\t') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0 || text.indexOf('"') >= 0) {
+            builder.append('"').append(text.replace("\"", "\"\"")).append('"'); //$NON-NLS-1$ //$NON-NLS-2$
+        } else {
+            builder.append(text);
+        }
+    }
+
     /**
      * Paste one value from the clipboard over the whole selection.
      * @param change 
      */
     private void pasteOneValue(ClipboardCell change) {
+        final PasteColumn[] pasteColumns = new PasteColumn[getGrid().getColumnCount()];
+        final ObservableList<ObservableList<SpreadsheetCell>> rows = getGrid().getRows();
         for (TablePosition position : getSelectionModel().getSelectedCells()) {
-            tryPasteCell(getModelRow(position.getRow()), getModelColumn(position.getColumn()), change.getValue());
+            final int modelColumn = getModelColumn(position.getColumn());
+            if (modelColumn < 0 || modelColumn >= pasteColumns.length) {
+                continue;
+            }
+            if (pasteColumns[modelColumn] == null) {
+                pasteColumns[modelColumn] = new PasteColumn();
+            }
+            final int modelRow = getModelRow(position.getRow());
+            tryPasteCell(rows.get(modelRow), modelRow, modelColumn, change.getValue(), pasteColumns[modelColumn]);
         }
     }
 
     /**
      * Try to paste the given value into the given position.
+     * @param rowCells the cells of the given row
      * @param row
      * @param column
      * @param value 
-     */
-    private void tryPasteCell(int row, int column, Object value) {
-        final SpanType type = getSpanType(row, column);
-        if (type == SpanType.NORMAL_CELL || type == SpanType.ROW_VISIBLE) {
-            SpreadsheetCell cell = getGrid().getRows().get(row).get(column);
-            boolean succeed = cell.getCellType().match(value, cell.getOptionsForEditor());
-            if (succeed) {
-                getGrid().setCellValue(cell.getRow(), cell.getColumn(),
-                        cell.getCellType().convertValue(value));
+     * @param pasteColumn the conversions already done in that column
+     */
+    private void tryPasteCell(List<SpreadsheetCell> rowCells, int row, int column, Object value, PasteColumn pasteColumn) {
+        final SpreadsheetCell cell = rowCells.get(column);
+        //A cell without span is always a normal cell, only the spans need to be checked.
+        if (cell.getRowSpan() > 1 || cell.getColumnSpan() > 1) {
+            final SpanType type = getSpanType(row, column);
+            if (type != SpanType.NORMAL_CELL && type != SpanType.ROW_VISIBLE) {
+                return;
             }
         }
+        if (pasteColumn.convert(cell, value)) {
+            getGrid().setCellValue(cell.getRow(), cell.getColumn(), pasteColumn.getConvertedValue());
+        }
     }
 
     /**
@@ -1981,31 +2297,10 @@ public class SpreadsheetView extends Control{
 
                 //If the numbers of rows are the same and the targetColumnGap is a multiple of sourceColumnGap
                 if ((sourceRowGap == targetRowGap || targetRowGap == 1) && (targetColumnGap % sourceColumnGap) == 0) {
-                    for (final ClipboardCell change : list) {
-                        int row = getModelRow(change.getRow() + offsetRow);
-                        int column = change.getColumn() + offsetCol;
-                        do {
-                            int modelColumn = getModelColumn(column);
-                            if (row < getGrid().getRowCount() && modelColumn < getGrid().getColumnCount()
-                                    && row >= 0 && column >= 0) {
-                                tryPasteCell(row, modelColumn, change.getValue());
-                            }
-                        } while ((column = column + sourceColumnGap) <= targetRange.getRight());
-                    }
+                    pasteRange(list, sourceRange, offsetRow, 0, offsetCol, sourceColumnGap, targetRange.getRight());
                     //If the numbers of columns are the same and the targetRowGap is a multiple of sourceRowGap
                 } else if ((sourceColumnGap == targetColumnGap || targetColumnGap == 1) && (targetRowGap % sourceRowGap) == 0) {
-                    for (final ClipboardCell change : list) {
-
-                        int row = change.getRow() + offsetRow;
-                        int column = getModelColumn(change.getColumn() + offsetCol);
-                        do {
-                            int modelRow = getModelRow(row);
-                            if (modelRow < getGrid().getRowCount() && column < getGrid().getColumnCount()
-                                    && row >= 0 && column >= 0) {
-                                tryPasteCell(modelRow, column, change.getValue());
-                            }
-                        } while ((row = row + sourceRowGap) <= targetRange.getBottom());
-                    }
+                    pasteRange(list, sourceRange, offsetRow, sourceRowGap, offsetCol, 0, targetRange.getBottom());
                 }
             }
         }
@@ -2017,44 +2312,124 @@ public class SpreadsheetView extends Control{
      * @param list
      */
     private void pasteSeveralValues(ArrayList<ClipboardCell> list) {
-        // TODO algorithm very bad
-        int minRow = getGrid().getRowCount();
-        int minCol = getGrid().getColumnCount();
-        int maxRow = 0;
-        int maxCol = 0;
+        int minRow = Integer.MAX_VALUE;
+        int minCol = Integer.MAX_VALUE;
+        int maxRow = Integer.MIN_VALUE;
+        int maxCol = Integer.MIN_VALUE;
         for (final ClipboardCell p : list) {
-            final int tempcol = p.getColumn();
-            final int temprow = p.getRow();
-            if (tempcol < minCol) {
-                minCol = tempcol;
-            }
-            if (tempcol > maxCol) {
-                maxCol = tempcol;
-            }
-            if (temprow < minRow) {
-                minRow = temprow;
-            }
-            if (temprow > maxRow) {
-                maxRow = temprow;
-            }
+            minRow = Math.min(minRow, p.getRow());
+            maxRow = Math.max(maxRow, p.getRow());
+            minCol = Math.min(minCol, p.getColumn());
+            maxCol = Math.max(maxCol, p.getColumn());
         }
 
         final TablePosition<?, ?> p = cellsView.getFocusModel().getFocusedCell();
 
         final int offsetRow = p.getRow() - minRow;
         final int offsetCol = p.getColumn() - minCol;
-        final int rowCount = getGrid().getRowCount();
-        final int columnCount = getGrid().getColumnCount();
-        int row;
-        int column;
+        pasteRange(list, new GridRange(minRow, maxRow, minCol, maxCol), offsetRow, 0, offsetCol, 0, 0);
+    }
+
+    /**
+     * Paste the given cells, shifted by the given offsets, into the
+     * SpreadsheetView. The view rows and columns of the target block are
+     * translated into model indexes only once, and each target column keeps
+     * its last conversion so that repeated values are only checked once.
+     *
+     * If a step is positive, each cell is pasted again every step rows (or
+     * columns) as long as it does not go beyond the given last row (or
+     * column).
+     *
+     * @param list the cells to paste
+     * @param sourceRange the range covered by the cells
+     * @param offsetRow
+     * @param rowStep
+     * @param offsetCol
+     * @param columnStep
+     * @param last the last view row if rowStep is positive, the last view
+     * column if columnStep is positive.
+     */
+    private void pasteRange(List<ClipboardCell> list, GridRange sourceRange, int offsetRow, int rowStep,
+            int offsetCol, int columnStep, int last) {
+        final int firstRow = sourceRange.getTop() + offsetRow;
+        final int lastRow = rowStep > 0 ? Math.max(sourceRange.getBottom() + offsetRow, last) : sourceRange.getBottom() + offsetRow;
+        final int firstColumn = sourceRange.getLeft() + offsetCol;
+        final int lastColumn = columnStep > 0 ? Math.max(sourceRange.getRight() + offsetCol, last) : sourceRange.getRight() + offsetCol;
 
+        final int viewRowCount = getItems().size();
+        final int[] modelRows = new int[lastRow - firstRow + 1];
+        for (int i = 0; i < modelRows.length; ++i) {
+            final int viewRow = firstRow + i;
+            modelRows[i] = viewRow >= 0 && viewRow < viewRowCount ? getModelRow(viewRow) : -1;
+        }
+        final int columnCount = getGrid().getColumnCount();
+        final int[] modelColumns = new int[lastColumn - firstColumn + 1];
+        final PasteColumn[] pasteColumns = new PasteColumn[modelColumns.length];
+        for (int i = 0; i < modelColumns.length; ++i) {
+            final int viewColumn = firstColumn + i;
+            modelColumns[i] = viewColumn >= 0 ? getModelColumn(viewColumn) : -1;
+            pasteColumns[i] = new PasteColumn();
+        }
+
+        final ObservableList<ObservableList<SpreadsheetCell>> rows = getGrid().getRows();
+        final int rowCount = rows.size();
+        //The copied cells come row by row, so the cells of the last row are kept.
+        int cellsRow = -1;
+        List<SpreadsheetCell> rowCells = null;
         for (final ClipboardCell change : list) {
-            row = getModelRow(change.getRow() + offsetRow);
-            column = getModelColumn(change.getColumn() + offsetCol);
-            if (row < rowCount && column < columnCount
-                    && row >= 0 && column >= 0) {
-                tryPasteCell(row, column, change.getValue());
+            int row = change.getRow() + offsetRow;
+            do {
+                final int modelRow = modelRows[row - firstRow];
+                if (modelRow >= 0 && modelRow < rowCount) {
+                    if (modelRow != cellsRow) {
+                        cellsRow = modelRow;
+                        rowCells = rows.get(modelRow);
+                    }
+                    int column = change.getColumn() + offsetCol;
+                    do {
+                        final int modelColumn = modelColumns[column - firstColumn];
+                        if (modelColumn >= 0 && modelColumn < columnCount) {
+                            tryPasteCell(rowCells, modelRow, modelColumn, change.getValue(), pasteColumns[column - firstColumn]);
+                        }
+                    } while (columnStep > 0 && (column = column + columnStep) <= lastColumn);
+                }
+            } while (rowStep > 0 && (row = row + rowStep) <= lastRow);
+        }
+    }
+
+    /**
+     * Keep the last conversion done when pasting into a column. Since a column
+     * usually holds one type of cell and the pasted values are often repeated,
+     * this saves a lot of matching and conversion. The type, the options and
+     * the value are compared by identity, a new one only costs a conversion.
+     */
+    private static final class PasteColumn {
+        private SpreadsheetCellType<?> type;
+        private List<Object> options;
+        private Object value;
+        private boolean matched;
+        private Object convertedValue;
+
+        /**
+         * Check whether the value can be pasted into the given cell, and
+         * convert it.
+         *
+         * @return true if the value can be pasted, the converted value is then
+         * given by {@link #getConvertedValue() }.
+         */
+        boolean convert(SpreadsheetCell cell, Object newValue) {
+            if (type != cell.getCellType() || value != newValue || options != cell.getOptionsForEditor()) {
+                type = cell.getCellType();
+                options = cell.getOptionsForEditor();
+                value = newValue;
+                matched = type.match(newValue, options);
+                convertedValue = matched ? type.convertValue(newValue) : null;
             }
+            return matched;
+        }
+
+        Object getConvertedValue() {
+            return convertedValue;
         }
     }
     
@@ -2077,12 +2452,23 @@ public class SpreadsheetView extends Control{
 
             @SuppressWarnings("unchecked")
             final ArrayList<ClipboardCell> list = (ArrayList<ClipboardCell>) clipboard.getContent(fmt);
-            if (list.size() == 1) {
-                pasteOneValue(list.get(0));
-            } else if (selectedCells.size() > 1) {
-                pasteMixedValues(list);
+            final Runnable paste = () -> {
+                if (list.size() == 1) {
+                    pasteOneValue(list.get(0));
+                } else if (selectedCells.size() > 1) {
+                    pasteMixedValues(list);
+                } else {
+                    pasteSeveralValues(list);
+                }
+            };
+            /**
+             * With a GridBase, all the modifications are notified at once
+             * when the paste is done.
+             */
+            if (getGrid() instanceof GridBase) {
+                ((GridBase) getGrid()).batch(paste);
             } else {
-                pasteSeveralValues(list);
+                paste.run();
             }
             // To be improved
         } else if (clipboard.hasString()) {
@@ -2328,11 +2714,9 @@ public class SpreadsheetView extends Control{
         ObservableList<ObservableList<SpreadsheetCell>> rows = grid.getRows();
         final int rowSize = rows.size();
         rowFix = new BitSet(rowSize);
-        identityMap = new IdentityHashMap<>(rowSize);
         rows:
         for (int r = 0; r < rowSize; ++r) {
             ObservableList<SpreadsheetCell> row = rows.get(r);
-            identityMap.put(row, r);
             for (SpreadsheetCell cell : row) {
                 if (getRowSpanFilter(cell) > 1) {
                     continue rows;
@@ -2394,6 +2778,96 @@ public class SpreadsheetView extends Control{
      * private listeners
      * ********************************************************************
      */
+    /**
+     * Keep the inverse permutation of the sortedList up to date. A permutation
+     * only patches the permuted range, rows added or removed are patched with
+     * {@link #patchSortedViewIndexes(BitSet, BitSet) }.
+     */
+    private final ListChangeListener<ObservableList<SpreadsheetCell>> sortedListListener = (ListChangeListener.Change<? extends ObservableList<SpreadsheetCell>> c) -> {
+        //The sortedList of a previous Grid may still be notified.
+        if (c.getList() != sortedList || sortedViewIndexes == null) {
+            return;
+        }
+        //The old view indexes removed, and the new view indexes added.
+        BitSet removedViews = null;
+        BitSet addedViews = null;
+        int addedCount = 0;
+        int removedCount = 0;
+        while (c.next()) {
+            if (c.wasPermutated()) {
+                if (removedViews != null) {
+                    //Never mixed by the SortedList, rebuilt if ever.
+                    sortedViewIndexes = null;
+                    return;
+                }
+                for (int i = c.getFrom(); i < c.getTo(); ++i) {
+                    sortedViewIndexes[sortedList.getSourceIndex(i)] = i;
+                }
+            } else if (!c.wasUpdated()) {
+                if (removedViews == null) {
+                    removedViews = new BitSet();
+                    addedViews = new BitSet();
+                }
+                //The changes come in order, each one relative to the list once the previous ones are applied.
+                final int oldFrom = c.getFrom() - addedCount + removedCount;
+                removedViews.set(oldFrom, oldFrom + c.getRemovedSize());
+                addedViews.set(c.getFrom(), c.getTo());
+                addedCount += c.getAddedSize();
+                removedCount += c.getRemovedSize();
+            }
+        }
+        if (removedViews != null) {
+            patchSortedViewIndexes(removedViews, addedViews);
+        }
+    };
+
+    /**
+     * Patch the inverse permutation of the sortedList once rows have been
+     * added or removed. The rows kept are shifted, in the source list and in
+     * the sortedList, by the rows removed and added before them. Only the
+     * source indexes of the added rows need to be asked to the sortedList.
+     *
+     * @param removedViews the view indexes removed, before the change
+     * @param addedViews the view indexes added, after the change
+     */
+    private void patchSortedViewIndexes(BitSet removedViews, BitSet addedViews) {
+        final int[] oldViewIndexes = sortedViewIndexes;
+        final int[] viewIndexes = new int[sortedList.size()];
+        if (oldViewIndexes.length - removedViews.cardinality() + addedViews.cardinality() != viewIndexes.length) {
+            sortedViewIndexes = null;
+            return;
+        }
+        final BitSet addedSources = new BitSet(viewIndexes.length);
+        for (int view = addedViews.nextSetBit(0); view >= 0; view = addedViews.nextSetBit(view + 1)) {
+            final int source = sortedList.getSourceIndex(view);
+            addedSources.set(source);
+            viewIndexes[source] = view;
+        }
+        /**
+         * The new view index of each old view index, the rows kept staying in
+         * the same order.
+         */
+        final int[] viewMap = new int[oldViewIndexes.length];
+        int newView = 0;
+        for (int view = 0; view < viewMap.length; ++view) {
+            if (removedViews.get(view)) {
+                viewMap[view] = -1;
+            } else {
+                newView = addedViews.nextClearBit(newView);
+                viewMap[view] = newView++;
+            }
+        }
+        //Same for the source indexes, a row is removed from both lists.
+        int newSource = 0;
+        for (int source = 0; source < oldViewIndexes.length; ++source) {
+            final int view = viewMap[oldViewIndexes[source]];
+            if (view >= 0) {
+                newSource = addedSources.nextClearBit(newSource);
+                viewIndexes[newSource++] = view;
+            }
+        }
+        sortedViewIndexes = viewIndexes;
+    }
 
     private final ListChangeListener<Integer> fixedRowsListener = new ListChangeListener<Integer>() {
         @Override
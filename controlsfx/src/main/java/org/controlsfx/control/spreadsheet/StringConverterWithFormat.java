@@ -26,6 +26,12 @@
  */
 package org.controlsfx.control.spreadsheet;
 
+import java.text.DecimalFormat;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import javafx.util.StringConverter;
 
 /**
@@ -42,12 +48,27 @@ import javafx.util.StringConverter;
  * the {@link #toStringFormat(Object, String)} and let the other converter handle the other methods.</li>
  * </ul>
  * 
+ * Creating a formatter from a pattern is costly, so the date formatters should
+ * be retrieved with {@link #getDateTimeFormatter(String)}, which keeps the last
+ * used ones.
+ * 
  * @see SpreadsheetCellType
  * 
  * @param <T>
  */
 public abstract class StringConverterWithFormat<T> extends StringConverter<T> {
 
+    /**
+     * The maximum number of formatters kept for each thread.
+     */
+    private static final int FORMATTER_CACHE_SIZE = 64;
+
+    /**
+     * DecimalFormat is not thread-safe, so each thread keeps its own
+     * formatters.
+     */
+    private static final ThreadLocal<FormatterCache> FORMATTERS = ThreadLocal.withInitial(FormatterCache::new);
+
     protected StringConverter<T> myConverter;
 
     /**
@@ -74,4 +95,105 @@ public abstract class StringConverterWithFormat<T> extends StringConverter<T> {
     public String toStringFormat(T value, String format) {
         return toString(value);
     }
+
+    /**
+     * Returns a {@link DecimalFormat} for the given pattern and the current
+     * default format {@link Locale}. The formatters are cached for the calling
+     * thread and are mutable, so the returned one must not be modified nor
+     * shared with another thread. This is why it is not given to the
+     * subclasses outside of this package.
+     *
+     * @param pattern the pattern of the {@link DecimalFormat}
+     * @return a {@link DecimalFormat} for the given pattern.
+     * @throws IllegalArgumentException if the pattern is invalid
+     */
+    static DecimalFormat getDecimalFormat(String pattern) {
+        final FormatterCache cache = FORMATTERS.get();
+        DecimalFormat format = (DecimalFormat) cache.get(DecimalFormat.class, pattern);
+        if (format == null) {
+            format = new DecimalFormat(pattern);
+            cache.put(format);
+        }
+        return format;
+    }
+
+    /**
+     * Returns a {@link DateTimeFormatter} for the given pattern and the
+     * current default format {@link Locale}. The formatters are cached for
+     * the calling thread.
+     *
+     * @param pattern the pattern of the {@link DateTimeFormatter}
+     * @return a {@link DateTimeFormatter} for the given pattern.
+     * @throws IllegalArgumentException if the pattern is invalid
+     */
+    public static DateTimeFormatter getDateTimeFormatter(String pattern) {
+        final FormatterCache cache = FORMATTERS.get();
+        DateTimeFormatter formatter = (DateTimeFormatter) cache.get(DateTimeFormatter.class, pattern);
+        if (formatter == null) {
+            formatter = DateTimeFormatter.ofPattern(pattern, cache.lookupKey.locale);
+            cache.put(formatter);
+        }
+        return formatter;
+    }
+
+    /**
+     * The formatters of one thread. The lookups go through a single mutable
+     * key so that a cache hit does not allocate anything, a new key is only
+     * created when a formatter is added.
+     */
+    private static final class FormatterCache extends LinkedHashMap<FormatKey, Object> {
+        private final FormatKey lookupKey = new FormatKey();
+
+        FormatterCache() {
+            super(16, 0.75f, true);
+        }
+
+        Object get(Class<?> type, String pattern) {
+            lookupKey.set(type, pattern, Locale.getDefault(Locale.Category.FORMAT));
+            return get(lookupKey);
+        }
+
+        /**
+         * Adds the formatter of the last lookup.
+         */
+        void put(Object formatter) {
+            final FormatKey key = new FormatKey();
+            key.set(lookupKey.type, lookupKey.pattern, lookupKey.locale);
+            put(key, formatter);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<FormatKey, Object> eldest) {
+            return size() > FORMATTER_CACHE_SIZE;
+        }
+    }
+
+    private static final class FormatKey {
+        private Class<?> type;
+        private String pattern;
+        private Locale locale;
+        private int hash;
+
+        void set(Class<?> type, String pattern, Locale locale) {
+            this.type = type;
+            this.pattern = pattern;
+            this.locale = locale;
+            hash = (31 * type.hashCode() + Objects.hashCode(pattern)) * 31 + locale.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof FormatKey)) {
+                return false;
+            }
+            final FormatKey other = (FormatKey) obj;
+            return type == other.type && Objects.equals(pattern, other.pattern)
+                    && Objects.equals(locale, other.locale);
+        }
+    }
 }
@@ -38,30 +38,59 @@ import javafx.scene.control.ContextMenu;
 import javafx.scene.control.CustomMenuItem;
 import javafx.scene.control.TableColumn;
 
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.BiPredicate;
+import java.util.function.Predicate;
 
 public final class ColumnFilter<T,R> {
+    static final BiPredicate<String,String> DEFAULT_SEARCH_STRATEGY = (inputString, subjectString) -> subjectString.toLowerCase().contains(inputString.toLowerCase());
+    /**
+     * Stands, in the values read by
+     * {@link #readValues(List, int, int, Object[])}, for an item without any
+     * cell value.
+     */
+    static final Object NO_VALUE = new Object();
+
     private final TableFilter<T> tableFilter;
     private final TableColumn<T,R> tableColumn;
 
     private final ObservableList<FilterValue<T,R>> filterValues;
 
     private final DupeCounter<R> filterValuesDupeCounter = new DupeCounter<>(false);
+    // the FilterValue of each distinct value, to find it without going through filterValues
+    private final HashMap<R,FilterValue<T,R>> filterValueIndex = new HashMap<>();
+    // the FilterValues to remove from filterValues, all at once at the end of a change
+    private final HashSet<FilterValue<T,R>> removedFilterValues = new HashSet<>();
     private final DupeCounter<R> visibleValuesDupeCounter = new DupeCounter<>(false);
     private final HashSet<R> unselectedValues = new HashSet<>();
-    private final HashMap<CellIdentity<T>,ChangeListener<R>> trackedCells = new HashMap<>();
+    private final HashMap<CellIdentity<T>,TrackedCell> trackedCells = new HashMap<>();
+    /**
+     * The ids of the rows holding each value, given by the TableFilter.
+     */
+    private final HashMap<R,RowSet> valueRows = new HashMap<>();
     
     private boolean lastFilter = false;
     private boolean isDirty = false;
-    private BiPredicate<String,String> searchStrategy = (inputString, subjectString) -> subjectString.toLowerCase().contains(inputString.toLowerCase());
+    private BiPredicate<String,String> searchStrategy = DEFAULT_SEARCH_STRATEGY;
     private volatile FilterPanel filterPanel;
 
     private boolean initialized = false;
 
+    /**
+     * When the TableFilter computes the values on demand, no listener is added
+     * to the cells. The lists only flag the values as stale, and they are
+     * scanned again the next time they are needed.
+     */
+    private boolean valuesStale = false;
+    private boolean visibleValuesStale = false;
+    private final ListChangeListener<T> staleValuesListener = lc -> valuesStale = true;
+    private final ListChangeListener<T> staleVisibleValuesListener = lc -> visibleValuesStale = true;
+
     private final ListChangeListener<T> backingListListener = lc -> {
         while (lc.next()) {
             if (lc.wasAdded()) {
@@ -73,6 +102,7 @@ public final class ColumnFilter<T,R> {
                         .forEach(t -> removeBackingItem(t, getTableColumn().getCellObservableValue(t)));
             }
         }
+        removeFilterValues();
     };
 
     private final ListChangeListener<T> itemsListener = lc -> {
@@ -90,13 +120,6 @@ public final class ColumnFilter<T,R> {
         }
     };
 
-    private final ChangeListener<R> changeListener = (observable, oldValue, newValue) -> {
-        if (filterValuesDupeCounter.add(newValue) == 1) {
-            getFilterValues().add(new FilterValue<>(newValue,this));
-        }
-        removeValue(oldValue);
-    };
-
     private final ListChangeListener<FilterValue<T, R>> filterValueListChangeListener = lc -> {
         while (lc.next()) {
             if (lc.wasRemoved()) {
@@ -136,13 +159,17 @@ public final class ColumnFilter<T,R> {
     }
 
     /**
-     * Initializes this ColumnFilter, particularly if it was set up in a lazy context
+     * Initializes this ColumnFilter, particularly if it was set up in a lazy context.
+     * When the values are computed on demand, this also refreshes them if the
+     * backing list has changed.
      */
     public void initialize() {
         if (!initialized) {
             initializeListeners();
             initializeValues();
             initialized = true;
+        } else if (valuesStale) {
+            scanValues();
         }
     }
 
@@ -212,6 +239,9 @@ public final class ColumnFilter<T,R> {
      * Indicates whether a given value is currently visible for this ColumnFilter
      */
     public boolean valueIsVisible(R value) {
+        if (visibleValuesStale) {
+            scanVisibleValues();
+        }
         return visibleValuesDupeCounter.get(value) > 0;
     }
 
@@ -219,10 +249,10 @@ public final class ColumnFilter<T,R> {
      * Re-executes filter based on selections for this given ColumnFilter
      */
     public void applyFilter() {
-    	tableFilter.executeFilter();
     	lastFilter = true;
     	tableFilter.getColumnFilters().stream().filter(c -> !c.equals(this)).forEach(c -> c.lastFilter = false);
-    	tableFilter.getColumnFilters().stream().flatMap(c -> c.filterValues.stream()).forEach(FilterValue::refreshScope);
+    	// the scopes are computed along with the filter, off the FX thread if the filter is
+    	tableFilter.executeFilter(() -> {}, true);
         isDirty = false;
     }
 
@@ -263,7 +293,58 @@ public final class ColumnFilter<T,R> {
                 || !unselectedValues.contains(value.getValue());
     }
 
+    /**
+     * Reads the values of the given items in this column, from the index
+     * {@code from} (inclusive) to {@code to} (exclusive), into the same indexes
+     * of the given array. This must be called on the FX thread, since the cell
+     * value factories commonly create or bind properties. Only the values read
+     * here are handled off the FX thread.
+     */
+    void readValues(List<T> items, int from, int to, Object[] values) {
+        for (int i = from; i < to; i++) {
+            ObservableValue<R> cellValue = tableColumn.getCellObservableValue(items.get(i));
+            values[i] = cellValue == null ? NO_VALUE : cellValue.getValue();
+        }
+    }
+
+    /**
+     * Returns a copy of the current filter of this column, to test off the FX
+     * thread the values read by {@link #readValues(List, int, int, Object[])},
+     * or null if no value is unselected.
+     */
+    Predicate<Object> copyFilter() {
+        if (unselectedValues.isEmpty()) {
+            return null;
+        }
+        HashSet<R> unselected = new HashSet<>(unselectedValues);
+        return value -> value == NO_VALUE || !unselected.contains(value);
+    }
+
+    /**
+     * Returns whether the visible values of this column must be counted when
+     * the filter is computed off the FX thread.
+     */
+    boolean needsVisibleValues() {
+        return initialized;
+    }
+
+    /**
+     * Removes from the given row ids the rows holding an unselected value.
+     */
+    void filterRows(BitSet rows) {
+        for (R value : unselectedValues) {
+            RowSet rowSet = valueRows.get(value);
+            if (rowSet != null) {
+                rowSet.removeFrom(rows);
+            }
+        }
+    }
+
     private void initializeValues() {
+        if (tableFilter.isOnDemand()) {
+            scanValues();
+            return;
+        }
         tableFilter.getBackingList()
                 .forEach(t -> addBackingItem(t, tableColumn.getCellObservableValue(t)));
         tableFilter.getTableView().getItems().stream()
@@ -275,16 +356,16 @@ public final class ColumnFilter<T,R> {
         if (cellValue == null) {
             return;
         }
-        if (filterValuesDupeCounter.add(cellValue.getValue()) == 1) {
-            filterValues.add(new FilterValue<>(cellValue.getValue(),this));
-        }
+        addValue(cellValue.getValue());
 
         //listen to cell value and track it
         CellIdentity<T> trackedCellValue = new CellIdentity<>(item);
-
-		ChangeListener<R> cellListener = new WeakChangeListener(changeListener);
-        cellValue.addListener(cellListener);
-        trackedCells.put(trackedCellValue,cellListener);
+        TrackedCell trackedCell = trackedCells.get(trackedCellValue);
+        if (trackedCell != null) {
+            trackedCell.count++;
+            return;
+        }
+        trackedCells.put(trackedCellValue, new TrackedCell(item, tableFilter.getRowId(item), cellValue));
     }
     private void removeBackingItem(T item, ObservableValue<R> cellValue) {
         if (cellValue == null) {
@@ -293,18 +374,49 @@ public final class ColumnFilter<T,R> {
         removeValue(cellValue.getValue());
 
         //remove listener from cell
-        ChangeListener<R> listener = trackedCells.get(new CellIdentity<>(item));
-        cellValue.removeListener(listener);
-        trackedCells.remove(new CellIdentity<>(item));
+        CellIdentity<T> trackedCellValue = new CellIdentity<>(item);
+        TrackedCell trackedCell = trackedCells.get(trackedCellValue);
+        if (trackedCell != null && --trackedCell.count == 0) {
+            trackedCells.remove(trackedCellValue);
+            trackedCell.dispose();
+        }
+    }
+    private void addRow(R value, int rowId) {
+        if (rowId >= 0) {
+            valueRows.computeIfAbsent(value, v -> new RowSet()).add(rowId, tableFilter.getRowCapacity());
+        }
+    }
+    private void removeRow(R value, int rowId) {
+        RowSet rowSet = valueRows.get(value);
+        if (rowSet != null && rowSet.remove(rowId) && rowSet.isEmpty()) {
+            valueRows.remove(value);
+        }
     }
     private void removeValue(R value) {
         boolean removedLastDuplicate = filterValuesDupeCounter.remove(value) == 0;
         if (removedLastDuplicate) {
             // Remove the FilterValue associated with the value
-            Optional<FilterValue<T,R>> existingFilterValue = getFilterValues().stream()
-                    .filter(fv -> Objects.equals(fv.getValue(), value)).findAny();
-
-            existingFilterValue.ifPresent(trFilterValue -> getFilterValues().remove(trFilterValue));
+            FilterValue<T,R> existingFilterValue = filterValueIndex.remove(value);
+            if (existingFilterValue != null) {
+                removedFilterValues.add(existingFilterValue);
+            }
+        }
+    }
+    /**
+     * Removes the FilterValues of the values removed since the last call, in
+     * a single pass over filterValues instead of one search per value.
+     */
+    private void removeFilterValues() {
+        if (!removedFilterValues.isEmpty()) {
+            filterValues.removeAll(removedFilterValues);
+            removedFilterValues.clear();
+        }
+    }
+    private void addValue(R value) {
+        if (filterValuesDupeCounter.add(value) == 1) {
+            FilterValue<T,R> filterValue = new FilterValue<>(value,this);
+            filterValueIndex.put(value, filterValue);
+            filterValues.add(filterValue);
         }
     }
     private void addVisibleItem(ObservableValue<R>  cellValue) {
@@ -317,12 +429,75 @@ public final class ColumnFilter<T,R> {
             visibleValuesDupeCounter.remove(cellValue.getValue());
         }
     }
-    private void initializeListeners() {
-        //listen to backing list and update distinct values accordingly
-        tableFilter.getBackingList().addListener(new WeakListChangeListener<T>(backingListListener));
+    /**
+     * Scans the backing list for its distinct values, keeping the FilterValues
+     * of the values still present.
+     */
+    private void scanValues() {
+        DupeCounter<R> values = countValues(tableFilter.getBackingList());
+
+        HashSet<FilterValue<T,R>> removed = new HashSet<>();
+        filterValueIndex.values().removeIf(fv -> values.get(fv.getValue()) == 0 && removed.add(fv));
+        filterValues.removeAll(removed);
+
+        List<FilterValue<T,R>> added = new ArrayList<>();
+        for (R value : values.values()) {
+            if (!filterValueIndex.containsKey(value)) {
+                FilterValue<T,R> filterValue = new FilterValue<>(value,this);
+                filterValueIndex.put(value, filterValue);
+                added.add(filterValue);
+            }
+        }
+        filterValues.addAll(added);
 
-        //listen to visible items and update visible values accordingly
-        tableFilter.getTableView().getItems().addListener(new WeakListChangeListener<T>(itemsListener));
+        filterValuesDupeCounter.setAll(values);
+        valuesStale = false;
+        visibleValuesStale = true;
+    }
+    private void scanVisibleValues() {
+        visibleValuesDupeCounter.setAll(countValues(tableFilter.getTableView().getItems()));
+        visibleValuesStale = false;
+    }
+    private DupeCounter<R> countValues(List<T> items) {
+        // the cell value factories are only called on the FX thread, the values read are counted in parallel chunks
+        Object[] values = new Object[items.size()];
+        readValues(items, 0, values.length, values);
+        @SuppressWarnings("unchecked")
+        DupeCounter<R>[] chunks = new DupeCounter[TableFilter.getChunkCount(values.length)];
+        TableFilter.runChunks(values.length, chunk -> chunks[chunk] = countChunk(values, chunk));
+
+        if (chunks.length == 1) {
+            return chunks[0];
+        }
+        DupeCounter<R> counter = new DupeCounter<>(false);
+        for (DupeCounter<R> chunk : chunks) {
+            counter.addAll(chunk);
+        }
+        return counter;
+    }
+    @SuppressWarnings("unchecked")
+    private static <R> DupeCounter<R> countChunk(Object[] values, int chunk) {
+        DupeCounter<R> counter = new DupeCounter<>(false);
+        int to = Math.min(values.length, (chunk + 1) * TableFilter.CHUNK_SIZE);
+        for (int i = chunk * TableFilter.CHUNK_SIZE; i < to; i++) {
+            if (values[i] != NO_VALUE) {
+                counter.add((R) values[i]);
+            }
+        }
+        return counter;
+    }
+    private void initializeListeners() {
+        if (tableFilter.isOnDemand()) {
+            //only flag the values as stale, they are scanned when needed
+            tableFilter.getBackingList().addListener(new WeakListChangeListener<T>(staleValuesListener));
+            tableFilter.getTableView().getItems().addListener(new WeakListChangeListener<T>(staleVisibleValuesListener));
+        } else {
+            //listen to backing list and update distinct values accordingly
+            tableFilter.getBackingList().addListener(new WeakListChangeListener<T>(backingListListener));
+
+            //listen to visible items and update visible values accordingly
+            tableFilter.getTableView().getItems().addListener(new WeakListChangeListener<T>(itemsListener));
+        }
 
         //listen to selections on filterValues
         filterValues.addListener(new WeakListChangeListener<>(filterValueListChangeListener));
@@ -343,6 +518,182 @@ public final class ColumnFilter<T,R> {
         contextMenu.setOnShowing(ae -> initialize());
     }
 
+    /**
+     * Listens to the value of a cell, and keeps the row of its item indexed
+     * under this value.
+     */
+    private final class TrackedCell implements ChangeListener<R> {
+        private final T item;
+        private final int rowId;
+        private final ObservableValue<R> cellValue;
+        private final ChangeListener<R> weakListener = new WeakChangeListener<>(this);
+        private R value;
+        // the number of times the item is in the backing list
+        private int count = 1;
+
+        TrackedCell(T item, int rowId, ObservableValue<R> cellValue) {
+            this.item = item;
+            this.rowId = rowId;
+            this.cellValue = cellValue;
+            this.value = cellValue.getValue();
+            cellValue.addListener(weakListener);
+            addRow(value, rowId);
+        }
+
+        @Override
+        public void changed(ObservableValue<? extends R> observable, R oldValue, R newValue) {
+            for (int i = 0; i < count; i++) {
+                addValue(newValue);
+                removeValue(oldValue);
+            }
+            removeFilterValues();
+            removeRow(value, rowId);
+            value = newValue;
+            addRow(value, rowId);
+            tableFilter.refreshVisibleRow(item);
+        }
+
+        void dispose() {
+            cellValue.removeListener(weakListener);
+            removeRow(value, rowId);
+        }
+    }
+
+    /**
+     * Counts the values of the rows passing a filter computed off the FX
+     * thread. Each chunk of rows is counted apart, so that the chunks are
+     * counted in parallel, and the counts are merged once all are done.
+     */
+    final class VisibleValues {
+        private final AtomicReferenceArray<DupeCounter<R>> chunks;
+        private final DupeCounter<R> values = new DupeCounter<>(false);
+        private final Scope scope;
+
+        /**
+         * @param refreshScope whether the scope of the values of the column is
+         * computed from the visible values once merged
+         */
+        VisibleValues(int chunkCount, boolean refreshScope) {
+            chunks = new AtomicReferenceArray<>(chunkCount);
+            scope = refreshScope ? new Scope() : null;
+        }
+
+        /**
+         * Counts a value read by {@link #readValues(List, int, int, Object[])}.
+         */
+        @SuppressWarnings("unchecked")
+        void add(int chunk, Object value) {
+            if (value == NO_VALUE) {
+                return;
+            }
+            DupeCounter<R> counter = chunks.get(chunk);
+            if (counter == null) {
+                counter = new DupeCounter<>(false);
+                chunks.set(chunk, counter);
+            }
+            counter.add((R) value);
+        }
+
+        void merge() {
+            for (int i = 0; i < chunks.length(); i++) {
+                DupeCounter<R> counter = chunks.get(i);
+                if (counter != null) {
+                    values.addAll(counter);
+                }
+            }
+            if (scope != null) {
+                scope.compute(value -> values.get(value) > 0);
+            }
+        }
+
+        /**
+         * Replaces the visible values of the column, and the scope of its
+         * values if computed, on the FX thread once the filter has been
+         * published.
+         */
+        void publish() {
+            visibleValuesDupeCounter.setAll(values);
+            visibleValuesStale = false;
+            if (scope != null) {
+                scope.publish();
+            }
+        }
+    }
+
+    /**
+     * Copies the filter of this column, to remove off the FX thread the rows
+     * holding an unselected value, and to compute the scope of the values from
+     * the remaining rows. The index of the values is read as it is, so the
+     * result only holds if the rows have not changed in the meantime, which
+     * the {@link TableFilter} checks before publishing it.
+     */
+    final class RowsFilter {
+        private final List<R> unselected = new ArrayList<>(unselectedValues);
+        private final Scope scope;
+
+        RowsFilter(boolean refreshScope) {
+            scope = refreshScope && !filterValues.isEmpty() ? new Scope() : null;
+        }
+
+        /**
+         * Removes from the given row ids the rows holding an unselected value.
+         */
+        void filter(BitSet rows) {
+            for (R value : unselected) {
+                RowSet rowSet = valueRows.get(value);
+                if (rowSet != null) {
+                    rowSet.removeFrom(rows);
+                }
+            }
+        }
+
+        /**
+         * Computes the scope of the values, once the rows of all the columns
+         * have been filtered.
+         */
+        void computeScope(BitSet rows) {
+            if (scope != null) {
+                scope.compute(value -> {
+                    RowSet rowSet = valueRows.get(value);
+                    return rowSet != null && rowSet.intersects(rows);
+                });
+            }
+        }
+
+        /**
+         * Publishes the scope of the values, on the FX thread once the filter
+         * has been published.
+         */
+        void publishScope() {
+            if (scope != null) {
+                scope.publish();
+            }
+        }
+    }
+
+    /**
+     * The scope of the values of this column, see
+     * {@link FilterValue#refreshScope()}, computed off the FX thread for a copy
+     * of the values.
+     */
+    private final class Scope {
+        private final List<FilterValue<T,R>> values = new ArrayList<>(filterValues);
+        private final boolean lastFiltered = lastFilter;
+        private final BitSet inScope = new BitSet(values.size());
+
+        void compute(Predicate<R> visible) {
+            for (int i = 0; i < values.size(); i++) {
+                inScope.set(i, lastFiltered || visible.test(values.get(i).getValue()));
+            }
+        }
+
+        void publish() {
+            for (int i = 0; i < values.size(); i++) {
+                values.get(i).getInScopeProperty().set(inScope.get(i));
+            }
+        }
+    }
+
     private static final class CellIdentity<T> {
         private final T item;
 
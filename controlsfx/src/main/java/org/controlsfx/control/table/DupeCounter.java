@@ -1,42 +1,44 @@
 package org.controlsfx.control.table;
 
-import java.util.HashMap;
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.List;
 
 
+/**
+ * Counts the duplicates of each value. The counts are kept in an open
+ * addressing hash table made of an array of values and an array of
+ * {@code int} counts, so that counting never boxes an Integer nor allocates an
+ * entry.
+ */
 final class DupeCounter<T> {
 
-    private final HashMap<T,Integer> counts = new HashMap<>();
+    // stands for the null value in the table, where null marks a free slot
+    private static final Object NULL_VALUE = new Object();
+    private static final int MIN_CAPACITY = 16;
+
+    private Object[] values = new Object[MIN_CAPACITY];
+    private int[] counts = new int[MIN_CAPACITY];
+    private int size;
     private final boolean enforceFloor;
 
     public DupeCounter(boolean enforceFloor) {
         this.enforceFloor = enforceFloor;
     }
     public int add(T value) {
-        Integer prev = counts.get(value);
-        int newVal;
-        if (prev == null) {
-            newVal = 1;
-            counts.put(value, newVal);
-        }  else {
-            newVal = prev + 1;
-            counts.put(value, newVal);
-        }
-        return newVal;
+        return add(value, 1);
     }
     public int get(T value) {
-        return Optional.ofNullable(counts.get(value)).orElse(0);
+        int slot = find(value);
+        return slot < 0 ? 0 : counts[slot];
     }
     public int remove(T value) {
-        Integer prev = counts.get(value);
-        if (prev != null && prev > 0) {
-            int newVal = prev - 1;
-            if (newVal == 0) {
-                counts.remove(value);
-            } else {
-                counts.put(value, newVal);
+        int slot = find(value);
+        if (slot >= 0) {
+            int count = --counts[slot];
+            if (count == 0) {
+                delete(slot);
             }
-            return newVal;
+            return count;
         }
         else if (enforceFloor) {
             throw new IllegalStateException();
@@ -46,8 +48,133 @@ final class DupeCounter<T> {
         }
     }
 
+    /**
+     * Adds the counts of the given DupeCounter to this one.
+     */
+    @SuppressWarnings("unchecked")
+    public void addAll(DupeCounter<T> other) {
+        for (int i = 0; i < other.values.length; i++) {
+            if (other.values[i] != null) {
+                add((T) unmask(other.values[i]), other.counts[i]);
+            }
+        }
+    }
+    /**
+     * Replaces the counts of this DupeCounter by the ones of the given one.
+     */
+    public void setAll(DupeCounter<T> other) {
+        values = other.values.clone();
+        counts = other.counts.clone();
+        size = other.size;
+    }
+    /**
+     * Returns a copy of the distinct values counted.
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> values() {
+        List<T> result = new ArrayList<>(size);
+        for (Object value : values) {
+            if (value != null) {
+                result.add((T) unmask(value));
+            }
+        }
+        return result;
+    }
+
     @Override
     public String toString() {
-        return counts.toString();
+        StringBuilder builder = new StringBuilder("{");
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                if (builder.length() > 1) {
+                    builder.append(", ");
+                }
+                builder.append(unmask(values[i])).append('=').append(counts[i]);
+            }
+        }
+        return builder.append('}').toString();
+    }
+
+    private int add(T value, int count) {
+        Object key = mask(value);
+        int slot = indexOf(key);
+        while (values[slot] != null) {
+            if (values[slot].equals(key)) {
+                return counts[slot] += count;
+            }
+            slot = (slot + 1) & (values.length - 1);
+        }
+        values[slot] = key;
+        counts[slot] = count;
+        if (++size * 2 > values.length) {
+            resize(values.length * 2);
+        }
+        return count;
+    }
+
+    private int find(T value) {
+        Object key = mask(value);
+        int slot = indexOf(key);
+        while (values[slot] != null) {
+            if (values[slot].equals(key)) {
+                return slot;
+            }
+            slot = (slot + 1) & (values.length - 1);
+        }
+        return -1;
+    }
+
+    /**
+     * Frees the given slot, and moves back the following values that cannot
+     * be found anymore through it.
+     */
+    private void delete(int slot) {
+        int mask = values.length - 1;
+        int free = slot;
+        values[free] = null;
+        counts[free] = 0;
+        for (int next = (free + 1) & mask; values[next] != null; next = (next + 1) & mask) {
+            int home = indexOf(values[next]);
+            // the value stays if its home slot is cyclically in (free, next]
+            boolean stays = free <= next ? free < home && home <= next : free < home || home <= next;
+            if (!stays) {
+                values[free] = values[next];
+                counts[free] = counts[next];
+                values[next] = null;
+                counts[next] = 0;
+                free = next;
+            }
+        }
+        --size;
+    }
+
+    private void resize(int capacity) {
+        Object[] oldValues = values;
+        int[] oldCounts = counts;
+        values = new Object[capacity];
+        counts = new int[capacity];
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = indexOf(oldValues[i]);
+                while (values[slot] != null) {
+                    slot = (slot + 1) & (capacity - 1);
+                }
+                values[slot] = oldValues[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+
+    private int indexOf(Object key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (values.length - 1);
+    }
+
+    private static Object mask(Object value) {
+        return value == null ? NULL_VALUE : value;
+    }
+
+    private static Object unmask(Object value) {
+        return value == NULL_VALUE ? null : value;
     }
 }
@@ -29,11 +29,13 @@ package org.controlsfx.control.table;
 import com.sun.javafx.scene.control.skin.NestedTableColumnHeader;
 import com.sun.javafx.scene.control.skin.TableColumnHeader;
 import com.sun.javafx.scene.control.skin.TableViewSkin;
+import javafx.application.Platform;
 import javafx.beans.InvalidationListener;
 import javafx.beans.Observable;
 import javafx.beans.WeakInvalidationListener;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.WeakChangeListener;
+import javafx.collections.ListChangeListener;
 import javafx.collections.transformation.FilteredList;
 import javafx.collections.transformation.SortedList;
 import javafx.geometry.Insets;
@@ -45,18 +47,35 @@ import javafx.scene.image.ImageView;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
+import javafx.stage.WindowEvent;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
-import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 
 import static impl.org.controlsfx.i18n.Localization.getString;
 
 
 public final class FilterPanel<T,R> extends VBox {
 
+    /**
+     * Searches the values of all the FilterPanels, once the user has stopped
+     * typing for SEARCH_DELAY milliseconds.
+     */
+    private static final ScheduledExecutorService SEARCH_EXECUTOR = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "FilterPanel search");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final long SEARCH_DELAY = 150;
+
     private final ColumnFilter<T,R> columnFilter;
 
     private final FilteredList<FilterValue> filterList;
@@ -64,6 +83,13 @@ public final class FilterPanel<T,R> extends VBox {
     private boolean searchMode = false;
     private boolean bumpedWidth = false;
 
+    // the index of the values, null when values were added or removed since it was built
+    private SearchIndex searchIndex;
+    private ScheduledFuture<?> pendingSearch;
+    private String pendingSearchText;
+    // identifies the latest search, so that an older one is never published
+    private long searchCount;
+
     private final ListView<FilterValue> checkListView;
 	
     // This collection will reference column header listeners. References must be kept locally because weak listeners are registered
@@ -124,12 +150,22 @@ public final class FilterPanel<T,R> extends VBox {
 
         //initialize checklist view
 
-        filterList = new FilteredList<>(new SortedList<>(columnFilter.getFilterValues()), t -> true);
+        // the values are sorted once, and the search only filters them
+        filterList = new FilteredList<>(new SortedList<>(columnFilter.getFilterValues(), FilterValue::compareTo), t -> true);
         checkListView = new ListView<>();
-        checkListView.setItems(new SortedList<>(filterList, FilterValue::compareTo));
+        checkListView.setItems(filterList);
 
         getChildren().add(checkListView);
 
+        //initialize progress bar, shown while the filter is computed off the FX thread
+        TableFilter<T> tableFilter = columnFilter.getTableFilter();
+        ProgressBar progressBar = new ProgressBar();
+        progressBar.setMaxWidth(Double.MAX_VALUE);
+        progressBar.progressProperty().bind(tableFilter.filterProgressProperty());
+        progressBar.visibleProperty().bind(tableFilter.filteringProperty());
+        progressBar.managedProperty().bind(tableFilter.filteringProperty());
+        getChildren().add(progressBar);
+
         //initialize apply button
         HBox buttonBox = new HBox();
 
@@ -137,6 +173,8 @@ public final class FilterPanel<T,R> extends VBox {
         HBox.setHgrow(applyBttn, Priority.ALWAYS);
 
         applyBttn.setOnAction(e -> {
+                    // the selection must reflect the text typed so far
+                    flushSearch();
                     if (columnFilter.getTableFilter().isDirty()) {
                         columnFilter.applyFilter();
                         columnFilter.getTableFilter().getColumnFilters().stream().map(ColumnFilter::getFilterPanel)
@@ -152,7 +190,20 @@ public final class FilterPanel<T,R> extends VBox {
                                     }
                                 });
                     }
-                contextMenu.hide();
+                if (tableFilter.isFiltering()) {
+                    // keep showing the progress until the filter is published
+                    tableFilter.filteringProperty().addListener(new InvalidationListener() {
+                        @Override
+                        public void invalidated(Observable observable) {
+                            if (!tableFilter.isFiltering()) {
+                                observable.removeListener(this);
+                                contextMenu.hide();
+                            }
+                        }
+                    });
+                } else {
+                    contextMenu.hide();
+                }
                 });
 
         buttonBox.getChildren().add(applyBttn);
@@ -188,11 +239,16 @@ public final class FilterPanel<T,R> extends VBox {
 
 
         getChildren().add(buttonBox);
+
+        // a search published after the menu is hidden would dirty the filter again
+        contextMenu.addEventHandler(WindowEvent.WINDOW_HIDDEN, e -> cancelSearch());
     }
 
     public void resetSearchFilter() {
-        this.filterList.setPredicate(t -> true);
         searchBox.clear();
+        // the search of the cleared text is done right away, not later
+        flushSearch();
+        this.filterList.setPredicate(t -> true);
     }
     public static <T,R> CustomMenuItem getInMenuItem(ColumnFilter<T,R> columnFilter, ContextMenu contextMenu) {
 
@@ -210,25 +266,87 @@ public final class FilterPanel<T,R> extends VBox {
         return menuItem;
     }
     private void initializeListeners() {
-        searchBox.textProperty().addListener(l -> {
-            searchMode = !searchBox.getText().isEmpty();
-
-            //filter scope based on search text
-            filterList.setPredicate(val -> searchBox.getText().isEmpty() ||
-                    columnFilter.getSearchStrategy().test(searchBox.getText(), Optional.ofNullable(val.getValue()).map(Object::toString).orElse("")));
-
-            //unselect items out of scope
-            columnFilter.getFilterValues().stream()
-                    .filter(s -> !columnFilter.getSearchStrategy().test(searchBox.getText(), Optional.ofNullable(s.getValue()).map(Object::toString).orElse("")))
-                    .collect(Collectors.toList()).forEach(s -> s.selectedProperty().set(false));
-
-            //select items in scope
-            columnFilter.getFilterValues().stream()
-                    .filter(s -> columnFilter.getSearchStrategy().test(searchBox.getText(), Optional.ofNullable(s.getValue()).map(Object::toString).orElse("")))
-                    .collect(Collectors.toList()).forEach(s -> s.selectedProperty().set(true));
+        searchBox.textProperty().addListener(l -> search(searchBox.getText()));
+
+        //the index is built again at the next search if values are added or removed
+        columnFilter.getFilterValues().addListener((ListChangeListener<FilterValue<T,R>>) lc -> {
+            while (lc.next()) {
+                if (lc.wasAdded() || lc.wasRemoved()) {
+                    searchIndex = null;
+                }
+            }
         });
     }
 
+    private void search(String text) {
+        searchMode = !text.isEmpty();
+
+        cancelSearch();
+        SearchIndex index = getSearchIndex();
+        BiPredicate<String,String> searchStrategy = columnFilter.getSearchStrategy();
+        long search = searchCount;
+
+        pendingSearchText = text;
+        pendingSearch = SEARCH_EXECUTOR.schedule(() -> {
+            BitSet matches = index.search(text, searchStrategy);
+            Platform.runLater(() -> {
+                if (search == searchCount) {
+                    pendingSearch = null;
+                    pendingSearchText = null;
+                    publishSearch(text, index, matches, searchStrategy);
+                }
+            });
+        }, SEARCH_DELAY, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs the pending search, if any, right away on the FX thread. The search
+     * thread may still be running it, its result is then ignored.
+     */
+    private void flushSearch() {
+        if (pendingSearch != null) {
+            String text = pendingSearchText;
+            cancelSearch();
+            SearchIndex index = getSearchIndex();
+            BiPredicate<String,String> searchStrategy = columnFilter.getSearchStrategy();
+            publishSearch(text, index, index.search(text, searchStrategy), searchStrategy);
+        }
+    }
+
+    /**
+     * Cancels the pending search, if any, so that it is never published.
+     */
+    private void cancelSearch() {
+        if (pendingSearch != null) {
+            pendingSearch.cancel(false);
+            pendingSearch = null;
+            pendingSearchText = null;
+        }
+        ++searchCount;
+    }
+
+    private SearchIndex getSearchIndex() {
+        if (searchIndex == null) {
+            searchIndex = new SearchIndex(columnFilter.getFilterValues());
+        }
+        return searchIndex;
+    }
+
+    private void publishSearch(String text, SearchIndex index, BitSet matches, BiPredicate<String,String> searchStrategy) {
+        Predicate<FilterValue> inScope = value -> {
+            int position = index.getPosition(value);
+            // the values added since the index was built are tested here
+            return position < 0 ? searchStrategy.test(text, value.toString()) : matches.get(position);
+        };
+
+        //filter scope based on search text
+        filterList.setPredicate(value -> text.isEmpty() || inScope.test(value));
+
+        //select items in scope, unselect the others
+        new ArrayList<>(columnFilter.getFilterValues())
+                .forEach(value -> value.selectedProperty().set(inScope.test(value)));
+    }
+
     /* Methods below helps will anchor the context menu under the column */
     private static void checkChangeContextMenu(TableViewSkin<?> skin, TableColumn<?, ?> column, FilterPanel filterPanel) {
         NestedTableColumnHeader header = skin.getTableHeaderRow().getRootHeader();
@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2018 ControlsFX
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of ControlsFX, any associated website, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL CONTROLSFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.controlsfx.control.table;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * The rows holding a given value in a column, identified by the row ids given
+ * by the {@link TableFilter}. While there are only a few rows, they are kept in
+ * an int array. The set switches to a {@link BitSet} once the array would be
+ * bigger than the BitSet covering all the rows.
+ */
+final class RowSet {
+
+    private static final int MIN_DENSE_SIZE = 16;
+
+    private int[] rows = new int[2];
+    private int size;
+    private BitSet bitSet;
+
+    /**
+     * Add a row which is not already in this set.
+     *
+     * @param rowId
+     * @param rowCapacity the number of row ids currently used by the TableFilter
+     */
+    void add(int rowId, int rowCapacity) {
+        if (bitSet != null) {
+            bitSet.set(rowId);
+        } else if (size == rows.length && size >= MIN_DENSE_SIZE && size * Integer.SIZE >= rowCapacity) {
+            bitSet = new BitSet(rowCapacity);
+            for (int i = 0; i < size; ++i) {
+                bitSet.set(rows[i]);
+            }
+            bitSet.set(rowId);
+            rows = null;
+        } else {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            rows[size] = rowId;
+        }
+        ++size;
+    }
+
+    /**
+     * Remove a row from this set.
+     *
+     * @param rowId
+     * @return true if the row was in this set
+     */
+    boolean remove(int rowId) {
+        if (bitSet != null) {
+            if (!bitSet.get(rowId)) {
+                return false;
+            }
+            bitSet.clear(rowId);
+            --size;
+            return true;
+        }
+        for (int i = 0; i < size; ++i) {
+            if (rows[i] == rowId) {
+                rows[i] = rows[--size];
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove the rows of this set from the given rows. This may be called off
+     * the FX thread, see {@link ColumnFilter.RowsFilter}, so the fields are
+     * read once and the size is bounded by the array.
+     *
+     * @param target
+     */
+    void removeFrom(BitSet target) {
+        BitSet dense = bitSet;
+        int[] sparse = rows;
+        if (dense != null) {
+            target.andNot(dense);
+        } else if (sparse != null) {
+            for (int i = 0, n = Math.min(size, sparse.length); i < n; ++i) {
+                target.clear(sparse[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns whether one of the rows of this set is in the given rows. This
+     * may be called off the FX thread, as {@link #removeFrom(BitSet)}.
+     *
+     * @param target
+     */
+    boolean intersects(BitSet target) {
+        BitSet dense = bitSet;
+        int[] sparse = rows;
+        if (dense != null) {
+            return dense.intersects(target);
+        } else if (sparse != null) {
+            for (int i = 0, n = Math.min(size, sparse.length); i < n; ++i) {
+                if (target.get(sparse[i])) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
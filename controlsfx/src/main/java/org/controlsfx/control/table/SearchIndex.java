@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) 2018 ControlsFX
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of ControlsFX, any associated website, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL CONTROLSFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.controlsfx.control.table;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.function.BiPredicate;
+
+/**
+ * The values of a FilterPanel, as searched from its search box. The string
+ * of each value is computed once per index, and lower-cased once for the
+ * default search strategy. When a search with the default strategy contains
+ * the previous search, only the previous matches are tested again.
+ * <br>
+ * An index is built on the FX thread from a copy of the values, and then
+ * searched by the search thread of the FilterPanels, or by the FX thread when
+ * a pending search is run right away. The searches are therefore synchronized.
+ */
+final class SearchIndex {
+
+    private final List<FilterValue<?,?>> values;
+    private final IdentityHashMap<FilterValue<?,?>,Integer> positions;
+    private String[] strings;
+    private String[] lowerCaseStrings;
+
+    // the previous search with the default strategy, to narrow the next one
+    private String lastSearch;
+    private BitSet lastMatches;
+
+    SearchIndex(List<? extends FilterValue<?,?>> values) {
+        this.values = new ArrayList<>(values);
+        positions = new IdentityHashMap<>(values.size());
+        for (int i = 0; i < this.values.size(); i++) {
+            positions.put(this.values.get(i), i);
+        }
+    }
+
+    /**
+     * Returns the position of the given value in this index, or -1 if it was
+     * added since this index was built.
+     */
+    int getPosition(FilterValue<?,?> value) {
+        Integer position = positions.get(value);
+        return position == null ? -1 : position;
+    }
+
+    /**
+     * Returns the positions of the values matching the given text. The
+     * returned BitSet is never modified afterwards.
+     */
+    synchronized BitSet search(String text, BiPredicate<String,String> searchStrategy) {
+        if (strings == null) {
+            strings = new String[values.size()];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = values.get(i).toString();
+            }
+        }
+        BitSet matches = new BitSet(strings.length);
+        if (searchStrategy != ColumnFilter.DEFAULT_SEARCH_STRATEGY) {
+            lastSearch = null;
+            for (int i = 0; i < strings.length; i++) {
+                if (searchStrategy.test(text, strings[i])) {
+                    matches.set(i);
+                }
+            }
+            return matches;
+        }
+
+        if (lowerCaseStrings == null) {
+            lowerCaseStrings = new String[strings.length];
+            for (int i = 0; i < strings.length; i++) {
+                lowerCaseStrings[i] = strings[i].toLowerCase();
+            }
+        }
+        String search = text.toLowerCase();
+        if (lastSearch != null && search.contains(lastSearch)) {
+            // a value containing this search contains the previous one
+            for (int i = lastMatches.nextSetBit(0); i >= 0; i = lastMatches.nextSetBit(i + 1)) {
+                if (lowerCaseStrings[i].contains(search)) {
+                    matches.set(i);
+                }
+            }
+        } else {
+            for (int i = 0; i < lowerCaseStrings.length; i++) {
+                if (lowerCaseStrings[i].contains(search)) {
+                    matches.set(i);
+                }
+            }
+        }
+        lastSearch = search;
+        lastMatches = matches;
+        return matches;
+    }
+}
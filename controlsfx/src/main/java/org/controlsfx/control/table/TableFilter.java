@@ -26,16 +26,37 @@
  */
 package org.controlsfx.control.table;
 
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
+import javafx.collections.WeakListChangeListener;
 import javafx.collections.transformation.FilteredList;
 import javafx.collections.transformation.SortedList;
+import javafx.concurrent.Task;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiPredicate;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.*;
 
@@ -50,25 +71,119 @@ import java.util.stream.*;
  * @param <T>
  */
 public final class TableFilter<T> {
+
+    /**
+     * Runs the filters off the FX thread, one at a time. When the values are
+     * computed on demand, the rows are tested in parallel chunks on
+     * CHUNK_EXECUTOR.
+     */
+    private static final Executor FILTER_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "TableFilter worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final AtomicInteger CHUNK_THREAD_COUNT = new AtomicInteger();
+    private static final ExecutorService CHUNK_EXECUTOR = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), runnable -> {
+                Thread thread = new Thread(runnable, "TableFilter chunk worker " + CHUNK_THREAD_COUNT.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+    /**
+     * The number of rows read at once on the FX thread, and tested at once off
+     * it. A table holding no more rows than that is filtered right away on the
+     * FX thread, since a run off the FX thread would cost more than it saves.
+     */
+    static final int CHUNK_SIZE = 4096;
     
     private final TableView<T> tableView;
     private final ObservableList<T> backingList;
     private final FilteredList<T> filteredList;
+    private final boolean onDemand;
 
     private final ObservableList<ColumnFilter<T,?>> columnFilters = FXCollections.observableArrayList();
 
+    /**
+     * Each item of the backing list is identified by a row id. The
+     * ColumnFilters index, for each value, the ids of the rows holding it, so
+     * that a filter is applied with a few operations on BitSets.
+     */
+    private final IdentityHashMap<T,RowId> rowIds = new IdentityHashMap<>();
+    private final BitSet usedRowIds = new BitSet();
+    /**
+     * The ids of the rows removed by the current change of the backing list.
+     * They are only reused at the next change, once every ColumnFilter has
+     * removed them from its index.
+     */
+    private final BitSet releasedRowIds = new BitSet();
+    // no row id below this one is free, so that ids are given without scanning from 0
+    private int lowestFreeRowId;
+    /**
+     * The ids of the rows passing the current filter, null if there is none.
+     */
+    private BitSet visibleRows;
+
+    /**
+     * The filter being computed off the FX thread, if any. It is cancelled
+     * when another filter is executed before it is published.
+     */
+    private FilterRun filterRun;
+    private final ReadOnlyBooleanWrapper filtering = new ReadOnlyBooleanWrapper(this, "filtering");
+    private final ReadOnlyDoubleWrapper filterProgress = new ReadOnlyDoubleWrapper(this, "filterProgress");
+    /**
+     * Incremented on each change of the backing list or of a cell value, to
+     * know whether a filter computed off the FX thread still matches the rows
+     * when published.
+     */
+    private int rowsVersion;
+    private final ListChangeListener<T> versionListener = lc -> rowsVersion++;
+
+    private final ListChangeListener<T> rowIdsListener = lc -> {
+        rowsVersion++;
+        if (!releasedRowIds.isEmpty()) {
+            usedRowIds.andNot(releasedRowIds);
+            lowestFreeRowId = Math.min(lowestFreeRowId, releasedRowIds.nextSetBit(0));
+            releasedRowIds.clear();
+        }
+        while (lc.next()) {
+            if (lc.wasUpdated()) {
+                // registered before the FilteredList, so that it tests the updated rows against their new values
+                for (int i = lc.getFrom(); i < lc.getTo(); i++) {
+                    refreshVisibleRow(lc.getList().get(i));
+                }
+            }
+            if (lc.wasAdded()) {
+                lc.getAddedSubList().forEach(this::addRowId);
+            }
+            if (lc.wasRemoved()) {
+                lc.getRemoved().forEach(this::removeRowId);
+            }
+        }
+    };
+
 
     /**
      * Use TableFilter.forTableView() factory and leverage Builder
      */
     @Deprecated
     public TableFilter(TableView<T> tableView) {
-        this(tableView,false);
+        this(tableView,false,false);
     }
 
-    private TableFilter(TableView<T> tableView, boolean isLazy) {
+    private TableFilter(TableView<T> tableView, boolean isLazy, boolean isOnDemand) {
         this.tableView = tableView;
+        this.onDemand = isOnDemand;
         backingList = tableView.getItems();
+
+        // the row ids must be known before the ColumnFilters index the rows,
+        // and before the FilteredList tests an updated row
+        if (!onDemand) {
+            backingList.forEach(this::addRowId);
+            backingList.addListener(new WeakListChangeListener<>(rowIdsListener));
+        } else {
+            backingList.addListener(new WeakListChangeListener<>(versionListener));
+        }
+
         filteredList = new FilteredList<>(new SortedList<>(backingList));
         SortedList<T> sortedControlList = new SortedList<>(this.filteredList);
 
@@ -80,7 +195,7 @@ public final class TableFilter<T> {
         applyForAllColumns();
         tableView.getStylesheets().add(TableFilter.class.getResource("/impl/org/controlsfx/table/tablefilter.css").toExternalForm());
 
-        if (!isLazy) {
+        if (!isLazy && !onDemand) {
             columnFilters.forEach(ColumnFilter::initialize);
         }
 
@@ -171,18 +286,233 @@ public final class TableFilter<T> {
         columnFilters.stream().filter(c -> c.getTableColumn() == column)
                 .forEach(ColumnFilter::unSelectAllValues);
     }
+    /**
+     * Executes the filters of all the columns. The rows are tested off the FX
+     * thread and the filter is published later, see
+     * {@link #filteringProperty()}, unless there are only a few rows.
+     */
     public void executeFilter() {
-        if (columnFilters.stream().anyMatch(ColumnFilter::isFiltered)) {
-            filteredList.setPredicate(item -> columnFilters.stream()
-                    .allMatch(cf -> cf.evaluate(item)));
-        }
-        else {
+        executeFilter(() -> {});
+    }
+
+    /**
+     * Executes the filters of all the columns, and runs the given action on the
+     * FX thread once the filter is published, unless it was cancelled first.
+     */
+    void executeFilter(Runnable published) {
+        executeFilter(published, false);
+    }
+
+    /**
+     * Executes the filters of all the columns, and runs the given action on the
+     * FX thread once the filter is published, unless it was cancelled first.
+     *
+     * @param refreshScopes whether the scope of the values of all the columns
+     * is computed along with the filter, and published with it.
+     */
+    void executeFilter(Runnable published, boolean refreshScopes) {
+        cancelFilterRun();
+        if (!isDirty()) {
             resetFilter();
+            if (refreshScopes) {
+                refreshScopes();
+            }
+            published.run();
+        } else if (backingList.size() <= CHUNK_SIZE) {
+            applyFilterNow(published, refreshScopes);
+        } else {
+            startFilterRun(onDemand ? new ValuesRun(published, refreshScopes) : new RowsRun(published, refreshScopes));
+        }
+    }
+
+    /**
+     * Applies the filters of all the columns right away on the FX thread.
+     */
+    private void applyFilterNow(Runnable published, boolean refreshScopes) {
+        endFilterRun();
+        if (onDemand) {
+            // no index of the rows, the values are read from the cells
+            visibleRows = null;
+            filteredList.setPredicate(this::matches);
+        } else {
+            // all the rows, minus the ones holding an unselected value in any column
+            final BitSet rows = (BitSet) usedRowIds.clone();
+            rows.andNot(releasedRowIds);
+            columnFilters.forEach(cf -> cf.filterRows(rows));
+            visibleRows = rows;
+            filteredList.setPredicate(item -> {
+                int rowId = getRowId(item);
+                return rowId < 0 ? matches(item) : rows.get(rowId);
+            });
+        }
+        if (refreshScopes) {
+            refreshScopes();
+        }
+        published.run();
+    }
+
+    private void refreshScopes() {
+        columnFilters.stream().flatMap(c -> c.getFilterValues().stream()).forEach(FilterValue::refreshScope);
+    }
+
+    static int getChunkCount(int rowCount) {
+        return (rowCount + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    }
+
+    /**
+     * Runs the given task for each chunk of the given number of rows, in
+     * parallel on CHUNK_EXECUTOR, and waits for all of them. A single chunk is
+     * run on the calling thread.
+     */
+    static void runChunks(int rowCount, IntConsumer chunkTask) {
+        int chunkCount = getChunkCount(rowCount);
+        if (chunkCount == 1) {
+            chunkTask.accept(0);
+            return;
+        }
+        List<Callable<Void>> chunks = new ArrayList<>(chunkCount);
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            final int current = chunk;
+            chunks.add(() -> {
+                chunkTask.accept(current);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> chunk : CHUNK_EXECUTOR.invokeAll(chunks)) {
+                chunk.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
         }
     }
+
     public void resetFilter() {
+        cancelFilterRun();
+        endFilterRun();
+        visibleRows = null;
         filteredList.setPredicate(item -> true);
     }
+
+    /**
+     * Indicates whether a filter is being computed off the FX thread, and is
+     * not published yet.
+     */
+    public final ReadOnlyBooleanProperty filteringProperty() {
+        return filtering.getReadOnlyProperty();
+    }
+    public final boolean isFiltering() {
+        return filtering.get();
+    }
+
+    /**
+     * The progress of the filter being computed off the FX thread, between 0
+     * and 1, or -1 if it is not known yet.
+     */
+    public final ReadOnlyDoubleProperty filterProgressProperty() {
+        return filterProgress.getReadOnlyProperty();
+    }
+
+    private void startFilterRun(FilterRun run) {
+        run.setOnSucceeded(e -> {
+            if (filterRun == run) {
+                endFilterRun();
+                run.publish();
+            }
+        });
+        run.setOnFailed(e -> {
+            if (filterRun == run) {
+                // test the rows on the FX thread, as if no run was started
+                applyFilterNow(run.published, run.refreshScopes);
+            }
+        });
+        filterRun = run;
+        filterProgress.bind(run.progressProperty());
+        filtering.set(true);
+        FILTER_EXECUTOR.execute(run);
+    }
+    /**
+     * Cancels the current run, if any. The filtering flag is left as is, so
+     * that it does not blink when another run is started right away.
+     */
+    private void cancelFilterRun() {
+        if (filterRun != null) {
+            filterRun.cancel();
+            filterRun = null;
+        }
+    }
+    private void endFilterRun() {
+        filterRun = null;
+        filterProgress.unbind();
+        filtering.set(false);
+    }
+
+    /**
+     * Indicates whether the distinct values of the columns are computed on demand.
+     * @see Builder#onDemand(boolean)
+     */
+    public boolean isOnDemand() {
+        return onDemand;
+    }
+
+    /**
+     * Returns the id of the given item of the backing list, or -1 if it has
+     * none yet.
+     */
+    int getRowId(T item) {
+        RowId rowId = rowIds.get(item);
+        return rowId == null ? -1 : rowId.id;
+    }
+
+    /**
+     * Returns the number of row ids currently in use.
+     */
+    int getRowCapacity() {
+        return usedRowIds.length();
+    }
+
+    private boolean matches(T item) {
+        return columnFilters.stream().allMatch(cf -> cf.evaluate(item));
+    }
+
+    /**
+     * Tests again the given item of the backing list against the current
+     * filter, after one of its values has changed.
+     */
+    void refreshVisibleRow(T item) {
+        rowsVersion++;
+        if (visibleRows != null) {
+            int rowId = getRowId(item);
+            if (rowId >= 0) {
+                visibleRows.set(rowId, matches(item));
+            }
+        }
+    }
+
+    private void addRowId(T item) {
+        RowId rowId = rowIds.get(item);
+        if (rowId != null) {
+            rowId.count++;
+            return;
+        }
+        int id = usedRowIds.nextClearBit(lowestFreeRowId);
+        usedRowIds.set(id);
+        lowestFreeRowId = id + 1;
+        rowIds.put(item, new RowId(id));
+        if (visibleRows != null) {
+            visibleRows.set(id, matches(item));
+        }
+    }
+    private void removeRowId(T item) {
+        RowId rowId = rowIds.get(item);
+        if (rowId != null && --rowId.count == 0) {
+            rowIds.remove(item);
+            releasedRowIds.set(rowId.id);
+        }
+    }
     /** 
      * @treatAsPrivate
      */
@@ -204,6 +534,263 @@ public final class TableFilter<T> {
         return columnFilters.stream().anyMatch(ColumnFilter::isFiltered);
     }
 
+    /**
+     * A filter computed off the FX thread, on FILTER_EXECUTOR. Its result is
+     * published to the FilteredList in one step on the FX thread, along with
+     * the scope of the values of the columns if requested.
+     */
+    private abstract class FilterRun extends Task<BitSet> {
+        final Runnable published;
+        final boolean refreshScopes;
+        final int version = rowsVersion;
+
+        FilterRun(Runnable published, boolean refreshScopes) {
+            this.published = published;
+            this.refreshScopes = refreshScopes;
+        }
+
+        /**
+         * Publishes the result of this run, on the FX thread.
+         */
+        abstract void publish();
+    }
+
+    /**
+     * Removes from a copy of the row ids the rows holding an unselected value,
+     * using the index of the values of each column. The index is read off the
+     * FX thread as it is, so the result is dropped if the rows have changed
+     * in the meantime, and the filter is then applied again on the FX thread.
+     */
+    private final class RowsRun extends FilterRun {
+        private final BitSet rows = (BitSet) usedRowIds.clone();
+        private final List<ColumnFilter<T,?>.RowsFilter> filters = new ArrayList<>();
+
+        RowsRun(Runnable published, boolean refreshScopes) {
+            super(published, refreshScopes);
+            rows.andNot(releasedRowIds);
+            for (ColumnFilter<T,?> cf : columnFilters) {
+                filters.add(cf.new RowsFilter(refreshScopes));
+            }
+        }
+
+        @Override
+        protected BitSet call() throws Exception {
+            updateProgress(0, filters.size());
+            for (int i = 0; i < filters.size(); i++) {
+                if (isCancelled()) {
+                    return null;
+                }
+                filters.get(i).filter(rows);
+                updateProgress(i + 1, filters.size());
+            }
+            for (ColumnFilter<T,?>.RowsFilter filter : filters) {
+                filter.computeScope(rows);
+            }
+            return rows;
+        }
+
+        @Override
+        void publish() {
+            if (version != rowsVersion) {
+                applyFilterNow(published, refreshScopes);
+                return;
+            }
+            final BitSet result = getValue();
+            visibleRows = result;
+            filteredList.setPredicate(item -> {
+                int rowId = getRowId(item);
+                return rowId < 0 ? matches(item) : result.get(rowId);
+            });
+            for (ColumnFilter<T,?>.RowsFilter filter : filters) {
+                filter.publishScope();
+            }
+            published.run();
+        }
+    }
+
+    /**
+     * Tests the rows of a copy of the backing list against a copy of the column
+     * filters, in parallel chunks. The values of each chunk of rows are read on
+     * the FX thread, so that no cell value factory is called from another
+     * thread, and the FX thread is released between two chunks so that the
+     * pulses are not held. The rows passing the filter are given by their index
+     * in the copy.
+     */
+    private final class ValuesRun extends FilterRun {
+        private final List<T> items = new ArrayList<>(backingList);
+        private final List<ColumnRun> columns = new ArrayList<>();
+        private final int chunkCount = getChunkCount(items.size());
+
+        ValuesRun(Runnable published, boolean refreshScopes) {
+            super(published, refreshScopes);
+            for (ColumnFilter<T,?> cf : columnFilters) {
+                Predicate<Object> filter = cf.copyFilter();
+                ColumnFilter<T,?>.VisibleValues visibleValues = cf.needsVisibleValues()
+                        ? cf.new VisibleValues(chunkCount, refreshScopes) : null;
+                if (filter != null || visibleValues != null) {
+                    columns.add(new ColumnRun(cf, new Object[items.size()], filter, visibleValues));
+                }
+            }
+        }
+
+        @Override
+        protected BitSet call() throws Exception {
+            boolean[] visible = new boolean[items.size()];
+            AtomicInteger done = new AtomicInteger();
+            updateProgress(0, chunkCount);
+
+            // a chunk is tested while the next one is read on the FX thread
+            List<Future<?>> chunks = new ArrayList<>(chunkCount);
+            for (int chunk = 0; chunk < chunkCount && !isCancelled(); chunk++) {
+                final int current = chunk;
+                readChunk(current);
+                chunks.add(CHUNK_EXECUTOR.submit(() -> {
+                    if (!isCancelled()) {
+                        filterChunk(current, visible);
+                        updateProgress(done.incrementAndGet(), chunkCount);
+                    }
+                }));
+            }
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+            if (isCancelled()) {
+                return null;
+            }
+
+            for (ColumnRun column : columns) {
+                if (column.visibleValues != null) {
+                    column.visibleValues.merge();
+                }
+            }
+            BitSet result = new BitSet(visible.length);
+            for (int i = 0; i < visible.length; i++) {
+                if (visible[i]) {
+                    result.set(i);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Reads the values of a chunk of rows on the FX thread, and waits for
+         * them.
+         */
+        private void readChunk(int chunk) throws InterruptedException, ExecutionException {
+            final int from = chunk * CHUNK_SIZE;
+            final int to = Math.min(items.size(), from + CHUNK_SIZE);
+            FutureTask<Void> read = new FutureTask<>(() -> {
+                if (!isCancelled()) {
+                    for (ColumnRun column : columns) {
+                        column.columnFilter.readValues(items, from, to, column.values);
+                    }
+                }
+            }, null);
+            Platform.runLater(read);
+            read.get();
+        }
+
+        private void filterChunk(int chunk, boolean[] visible) {
+            int to = Math.min(items.size(), (chunk + 1) * CHUNK_SIZE);
+            for (int i = chunk * CHUNK_SIZE; i < to; i++) {
+                boolean passes = true;
+                for (int c = 0; c < columns.size() && passes; c++) {
+                    ColumnRun column = columns.get(c);
+                    passes = column.filter == null || column.filter.test(column.values[i]);
+                }
+                visible[i] = passes;
+                if (passes) {
+                    for (ColumnRun column : columns) {
+                        if (column.visibleValues != null) {
+                            column.visibleValues.add(chunk, column.values[i]);
+                        }
+                    }
+                }
+            }
+        }
+
+        @Override
+        void publish() {
+            SnapshotPredicate predicate = new SnapshotPredicate(items, getValue());
+            visibleRows = null;
+            filteredList.setPredicate(predicate);
+            predicate.close();
+            // the visible values are only right if the backing list is unchanged
+            if (version == rowsVersion) {
+                for (ColumnRun column : columns) {
+                    if (column.visibleValues != null) {
+                        column.visibleValues.publish();
+                    }
+                }
+            } else if (refreshScopes) {
+                refreshScopes();
+            }
+            published.run();
+        }
+    }
+
+    /**
+     * Tests the items against the rows passing a filter, given by their index
+     * in a copy of the backing list. The FilteredList tests its whole source in
+     * order when the predicate is set, so each item is expected at the next
+     * index of the copy. The items added since the copy, and the ones tested
+     * once the predicate is closed, are tested on the FX thread.
+     */
+    private final class SnapshotPredicate implements Predicate<T> {
+        private final List<T> items;
+        private final BitSet visible;
+        private int next;
+
+        SnapshotPredicate(List<T> items, BitSet visible) {
+            this.items = items;
+            this.visible = visible;
+        }
+
+        @Override
+        public boolean test(T item) {
+            if (next < items.size() && items.get(next) == item) {
+                return visible.get(next++);
+            }
+            return matches(item);
+        }
+
+        void close() {
+            next = items.size();
+        }
+    }
+
+    /**
+     * The values of the rows in one column, read on the FX thread, with the
+     * filter of the column and the counter of its visible values, if any.
+     */
+    private final class ColumnRun {
+        private final ColumnFilter<T,?> columnFilter;
+        private final Object[] values;
+        private final Predicate<Object> filter;
+        private final ColumnFilter<T,?>.VisibleValues visibleValues;
+
+        ColumnRun(ColumnFilter<T,?> columnFilter, Object[] values, Predicate<Object> filter,
+                ColumnFilter<T,?>.VisibleValues visibleValues) {
+            this.columnFilter = columnFilter;
+            this.values = values;
+            this.filter = filter;
+            this.visibleValues = visibleValues;
+        }
+    }
+
+    /**
+     * The id of an item of the backing list, and the number of times this item
+     * is in the backing list.
+     */
+    private static final class RowId {
+        private final int id;
+        private int count = 1;
+
+        RowId(int id) {
+            this.id = id;
+        }
+    }
+
     /**
      * Returns a TableFilter.Builder to configure a TableFilter on the specified TableView. Call apply() to initialize and return the TableFilter
      * @param tableView
@@ -221,6 +808,7 @@ public final class TableFilter<T> {
 
         private final TableView<T> tableView;
         private volatile boolean lazyInd = false;
+        private volatile boolean onDemandInd = false;
 
         private Builder(TableView<T> tableView) {
             this.tableView = tableView;
@@ -229,8 +817,24 @@ public final class TableFilter<T> {
             this.lazyInd = isLazy;
             return this;
         }
+        /**
+         * Computes the distinct values of a column on demand, when its filter is
+         * opened, instead of listening to every cell of the column. This saves
+         * memory and time for large tables, and implies a lazy initialization.
+         * The values are scanned again when the backing list has changed since
+         * the last time. The cell values are always read on the FX thread, one
+         * chunk of rows at a time when filtering, and the distinct values and
+         * the filtering of these values are then computed in parallel chunks.
+         * A change of a cell value is only seen
+         * if the backing list reports it as an update, for instance if it was
+         * created with an extractor.
+         */
+        public Builder<T> onDemand(boolean isOnDemand) {
+            this.onDemandInd = isOnDemand;
+            return this;
+        }
         public TableFilter<T> apply() {
-            return new TableFilter<>(tableView, lazyInd);
+            return new TableFilter<>(tableView, lazyInd, onDemandInd);
         }
     }
     
@@ -0,0 +1,143 @@
+/**
+ * Copyright (c) 2018 ControlsFX
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of ControlsFX, any associated website, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL CONTROLSFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package impl.org.controlsfx.spreadsheet;
+
+import org.controlsfx.control.spreadsheet.JavaFXThreadingRule;
+import org.controlsfx.control.spreadsheet.SpreadsheetCell;
+import org.controlsfx.control.spreadsheet.SpreadsheetCellType;
+import org.controlsfx.control.spreadsheet.SpreadsheetView;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class CellUpdateCoalescerTest {
+    @Rule public JavaFXThreadingRule javafxRule = new JavaFXThreadingRule();
+
+    private CellUpdateCoalescer coalescer;
+    private CellView cellView;
+
+    @Before public void setUp() {
+        coalescer = new CellUpdateCoalescer();
+        cellView = new CellView(new SpreadsheetHandle() {
+            @Override
+            protected SpreadsheetView getView() {
+                return null;
+            }
+
+            @Override
+            protected SpreadsheetGridView getGridView() {
+                return null;
+            }
+
+            @Override
+            protected GridViewSkin getCellsViewSkin() {
+                return null;
+            }
+
+            @Override
+            protected boolean isColumnWidthSet(int indexColumn) {
+                return false;
+            }
+
+            @Override
+            protected void publishStagedItems() {
+            }
+        });
+    }
+
+    private static SpreadsheetCell createCell(String text) {
+        return SpreadsheetCellType.STRING.createCell(0, 0, 1, 1, text);
+    }
+
+    /**
+     * Several changes before the pulse are applied once.
+     */
+    @Test public void testCoalesce() {
+        SpreadsheetCell cell = createCell("a");
+        cellView.show(cell);
+        cell.setItem("b");
+        coalescer.textChanged(cellView);
+        cell.setItem("c");
+        coalescer.textChanged(cellView);
+
+        assertEquals(2, coalescer.getReceivedCount());
+        assertEquals(1, coalescer.getPendingCount());
+        assertEquals(1, coalescer.getDroppedCount());
+
+        coalescer.flush();
+        assertEquals("c", cellView.getText());
+        assertEquals(1, coalescer.getAppliedCount());
+        assertEquals(0, coalescer.getPendingCount());
+        assertEquals(1, coalescer.getDroppedCount());
+    }
+
+    /**
+     * A cell showing another SpreadsheetCell while it is waiting for the pulse
+     * stays only once in the queue when its text changes again.
+     */
+    @Test public void testShowWhileQueued() {
+        cellView.show(createCell("a"));
+        coalescer.textChanged(cellView);
+
+        SpreadsheetCell other = createCell("b");
+        cellView.show(other);
+        assertEquals("b", cellView.getText());
+        assertEquals(0, coalescer.getPendingCount());
+        assertEquals(1, coalescer.getDroppedCount());
+
+        other.setItem("c");
+        coalescer.textChanged(cellView);
+        assertEquals(1, coalescer.getPendingCount());
+
+        coalescer.flush();
+        assertEquals("c", cellView.getText());
+        assertEquals(2, coalescer.getReceivedCount());
+        assertEquals(1, coalescer.getAppliedCount());
+        assertEquals(1, coalescer.getDroppedCount());
+
+        //The cell has left the queue and can enter it again.
+        other.setItem("d");
+        coalescer.textChanged(cellView);
+        assertEquals(1, coalescer.getPendingCount());
+        coalescer.flush();
+        assertEquals("d", cellView.getText());
+        assertEquals(2, coalescer.getAppliedCount());
+    }
+
+    @Test public void testResetCounts() {
+        cellView.show(createCell("a"));
+        coalescer.textChanged(cellView);
+        coalescer.textChanged(cellView);
+        coalescer.resetCounts();
+        assertEquals(1, coalescer.getReceivedCount());
+        assertEquals(0, coalescer.getDroppedCount());
+        coalescer.flush();
+        assertEquals(1, coalescer.getAppliedCount());
+        assertEquals(0, coalescer.getDroppedCount());
+    }
+}
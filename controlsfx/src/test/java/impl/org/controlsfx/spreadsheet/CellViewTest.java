@@ -0,0 +1,186 @@
+/**
+ * Copyright (c) 2018 ControlsFX
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of ControlsFX, any associated website, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL CONTROLSFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package impl.org.controlsfx.spreadsheet;
+
+import java.util.ArrayList;
+import java.util.List;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.scene.Scene;
+import javafx.scene.control.Tooltip;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.WritableImage;
+import org.controlsfx.control.spreadsheet.GridBase;
+import org.controlsfx.control.spreadsheet.JavaFXThreadingRule;
+import org.controlsfx.control.spreadsheet.SpreadsheetCell;
+import org.controlsfx.control.spreadsheet.SpreadsheetCellBase;
+import org.controlsfx.control.spreadsheet.SpreadsheetCellType;
+import org.controlsfx.control.spreadsheet.SpreadsheetView;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class CellViewTest {
+    @Rule public JavaFXThreadingRule javafxRule = new JavaFXThreadingRule();
+
+    private SpreadsheetView spv;
+    private GridViewSkin skin;
+    private SpreadsheetHandle handle;
+
+    @Before public void setUp() {
+        GridBase grid = new GridBase(2, 2);
+        List<ObservableList<SpreadsheetCell>> rows = new ArrayList<>();
+        for (int row = 0; row < 2; ++row) {
+            ObservableList<SpreadsheetCell> cells = FXCollections.observableArrayList();
+            for (int column = 0; column < 2; ++column) {
+                cells.add(SpreadsheetCellType.STRING.createCell(row, column, 1, 1, ""));
+            }
+            rows.add(cells);
+        }
+        grid.setRows(rows);
+        spv = new SpreadsheetView(grid);
+        new Scene(spv, 400, 400);
+        spv.applyCss();
+        spv.layout();
+        SpreadsheetGridView gridView = (SpreadsheetGridView) spv.lookup(".cell-spreadsheet");
+        skin = (GridViewSkin) gridView.getSkin();
+
+        handle = new SpreadsheetHandle() {
+            @Override
+            protected SpreadsheetView getView() {
+                return spv;
+            }
+
+            @Override
+            protected SpreadsheetGridView getGridView() {
+                return gridView;
+            }
+
+            @Override
+            protected GridViewSkin getCellsViewSkin() {
+                return skin;
+            }
+
+            @Override
+            protected boolean isColumnWidthSet(int indexColumn) {
+                return false;
+            }
+
+            @Override
+            protected void publishStagedItems() {
+            }
+        };
+    }
+
+    private static SpreadsheetCell createCell(String tooltip) {
+        SpreadsheetCellBase cell = (SpreadsheetCellBase) SpreadsheetCellType.STRING.createCell(0, 0, 1, 1, "value");
+        cell.setTooltip(tooltip);
+        return cell;
+    }
+
+    /**
+     * The cells showing a tooltip all use the Tooltip of the skin, and only
+     * the cells without a tooltip have none.
+     */
+    @Test public void testSharedTooltip() {
+        CellView first = new CellView(handle);
+        CellView second = new CellView(handle);
+        first.show(createCell("first"));
+        second.show(createCell("second"));
+
+        Tooltip sharedTooltip = skin.getSharedTooltip();
+        assertSame(sharedTooltip, first.getTooltip());
+        assertSame(sharedTooltip, second.getTooltip());
+
+        // A blank tooltip is no tooltip.
+        second.show(createCell("  "));
+        assertNull(second.getTooltip());
+        assertSame(sharedTooltip, first.getTooltip());
+    }
+
+    /**
+     * Without a skin, a cell uses a Tooltip of its own, which is replaced by
+     * the shared one once the skin is there.
+     */
+    @Test public void testTooltipWithoutSkin() {
+        GridViewSkin viewSkin = skin;
+        skin = null;
+        CellView cellView = new CellView(handle);
+        cellView.show(createCell(" text "));
+        Tooltip ownTooltip = cellView.getTooltip();
+        assertNotNull(ownTooltip);
+        assertEquals("text", ownTooltip.getText());
+
+        skin = viewSkin;
+        cellView.show(createCell("text"));
+        assertSame(skin.getSharedTooltip(), cellView.getTooltip());
+    }
+
+    /**
+     * The ImageView of a SpreadsheetCell is displayed with the ImageView of
+     * the cell, which follows it and is released with it.
+     */
+    @Test public void testImageView() {
+        WritableImage image = new WritableImage(10, 10);
+        ImageView model = new ImageView(image);
+        SpreadsheetCell cell = createCell(null);
+        cell.setGraphic(model);
+
+        CellView first = new CellView(handle);
+        CellView second = new CellView(handle);
+        first.show(cell);
+        second.show(cell);
+
+        // The model stays in the SpreadsheetCell, each cell has its own view.
+        ImageView firstView = (ImageView) first.getGraphic();
+        ImageView secondView = (ImageView) second.getGraphic();
+        assertNotSame(model, firstView);
+        assertNotSame(firstView, secondView);
+        assertNull(model.getParent());
+        assertSame(image, firstView.getImage());
+        assertSame(image, secondView.getImage());
+
+        WritableImage otherImage = new WritableImage(5, 5);
+        model.setImage(otherImage);
+        assertSame(otherImage, firstView.getImage());
+
+        // The same view is used for the next image.
+        SpreadsheetCell otherCell = createCell(null);
+        otherCell.setGraphic(new ImageView(image));
+        first.show(otherCell);
+        assertSame(firstView, first.getGraphic());
+        assertSame(image, firstView.getImage());
+
+        // Without image, the view no longer follows the model.
+        second.show(createCell(null));
+        assertNull(second.getGraphic());
+        assertNull(secondView.getImage());
+        model.setImage(image);
+        assertNull(secondView.getImage());
+    }
+}
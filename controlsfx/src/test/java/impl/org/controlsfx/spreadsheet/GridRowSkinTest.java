@@ -0,0 +1,263 @@
+/**
+ * Copyright (c) 2018 ControlsFX
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of ControlsFX, any associated website, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL CONTROLSFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package impl.org.controlsfx.spreadsheet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.control.TableColumn;
+import org.controlsfx.control.spreadsheet.GridBase;
+import org.controlsfx.control.spreadsheet.JavaFXThreadingRule;
+import org.controlsfx.control.spreadsheet.SpreadsheetCell;
+import org.controlsfx.control.spreadsheet.SpreadsheetCellType;
+import org.controlsfx.control.spreadsheet.SpreadsheetColumn;
+import org.controlsfx.control.spreadsheet.SpreadsheetView;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class GridRowSkinTest {
+    @Rule public JavaFXThreadingRule javafxRule = new JavaFXThreadingRule();
+
+    private static final int COLUMN_COUNT = 60;
+
+    private SpreadsheetView spv;
+    private SpreadsheetGridView gridView;
+    private ColumnOffsets columnOffsets;
+
+    @Before public void setUp() {
+        GridBase grid = new GridBase(1, COLUMN_COUNT);
+        ObservableList<SpreadsheetCell> row = FXCollections.observableArrayList();
+        for (int column = 0; column < COLUMN_COUNT; ++column) {
+            row.add(SpreadsheetCellType.STRING.createCell(0, column, 1, 1, ""));
+        }
+        List<ObservableList<SpreadsheetCell>> rows = new ArrayList<>();
+        rows.add(row);
+        grid.setRows(rows);
+        spv = new SpreadsheetView(grid);
+
+        gridView = new SpreadsheetGridView(new SpreadsheetHandle() {
+            @Override
+            protected SpreadsheetView getView() {
+                return spv;
+            }
+
+            @Override
+            protected SpreadsheetGridView getGridView() {
+                return gridView;
+            }
+
+            @Override
+            protected GridViewSkin getCellsViewSkin() {
+                return null;
+            }
+
+            @Override
+            protected boolean isColumnWidthSet(int indexColumn) {
+                return false;
+            }
+
+            @Override
+            protected void publishStagedItems() {
+            }
+        });
+        for (int column = 0; column < COLUMN_COUNT; ++column) {
+            gridView.getColumns().add(new TableColumn<ObservableList<SpreadsheetCell>, SpreadsheetCell>());
+        }
+        columnOffsets = new ColumnOffsets(spv, gridView);
+    }
+
+    /**
+     * The columns laid out by a row, found with the binary search in the
+     * column offsets.
+     */
+    private BitSet getLaidOutColumns(double rowX, double hbarValue, double headerWidth, double padding) {
+        columnOffsets.validate(Math::ceil);
+        int firstColumn = columnOffsets.getFirstColumn(hbarValue - rowX, padding);
+        int lastColumn = Math.min(columnOffsets.getLastColumn(hbarValue + headerWidth - rowX, padding), COLUMN_COUNT - 1);
+        BitSet laidOut = new BitSet();
+        for (int column = GridRowSkin.nextColumnToLayout(-1, firstColumn, lastColumn, columnOffsets.getFixedColumns()); column >= 0;
+                column = GridRowSkin.nextColumnToLayout(column, firstColumn, lastColumn, columnOffsets.getFixedColumns())) {
+            if (gridView.getColumns().get(column).isVisible()) {
+                laidOut.set(column);
+            }
+        }
+        return laidOut;
+    }
+
+    /**
+     * The columns laid out by a row with the previous check, which was testing
+     * every column one after the other. The fixed columns after the viewport
+     * were laid out outside of it, they are not counted here.
+     */
+    private BitSet getVisibleColumns(double rowX, double hbarValue, double headerWidth, double padding) {
+        BitSet visible = new BitSet();
+        double x = rowX;
+        for (int column = 0; column < COLUMN_COUNT; ++column) {
+            TableColumn<?, ?> tableColumn = gridView.getColumns().get(column);
+            if (!tableColumn.isVisible()) {
+                continue;
+            }
+            double width = Math.ceil(tableColumn.getWidth()) - padding;
+            assertEquals(x, rowX + columnOffsets.getX(column, padding), 1e-9);
+            boolean fixed = spv.getFixedColumns().contains(spv.getColumns().get(column));
+            boolean inViewport = x + width >= hbarValue && x <= hbarValue + headerWidth;
+            if (inViewport || (fixed && x <= hbarValue + headerWidth)) {
+                visible.set(column);
+            }
+            x += width;
+        }
+        return visible;
+    }
+
+    /**
+     * Random widths, hidden and fixed columns, and viewports: the binary
+     * search must find the same columns as the previous check.
+     */
+    @Test public void testColumnsToLayout() {
+        Random random = new Random(7);
+        for (int step = 0; step < 500; ++step) {
+            double total = 0;
+            for (TableColumn<?, ?> column : gridView.getColumns()) {
+                column.setPrefWidth(10 + random.nextInt(140));
+                column.setVisible(random.nextInt(10) != 0);
+                total += column.getPrefWidth();
+            }
+            List<SpreadsheetColumn> fixedColumns = new ArrayList<>();
+            for (SpreadsheetColumn column : spv.getColumns()) {
+                if (random.nextInt(15) == 0) {
+                    fixedColumns.add(column);
+                }
+            }
+            spv.getFixedColumns().setAll(fixedColumns);
+
+            double rowX = random.nextInt(4);
+            double padding = random.nextInt(2);
+            double hbarValue = random.nextInt((int) total);
+            double headerWidth = 100 + random.nextInt(900);
+            assertEquals(getVisibleColumns(rowX, hbarValue, headerWidth, padding),
+                    getLaidOutColumns(rowX, hbarValue, headerWidth, padding));
+        }
+    }
+
+    @Test public void testNextColumnToLayout() {
+        BitSet fixedColumns = new BitSet();
+        fixedColumns.set(1);
+        fixedColumns.set(3);
+        fixedColumns.set(12);
+        List<Integer> columns = new ArrayList<>();
+        for (int column = GridRowSkin.nextColumnToLayout(-1, 5, 8, fixedColumns); column >= 0;
+                column = GridRowSkin.nextColumnToLayout(column, 5, 8, fixedColumns)) {
+            columns.add(column);
+        }
+        assertEquals(Arrays.asList(1, 3, 5, 6, 7, 8), columns);
+    }
+
+    /**
+     * Scrolling horizontally over many columns: the cells of the columns seen
+     * again are taken from the pools, which stay bounded, and the cells
+     * dropped from a pool are released.
+     */
+    @Test public void testCellsPool() {
+        int columnCount = 300;
+        GridBase grid = new GridBase(5, columnCount);
+        List<ObservableList<SpreadsheetCell>> rows = new ArrayList<>();
+        for (int row = 0; row < grid.getRowCount(); ++row) {
+            ObservableList<SpreadsheetCell> cells = FXCollections.observableArrayList();
+            for (int column = 0; column < columnCount; ++column) {
+                cells.add(SpreadsheetCellType.STRING.createCell(row, column, 1, 1, "" + column));
+            }
+            rows.add(cells);
+        }
+        grid.setRows(rows);
+        SpreadsheetView view = new SpreadsheetView(grid);
+        new Scene(view, 400, 300);
+        view.applyCss();
+        view.resize(400, 300);
+        view.layout();
+        GridViewSkin skin = (GridViewSkin) ((SpreadsheetGridView) view.lookup(".cell-spreadsheet")).getSkin();
+        CellPoolStatistics statistics = skin.getCellPoolStatistics();
+        assertTrue(statistics.getCreatedCount() > 0);
+        assertEquals(0, statistics.getEvictedCount());
+
+        Set<CellView> seenCells = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int column = 0; column < columnCount; column += 3) {
+            view.scrollToColumnIndex(column);
+            view.layout();
+            seenCells.addAll(getRowCells(view));
+        }
+        view.scrollToColumnIndex(0);
+        view.layout();
+        view.scrollToColumnIndex(6);
+        view.layout();
+        assertTrue(statistics.getHitCount() > 0);
+        assertTrue(statistics.getEvictedCount() > 0);
+
+        // The pool of a row holds at most twice the columns of the viewport, or 32 cells.
+        for (Node row : view.lookupAll(".table-row-cell")) {
+            if (row instanceof GridRow) {
+                assertTrue(((GridRow) row).getChildrenUnmodifiable().stream().filter(CellView.class::isInstance).count() <= 64);
+            }
+        }
+        // The cells not displayed are either pooled, or dropped and released.
+        seenCells.removeAll(getRowCells(view));
+        int releasedCount = 0;
+        for (CellView cell : seenCells) {
+            if (cell.getTableColumn() == null) {
+                assertNull(cell.getTableRow());
+                assertEquals(-1, cell.getIndex());
+                ++releasedCount;
+            }
+        }
+        assertEquals(statistics.getEvictedCount(), releasedCount);
+        assertEquals(statistics.getPooledCount(), seenCells.size() - releasedCount);
+    }
+
+    private static Set<CellView> getRowCells(SpreadsheetView view) {
+        Set<CellView> cells = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Node row : view.lookupAll(".table-row-cell")) {
+            if (row instanceof GridRow) {
+                for (Node child : ((GridRow) row).getChildrenUnmodifiable()) {
+                    if (child instanceof CellView) {
+                        cells.add((CellView) child);
+                    }
+                }
+            }
+        }
+        return cells;
+    }
+}
@@ -0,0 +1,151 @@
+/**
+ * Copyright (c) 2018 ControlsFX
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of ControlsFX, any associated website, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL CONTROLSFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package impl.org.controlsfx.spreadsheet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.scene.Scene;
+import org.controlsfx.control.spreadsheet.GridBase;
+import org.controlsfx.control.spreadsheet.JavaFXThreadingRule;
+import org.controlsfx.control.spreadsheet.SpreadsheetCell;
+import org.controlsfx.control.spreadsheet.SpreadsheetCellType;
+import org.controlsfx.control.spreadsheet.SpreadsheetView;
+import org.junit.Rule;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class GridViewSkinTest {
+    @Rule public JavaFXThreadingRule javafxRule = new JavaFXThreadingRule();
+
+    /**
+     * Test of getFitRow method, the first rows being used when not sampled.
+     */
+    @Test public void testGetFitRowFirstRows() {
+        for (int i = 0; i < 100; ++i) {
+            assertEquals(i, GridViewSkin.getFitRow(i, 100, 10_000, false));
+        }
+    }
+
+    /**
+     * Test of getFitRow method, the sampled rows being spread evenly over the
+     * whole grid.
+     */
+    @Test public void testGetFitRowSampled() {
+        assertEquals(0, GridViewSkin.getFitRow(0, 100, 10_000, true));
+        assertEquals(100, GridViewSkin.getFitRow(1, 100, 10_000, true));
+        assertEquals(9_900, GridViewSkin.getFitRow(99, 100, 10_000, true));
+
+        int previous = -1;
+        for (int i = 0; i < 300; ++i) {
+            int row = GridViewSkin.getFitRow(i, 300, 1_000, true);
+            assertTrue(row > previous);
+            assertTrue(row < 1_000);
+            previous = row;
+        }
+        // No sampling when every row is considered.
+        assertEquals(42, GridViewSkin.getFitRow(42, 50, 50, true));
+    }
+
+    /**
+     * Test of getFixedRowPosition and getFixedRowSpace methods, the cached
+     * spaces being computed again when the fixed rows, the hidden rows or the
+     * row heights change.
+     */
+    @Test public void testFixedRowSpaces() {
+        GridBase grid = new GridBase(10, 2);
+        List<ObservableList<SpreadsheetCell>> rows = new ArrayList<>();
+        for (int row = 0; row < 10; ++row) {
+            ObservableList<SpreadsheetCell> cells = FXCollections.observableArrayList();
+            for (int column = 0; column < 2; ++column) {
+                cells.add(SpreadsheetCellType.STRING.createCell(row, column, 1, 1, ""));
+            }
+            rows.add(cells);
+        }
+        grid.setRows(rows);
+        grid.setRowHeightCallback(new GridBase.MapBasedRowHeightFactory(getRowHeights(30.0, 40.0, 50.0)));
+        SpreadsheetView spv = new SpreadsheetView(grid);
+        spv.getFixedRows().setAll(Arrays.asList(0, 2, 5));
+        GridViewSkin skin = createSkin(spv);
+
+        assertEquals(0, skin.getFixedRowPosition(0));
+        assertEquals(1, skin.getFixedRowPosition(2));
+        assertEquals(2, skin.getFixedRowPosition(5));
+        assertEquals(-1, skin.getFixedRowPosition(3));
+        assertFixedRowSpaces(skin, 0, 30, 70, 120);
+
+        // The hidden fixed row takes no space, the rows after it keep theirs.
+        spv.hideRow(2);
+        assertFixedRowSpaces(skin, 0, 30, 30, 80);
+        spv.showRow(2);
+        assertFixedRowSpaces(skin, 0, 30, 70, 120);
+
+        // New heights given by the Grid.
+        grid.setRowHeightCallback(new GridBase.MapBasedRowHeightFactory(getRowHeights(25.0, 35.0, 45.0)));
+        assertFixedRowSpaces(skin, 0, 25, 60, 105);
+
+        // A row resized in the view.
+        skin.rowHeightMap.put(2, 55.0);
+        assertFixedRowSpaces(skin, 0, 25, 80, 125);
+
+        spv.getFixedRows().setAll(Arrays.asList(5));
+        assertEquals(0, skin.getFixedRowPosition(5));
+        assertEquals(-1, skin.getFixedRowPosition(0));
+        assertFixedRowSpaces(skin, 0, 45);
+    }
+
+    /**
+     * The heights of the 10 rows, the rows 0, 2 and 5 having the given ones.
+     */
+    private static Map<Integer, Double> getRowHeights(double row0, double row2, double row5) {
+        Map<Integer, Double> heights = new HashMap<>();
+        for (int row = 0; row < 10; ++row) {
+            heights.put(row, 20.0);
+        }
+        heights.put(0, row0);
+        heights.put(2, row2);
+        heights.put(5, row5);
+        return heights;
+    }
+
+    private static void assertFixedRowSpaces(GridViewSkin skin, double... spaces) {
+        for (int position = 0; position < spaces.length; ++position) {
+            assertEquals(spaces[position], skin.getFixedRowSpace(position), 1e-9);
+        }
+    }
+
+    private static GridViewSkin createSkin(SpreadsheetView spv) {
+        new Scene(spv, 400, 400);
+        spv.applyCss();
+        spv.layout();
+        return (GridViewSkin) ((SpreadsheetGridView) spv.lookup(".cell-spreadsheet")).getSkin();
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2018 ControlsFX
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of ControlsFX, any associated website, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL CONTROLSFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package impl.org.controlsfx.spreadsheet;
+
+import java.util.ArrayList;
+import java.util.List;
+import javafx.collections.FXCollections;
+import javafx.collections.MapChangeListener;
+import javafx.collections.ObservableList;
+import javafx.collections.ObservableMap;
+import org.controlsfx.control.spreadsheet.Grid;
+import org.controlsfx.control.spreadsheet.GridBase;
+import org.controlsfx.control.spreadsheet.JavaFXThreadingRule;
+import org.controlsfx.control.spreadsheet.SpreadsheetCell;
+import org.controlsfx.control.spreadsheet.SpreadsheetCellType;
+import org.controlsfx.control.spreadsheet.SpreadsheetView;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class RowHeightsTest {
+    @Rule public JavaFXThreadingRule javafxRule = new JavaFXThreadingRule();
+
+    private static final double DELTA = 1e-9;
+
+    private GridBase grid;
+    private ObservableMap<Integer, Double> rowHeightMap;
+    private RowHeights rowHeights;
+
+    @Before public void setUp() {
+        grid = new GridBase(0, 0);
+        grid.setRows(buildRows(100));
+        //Each row is 10 pixels higher than its index.
+        grid.setRowHeightCallback(row -> 10.0 + row);
+        SpreadsheetView spv = new SpreadsheetView(grid);
+        rowHeightMap = FXCollections.observableHashMap();
+        rowHeights = new RowHeights(spv, rowHeightMap, () -> grid.getRowCount());
+        rowHeightMap.addListener((MapChangeListener.Change<? extends Integer, ? extends Double> change) -> {
+            rowHeights.rowHeightChanged(change);
+        });
+    }
+
+    private static List<ObservableList<SpreadsheetCell>> buildRows(int count) {
+        List<ObservableList<SpreadsheetCell>> rows = new ArrayList<>();
+        for (int row = 0; row < count; ++row) {
+            ObservableList<SpreadsheetCell> cells = FXCollections.observableArrayList();
+            cells.add(SpreadsheetCellType.STRING.createCell(row, 0, 1, 1, ""));
+            rows.add(cells);
+        }
+        return rows;
+    }
+
+    private static double sum(int rowCount, double height) {
+        return rowCount * height + rowCount * (rowCount - 1) / 2.0;
+    }
+
+    /**
+     * The position of each row is the sum of the heights of the rows above.
+     */
+    @Test public void testGetRowY() {
+        for (int row = 0; row <= 100; ++row) {
+            assertEquals(sum(row, 10), rowHeights.getRowY(row), DELTA);
+        }
+        assertEquals(sum(100, 10), rowHeights.getTotalHeight(), DELTA);
+    }
+
+    @Test public void testGetViewRow() {
+        assertEquals(0, rowHeights.getViewRow(0));
+        for (int row = 0; row < 100; ++row) {
+            assertEquals(row, rowHeights.getViewRow(rowHeights.getRowY(row) + 0.5));
+        }
+        //The row starting exactly at the position is not included.
+        assertEquals(4, rowHeights.getViewRow(rowHeights.getRowY(5)));
+        assertEquals(99, rowHeights.getViewRow(Double.MAX_VALUE));
+    }
+
+    /**
+     * A row resized in the view only shifts the rows below it.
+     */
+    @Test public void testResize() {
+        double before = rowHeights.getRowY(3);
+        rowHeightMap.put(3, 50.0);
+        assertEquals(50.0, rowHeights.getHeight(3), DELTA);
+        assertEquals(before, rowHeights.getRowY(3), DELTA);
+        assertEquals(before + 50, rowHeights.getRowY(4), DELTA);
+        assertEquals(sum(100, 10) + 50 - 13, rowHeights.getTotalHeight(), DELTA);
+
+        rowHeightMap.remove(3);
+        assertEquals(13.0, rowHeights.getHeight(3), DELTA);
+        assertEquals(sum(100, 10), rowHeights.getTotalHeight(), DELTA);
+    }
+
+    @Test public void testAutofit() {
+        grid.setRowHeightCallback(row -> Grid.AUTOFIT);
+        rowHeights.invalidateGridHeights();
+        assertEquals(Grid.AUTOFIT, rowHeights.getRawHeight(0), DELTA);
+        assertEquals(GridViewSkin.DEFAULT_CELL_HEIGHT, rowHeights.getHeight(0), DELTA);
+    }
+
+    /**
+     * The heights given by the Grid are read again when its callback or its
+     * rows are changed, while the heights set in the view are kept.
+     */
+    @Test public void testInvalidateGridHeights() {
+        rowHeightMap.put(1, 50.0);
+        assertEquals(sum(100, 10) + 50 - 11, rowHeights.getTotalHeight(), DELTA);
+
+        grid.setRowHeightCallback(row -> 20.0);
+        rowHeights.invalidateGridHeights();
+        assertEquals(99 * 20.0 + 50, rowHeights.getTotalHeight(), DELTA);
+
+        grid.setRows(buildRows(10));
+        rowHeights.invalidateGridHeights();
+        assertEquals(20.0, rowHeights.getHeight(5), DELTA);
+        assertEquals(9 * 20.0 + 50, rowHeights.getTotalHeight(), DELTA);
+    }
+}
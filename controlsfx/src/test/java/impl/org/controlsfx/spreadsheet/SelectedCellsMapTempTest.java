@@ -0,0 +1,264 @@
+/**
+ * Copyright (c) 2018 ControlsFX
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of ControlsFX, any associated website, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL CONTROLSFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package impl.org.controlsfx.spreadsheet;
+
+import impl.org.controlsfx.spreadsheet.RectangleSelection.GridRange;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import javafx.collections.ListChangeListener;
+import javafx.scene.control.TableColumnBase;
+import javafx.scene.control.TablePositionBase;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class SelectedCellsMapTempTest {
+
+    private SelectedCellsMapTemp<Position> map;
+    private List<ListChangeListener.Change<? extends Position>> changes;
+
+    @Before
+    public void setUp() {
+        changes = new ArrayList<>();
+        map = new SelectedCellsMapTemp<>(changes::add, Position::new);
+    }
+
+    /**
+     * Test of addRange method, the adjacent ranges being merged.
+     */
+    @Test public void testAddRangeMerge() {
+        map.addRange(0, 4, 0, 1);
+        map.addRange(0, 4, 2, 3);
+        assertEquals(1, map.getSelectedRanges().size());
+        assertRange(map.getSelectedRanges().get(0), 0, 4, 0, 3);
+        assertEquals(20, map.size());
+
+        map.addRange(5, 9, 0, 3);
+        assertEquals(1, map.getSelectedRanges().size());
+        assertRange(map.getSelectedRanges().get(0), 0, 9, 0, 3);
+        assertEquals(40, map.size());
+    }
+
+    /**
+     * Test of addRange method, the overlapping part being counted once.
+     */
+    @Test public void testAddRangeOverlap() {
+        map.addRange(0, 3, 0, 3);
+        map.addRange(2, 5, 2, 5);
+        assertEquals(16 + 16 - 4, map.size());
+        assertSameCells(cells(new int[]{0, 3, 0, 3}, new int[]{2, 5, 2, 5}));
+    }
+
+    /**
+     * Test of remove method, a cell removed from the middle of a range.
+     */
+    @Test public void testSubtract() {
+        map.addRange(0, 2, 0, 2);
+        map.remove(new Position(1, 1));
+        assertEquals(8, map.size());
+        assertFalse(map.isSelected(1, 1));
+        assertTrue(map.isSelected(1, 0));
+        assertTrue(map.isSelected(1, 2));
+        assertTrue(map.isSelected(0, 1));
+        assertTrue(map.isSelected(2, 1));
+        for (GridRange first : map.getSelectedRanges()) {
+            for (GridRange second : map.getSelectedRanges()) {
+                assertTrue(first == second || first.getBottom() < second.getTop() || second.getBottom() < first.getTop()
+                        || first.getRight() < second.getLeft() || second.getRight() < first.getLeft());
+            }
+        }
+    }
+
+    /**
+     * Test of get and indexOf methods, the positions being sorted by row and
+     * then by column.
+     */
+    @Test public void testGetAndIndexOf() {
+        map.addRange(0, 1, 4, 5);
+        map.addRange(1, 2, 0, 1);
+        List<Position> expected = Arrays.asList(new Position(0, 4), new Position(0, 5),
+                new Position(1, 0), new Position(1, 1), new Position(1, 4), new Position(1, 5),
+                new Position(2, 0), new Position(2, 1));
+        assertEquals(expected.size(), map.size());
+        for (int i = 0; i < expected.size(); ++i) {
+            assertEquals(expected.get(i).getRow(), map.get(i).getRow());
+            assertEquals(expected.get(i).getColumn(), map.get(i).getColumn());
+            assertEquals(i, map.indexOf(expected.get(i)));
+        }
+        assertEquals(-1, map.indexOf(new Position(0, 0)));
+        assertNull(map.get(expected.size()));
+    }
+
+    /**
+     * Test of setAll and addAll methods, the contiguous positions being
+     * coalesced into ranges.
+     */
+    @Test public void testSetAllCoalesce() {
+        List<Position> positions = new ArrayList<>();
+        for (int row = 0; row < 100; ++row) {
+            for (int column = 0; column < 10; ++column) {
+                positions.add(new Position(row, column));
+            }
+        }
+        // Duplicates are ignored.
+        positions.add(new Position(50, 5));
+        map.setAll(positions);
+        assertEquals(1, map.getSelectedRanges().size());
+        assertRange(map.getSelectedRanges().get(0), 0, 99, 0, 9);
+
+        map.addAll(Arrays.asList(new Position(0, 0), new Position(0, 10), new Position(1, 10)));
+        assertEquals(1000 + 2, map.size());
+        assertEquals(2, map.getSelectedRanges().size());
+    }
+
+    /**
+     * Test of the lookups against a brute force selection.
+     */
+    @Test public void testRandomSelection() {
+        Random random = new Random(42);
+        TreeSet<Long> expected = new TreeSet<>();
+        for (int i = 0; i < 50; ++i) {
+            int top = random.nextInt(40);
+            int bottom = top + random.nextInt(10);
+            int left = random.nextInt(20);
+            int right = left + random.nextInt(5);
+            if (random.nextInt(4) == 0) {
+                List<Position> removed = new ArrayList<>();
+                for (int row = top; row <= bottom; ++row) {
+                    for (int column = left; column <= right; ++column) {
+                        removed.add(new Position(row, column));
+                        expected.remove(key(row, column));
+                    }
+                }
+                removed.forEach(map::remove);
+            } else {
+                map.addRange(top, bottom, left, right);
+                for (int row = top; row <= bottom; ++row) {
+                    for (int column = left; column <= right; ++column) {
+                        expected.add(key(row, column));
+                    }
+                }
+            }
+        }
+        assertSameCells(expected);
+    }
+
+    /**
+     * Test of the change fired on each modification.
+     */
+    @Test public void testCommitChange() {
+        map.addRange(0, 1, 0, 1);
+        assertEquals(1, changes.size());
+        ListChangeListener.Change<? extends Position> change = changes.get(0);
+        assertTrue(change.next());
+        assertTrue(change.wasAdded());
+        assertFalse(change.wasRemoved());
+        assertEquals(4, change.getAddedSize());
+
+        // Only the positions of the modified row are replaced.
+        changes.clear();
+        map.remove(new Position(0, 0));
+        assertEquals(1, changes.size());
+        change = changes.get(0);
+        assertTrue(change.next());
+        assertTrue(change.wasRemoved());
+        assertEquals(0, change.getFrom());
+        assertEquals(2, change.getRemovedSize());
+        assertEquals(1, change.getAddedSize());
+
+        changes.clear();
+        map.addRange(3, 3, 0, 1);
+        assertEquals(1, changes.size());
+        change = changes.get(0);
+        assertTrue(change.next());
+        assertFalse(change.wasRemoved());
+        assertEquals(3, change.getFrom());
+        assertEquals(5, change.getTo());
+
+        changes.clear();
+        map.clear();
+        map.clear();
+        assertEquals(1, changes.size());
+        assertTrue(map.isEmpty());
+    }
+
+    private void assertSameCells(TreeSet<Long> expected) {
+        assertEquals(expected.size(), map.size());
+        int i = 0;
+        for (Long key : expected) {
+            int row = (int) (key >> 32);
+            int column = (int) (long) key;
+            assertTrue(map.isSelected(row, column));
+            Position position = map.get(i);
+            assertEquals(row, position.getRow());
+            assertEquals(column, position.getColumn());
+            assertEquals(i, map.indexOf(position));
+            ++i;
+        }
+    }
+
+    private static TreeSet<Long> cells(int[]... ranges) {
+        TreeSet<Long> cells = new TreeSet<>();
+        for (int[] range : ranges) {
+            for (int row = range[0]; row <= range[1]; ++row) {
+                for (int column = range[2]; column <= range[3]; ++column) {
+                    cells.add(key(row, column));
+                }
+            }
+        }
+        return cells;
+    }
+
+    private static Long key(int row, int column) {
+        return ((long) row << 32) | column;
+    }
+
+    private static void assertRange(GridRange range, int top, int bottom, int left, int right) {
+        assertEquals(top, range.getTop());
+        assertEquals(bottom, range.getBottom());
+        assertEquals(left, range.getLeft());
+        assertEquals(right, range.getRight());
+    }
+
+    private static final class Position extends TablePositionBase<TableColumnBase<?, ?>> {
+
+        private final int column;
+
+        Position(int row, int column) {
+            super(row, null);
+            this.column = column;
+        }
+
+        @Override
+        public int getColumn() {
+            return column;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2018 ControlsFX
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of ControlsFX, any associated website, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL CONTROLSFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package impl.org.controlsfx.spreadsheet;
+
+import java.util.BitSet;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class SelectedIndexesTest {
+
+    private SelectedIndexes indexes;
+    private int invalidations;
+
+    @Before public void setUp() {
+        indexes = new SelectedIndexes();
+        indexes.addListener(observable -> ++invalidations);
+    }
+
+    /**
+     * An index added twice stays selected until it is removed twice.
+     */
+    @Test public void testCount() {
+        indexes.add(3);
+        indexes.addRange(2, 5);
+        assertTrue(indexes.contains(3));
+        indexes.remove(3);
+        assertTrue(indexes.contains(3));
+        indexes.remove(3);
+        assertFalse(indexes.contains(3));
+        assertTrue(indexes.contains(2));
+        assertTrue(indexes.contains(4));
+        assertEquals(4, invalidations);
+
+        // Removing an index not selected does nothing.
+        indexes.remove(3);
+        indexes.remove(-1);
+        indexes.remove(1000);
+        assertEquals(4, invalidations);
+    }
+
+    @Test public void testAddAllAndClear() {
+        BitSet added = new BitSet();
+        added.set(1);
+        added.set(100);
+        indexes.addAll(added);
+        assertEquals(1, indexes.nextSelected(0));
+        assertEquals(100, indexes.nextSelected(2));
+        assertEquals(-1, indexes.nextSelected(101));
+
+        BitSet copy = new BitSet();
+        copy.set(7);
+        indexes.copyTo(copy);
+        assertEquals(added, copy);
+
+        indexes.clear();
+        assertTrue(indexes.isEmpty());
+        assertFalse(indexes.contains(100));
+        // The counts are also cleared.
+        indexes.add(1);
+        indexes.remove(1);
+        assertTrue(indexes.isEmpty());
+    }
+}
@@ -0,0 +1,208 @@
+/**
+ * Copyright (c) 2018 ControlsFX
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of ControlsFX, any associated website, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL CONTROLSFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package impl.org.controlsfx.spreadsheet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Side;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.control.ContextMenu;
+import javafx.scene.control.Label;
+import javafx.stage.Stage;
+import org.controlsfx.control.spreadsheet.GridBase;
+import org.controlsfx.control.spreadsheet.JavaFXThreadingRule;
+import org.controlsfx.control.spreadsheet.Picker;
+import org.controlsfx.control.spreadsheet.SpreadsheetCell;
+import org.controlsfx.control.spreadsheet.SpreadsheetCellType;
+import org.controlsfx.control.spreadsheet.SpreadsheetView;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests the recycling of the nodes of the {@link VerticalHeader} and of the
+ * {@link HorizontalPicker}.
+ */
+public class VerticalHeaderTest {
+    @Rule public JavaFXThreadingRule javafxRule = new JavaFXThreadingRule();
+
+    private SpreadsheetView spv;
+    private Scene scene;
+
+    @Before public void setUp() {
+        GridBase grid = new GridBase(100, 5);
+        List<ObservableList<SpreadsheetCell>> rows = new ArrayList<>();
+        for (int row = 0; row < grid.getRowCount(); ++row) {
+            ObservableList<SpreadsheetCell> cells = FXCollections.observableArrayList();
+            for (int column = 0; column < grid.getColumnCount(); ++column) {
+                cells.add(SpreadsheetCellType.STRING.createCell(row, column, 1, 1, ""));
+            }
+            rows.add(cells);
+        }
+        grid.setRows(rows);
+        spv = new SpreadsheetView(grid);
+        scene = new Scene(spv, 400, 300);
+        layout();
+    }
+
+    private void layout() {
+        spv.applyCss();
+        spv.resize(400, 300);
+        spv.layout();
+    }
+
+    /**
+     * Scrolling vertically reuses the same row header labels.
+     */
+    @Test public void testRowLabelsRecycled() {
+        Set<Label> labels = getRowLabels();
+        assertFalse(labels.isEmpty());
+
+        spv.scrollToRow(50);
+        layout();
+        Set<Label> scrolledLabels = getRowLabels();
+        assertFalse(scrolledLabels.isEmpty());
+        assertTrue(labels.containsAll(scrolledLabels));
+        assertTrue(scrolledLabels.stream().anyMatch(label -> getModelRow(label) >= 50));
+    }
+
+    /**
+     * All the row headers share the same row ContextMenu.
+     */
+    @Test public void testSharedRowMenu() {
+        Set<Label> labels = getRowLabels();
+        ContextMenu rowMenu = labels.iterator().next().getContextMenu();
+        assertNotNull(rowMenu);
+        for (Label label : labels) {
+            assertSame(rowMenu, label.getContextMenu());
+        }
+    }
+
+    /**
+     * The row fixed by the row ContextMenu is the one of the header on which
+     * it was shown, even if that header shows another row since.
+     */
+    @Test public void testRowMenuRow() {
+        Stage stage = new Stage();
+        stage.setScene(scene);
+        stage.show();
+        try {
+            layout();
+            Label label = getRowLabels().stream().filter(l -> getModelRow(l) == 2).findAny().get();
+            ContextMenu rowMenu = label.getContextMenu();
+            rowMenu.show(label, Side.BOTTOM, 0, 0);
+
+            spv.scrollToRow(50);
+            layout();
+            assertNotEquals(2, getModelRow(label));
+
+            rowMenu.getItems().get(0).fire();
+            rowMenu.hide();
+            assertEquals(Collections.singletonList(2), new ArrayList<>(spv.getFixedRows()));
+        } finally {
+            stage.hide();
+        }
+    }
+
+    /**
+     * Laying out the pickers again reuses the same labels.
+     */
+    @Test public void testPickersRecycled() {
+        for (int column = 0; column < 3; ++column) {
+            spv.getColumnPickers().put(column, new Picker() {
+                @Override
+                public void onClick() {
+                }
+            });
+        }
+        layout();
+        HorizontalPicker horizontalPicker = find(spv, HorizontalPicker.class);
+        Set<Label> pickers = getLabels(horizontalPicker);
+        assertEquals(3, pickers.size());
+
+        spv.getColumnPickers().remove(1);
+        layout();
+        Set<Label> remainingPickers = getLabels(horizontalPicker);
+        assertEquals(2, remainingPickers.size());
+        assertTrue(pickers.containsAll(remainingPickers));
+    }
+
+    private Set<Label> getRowLabels() {
+        Set<Label> labels = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Label label : getLabels(find(spv, VerticalHeader.class))) {
+            //The pickers and the blank labels have no text.
+            if (label.isVisible() && label.getText() != null && !label.getText().isEmpty()) {
+                labels.add(label);
+            }
+        }
+        return labels;
+    }
+
+    /**
+     * The model row of a row header label, the Grid having no row headers.
+     */
+    private static int getModelRow(Label label) {
+        return Integer.parseInt(label.getText()) - 1;
+    }
+
+    /**
+     * Return the labels displayed in the given node.
+     */
+    private static Set<Label> getLabels(Parent parent) {
+        Set<Label> labels = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Node child : parent.getChildrenUnmodifiable()) {
+            if (child instanceof Label) {
+                labels.add((Label) child);
+            } else if (child instanceof Parent && !(child instanceof HorizontalPicker) && !(child instanceof VerticalHeader)) {
+                labels.addAll(getLabels((Parent) child));
+            }
+        }
+        return labels;
+    }
+
+    private static <N> N find(Parent parent, Class<N> type) {
+        for (Node child : parent.getChildrenUnmodifiable()) {
+            if (type.isInstance(child)) {
+                return type.cast(child);
+            } else if (child instanceof Parent) {
+                N found = find((Parent) child, type);
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+}
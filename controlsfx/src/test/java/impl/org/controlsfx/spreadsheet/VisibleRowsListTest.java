@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2018 ControlsFX
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of ControlsFX, any associated website, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL CONTROLSFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package impl.org.controlsfx.spreadsheet;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class VisibleRowsListTest {
+
+    private ObservableList<Integer> source;
+    private VisibleRowsList<Integer> list;
+    private BitSet hidden;
+    /**
+     * The list rebuilt only from the changes fired by the VisibleRowsList.
+     */
+    private List<Integer> mirror;
+    private int changeCount;
+
+    @Before public void setUp() {
+        source = FXCollections.observableArrayList();
+        for (int i = 0; i < 20; ++i) {
+            source.add(i);
+        }
+        list = new VisibleRowsList<>(source);
+        hidden = new BitSet();
+        mirror = new ArrayList<>(list);
+        list.addListener((ListChangeListener.Change<? extends Integer> c) -> {
+            ++changeCount;
+            while (c.next()) {
+                if (c.wasPermutated()) {
+                    List<Integer> permuted = new ArrayList<>(mirror.subList(c.getFrom(), c.getTo()));
+                    for (int i = c.getFrom(); i < c.getTo(); ++i) {
+                        mirror.set(c.getPermutation(i), permuted.get(i - c.getFrom()));
+                    }
+                } else if (!c.wasUpdated()) {
+                    List<Integer> removed = mirror.subList(c.getFrom(), c.getFrom() + c.getRemovedSize());
+                    assertEquals(removed, c.getRemoved());
+                    removed.clear();
+                    mirror.addAll(c.getFrom(), c.getAddedSubList());
+                }
+            }
+        });
+    }
+
+    private void check() {
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < source.size(); ++i) {
+            if (!hidden.get(i)) {
+                expected.add(source.get(i));
+            }
+        }
+        assertEquals(expected, list);
+        assertEquals(expected, mirror);
+    }
+
+    private void hide(int... indexes) {
+        for (int index : indexes) {
+            hidden.set(index);
+        }
+        list.setHidden(hidden);
+        check();
+    }
+
+    /**
+     * Without hidden element after it, an insertion is only an insertion.
+     */
+    @Test public void testAddBeforeNoHidden() {
+        hide(2);
+        source.add(10, 100);
+        check();
+        assertEquals(1, changeCount);
+        assertEquals(Integer.valueOf(100), list.get(9));
+    }
+
+    /**
+     * The hidden state stays attached to the index, so the elements shifted
+     * over a hidden index change their visibility.
+     */
+    @Test public void testAddBeforeHidden() {
+        hide(5, 12);
+        source.add(3, 100);
+        check();
+        source.remove(0, 2);
+        check();
+        source.addAll(15, 101, 102, 103);
+        check();
+    }
+
+    /**
+     * Replacing elements does not shift anything, even with hidden elements.
+     */
+    @Test public void testSet() {
+        hide(4, 5, 6);
+        source.set(5, 100);
+        check();
+        source.set(7, 101);
+        check();
+        assertEquals(Integer.valueOf(101), list.get(4));
+    }
+
+    @Test public void testPermutation() {
+        FXCollections.reverse(source);
+        check();
+        hide(3);
+        FXCollections.sort(source);
+        check();
+    }
+
+    /**
+     * Random changes with random hidden elements.
+     */
+    @Test public void testRandom() {
+        Random random = new Random(42);
+        for (int step = 0; step < 2_000; ++step) {
+            switch (random.nextInt(6)) {
+                case 0:
+                    source.add(random.nextInt(source.size() + 1), 1_000 + step);
+                    break;
+                case 1:
+                    if (!source.isEmpty()) {
+                        int from = random.nextInt(source.size());
+                        source.remove(from, Math.min(source.size(), from + 1 + random.nextInt(3)));
+                    }
+                    break;
+                case 2:
+                    if (!source.isEmpty()) {
+                        source.set(random.nextInt(source.size()), 1_000 + step);
+                    }
+                    break;
+                case 3:
+                    List<Integer> values = new ArrayList<>(source);
+                    values.add(random.nextInt(values.size() + 1), 1_000 + step);
+                    if (values.size() > 1) {
+                        values.remove(random.nextInt(values.size()));
+                    }
+                    source.setAll(values);
+                    break;
+                case 4:
+                    FXCollections.sort(source, (a, b) -> Integer.compare(a % 7, b % 7));
+                    break;
+                default:
+                    if (!source.isEmpty()) {
+                        hidden.flip(random.nextInt(source.size()));
+                        list.setHidden(hidden);
+                    }
+                    break;
+            }
+            check();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/**
+ * Copyright (c) 2014, ControlsFX
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of ControlsFX, any associated website, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL CONTROLSFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.controlsfx.control.spreadsheet;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class ColumnarGridTest {
+    @Rule public JavaFXThreadingRule javafxRule = new JavaFXThreadingRule();
+
+    private static final int DOUBLE = 0;
+    private static final int INTEGER = 1;
+    private static final int DATE = 2;
+    private static final int STRING = 3;
+    private static final int OBJECT = 4;
+
+    private ColumnarGrid grid;
+
+    @Before public void setUp() {
+        grid = new ColumnarGrid(1_000, Arrays.<SpreadsheetCellType<?>>asList(
+                SpreadsheetCellType.DOUBLE, SpreadsheetCellType.INTEGER, SpreadsheetCellType.DATE,
+                SpreadsheetCellType.STRING, SpreadsheetCellType.OBJECT));
+        grid.setRowCacheSize(2);
+    }
+
+    private SpreadsheetCell getCell(int row, int column) {
+        return grid.getRows().get(row).get(column);
+    }
+
+    /**
+     * Evict the given row from the strong cache by reading other rows.
+     */
+    private void release(int row) {
+        for (int other = row + 1; other <= row + 4; ++other) {
+            getCell(other, 0);
+        }
+    }
+
+    /**
+     * The values set through the grid are stored and read back with their
+     * type, with or without a cell.
+     */
+    @Test public void testSetCellValue() {
+        Object value = new Object();
+        grid.setCellValue(0, DOUBLE, 1.5);
+        grid.setCellValue(0, INTEGER, 42);
+        grid.setCellValue(0, DATE, LocalDate.of(2016, 3, 12));
+        grid.setCellValue(0, STRING, "a");
+        grid.setCellValue(1, STRING, "a");
+        grid.setCellValue(0, OBJECT, value);
+
+        assertEquals(1.5, grid.getCellValue(0, DOUBLE));
+        assertEquals(42, grid.getCellValue(0, INTEGER));
+        assertEquals(LocalDate.of(2016, 3, 12), grid.getCellValue(0, DATE));
+        assertEquals("a", grid.getCellValue(1, STRING));
+        assertSame(value, grid.getCellValue(0, OBJECT));
+        assertNull(grid.getCellValue(2, DOUBLE));
+
+        assertEquals(42, getCell(0, INTEGER).getItem());
+        grid.setCellValue(0, INTEGER, 43);
+        assertEquals(43, getCell(0, INTEGER).getItem());
+        grid.setCellValue(0, INTEGER, null);
+        assertNull(grid.getCellValue(0, INTEGER));
+    }
+
+    /**
+     * The modifications done directly on a cell are written back, so they
+     * survive the release of the cell.
+     */
+    @Test public void testDirectEditRoundTrip() {
+        SpreadsheetCell cell = getCell(0, DOUBLE);
+        cell.setItem(2.5);
+        cell.setFormat("0.00");
+        cell.setStyle("-fx-background-color: red;");
+        cell = getCell(0, STRING);
+        cell.itemProperty().set("b");
+        cell.styleProperty().set("-fx-text-fill: blue;");
+        cell = null;
+        release(0);
+
+        assertEquals(2.5, grid.getCellValue(0, DOUBLE));
+        assertEquals("0.00", grid.getCellFormat(0, DOUBLE));
+        assertEquals("-fx-background-color: red;", grid.getCellStyle(0, DOUBLE));
+        assertEquals("b", grid.getCellValue(0, STRING));
+        assertEquals("-fx-text-fill: blue;", grid.getCellStyle(0, STRING));
+
+        SpreadsheetCell recreated = getCell(0, DOUBLE);
+        assertEquals(2.5, recreated.getItem());
+        assertEquals("0.00", recreated.getFormat());
+    }
+
+    /**
+     * Creating a cell must not overwrite what was stored for it.
+     */
+    @Test public void testCreateCellKeepsStoredValues() {
+        grid.setCellValue(5, DOUBLE, 3.0);
+        grid.setCellFormat(5, DOUBLE, "0.0");
+        grid.setCellStyle(5, DOUBLE, "-fx-font-weight: bold;");
+        SpreadsheetCell cell = getCell(5, DOUBLE);
+        assertEquals(3.0, cell.getItem());
+        assertEquals("0.0", cell.getFormat());
+        assertEquals("-fx-font-weight: bold;", cell.getStyle());
+        assertEquals("0.0", grid.getCellFormat(5, DOUBLE));
+        assertEquals("-fx-font-weight: bold;", grid.getCellStyle(5, DOUBLE));
+    }
+
+    /**
+     * Only the modifications done through the grid fire a GridChange.
+     */
+    @Test public void testGridChange() {
+        List<GridChange> changes = new ArrayList<>();
+        grid.addEventHandler(GridChange.GRID_CHANGE_EVENT, changes::add);
+        grid.setCellValue(0, STRING, "a");
+        getCell(1, STRING).setItem("b");
+        assertEquals(1, changes.size());
+        assertEquals("b", grid.getCellValue(1, STRING));
+    }
+
+    /**
+     * A non editable cell is not modified, neither through the grid nor
+     * directly.
+     */
+    @Test public void testNotEditable() {
+        grid.setCellValue(0, STRING, "a");
+        SpreadsheetCell cell = getCell(0, STRING);
+        cell.setEditable(false);
+        grid.setCellValue(0, STRING, "b");
+        cell.setItem("c");
+        assertEquals("a", grid.getCellValue(0, STRING));
+    }
+
+    @Test public void testSpan() {
+        grid.setCellValue(10, STRING, "span");
+        grid.spanRow(3, 10, STRING);
+        assertEquals("span", grid.getCellValue(12, STRING));
+        assertSame(getCell(10, STRING), getCell(12, STRING));
+
+        getCell(11, STRING).setItem("edited");
+        release(10);
+        assertEquals("edited", grid.getCellValue(10, STRING));
+        assertEquals("edited", getCell(12, STRING).getItem());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSetRows() {
+        grid.setRows(new ArrayList<>());
+    }
+}
@@ -26,6 +26,7 @@
  */
 package org.controlsfx.control.spreadsheet;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -75,6 +76,59 @@ public class GridBaseTest {
         assertEquals(value, grid.getRows().get(0).get(0).getItem());
     }
 
+    /**
+     * Test of batch method, of class GridBase.
+     */
+    @Test public void testBatch() {
+        List<GridChangeBatch> batches = new ArrayList<>();
+        List<GridChange> changes = new ArrayList<>();
+        grid.addEventHandler(GridChangeBatch.GRID_CHANGE_BATCH_EVENT, batches::add);
+        grid.addEventHandler(GridChange.GRID_CHANGE_EVENT, changes::add);
+
+        grid.batch(() -> {
+            grid.setCellValue(0, 0, "a");
+            grid.setCellValue(3, 2, "b");
+            grid.setCellValue(3, 4, "c");
+            //Same cell again, still one modified cell.
+            grid.setCellValue(3, 4, "d");
+            //Same value, no change.
+            grid.setCellValue(5, 5, "");
+        });
+        assertEquals(1, batches.size());
+        GridChangeBatch batch = batches.get(0);
+        assertEquals(3, batch.getChangedCellCount());
+        assertTrue(batch.isRowChanged(0));
+        assertTrue(batch.isRowChanged(3));
+        assertFalse(batch.isRowChanged(5));
+        assertTrue(batch.isCellChanged(3, 2));
+        assertFalse(batch.isCellChanged(3, 3));
+        assertEquals(2, batch.getChangedColumns(3).cardinality());
+        assertTrue(batch.getChangedColumns(4).isEmpty());
+        assertEquals("d", grid.getRows().get(3).get(4).getItem());
+
+        //Single changes are fired as usual by default.
+        assertEquals(4, changes.size());
+        assertEquals("c", changes.get(3).getOldValue());
+
+        //Unless only the batch is requested.
+        changes.clear();
+        grid.setBatchEventOnly(true);
+        grid.beginUpdate();
+        grid.setCellValue(1, 1, "d");
+        grid.setCellValue(2, 2, "e");
+        assertTrue(grid.isUpdating());
+        grid.endUpdate();
+        assertTrue(changes.isEmpty());
+        assertEquals(2, batches.size());
+        assertEquals(2, batches.get(1).getChangedCellCount());
+        assertFalse(grid.isUpdating());
+
+        //Outside of a batch, the single changes are always fired.
+        grid.setCellValue(1, 1, "f");
+        assertEquals(1, changes.size());
+        assertEquals(2, batches.size());
+    }
+
     /**
      * Test of getRowCount method, of class GridBase.
      */
@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) 2018 ControlsFX
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of ControlsFX, any associated website, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL CONTROLSFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.controlsfx.control.spreadsheet;
+
+import de.sandec.jmemorybuddy.JMemoryBuddy;
+import java.lang.reflect.Field;
+import javafx.event.Event;
+import javafx.event.EventHandler;
+import javafx.scene.control.Label;
+import org.junit.Rule;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class SpreadsheetCellBaseTest {
+    @Rule
+    public JavaFXThreadingRule javafxRule = new JavaFXThreadingRule();
+
+    /**
+     * Reading and writing the values of a cell through its getters and
+     * setters must not create its properties, its style classes nor its
+     * handler manager.
+     */
+    @Test
+    public void testPropertiesNotAllocated() {
+        SpreadsheetCellBase cell = (SpreadsheetCellBase) SpreadsheetCellType.INTEGER.createCell(0, 0, 1, 1, 5);
+        cell.setItem(6);
+        cell.setFormat("#,##0");
+        cell.setStyle("-fx-text-fill: red;");
+        cell.setGraphic(new Label());
+        cell.setEditable(false);
+        cell.setWrapText(true);
+
+        assertEquals(6, cell.getItem());
+        assertEquals("#,##0", cell.getFormat());
+        assertEquals("6", cell.getText());
+        assertEquals("-fx-text-fill: red;", cell.getStyle());
+        assertNotNull(cell.getGraphic());
+        assertTrue(cell.getStyleClassUnmodifiable().contains("spreadsheet-cell"));
+        assertEquals(cell, SpreadsheetCellType.INTEGER.createCell(0, 0, 1, 1, 6));
+        cell.hashCode();
+
+        for (String field : new String[]{"item", "format", "text", "styleProperty", "graphic", "styleClass", "eventHandlerManager"}) {
+            assertNull(field, getField(cell, field));
+        }
+    }
+
+    /**
+     * A property created lazily starts from the value held until then, and
+     * the cell does not keep that value once it has been replaced.
+     */
+    @Test
+    public void testPropertiesCreatedLazily() {
+        SpreadsheetCellBase cell = (SpreadsheetCellBase) SpreadsheetCellType.STRING.createCell(0, 0, 1, 1, "a");
+        assertSame(cell.itemProperty(), cell.itemProperty());
+        assertEquals("a", cell.itemProperty().get());
+        assertEquals("a", cell.textProperty().get());
+        cell.setItem("b");
+        assertEquals("b", cell.textProperty().get());
+
+        JMemoryBuddy.memoryTest((checker) -> {
+            Label graphic = new Label();
+            cell.setGraphic(graphic);
+            cell.graphicProperty();
+            cell.setGraphic(null);
+
+            checker.setAsReferenced(cell);
+            checker.assertCollectable(graphic);
+        });
+
+        JMemoryBuddy.memoryTest((checker) -> {
+            Object item = new String("c");
+            SpreadsheetCellBase otherCell = new SpreadsheetCellBase(0, 0, 1, 1);
+            otherCell.setItem(item);
+            otherCell.itemProperty();
+            otherCell.setItem(null);
+
+            checker.setAsReferenced(otherCell);
+            checker.assertCollectable(item);
+        });
+    }
+
+    /**
+     * The handler manager is only created with the first handler.
+     */
+    @Test
+    public void testEventHandlerManager() {
+        SpreadsheetCellBase cell = new SpreadsheetCellBase(0, 0, 1, 1);
+        cell.setEditable(false);
+        assertNull(getField(cell, "eventHandlerManager"));
+
+        int[] events = new int[1];
+        EventHandler<Event> handler = (Event event) -> ++events[0];
+        cell.addEventHandler(SpreadsheetCell.EDITABLE_EVENT_TYPE, handler);
+        assertNotNull(getField(cell, "eventHandlerManager"));
+        cell.setEditable(true);
+        assertEquals(1, events[0]);
+
+        cell.removeEventHandler(SpreadsheetCell.EDITABLE_EVENT_TYPE, handler);
+        cell.setEditable(false);
+        assertEquals(1, events[0]);
+    }
+
+    private static Object getField(SpreadsheetCellBase cell, String name) {
+        try {
+            Field field = SpreadsheetCellBase.class.getDeclaredField(name);
+            field.setAccessible(true);
+            return field.get(cell);
+        } catch (ReflectiveOperationException ex) {
+            throw new AssertionError(ex);
+        }
+    }
+}
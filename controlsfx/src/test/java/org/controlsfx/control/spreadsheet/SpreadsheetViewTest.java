@@ -30,6 +30,8 @@ package org.controlsfx.control.spreadsheet;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.scene.control.TablePosition;
+import javafx.scene.input.Clipboard;
+import javafx.scene.input.DataFormat;
 import org.controlsfx.control.spreadsheet.SpreadsheetView.SpanType;
 import org.junit.*;
 
@@ -101,6 +103,88 @@ public class SpreadsheetViewTest {
         spv.copyClipboard();
     }
 
+    /**
+     * We test that the copied cells are put in order as tab-separated text,
+     * and that a serializable item holding a non-serializable element is
+     * copied as a String.
+     */
+    @Test public void testCopyClipboardText() {
+        spv.setGrid(buildGrid());
+        Grid grid = spv.getGrid();
+        grid.getRows().get(1).get(1).setItem("a"); //$NON-NLS-1$
+        grid.getRows().get(1).get(2).setItem("b\tc"); //$NON-NLS-1$
+        grid.getRows().get(2).get(2).setItem("d"); //$NON-NLS-1$
+        SpreadsheetCell cell = new SpreadsheetCellBase(2, 1, 1, 1, SpreadsheetCellType.OBJECT);
+        cell.setItem(new ArrayList<>(Arrays.asList(new NonSerializableClass())));
+        grid.getRows().get(2).set(1, cell);
+
+        spv.getSelectionModel().selectRange(1, spv.getColumns().get(1), 2, spv.getColumns().get(2));
+        spv.copyClipboard();
+
+        assertEquals("a\t\"b\tc\"\n" + cell.getText() + "\td", Clipboard.getSystemClipboard().getString()); //$NON-NLS-1$ //$NON-NLS-2$
+        List<ClipboardCell> cells = (List<ClipboardCell>) Clipboard.getSystemClipboard().getContent(DataFormat.lookupMimeType("SpreadsheetView")); //$NON-NLS-1$
+        assertEquals(4, cells.size());
+        for (ClipboardCell clipboardCell : cells) {
+            if (clipboardCell.getRow() == 2 && clipboardCell.getColumn() == 1) {
+                assertEquals(cell.getItem().toString(), clipboardCell.getValue());
+            }
+        }
+    }
+
+    /**
+     * Test of pasteClipboard, the copied cells being repeated over the
+     * selected columns.
+     */
+    @Test public void testPasteRepeated() {
+        spv.setGrid(buildGrid());
+        Grid grid = spv.getGrid();
+        grid.getRows().get(1).get(1).setItem("a"); //$NON-NLS-1$
+        grid.getRows().get(1).get(2).setItem("b"); //$NON-NLS-1$
+        spv.getSelectionModel().selectRange(1, spv.getColumns().get(1), 1, spv.getColumns().get(2));
+        spv.copyClipboard();
+
+        spv.getSelectionModel().clearSelection();
+        spv.getSelectionModel().selectRange(4, spv.getColumns().get(4), 4, spv.getColumns().get(7));
+        spv.pasteClipboard();
+
+        List<Object> pasted = new ArrayList<>();
+        for (int column = 4; column <= 7; ++column) {
+            pasted.add(grid.getRows().get(4).get(column).getItem());
+        }
+        assertEquals(Arrays.asList("a", "b", "a", "b"), pasted); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        assertEquals("", grid.getRows().get(4).get(8).getItem()); //$NON-NLS-1$
+        assertEquals("", grid.getRows().get(5).get(4).getItem()); //$NON-NLS-1$
+    }
+
+    /**
+     * Test of pasteClipboard, one value being pasted over the selection, in
+     * columns mixing the types of cells.
+     */
+    @Test public void testPasteOneValue() {
+        spv.setGrid(buildGrid());
+        Grid grid = spv.getGrid();
+        grid.getRows().get(1).get(1).setItem("x"); //$NON-NLS-1$
+        SpreadsheetCell integerCell = SpreadsheetCellType.INTEGER.createCell(5, 4, 1, 1, 3);
+        grid.getRows().get(5).set(4, integerCell);
+        spv.getSelectionModel().select(1, spv.getColumns().get(1));
+        spv.copyClipboard();
+
+        spv.getSelectionModel().clearSelection();
+        spv.getSelectionModel().selectRange(4, spv.getColumns().get(3), 6, spv.getColumns().get(4));
+        spv.pasteClipboard();
+
+        for (int row = 4; row <= 6; ++row) {
+            for (int column = 3; column <= 4; ++column) {
+                if (row != 5 || column != 4) {
+                    assertEquals("x", grid.getRows().get(row).get(column).getItem()); //$NON-NLS-1$
+                }
+            }
+        }
+        //"x" is not an integer.
+        assertEquals(3, integerCell.getItem());
+        assertEquals("", grid.getRows().get(7).get(4).getItem()); //$NON-NLS-1$
+    }
+
     /**
      * Try to select a cell, then set a new grid, and verify that the
      * selectedCells are well updated because we have modified the TableColumn
@@ -382,6 +466,208 @@ public class SpreadsheetViewTest {
         assertNull(spv.getGrid().getRows().get(0).get(0).getItem());
     }
 
+    /**
+     * Test of hideRow and showRow methods, of class SpreadsheetView.
+     */
+    @Test public void testHideRow() {
+        spv.hideRow(2);
+        spv.hideRow(5);
+        assertEquals(spv.getGrid().getRowCount() - 2, spv.getItems().size());
+        assertSame(spv.getGrid().getRows().get(3), spv.getItems().get(2));
+        assertEquals(1, spv.getFilteredRow(1));
+        assertEquals(2, spv.getFilteredRow(3));
+        assertEquals(3, spv.getFilteredRow(4));
+        assertEquals(4, spv.getFilteredRow(6));
+        assertEquals(3, spv.getModelRow(2));
+        assertEquals(6, spv.getModelRow(4));
+
+        spv.showRow(2);
+        assertEquals(3, spv.getFilteredRow(3));
+        assertEquals(5, spv.getFilteredRow(6));
+        assertEquals(6, spv.getModelRow(5));
+
+        spv.showRow(5);
+        assertEquals(6, spv.getFilteredRow(6));
+        assertEquals(spv.getGrid().getRowCount(), spv.getItems().size());
+    }
+
+    /**
+     * Test of getViewRow method, of class SpreadsheetView, when the grid is
+     * sorted.
+     */
+    @Test public void testGetViewRowSorted() {
+        int rowCount = spv.getGrid().getRowCount();
+        spv.setComparator((o1, o2) -> Integer.compare(o2.get(0).getRow(), o1.get(0).getRow()));
+        assertEquals(rowCount - 1, spv.getViewRow(0));
+        assertEquals(0, spv.getViewRow(rowCount - 1));
+        assertEquals(rowCount - 1, spv.getModelRow(0));
+
+        spv.hideRow(rowCount - 1);
+        assertEquals(rowCount - 2, spv.getViewRow(0));
+        assertEquals(0, spv.getViewRow(rowCount - 2));
+
+        spv.setComparator(null);
+        assertEquals(3, spv.getViewRow(3));
+    }
+
+    /**
+     * Test of getViewRow method, of class SpreadsheetView, when rows are
+     * hidden and shown again in a sorted grid, the view indexes being patched
+     * after each change.
+     */
+    @Test public void testGetViewRowSortedHiddenRows() {
+        int rowCount = spv.getGrid().getRowCount();
+        spv.setComparator((o1, o2) -> Integer.compare(o1.get(0).getRow() * 7 % 11, o2.get(0).getRow() * 7 % 11));
+        Random random = new Random(3);
+        for (int step = 0; step < 200; ++step) {
+            int row = random.nextInt(rowCount);
+            if (spv.isRowHidden(row)) {
+                spv.showRow(row);
+            } else {
+                spv.hideRow(row);
+            }
+            for (int modelRow = 0; modelRow < rowCount; ++modelRow) {
+                if (!spv.isRowHidden(modelRow)) {
+                    assertEquals(modelRow, spv.getModelRow(spv.getViewRow(modelRow)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Test of getRowSpan and getReverseRowSpan methods, of class
+     * SpreadsheetView, when the grid is sorted.
+     */
+    @Test public void testRowSpanSorted() {
+        GridBase grid = buildGrid();
+        grid.spanRow(3, 4, 1);
+        spv.setGrid(grid);
+        SpreadsheetCell cell = grid.getRows().get(4).get(1);
+        int rowCount = grid.getRowCount();
+
+        //The rows of the cell stay next to each other.
+        spv.setComparator((o1, o2) -> Integer.compare(o2.get(0).getRow(), o1.get(0).getRow()));
+        int first = spv.getViewRow(6);
+        assertEquals(rowCount - 7, first);
+        assertEquals(3, spv.getRowSpan(cell, first));
+        assertEquals(2, spv.getRowSpan(cell, first + 1));
+        assertEquals(1, spv.getReverseRowSpan(cell, first));
+        assertEquals(3, spv.getReverseRowSpan(cell, first + 2));
+
+        //The sort splits the rows of the cell: 5, 0, 1, 2, 3, 4, 6...
+        spv.setComparator((o1, o2) -> Integer.compare(o1.get(0).getRow() == 5 ? -1 : o1.get(0).getRow(),
+                o2.get(0).getRow() == 5 ? -1 : o2.get(0).getRow()));
+        assertEquals(0, spv.getViewRow(5));
+        assertEquals(1, spv.getRowSpan(cell, 0));
+        assertEquals(1, spv.getReverseRowSpan(cell, 0));
+        assertEquals(2, spv.getRowSpan(cell, 5));
+        assertEquals(2, spv.getReverseRowSpan(cell, 6));
+
+        spv.setComparator(null);
+        assertEquals(3, spv.getRowSpan(cell, 4));
+        assertEquals(3, spv.getReverseRowSpan(cell, 6));
+    }
+
+    /**
+     * Test of stageItem and flushStagedItems methods, of class SpreadsheetView.
+     */
+    @Test public void testStageItem() throws InterruptedException {
+        GridBase grid = buildGrid();
+        SpreadsheetCell cell = SpreadsheetCellType.DOUBLE.createCell(3, 2, 1, 1, 0.0);
+        cell.setFormat("0.00"); //$NON-NLS-1$
+        grid.getRows().get(3).set(2, cell);
+        spv.setGrid(grid);
+
+        Thread feed = new Thread(() -> {
+            for (int i = 1; i <= 50; ++i) {
+                spv.stageItem(cell, (double) i);
+            }
+        });
+        feed.start();
+        feed.join();
+        spv.flushStagedItems();
+
+        assertEquals(50.0, cell.getItem());
+        assertEquals(SpreadsheetCellType.DOUBLE.toString(50.0, "0.00"), cell.getText()); //$NON-NLS-1$
+
+        spv.stageItem(cell, null);
+        spv.flushStagedItems();
+        assertNull(cell.getItem());
+        assertEquals("", cell.getText()); //$NON-NLS-1$
+    }
+
+    /**
+     * The staged items are set through the Grid, so they are converted, the
+     * cells not editable are left untouched and one batch is fired.
+     */
+    @Test public void testStageItemThroughGrid() {
+        GridBase grid = buildGrid();
+        spv.setGrid(grid);
+        SpreadsheetCell readOnly = grid.getRows().get(1).get(1);
+        readOnly.setEditable(false);
+        List<GridChangeBatch> batches = new ArrayList<>();
+        List<GridChange> changes = new ArrayList<>();
+        grid.addEventHandler(GridChangeBatch.GRID_CHANGE_BATCH_EVENT, batches::add);
+        grid.addEventHandler(GridChange.GRID_CHANGE_EVENT, changes::add);
+
+        spv.stageItem(grid.getRows().get(0).get(0), 42);
+        spv.stageItem(readOnly, "ignored"); //$NON-NLS-1$
+        spv.flushStagedItems();
+
+        assertEquals("42", grid.getRows().get(0).get(0).getItem()); //$NON-NLS-1$
+        assertEquals("", readOnly.getItem()); //$NON-NLS-1$
+        assertEquals(1, batches.size());
+        assertEquals(1, batches.get(0).getChangedCellCount());
+        assertEquals(1, changes.size());
+        assertEquals("42", changes.get(0).getNewValue()); //$NON-NLS-1$
+    }
+
+    /**
+     * The items staged while the grid is locked are rejected right away.
+     */
+    @Test public void testStageItemLocked() {
+        GridBase grid = buildGrid();
+        spv.setGrid(grid);
+        SpreadsheetCell cell = grid.getRows().get(0).get(0);
+        grid.setLocked(true);
+        assertFalse(spv.stageItem(cell, "locked")); //$NON-NLS-1$
+        grid.setLocked(false);
+        spv.flushStagedItems();
+        assertEquals("", cell.getItem()); //$NON-NLS-1$
+
+        assertTrue(spv.stageItem(cell, "unlocked")); //$NON-NLS-1$
+        spv.flushStagedItems();
+        assertEquals("unlocked", cell.getItem()); //$NON-NLS-1$
+    }
+
+    /**
+     * Test of getRowSpan, getReverseRowSpan and getColumnSpan methods, of
+     * class SpreadsheetView, with hidden rows and columns.
+     */
+    @Test public void testGetRowSpan() {
+        GridBase grid = buildGrid();
+        grid.spanRow(4, 2, 1);
+        grid.spanColumn(3, 8, 4);
+        spv.setGrid(grid);
+        SpreadsheetCell cell = grid.getRows().get(2).get(1);
+
+        assertEquals(4, spv.getRowSpan(cell, 2));
+        assertEquals(2, spv.getRowSpan(cell, 4));
+        assertEquals(1, spv.getReverseRowSpan(cell, 2));
+        assertEquals(4, spv.getReverseRowSpan(cell, 5));
+
+        spv.hideRow(3);
+        assertEquals(3, spv.getRowSpanFilter(cell));
+        assertEquals(3, spv.getRowSpan(cell, 2));
+        assertEquals(1, spv.getRowSpan(cell, 4));
+        assertEquals(3, spv.getReverseRowSpan(cell, 4));
+
+        SpreadsheetCell columnCell = grid.getRows().get(8).get(4);
+        assertEquals(3, spv.getColumnSpan(columnCell));
+        spv.hideColumn(spv.getColumns().get(5));
+        assertEquals(2, spv.getColumnSpan(columnCell));
+    }
+
     /**
      * Test of getSpanType method, of class SpreadsheetView.
      */
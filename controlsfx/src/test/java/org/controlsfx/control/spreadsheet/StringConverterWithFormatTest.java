@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2014, ControlsFX
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of ControlsFX, any associated website, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL CONTROLSFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.controlsfx.control.spreadsheet;
+
+import java.text.DecimalFormat;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class StringConverterWithFormatTest {
+
+    private Locale defaultLocale;
+
+    @Before
+    public void setUp() {
+        defaultLocale = Locale.getDefault(Locale.Category.FORMAT);
+        Locale.setDefault(Locale.Category.FORMAT, Locale.US);
+    }
+
+    @After
+    public void tearDown() {
+        Locale.setDefault(Locale.Category.FORMAT, defaultLocale);
+    }
+
+    @Test public void testDecimalFormatCached() {
+        DecimalFormat format = StringConverterWithFormat.getDecimalFormat("0.00");
+        assertSame(format, StringConverterWithFormat.getDecimalFormat("0.00"));
+        assertEquals("2.50", format.format(2.5));
+        assertNotSame(format, StringConverterWithFormat.getDecimalFormat("0.0"));
+    }
+
+    @Test public void testDecimalFormatFollowsLocale() {
+        DecimalFormat format = StringConverterWithFormat.getDecimalFormat("0.00");
+        Locale.setDefault(Locale.Category.FORMAT, Locale.FRANCE);
+        DecimalFormat frenchFormat = StringConverterWithFormat.getDecimalFormat("0.00");
+        assertNotSame(format, frenchFormat);
+        assertEquals("2,50", frenchFormat.format(2.5));
+    }
+
+    @Test public void testDecimalFormatPerThread() throws InterruptedException {
+        DecimalFormat format = StringConverterWithFormat.getDecimalFormat("0.00");
+        AtomicReference<DecimalFormat> otherFormat = new AtomicReference<>();
+        Thread thread = new Thread(() -> otherFormat.set(StringConverterWithFormat.getDecimalFormat("0.00")));
+        thread.start();
+        thread.join();
+        assertNotNull(otherFormat.get());
+        assertNotSame(format, otherFormat.get());
+    }
+
+    @Test public void testDateTimeFormatterCached() {
+        DateTimeFormatter formatter = StringConverterWithFormat.getDateTimeFormatter("dd/MM/yyyy");
+        assertSame(formatter, StringConverterWithFormat.getDateTimeFormatter("dd/MM/yyyy"));
+        assertEquals(Locale.US, formatter.getLocale());
+        /**
+         * A DecimalFormat and a DateTimeFormatter with the same pattern must
+         * not be mixed up.
+         */
+        assertNotNull(StringConverterWithFormat.getDecimalFormat("0"));
+        assertNotNull(StringConverterWithFormat.getDateTimeFormatter("0"));
+    }
+
+    @Test public void testCacheBounded() {
+        DecimalFormat format = StringConverterWithFormat.getDecimalFormat("#0");
+        for (int i = 0; i < 64; ++i) {
+            StringConverterWithFormat.getDecimalFormat("#0." + repeat(i + 1));
+        }
+        //The least recently used formatter has been dropped.
+        assertNotSame(format, StringConverterWithFormat.getDecimalFormat("#0"));
+
+        DecimalFormat recent = StringConverterWithFormat.getDecimalFormat("#0.0");
+        assertSame(recent, StringConverterWithFormat.getDecimalFormat("#0.0"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPattern() {
+        StringConverterWithFormat.getDecimalFormat("0.0.0");
+    }
+
+    private static String repeat(int count) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; ++i) {
+            builder.append('0');
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,159 @@
+/**
+ * Copyright (c) 2018 ControlsFX
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of ControlsFX, any associated website, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL CONTROLSFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.controlsfx.control.table;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class DupeCounterTest {
+
+    @Test public void testCounts() {
+        DupeCounter<String> counter = new DupeCounter<>(true);
+        assertEquals(1, counter.add("a"));
+        assertEquals(2, counter.add("a"));
+        assertEquals(1, counter.add(null));
+        assertEquals(2, counter.get("a"));
+        assertEquals(1, counter.get(null));
+        assertEquals(0, counter.get("b"));
+
+        assertEquals(1, counter.remove("a"));
+        assertEquals(0, counter.remove(null));
+        assertEquals(0, counter.get(null));
+        assertEquals(1, counter.values().size());
+        assertEquals("a", counter.values().get(0));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFloorEnforced() {
+        new DupeCounter<String>(true).remove("a");
+    }
+
+    @Test public void testFloorNotEnforced() {
+        DupeCounter<String> counter = new DupeCounter<>(false);
+        assertEquals(0, counter.remove("a"));
+        assertEquals(0, counter.get("a"));
+    }
+
+    /**
+     * Values sharing a few hash codes pile up in clusters: removing some of
+     * them must move back the following ones so that they can still be found,
+     * before and after the table has grown.
+     */
+    @Test public void testCollisions() {
+        Random random = new Random(42);
+        DupeCounter<Key> counter = new DupeCounter<>(true);
+        Map<Key, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 20_000; ++i) {
+            Key key = new Key(random.nextInt(200), random.nextInt(4));
+            if (random.nextInt(3) == 0 && expected.containsKey(key)) {
+                int count = expected.get(key) - 1;
+                if (count == 0) {
+                    expected.remove(key);
+                } else {
+                    expected.put(key, count);
+                }
+                assertEquals(count, counter.remove(key));
+            } else {
+                assertEquals((int) expected.merge(key, 1, Integer::sum), counter.add(key));
+            }
+            if (i % 1000 == 0) {
+                assertSameCounts(expected, counter);
+            }
+        }
+        assertSameCounts(expected, counter);
+
+        //Empty it completely, every value must be found until the end.
+        for (Map.Entry<Key, Integer> entry : expected.entrySet()) {
+            for (int count = entry.getValue() - 1; count >= 0; --count) {
+                assertEquals(count, counter.remove(entry.getKey()));
+            }
+        }
+        assertTrue(counter.values().isEmpty());
+    }
+
+    @Test public void testAddAll() {
+        DupeCounter<Integer> first = new DupeCounter<>(true);
+        DupeCounter<Integer> second = new DupeCounter<>(true);
+        for (int i = 0; i < 100; ++i) {
+            first.add(i);
+            second.add(i * 2);
+        }
+        first.addAll(second);
+        assertEquals(150, first.values().size());
+        assertEquals(2, first.get(10));
+        assertEquals(1, first.get(11));
+        assertEquals(1, first.get(150));
+
+        DupeCounter<Integer> copy = new DupeCounter<>(true);
+        copy.add(-1);
+        copy.setAll(first);
+        assertEquals(0, copy.get(-1));
+        assertEquals(2, copy.get(10));
+        //The copy is independent.
+        copy.remove(10);
+        assertEquals(2, first.get(10));
+    }
+
+    private static void assertSameCounts(Map<Key, Integer> expected, DupeCounter<Key> counter) {
+        assertEquals(expected.keySet(), new HashSet<>(counter.values()));
+        for (Map.Entry<Key, Integer> entry : expected.entrySet()) {
+            assertEquals((int) entry.getValue(), counter.get(entry.getKey()));
+        }
+    }
+
+    /**
+     * A value whose hash code is chosen, so that values collide.
+     */
+    private static final class Key {
+        private final int id;
+        private final int hash;
+
+        Key(int id, int hash) {
+            this.id = id;
+            this.hash = hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Key && ((Key) obj).id == id && ((Key) obj).hash == hash;
+        }
+
+        @Override
+        public String toString() {
+            return id + "#" + hash;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) 2018 ControlsFX
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of ControlsFX, any associated website, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL CONTROLSFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.controlsfx.control.table;
+
+import java.util.BitSet;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class RowSetTest {
+
+    @Test public void testSparse() {
+        RowSet rowSet = new RowSet();
+        assertTrue(rowSet.isEmpty());
+        rowSet.add(5, 100_000);
+        rowSet.add(70_000, 100_000);
+        assertFalse(rowSet.isEmpty());
+
+        assertFalse(rowSet.remove(6));
+        assertTrue(rowSet.remove(5));
+        assertFalse(rowSet.remove(5));
+
+        BitSet rows = allRows(100_000);
+        rowSet.removeFrom(rows);
+        assertFalse(rows.get(70_000));
+        assertTrue(rows.get(5));
+        assertEquals(100_000 - 1, rows.cardinality());
+
+        assertTrue(rowSet.remove(70_000));
+        assertTrue(rowSet.isEmpty());
+    }
+
+    /**
+     * Few rows in total: the set becomes a BitSet once it holds more than the
+     * minimal dense size, and must behave the same afterwards.
+     */
+    @Test public void testSwitchToDense() {
+        RowSet rowSet = new RowSet();
+        BitSet expected = new BitSet();
+        for (int row = 0; row < 64; row += 2) {
+            rowSet.add(row, 100);
+            expected.set(row);
+        }
+        checkRows(expected, rowSet, 100);
+
+        assertTrue(rowSet.remove(10));
+        assertFalse(rowSet.remove(11));
+        expected.clear(10);
+        rowSet.add(99, 100);
+        expected.set(99);
+        checkRows(expected, rowSet, 100);
+
+        for (int row = expected.nextSetBit(0); row >= 0; row = expected.nextSetBit(row + 1)) {
+            assertTrue(rowSet.remove(row));
+        }
+        assertTrue(rowSet.isEmpty());
+    }
+
+    /**
+     * Many rows in total: the set stays an array even with many rows.
+     */
+    @Test public void testStaySparse() {
+        RowSet rowSet = new RowSet();
+        BitSet expected = new BitSet();
+        for (int row = 0; row < 1000; row += 7) {
+            rowSet.add(row, 1_000_000);
+            expected.set(row);
+        }
+        checkRows(expected, rowSet, 1000);
+    }
+
+    @Test public void testRandom() {
+        Random random = new Random(42);
+        for (int run = 0; run < 50; run++) {
+            int rowCapacity = 1 + random.nextInt(2000);
+            RowSet rowSet = new RowSet();
+            BitSet expected = new BitSet();
+            for (int step = 0; step < 500; step++) {
+                int row = random.nextInt(rowCapacity);
+                if (random.nextInt(3) > 0) {
+                    if (!expected.get(row)) {
+                        rowSet.add(row, rowCapacity);
+                        expected.set(row);
+                    }
+                } else {
+                    assertEquals(expected.get(row), rowSet.remove(row));
+                    expected.clear(row);
+                }
+                assertEquals(expected.isEmpty(), rowSet.isEmpty());
+            }
+            checkRows(expected, rowSet, rowCapacity);
+        }
+    }
+
+    private static BitSet allRows(int rowCapacity) {
+        BitSet rows = new BitSet(rowCapacity);
+        rows.set(0, rowCapacity);
+        return rows;
+    }
+
+    private static void checkRows(BitSet expected, RowSet rowSet, int rowCapacity) {
+        BitSet rows = allRows(rowCapacity);
+        rowSet.removeFrom(rows);
+        BitSet expectedRows = allRows(rowCapacity);
+        expectedRows.andNot(expected);
+        assertEquals(expectedRows, rows);
+
+        // each single row, and no row at all
+        for (int row = 0; row < rowCapacity; row++) {
+            BitSet target = new BitSet();
+            target.set(row);
+            assertEquals(expected.get(row), rowSet.intersects(target));
+        }
+        assertFalse(rowSet.intersects(new BitSet()));
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2018 ControlsFX
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of ControlsFX, any associated website, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL CONTROLSFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.controlsfx.control.table;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.BiPredicate;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import org.controlsfx.control.spreadsheet.JavaFXThreadingRule;
+import org.controlsfx.control.table.TableFilterTest.Person;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class SearchIndexTest {
+    @Rule public JavaFXThreadingRule javafxRule = new JavaFXThreadingRule();
+
+    private List<FilterValue<Person, String>> values;
+    private SearchIndex index;
+
+    @Before
+    public void setUp() {
+        ObservableList<Person> persons = FXCollections.observableArrayList();
+        for (String name : new String[]{"Anna", "Annabel", "Hannah", "Joanna", "Bob", "Robert", "ANNE", "Nancy"}) {
+            persons.add(new Person(name));
+        }
+        TableView<Person> tableView = new TableView<>(persons);
+        TableColumn<Person, String> nameColumn = new TableColumn<>("Name");
+        nameColumn.setCellValueFactory(param -> param.getValue().name);
+        tableView.getColumns().add(nameColumn);
+
+        TableFilter<Person> tableFilter = TableFilter.forTableView(tableView).apply();
+        @SuppressWarnings("unchecked")
+        ColumnFilter<Person, String> columnFilter = (ColumnFilter<Person, String>) tableFilter.getColumnFilter(nameColumn).get();
+        values = columnFilter.getFilterValues();
+        index = new SearchIndex(values);
+    }
+
+    @Test public void testPositions() {
+        for (int i = 0; i < values.size(); i++) {
+            assertEquals(i, index.getPosition(values.get(i)));
+        }
+    }
+
+    /**
+     * Each search containing the previous one only tests the previous
+     * matches, it must find the same values as a full search.
+     */
+    @Test public void testNarrowing() {
+        String[] searches = {"a", "an", "ann", "anna", "annab", "n", "nn", "b", "bo", "", "ANN", "Anne"};
+        BitSet previous = null;
+        BitSet previousCopy = null;
+        for (String search : searches) {
+            BitSet matches = index.search(search, ColumnFilter.DEFAULT_SEARCH_STRATEGY);
+            assertEquals(search, expected(search, ColumnFilter.DEFAULT_SEARCH_STRATEGY), matches);
+            // a returned result is never changed by the next searches
+            if (previous != null) {
+                assertEquals(previousCopy, previous);
+            }
+            previous = matches;
+            previousCopy = (BitSet) matches.clone();
+        }
+    }
+
+    /**
+     * Another strategy does not narrow the searches, and the next search with
+     * the default strategy must not narrow from a search it did not make.
+     */
+    @Test public void testOtherStrategy() {
+        BiPredicate<String, String> startsWith = (input, subject) -> subject.startsWith(input);
+        index.search("an", ColumnFilter.DEFAULT_SEARCH_STRATEGY);
+        assertEquals(expected("Ann", startsWith), index.search("Ann", startsWith));
+        assertEquals(expected("anna", ColumnFilter.DEFAULT_SEARCH_STRATEGY),
+                index.search("anna", ColumnFilter.DEFAULT_SEARCH_STRATEGY));
+        assertEquals(expected("Anna", startsWith), index.search("Anna", startsWith));
+    }
+
+    private BitSet expected(String search, BiPredicate<String, String> searchStrategy) {
+        BitSet expected = new BitSet();
+        for (int i = 0; i < values.size(); i++) {
+            if (searchStrategy.test(search, values.get(i).toString())) {
+                expected.set(i);
+            }
+        }
+        return expected;
+    }
+}
@@ -0,0 +1,272 @@
+/**
+ * Copyright (c) 2018 ControlsFX
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of ControlsFX, any associated website, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL CONTROLSFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.controlsfx.control.table;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import javafx.application.Platform;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.value.ChangeListener;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.embed.swing.JFXPanel;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javax.swing.SwingUtilities;
+import org.controlsfx.control.table.TableFilterTest.Person;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests the filters computed off the FX thread, when the values are computed
+ * on demand and when the rows are indexed. The tests wait for the filters to
+ * be published, so they are not run on the FX thread, only their steps are.
+ */
+public class TableFilterRunTest {
+
+    private ObservableList<Person> persons;
+    private TableView<Person> tableView;
+    private TableColumn<Person, String> nameColumn;
+    private TableColumn<Person, String> parityColumn;
+    private TableFilter<Person> tableFilter;
+    private ColumnFilter<Person, ?> columnFilter;
+    private ColumnFilter<Person, ?> parityFilter;
+
+    @BeforeClass
+    public static void setupJavaFX() throws Exception {
+        SwingUtilities.invokeAndWait(JFXPanel::new);
+    }
+
+    @Before
+    public void setUp() {
+        createTableFilter(true);
+    }
+
+    private void createTableFilter(boolean onDemand) {
+        invokeAndWait(() -> {
+            persons = FXCollections.observableArrayList();
+            // more rows than a chunk, so that the filter is not applied right away
+            for (int i = 0; i < 10_000; i++) {
+                persons.add(new Person("n" + (i % 10)));
+            }
+            tableView = new TableView<>(persons);
+            nameColumn = new TableColumn<>("Name");
+            nameColumn.setCellValueFactory(param -> param.getValue().name);
+            parityColumn = new TableColumn<>("Parity");
+            parityColumn.setCellValueFactory(param -> new SimpleStringProperty(
+                    (param.getValue().name.get().charAt(1) - '0') % 2 == 0 ? "even" : "odd"));
+            tableView.getColumns().addAll(nameColumn, parityColumn);
+            tableFilter = TableFilter.forTableView(tableView).onDemand(onDemand).apply();
+            columnFilter = tableFilter.getColumnFilter(nameColumn).get();
+            parityFilter = tableFilter.getColumnFilter(parityColumn).get();
+        });
+    }
+
+    @Test public void testRun() throws InterruptedException {
+        CountDownLatch published = new CountDownLatch(1);
+        invokeAndWait(() -> {
+            tableFilter.unselectValue(nameColumn, "n3");
+            tableFilter.executeFilter(published::countDown);
+            assertTrue(tableFilter.isFiltering());
+            // nothing is published before the run is done
+            assertEquals(10_000, tableView.getItems().size());
+        });
+        assertTrue(published.await(10, TimeUnit.SECONDS));
+        invokeAndWait(() -> {
+            assertFalse(tableFilter.isFiltering());
+            assertEquals(9_000, tableView.getItems().size());
+            assertTrue(tableView.getItems().stream().noneMatch(p -> "n3".equals(p.name.get())));
+            assertFalse(isVisible("n3"));
+            assertTrue(isVisible("n4"));
+        });
+    }
+
+    /**
+     * A run replaced by another one before it is published must never be
+     * published. The runs are done one after the other, so once the last one
+     * is published, the previous one would have been published already.
+     */
+    @Test public void testCancelledRun() throws InterruptedException {
+        AtomicBoolean cancelledPublished = new AtomicBoolean();
+        CountDownLatch published = new CountDownLatch(1);
+        invokeAndWait(() -> {
+            tableFilter.unselectValue(nameColumn, "n3");
+            tableFilter.executeFilter(() -> cancelledPublished.set(true));
+            tableFilter.unselectValue(nameColumn, "n4");
+            tableFilter.executeFilter(published::countDown);
+            assertTrue(tableFilter.isFiltering());
+        });
+        assertTrue(published.await(10, TimeUnit.SECONDS));
+        invokeAndWait(() -> {
+            assertFalse(cancelledPublished.get());
+            assertFalse(tableFilter.isFiltering());
+            assertEquals(8_000, tableView.getItems().size());
+            assertTrue(tableView.getItems().stream().noneMatch(p -> Arrays.asList("n3", "n4").contains(p.name.get())));
+        });
+    }
+
+    @Test public void testResetCancelsRun() throws InterruptedException {
+        AtomicBoolean cancelledPublished = new AtomicBoolean();
+        CountDownLatch published = new CountDownLatch(1);
+        invokeAndWait(() -> {
+            tableFilter.unselectValue(nameColumn, "n3");
+            tableFilter.executeFilter(() -> cancelledPublished.set(true));
+            tableFilter.resetFilter();
+            assertFalse(tableFilter.isFiltering());
+            assertEquals(10_000, tableView.getItems().size());
+
+            tableFilter.unselectValue(nameColumn, "n5");
+            tableFilter.executeFilter(published::countDown);
+        });
+        assertTrue(published.await(10, TimeUnit.SECONDS));
+        invokeAndWait(() -> {
+            assertFalse(cancelledPublished.get());
+            // n3 is still unselected, only the reset filter was dropped
+            assertEquals(8_000, tableView.getItems().size());
+        });
+    }
+
+    /**
+     * Items added while a run is computed are tested when it is published.
+     */
+    @Test public void testItemsAddedDuringRun() throws InterruptedException {
+        CountDownLatch published = new CountDownLatch(1);
+        invokeAndWait(() -> {
+            tableFilter.unselectValue(nameColumn, "n3");
+            tableFilter.executeFilter(published::countDown);
+            persons.addAll(new Person("n3"), new Person("n4"));
+        });
+        assertTrue(published.await(10, TimeUnit.SECONDS));
+        invokeAndWait(() -> {
+            assertEquals(9_001, tableView.getItems().size());
+            assertEquals(Arrays.asList("n4"), tableView.getItems().subList(9_000, 9_001).stream()
+                    .map(p -> p.name.get()).collect(Collectors.toList()));
+        });
+    }
+
+    @Test public void testIndexedRun() throws InterruptedException {
+        createTableFilter(false);
+        CountDownLatch published = new CountDownLatch(1);
+        invokeAndWait(() -> {
+            tableFilter.unselectValue(nameColumn, "n3");
+            tableFilter.executeFilter(published::countDown);
+            assertTrue(tableFilter.isFiltering());
+            assertEquals(10_000, tableView.getItems().size());
+        });
+        assertTrue(published.await(10, TimeUnit.SECONDS));
+        invokeAndWait(() -> {
+            assertFalse(tableFilter.isFiltering());
+            assertEquals(9_000, tableView.getItems().size());
+            assertTrue(tableView.getItems().stream().noneMatch(p -> "n3".equals(p.name.get())));
+        });
+    }
+
+    /**
+     * The index read by an indexed run is outdated once a cell value has
+     * changed, so the filter is applied again when the run is published.
+     */
+    @Test public void testIndexedRunOutdated() throws InterruptedException {
+        createTableFilter(false);
+        CountDownLatch published = new CountDownLatch(1);
+        invokeAndWait(() -> {
+            tableFilter.unselectValue(nameColumn, "n3");
+            tableFilter.executeFilter(published::countDown);
+            persons.get(4).name.set("n3");
+        });
+        assertTrue(published.await(10, TimeUnit.SECONDS));
+        invokeAndWait(() -> {
+            assertEquals(8_999, tableView.getItems().size());
+            assertTrue(tableView.getItems().stream().noneMatch(p -> "n3".equals(p.name.get())));
+        });
+    }
+
+    @Test public void testScopesPublishedWithRun() throws InterruptedException {
+        checkScopesPublishedWithRun();
+    }
+
+    @Test public void testIndexedScopesPublishedWithRun() throws InterruptedException {
+        createTableFilter(false);
+        checkScopesPublishedWithRun();
+    }
+
+    private void checkScopesPublishedWithRun() throws InterruptedException {
+        CountDownLatch published = new CountDownLatch(1);
+        invokeAndWait(() -> {
+            tableFilter.filteringProperty().addListener((ChangeListener<Boolean>) (o, oldValue, filtering) -> {
+                if (!filtering) {
+                    published.countDown();
+                }
+            });
+            tableFilter.unselectValue(parityColumn, "odd");
+            parityFilter.applyFilter();
+            assertTrue(tableFilter.isFiltering());
+            // the scopes are not refreshed before the filter is published
+            assertTrue(isInScope(columnFilter, "n1"));
+        });
+        assertTrue(published.await(10, TimeUnit.SECONDS));
+        invokeAndWait(() -> {
+            assertEquals(5_000, tableView.getItems().size());
+            assertTrue(isInScope(columnFilter, "n2"));
+            assertFalse(isInScope(columnFilter, "n1"));
+            // the values of the last filtered column stay in scope
+            assertTrue(isInScope(parityFilter, "odd"));
+        });
+    }
+
+    private static boolean isInScope(ColumnFilter<Person, ?> filter, String value) {
+        return filter.getFilterValues().stream().filter(fv -> value.equals(fv.getValue())).findAny().get()
+                .getInScopeProperty().get();
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean isVisible(String value) {
+        return ((ColumnFilter<Person, String>) columnFilter).valueIsVisible(value);
+    }
+
+    private static void invokeAndWait(Runnable runnable) {
+        FutureTask<Void> task = new FutureTask<>(runnable, null);
+        Platform.runLater(task);
+        try {
+            task.get();
+        } catch (ExecutionException e) {
+            // a failed assertion must fail the test as such
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
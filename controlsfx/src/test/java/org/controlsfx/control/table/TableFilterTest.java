@@ -0,0 +1,200 @@
+/**
+ * Copyright (c) 2018 ControlsFX
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of ControlsFX, any associated website, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL CONTROLSFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.controlsfx.control.table;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import javafx.beans.Observable;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import org.controlsfx.control.spreadsheet.JavaFXThreadingRule;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class TableFilterTest {
+    @Rule public JavaFXThreadingRule javafxRule = new JavaFXThreadingRule();
+
+    private ObservableList<Person> persons;
+    private TableView<Person> tableView;
+    private TableColumn<Person, String> nameColumn;
+
+    @Before
+    public void setUp() {
+        persons = FXCollections.observableArrayList(p -> new Observable[]{p.name});
+        persons.addAll(new Person("Alice"), new Person("Bob"), new Person("Carol"));
+        tableView = new TableView<>(persons);
+        nameColumn = new TableColumn<>("Name");
+        nameColumn.setCellValueFactory(param -> param.getValue().name);
+        tableView.getColumns().add(nameColumn);
+    }
+
+    @Test public void testRowIds() {
+        TableFilter<Person> tableFilter = TableFilter.forTableView(tableView).apply();
+        assertEquals(0, tableFilter.getRowId(persons.get(0)));
+        assertEquals(1, tableFilter.getRowId(persons.get(1)));
+        assertEquals(2, tableFilter.getRowId(persons.get(2)));
+        assertEquals(-1, tableFilter.getRowId(new Person("Dan")));
+    }
+
+    /**
+     * The id of a removed row is not given again during the same change,
+     * since the ColumnFilters may not have removed it from their index yet.
+     * It is given again at the next change.
+     */
+    @Test public void testRowIdReuse() {
+        TableFilter<Person> tableFilter = TableFilter.forTableView(tableView).apply();
+        Person bob = persons.get(1);
+        Person dan = new Person("Dan");
+        persons.set(1, dan);
+        assertEquals(-1, tableFilter.getRowId(bob));
+        assertEquals(3, tableFilter.getRowId(dan));
+
+        Person eve = new Person("Eve");
+        persons.add(eve);
+        assertEquals(1, tableFilter.getRowId(eve));
+        assertEquals(4, tableFilter.getRowCapacity());
+
+        // the reused row must hold the values of its new item only
+        tableFilter.unselectValue(nameColumn, "Dan");
+        tableFilter.executeFilter();
+        assertEquals(names("Alice", "Carol", "Eve"), names(tableView.getItems()));
+        tableFilter.selectValue(nameColumn, "Dan");
+        tableFilter.unselectValue(nameColumn, "Eve");
+        tableFilter.executeFilter();
+        assertEquals(names("Alice", "Dan", "Carol"), names(tableView.getItems()));
+    }
+
+    @Test public void testDuplicateItems() {
+        TableFilter<Person> tableFilter = TableFilter.forTableView(tableView).apply();
+        Person bob = persons.get(1);
+        persons.add(bob);
+        assertEquals(1, tableFilter.getRowId(bob));
+        assertEquals(3, tableFilter.getRowCapacity());
+
+        tableFilter.unselectValue(nameColumn, "Bob");
+        tableFilter.executeFilter();
+        assertEquals(names("Alice", "Carol"), names(tableView.getItems()));
+
+        // one copy is left, the row keeps its id and stays filtered
+        persons.remove(3);
+        assertEquals(1, tableFilter.getRowId(bob));
+        tableFilter.executeFilter();
+        assertEquals(names("Alice", "Carol"), names(tableView.getItems()));
+
+        persons.remove(bob);
+        assertEquals(-1, tableFilter.getRowId(bob));
+        ColumnFilter<Person, ?> columnFilter = tableFilter.getColumnFilter(nameColumn).get();
+        assertEquals(names("Alice", "Carol"), values(columnFilter));
+    }
+
+    @Test public void testCellEdit() {
+        TableFilter<Person> tableFilter = TableFilter.forTableView(tableView).apply();
+        tableFilter.unselectValue(nameColumn, "Bob");
+        tableFilter.executeFilter();
+        assertEquals(names("Alice", "Carol"), names(tableView.getItems()));
+
+        persons.get(0).name.set("Bob");
+        assertEquals(names("Carol"), names(tableView.getItems()));
+        tableFilter.executeFilter();
+        assertEquals(names("Carol"), names(tableView.getItems()));
+
+        persons.get(0).name.set("Alice");
+        tableFilter.executeFilter();
+        assertEquals(names("Alice", "Carol"), names(tableView.getItems()));
+    }
+
+    /**
+     * The values computed on demand are only scanned again when the filter
+     * is initialized after a change of the backing list.
+     */
+    @Test public void testOnDemandRescan() {
+        TableFilter<Person> tableFilter = TableFilter.forTableView(tableView).onDemand(true).apply();
+        ColumnFilter<Person, ?> columnFilter = tableFilter.getColumnFilter(nameColumn).get();
+        assertEquals(names("Alice", "Bob", "Carol"), values(columnFilter));
+        FilterValue<Person, ?> alice = getFilterValue(columnFilter, "Alice");
+
+        persons.remove(1);
+        persons.add(new Person("Dan"));
+        assertEquals(names("Alice", "Bob", "Carol"), values(columnFilter));
+
+        columnFilter.initialize();
+        assertEquals(names("Alice", "Carol", "Dan"), values(columnFilter));
+        // the values still present keep their FilterValue, and so their selection
+        assertSame(alice, getFilterValue(columnFilter, "Alice"));
+    }
+
+    /**
+     * The values computed on demand over several chunks of rows are counted
+     * in parallel, and merged.
+     */
+    @Test public void testOnDemandChunks() {
+        persons.clear();
+        for (int i = 0; i < 2 * TableFilter.CHUNK_SIZE + 1; i++) {
+            persons.add(new Person("n" + (i % 7)));
+        }
+        TableFilter<Person> tableFilter = TableFilter.forTableView(tableView).onDemand(true).apply();
+        @SuppressWarnings("unchecked")
+        ColumnFilter<Person, String> columnFilter = (ColumnFilter<Person, String>) tableFilter.getColumnFilter(nameColumn).get();
+        assertEquals(names("n0", "n1", "n2", "n3", "n4", "n5", "n6"), values(columnFilter));
+        assertTrue(columnFilter.valueIsVisible("n6"));
+        assertFalse(columnFilter.valueIsVisible("n7"));
+    }
+
+    private static List<String> names(String... names) {
+        return Arrays.asList(names);
+    }
+
+    private static List<String> names(List<Person> persons) {
+        return persons.stream().map(p -> p.name.get()).collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the sorted values of the given ColumnFilter.
+     */
+    private static List<String> values(ColumnFilter<Person, ?> columnFilter) {
+        return columnFilter.getFilterValues().stream().map(FilterValue::toString).sorted().collect(Collectors.toList());
+    }
+
+    private static FilterValue<Person, ?> getFilterValue(ColumnFilter<Person, ?> columnFilter, String value) {
+        return columnFilter.getFilterValues().stream().filter(v -> value.equals(v.getValue())).findAny().get();
+    }
+
+    static final class Person {
+        final StringProperty name;
+
+        Person(String name) {
+            this.name = new SimpleStringProperty(name);
+        }
+    }
+}